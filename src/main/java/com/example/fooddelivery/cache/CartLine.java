@@ -0,0 +1,19 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.pricing.Money;
+
+public record CartLine(Long id,
+                       Long itemId,
+                       Long itemOptionId,
+                       Integer quantity,
+                       long priceMinor,
+                       Integer preparationMinutes
+) {
+    public CartLine withQuantity(Integer quantity) {
+        return new CartLine(id, itemId, itemOptionId, quantity, priceMinor, preparationMinutes);
+    }
+
+    public long totalMinor() {
+        return Money.times(priceMinor, quantity);
+    }
+}
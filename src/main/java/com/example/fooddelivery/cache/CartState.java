@@ -0,0 +1,73 @@
+package com.example.fooddelivery.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+//subtotalMinor - сумма строк в копейках, пересчитывается по разнице при каждом изменении корзины
+public record CartState(Long id,
+                        Long userId,
+                        Long restaurantId,
+                        List<CartLine> items,
+                        long subtotalMinor
+) {
+    public CartState {
+        items = List.copyOf(items);
+    }
+
+    public CartState(Long id, Long userId, Long restaurantId, List<CartLine> items) {
+        this(id, userId, restaurantId, items, sum(items));
+    }
+
+    public Optional<CartLine> findLine(Long lineId) {
+        return items.stream().filter(line -> line.id().equals(lineId)).findFirst();
+    }
+
+    public Optional<CartLine> findLineByOption(Long itemOptionId) {
+        return items.stream().filter(line -> line.itemOptionId().equals(itemOptionId)).findFirst();
+    }
+
+    public CartState withLine(Long restaurantId, CartLine line) {
+        List<CartLine> updated = new ArrayList<>(items.size() + 1);
+        long subtotal = subtotalMinor + line.totalMinor();
+        boolean replaced = false;
+        for (CartLine existing : items) {
+            if (existing.id().equals(line.id())) {
+                subtotal -= existing.totalMinor();
+                updated.add(line);
+                replaced = true;
+            } else {
+                updated.add(existing);
+            }
+        }
+        if (!replaced) {
+            updated.add(line);
+        }
+        return new CartState(id, userId, restaurantId, updated, subtotal);
+    }
+
+    public CartState withoutLine(Long lineId) {
+        List<CartLine> updated = new ArrayList<>(items.size());
+        long subtotal = subtotalMinor;
+        for (CartLine line : items) {
+            if (line.id().equals(lineId)) {
+                subtotal -= line.totalMinor();
+            } else {
+                updated.add(line);
+            }
+        }
+        return new CartState(id, userId, updated.isEmpty() ? null : restaurantId, updated, subtotal);
+    }
+
+    public CartState cleared() {
+        return new CartState(id, userId, null, List.of(), 0);
+    }
+
+    private static long sum(List<CartLine> items) {
+        long subtotal = 0;
+        for (CartLine line : items) {
+            subtotal += line.totalMinor();
+        }
+        return subtotal;
+    }
+}
@@ -0,0 +1,410 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.config.CartStoreProperties;
+import com.example.fooddelivery.entity.Cart;
+import com.example.fooddelivery.entity.CartItem;
+import com.example.fooddelivery.entity.ItemOption;
+import com.example.fooddelivery.entity.User;
+import com.example.fooddelivery.event.MenuChangedEvent;
+import com.example.fooddelivery.pricing.Money;
+import com.example.fooddelivery.repository.*;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CartStore {
+    //совпадает с increment by последовательности cart_items_seq в schema.sql
+    private static final int LINE_ID_BLOCK = 50;
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ItemRepository itemRepository;
+    private final ItemOptionRepository itemOptionRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final CartStoreProperties properties;
+    private final Clock clock;
+
+    private final Map<Long, Entry> carts = new ConcurrentHashMap<>();
+    private final Map<Long, Long> userByCart = new ConcurrentHashMap<>();
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<Long, CompletableFuture<Void>> expiring = new ConcurrentHashMap<>();
+    private long nextLineId;
+    private long lineIdLimit;
+
+    public Optional<CartState> find(Long userId) {
+        Entry entry = carts.get(userId);
+        if (entry != null) {
+            return Optional.of(entry.state());
+        }
+        return load(userId).map(Entry::state);
+    }
+
+    public CartState getOrCreate(Long userId) {
+        Optional<CartState> found = find(userId);
+        while (found.isEmpty()) {
+            Entry created = cache(create(userId));
+            found = created != null ? Optional.of(created.state()) : find(userId);
+        }
+        return found.get();
+    }
+
+    //изменение применяется к снимку в памяти, запись в carts/cart_items откладывается до flush
+    public CartState update(Long userId, UnaryOperator<CartState> change) {
+        Entry updated;
+        do {
+            getOrCreate(userId);
+            //отметка ставится под той же блокировкой, иначе evictIfClean выгрузит корзину между ними
+            updated = carts.computeIfPresent(userId, (id, entry) -> {
+                Entry next = new Entry(change.apply(entry.state()), clock.millis());
+                dirty.add(id);
+                return next;
+            });
+        } while (updated == null);
+        return updated.state();
+    }
+
+    //изменение одной строки: если строки нет или количество не изменилось, корзина не помечается к записи
+    public Optional<CartState> updateLine(Long userId, Long lineId, UnaryOperator<CartLine> change) {
+        boolean[] found = new boolean[1];
+        Entry updated;
+        do {
+            if (find(userId).isEmpty()) {
+                return Optional.empty();
+            }
+            updated = carts.computeIfPresent(userId, (id, entry) -> {
+                CartState current = entry.state();
+                Optional<CartLine> line = current.findLine(lineId);
+                found[0] = line.isPresent();
+                if (line.isEmpty()) {
+                    return entry;
+                }
+
+                CartLine next = change.apply(line.get());
+                if (next.equals(line.get())) {
+                    return new Entry(current, clock.millis());
+                }
+                dirty.add(id);
+                return new Entry(current.withLine(current.restaurantId(), next), clock.millis());
+            });
+        } while (updated == null);
+        return found[0] ? Optional.of(updated.state()) : Optional.empty();
+    }
+
+    public boolean hasPendingChanges(Long userId) {
+        return dirty.contains(userId);
+    }
+
+    //до конца транзакции удаления корзина не перечитывается из еще не удаленной строки
+    public boolean evictIfClean(Long userId) {
+        CompletableFuture<Void> expired = new CompletableFuture<>();
+        boolean[] clean = {true};
+        carts.compute(userId, (id, entry) -> {
+            if (dirty.contains(id)) {
+                clean[0] = false;
+                return entry;
+            }
+            if (entry != null) {
+                userByCart.remove(entry.state().id());
+            }
+            expiring.put(id, expired);
+            return null;
+        });
+        if (!clean[0]) {
+            return false;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    finishExpiry(userId, expired);
+                }
+            });
+        } else {
+            finishExpiry(userId, expired);
+        }
+        return true;
+    }
+
+    //id нужен клиенту до записи, поэтому берется из последовательности блоками
+    public synchronized long nextLineId() {
+        if (nextLineId == lineIdLimit) {
+            nextLineId = cartItemRepository.nextIdBlock();
+            lineIdLimit = nextLineId + LINE_ID_BLOCK;
+        }
+        return nextLineId++;
+    }
+
+    //вызывается в транзакции оформления заказа, чтобы заказ видел актуальное содержимое корзины
+    public void flush(Long cartId) {
+        Long userId = userByCart.get(cartId);
+        if (userId != null) {
+            write(userId);
+        }
+    }
+
+    public void evict(Long userId) {
+        remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    remove(userId);
+                }
+            });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval:PT1S}")
+    public void flushAll() {
+        for (Long userId : List.copyOf(dirty)) {
+            try {
+                newTransaction().executeWithoutResult(status -> write(userId));
+            } catch (DataIntegrityViolationException e) {
+                //незаписанные изменения сохраняются: убираются только строки удаленных из меню опций
+                log.warn("Cart of user {} references deleted menu items, dropping them before the next flush", userId, e);
+                retainExistingOptions(userId);
+            } catch (RuntimeException e) {
+                log.warn("Failed to flush cart of user {}", userId, e);
+            }
+        }
+
+        long idleSince = clock.millis() - properties.idleTimeout().toMillis();
+        carts.forEach((userId, entry) -> {
+            if (!dirty.contains(userId) && entry.accessedAt() < idleSince && carts.remove(userId, entry)) {
+                userByCart.remove(entry.state().id());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+    }
+
+    //у оставшихся строк обновляются цена и время приготовления
+    @TransactionalEventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        List<Long> affected = carts.entrySet().stream()
+                .filter(entry -> event.restaurantId().equals(entry.getValue().state().restaurantId()))
+                .map(Map.Entry::getKey)
+                .toList();
+        if (affected.isEmpty()) {
+            return;
+        }
+
+        Set<Long> optionIds = affected.stream()
+                .map(carts::get)
+                .filter(Objects::nonNull)
+                .flatMap(entry -> entry.state().items().stream())
+                .map(CartLine::itemOptionId)
+                .collect(Collectors.toCollection(HashSet::new));
+        Map<Long, ItemOption> options = loadOptions(optionIds);
+
+        for (Long userId : affected) {
+            applyOptions(userId, optionIds, options);
+        }
+    }
+
+    private void retainExistingOptions(Long userId) {
+        Entry entry = carts.get(userId);
+        if (entry == null) {
+            return;
+        }
+        Set<Long> optionIds = entry.state().items().stream()
+                .map(CartLine::itemOptionId)
+                .collect(Collectors.toCollection(HashSet::new));
+        applyOptions(userId, optionIds, loadOptions(optionIds));
+    }
+
+    //строки, добавленные после снимка, не должны пропасть как удаленные
+    private void applyOptions(Long userId, Set<Long> optionIds, Map<Long, ItemOption> options) {
+        Set<Long> missing = new HashSet<>();
+        do {
+            options.putAll(loadOptions(missing));
+            optionIds.addAll(missing);
+            missing.clear();
+            carts.computeIfPresent(userId, (id, entry) -> {
+                CartState state = entry.state();
+                state.items().stream()
+                        .map(CartLine::itemOptionId)
+                        .filter(optionId -> !optionIds.contains(optionId))
+                        .forEach(missing::add);
+                if (!missing.isEmpty()) {
+                    return entry;
+                }
+                List<CartLine> lines = state.items().stream()
+                        .filter(line -> options.containsKey(line.itemOptionId()))
+                        .map(line -> {
+                            ItemOption option = options.get(line.itemOptionId());
+                            return new CartLine(line.id(), line.itemId(), line.itemOptionId(), line.quantity(),
+                                    Money.toMinor(option.getPrice()), option.getPreparationMinutes());
+                        })
+                        .toList();
+                Long restaurantId = lines.isEmpty() ? null : state.restaurantId();
+                if (restaurantId == null) {
+                    dirty.add(id);
+                }
+                return new Entry(new CartState(state.id(), state.userId(), restaurantId, lines), entry.accessedAt());
+            });
+        } while (!missing.isEmpty());
+    }
+
+    private Map<Long, ItemOption> loadOptions(Set<Long> optionIds) {
+        if (optionIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        return itemOptionRepository.findAllById(optionIds).stream()
+                .collect(Collectors.toMap(ItemOption::getId, Function.identity()));
+    }
+
+    private void write(Long userId) {
+        if (!dirty.remove(userId)) {
+            return;
+        }
+        Entry entry = carts.get(userId);
+        if (entry == null) {
+            return;
+        }
+
+        try {
+            persist(entry.state());
+        } catch (RuntimeException e) {
+            dirty.add(userId);
+            throw e;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        dirty.add(userId);
+                    }
+                }
+            });
+        }
+    }
+
+    private void persist(CartState state) {
+        Optional<Cart> found = cartRepository.findWithItemsById(state.id());
+        if (found.isEmpty()) {
+            //корзина удалена по истечении срока хранения, следующее обращение создаст новую
+            log.warn("Cart {} of user {} no longer exists and was dropped from memory", state.id(), state.userId());
+            remove(state.userId());
+            return;
+        }
+        Cart cart = found.get();
+
+        //строки не меняют саму корзину, а updated_at нужен для отбора брошенных корзин
+        cart.setUpdatedAt(LocalDateTime.now(clock));
+        cart.setRestaurant(state.restaurantId() == null ? null : restaurantRepository.getReferenceById(state.restaurantId()));
+
+        Map<Long, CartItem> existing = cart.getItems().stream()
+                .collect(Collectors.toMap(CartItem::getId, Function.identity()));
+        for (CartLine line : state.items()) {
+            CartItem cartItem = existing.remove(line.id());
+            if (cartItem == null) {
+                cartItem = new CartItem();
+                cartItem.setId(line.id());
+                cartItem.setCart(cart);
+                cartItem.setItem(itemRepository.getReferenceById(line.itemId()));
+                cartItem.setItemOption(itemOptionRepository.getReferenceById(line.itemOptionId()));
+                cart.getItems().add(cartItem);
+            }
+            cartItem.setQuantity(line.quantity());
+        }
+        cart.getItems().removeAll(existing.values());
+    }
+
+    private CartState create(Long userId) {
+        //корзина создается сразу в отдельной транзакции: ее id отдается клиенту и используется при оформлении заказа
+        return newTransaction().execute(status -> {
+            Cart cart = new Cart();
+            User user = new User();
+            user.setId(userId);
+            cart.setUser(user);
+            return toState(cartRepository.save(cart));
+        });
+    }
+
+    private Optional<Entry> load(Long userId) {
+        while (true) {
+            CompletableFuture<Void> expired = expiring.get(userId);
+            if (expired != null) {
+                expired.join();
+            }
+            Optional<CartState> loaded = cartRepository.findWithItemsByUserId(userId).map(this::toState);
+            if (loaded.isEmpty()) {
+                return Optional.empty();
+            }
+            Entry cached = cache(loaded.get());
+            if (cached != null) {
+                return Optional.of(cached);
+            }
+        }
+    }
+
+    //null, если корзину пользователя начали удалять после чтения: снимок мог устареть
+    private Entry cache(CartState state) {
+        Entry cached = carts.compute(state.userId(), (id, entry) ->
+                entry != null || expiring.containsKey(id) ? entry : new Entry(state, clock.millis()));
+        if (cached != null) {
+            userByCart.put(cached.state().id(), state.userId());
+        }
+        return cached;
+    }
+
+    private void finishExpiry(Long userId, CompletableFuture<Void> expired) {
+        expiring.remove(userId, expired);
+        expired.complete(null);
+    }
+
+    private void remove(Long userId) {
+        Entry entry = carts.remove(userId);
+        dirty.remove(userId);
+        if (entry != null) {
+            userByCart.remove(entry.state().id());
+        }
+    }
+
+    private CartState toState(Cart cart) {
+        List<CartLine> lines = cart.getItems().stream()
+                .sorted(Comparator.comparing(CartItem::getId))
+                .map(item -> new CartLine(item.getId(), item.getItem().getId(), item.getItemOption().getId(),
+                        item.getQuantity(), Money.toMinor(item.getItemOption().getPrice()), item.getItemOption().getPreparationMinutes()))
+                .toList();
+        Long restaurantId = cart.getRestaurant() == null ? null : cart.getRestaurant().getId();
+        return new CartState(cart.getId(), cart.getUser().getId(), restaurantId, lines);
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private record Entry(CartState state, long accessedAt) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.dto.response.OrderResponse;
+import com.example.fooddelivery.event.OrderStatusChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+//активные заказы курьера; список сбрасывается после коммита любого перехода заказа этого курьера
+@Component
+public class CourierActiveOrdersCache {
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public List<OrderResponse> get(Long courierId, Supplier<List<OrderResponse>> loader) {
+        Entry current = entries.get(courierId);
+        if (current != null && current.orders() != null) {
+            return current.orders();
+        }
+
+        List<OrderResponse> orders = loader.get();
+        //если статус сменился, пока заказы читались из БД, прочитанный список мог устареть и не кэшируется
+        entries.compute(courierId, (id, latest) -> latest == current ? new Entry(orders) : latest);
+        return orders;
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        if (event.courierId() != null) {
+            entries.put(event.courierId(), new Entry(null));
+        }
+    }
+
+    private record Entry(List<OrderResponse> orders) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.repository.CourierRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CourierLoadIndex {
+    private final CourierRepository courierRepository;
+
+    private volatile Double load;
+
+    public double getLoad() {
+        Double current = load;
+        if (current == null) {
+            refresh();
+            current = load;
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelay = 30000)
+    public void refresh() {
+        long total = courierRepository.count();
+        long busy = courierRepository.countByCurrentOrdersAmountGreaterThan(0);
+        load = total == 0 ? 0.0 : (double) busy / total;
+    }
+}
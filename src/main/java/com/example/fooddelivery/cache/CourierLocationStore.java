@@ -0,0 +1,74 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.config.CourierLocationProperties;
+import com.example.fooddelivery.entity.CourierLocation;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.repository.CourierLocationRepository;
+import com.example.fooddelivery.repository.CourierRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+//пинги пишутся только в память, в courier_locations периодически уходит прореженный трек
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CourierLocationStore {
+    private final CourierRepository courierRepository;
+    private final CourierLocationRepository courierLocationRepository;
+    private final CourierLocationProperties properties;
+    private final Clock clock;
+
+    private final Map<Long, CourierTrack> tracks = new ConcurrentHashMap<>();
+
+    public void append(Long courierId, List<LocationPoint> points) {
+        CourierTrack track = tracks.get(courierId);
+        if (track == null) {
+            //курьер проверяется в БД только при первом пинге, дальше запись идет только в память
+            if (!courierRepository.existsById(courierId)) {
+                throw new EntityNotFoundException(String.format("Courier with id %d not found", courierId));
+            }
+            track = tracks.computeIfAbsent(courierId, id -> new CourierTrack(properties.bufferSize()));
+        }
+        points.forEach(track::add);
+    }
+
+    public Optional<CourierTrack> find(Long courierId) {
+        return Optional.ofNullable(tracks.get(courierId));
+    }
+
+    @Scheduled(fixedDelayString = "${couriers.location.snapshot-interval:PT30S}")
+    public void snapshot() {
+        List<CourierLocation> locations = new ArrayList<>();
+        Map<CourierTrack, LocationPoint> lastSamples = new HashMap<>();
+        tracks.forEach((courierId, track) -> {
+            List<LocationPoint> samples = track.pendingSamples(properties.sampleInterval());
+            for (LocationPoint point : samples) {
+                locations.add(new CourierLocation(courierId, point.latitude(), point.longitude(), point.recordedAt()));
+            }
+            if (!samples.isEmpty()) {
+                lastSamples.put(track, samples.get(samples.size() - 1));
+            }
+        });
+
+        if (!locations.isEmpty()) {
+            try {
+                courierLocationRepository.saveAll(locations);
+            } catch (RuntimeException e) {
+                log.warn("Failed to store {} courier locations, will retry", locations.size(), e);
+                return;
+            }
+            lastSamples.forEach(CourierTrack::markStored);
+        }
+
+        //курьер давно не присылал точки: трек убирается из памяти и дальше читается из БД
+        LocalDateTime idleSince = LocalDateTime.now(clock).minus(properties.trackWindow());
+        tracks.values().removeIf(track -> track.latest() == null || track.latest().recordedAt().isBefore(idleSince));
+    }
+}
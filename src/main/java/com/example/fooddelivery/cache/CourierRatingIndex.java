@@ -0,0 +1,127 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.config.CourierRatingProperties;
+import com.example.fooddelivery.event.CourierRatedEvent;
+import com.example.fooddelivery.repository.CourierRatingRepository;
+import com.example.fooddelivery.repository.CourierRepository;
+import com.example.fooddelivery.repository.projection.CourierRatingTotalsView;
+import com.example.fooddelivery.repository.projection.CourierRatingView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+//недавние оценки курьеров для назначения заказов, раз в сутки пересчитываются с нуля
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CourierRatingIndex {
+    private final CourierRatingRepository courierRatingRepository;
+    private final CourierRepository courierRepository;
+    private final CourierRatingProperties properties;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Object lock = new Object();
+    private volatile Map<Long, RatingAggregate> aggregates = new ConcurrentHashMap<>();
+    private List<CourierRatedEvent> replay;
+
+    public OptionalDouble getRecentScore(Long courierId) {
+        RatingAggregate aggregate = aggregates.get(courierId);
+        return aggregate == null ? OptionalDouble.empty() : OptionalDouble.of(aggregate.recentScore());
+    }
+
+    @TransactionalEventListener
+    public void onCourierRated(CourierRatedEvent event) {
+        synchronized (lock) {
+            apply(aggregates, event);
+            if (replay != null) {
+                replay.add(event);
+            }
+        }
+    }
+
+    //id выдаются до коммита: оценка с id <= maxId может закоммититься уже после чтения
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${couriers.rating.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        synchronized (lock) {
+            replay = new ArrayList<>();
+        }
+        try {
+            long maxId = Objects.requireNonNullElse(courierRatingRepository.findMaxId(), 0L);
+            Map<Long, RatingAggregate> rebuilt = new ConcurrentHashMap<>();
+            //бит на каждый id до maxId: дешевле множества Long при миллионах оценок
+            BitSet streamed = new BitSet();
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            transaction.setReadOnly(true);
+            transaction.executeWithoutResult(status -> {
+                try (Stream<CourierRatingView> ratings = courierRatingRepository.streamUpTo(maxId)) {
+                    ratings.forEach(rating -> {
+                        streamed.set(Math.toIntExact(rating.getId()));
+                        rebuilt.compute(rating.getCourierId(), (id, current) ->
+                                (current == null ? RatingAggregate.EMPTY : current)
+                                        .plus(rating.getScore(), rating.getRatedAt(), properties.halfLife()));
+                    });
+                }
+            });
+
+            synchronized (lock) {
+                replay.stream()
+                        .filter(event -> event.ratingId() > maxId || !streamed.get(Math.toIntExact(event.ratingId())))
+                        .forEach(event -> apply(rebuilt, event));
+                long drifted = rebuilt.entrySet().stream()
+                        .filter(entry -> !sameTotals(entry.getValue(), aggregates.get(entry.getKey())))
+                        .count();
+                if (drifted > 0) {
+                    log.warn("Courier ratings drifted for {} couriers, replaced with recomputed values", drifted);
+                }
+                aggregates = rebuilt;
+            }
+            log.info("Recomputed ratings of {} couriers", rebuilt.size());
+        } finally {
+            synchronized (lock) {
+                replay = null;
+            }
+        }
+        repairTotals();
+    }
+
+    //под блокировкой курьера новая оценка не закоммитится между подсчетом и записью
+    private void repairTotals() {
+        List<Long> courierIds = courierRepository.findIdsWithDriftedRatingTotals();
+        if (courierIds.isEmpty()) {
+            return;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        for (Long courierId : courierIds) {
+            transaction.executeWithoutResult(status -> courierRepository.findLockedById(courierId).ifPresent(courier -> {
+                CourierRatingTotalsView totals = courierRatingRepository.findTotalsByCourierId(courierId);
+                courier.setRatingTotals(totals.getSum(), Math.toIntExact(totals.getCount()));
+            }));
+        }
+        log.warn("Courier rating totals drifted for {} couriers, rewritten from ratings", courierIds.size());
+    }
+
+    private void apply(Map<Long, RatingAggregate> target, CourierRatedEvent event) {
+        target.compute(event.courierId(), (id, current) ->
+                (current == null ? RatingAggregate.EMPTY : current).plus(event.score(), event.ratedAt(), properties.halfLife()));
+    }
+
+    private static boolean sameTotals(RatingAggregate rebuilt, RatingAggregate current) {
+        return current != null && current.sum() == rebuilt.sum() && current.count() == rebuilt.count();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.fooddelivery.cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+//кольцевой буфер последних точек курьера: запись без блокировок, самые старые точки перезаписываются
+public class CourierTrack {
+    private final AtomicReferenceArray<LocationPoint> points;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicReference<LocationPoint> latest = new AtomicReference<>();
+
+    private volatile LocalDateTime lastStoredAt = LocalDateTime.MIN;
+
+    public CourierTrack(int capacity) {
+        points = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(LocationPoint point) {
+        long index = sequence.getAndIncrement();
+        points.set((int) (index % points.length()), point);
+        //пинги могут прийти не по порядку, текущей считается самая поздняя точка
+        latest.accumulateAndGet(point, (current, next) ->
+                current == null || next.recordedAt().isAfter(current.recordedAt()) ? next : current);
+    }
+
+    public LocationPoint latest() {
+        return latest.get();
+    }
+
+    public List<LocationPoint> since(LocalDateTime from) {
+        List<LocationPoint> result = new ArrayList<>();
+        for (int i = 0; i < points.length(); i++) {
+            LocationPoint point = points.get(i);
+            if (point != null && point.recordedAt().isAfter(from)) {
+                result.add(point);
+            }
+        }
+        result.sort(Comparator.comparing(LocationPoint::recordedAt));
+        return result;
+    }
+
+    //несохраненные точки, не чаще одной за interval
+    List<LocationPoint> pendingSamples(Duration interval) {
+        List<LocationPoint> samples = new ArrayList<>();
+        LocalDateTime next = lastStoredAt.equals(LocalDateTime.MIN) ? LocalDateTime.MIN : lastStoredAt.plus(interval);
+        for (LocationPoint point : since(lastStoredAt)) {
+            if (!point.recordedAt().isBefore(next)) {
+                samples.add(point);
+                next = point.recordedAt().plus(interval);
+            }
+        }
+        return samples;
+    }
+
+    void markStored(LocationPoint lastSample) {
+        lastStoredAt = lastSample.recordedAt();
+    }
+}
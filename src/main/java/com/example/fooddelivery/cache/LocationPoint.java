@@ -0,0 +1,6 @@
+package com.example.fooddelivery.cache;
+
+import java.time.LocalDateTime;
+
+public record LocationPoint(double latitude, double longitude, LocalDateTime recordedAt) {
+}
@@ -0,0 +1,98 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.event.MenuChangedEvent;
+import com.example.fooddelivery.repository.ItemRepository;
+import com.example.fooddelivery.repository.projection.ItemAvailabilityView;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.LongStream;
+
+//поколение ресторана растет с каждым изменением меню, устаревший снимок в индекс не попадает
+@Component
+@RequiredArgsConstructor
+public class MenuAvailabilityIndex {
+    private final ItemRepository itemRepository;
+
+    private final Map<Long, Long> restaurantByItem = new ConcurrentHashMap<>();
+    private final Map<Long, RestaurantAvailability> restaurants = new ConcurrentHashMap<>();
+    private final Map<Long, Long> generations = new ConcurrentHashMap<>();
+
+    public boolean isAvailable(Long itemId) {
+        Long restaurantId = restaurantByItem.computeIfAbsent(itemId, id -> itemRepository.findRestaurantIdById(id).orElse(null));
+        if (restaurantId == null) {
+            return false;
+        }
+
+        RestaurantAvailability availability = restaurants.get(restaurantId);
+        if (availability == null || !availability.contains(itemId)) {
+            availability = reload(restaurantId);
+        }
+        return availability.isAvailable(itemId);
+    }
+
+    public List<Long> findUnavailable(Collection<Long> itemIds) {
+        List<Long> unavailable = new ArrayList<>();
+        for (Long itemId : itemIds) {
+            if (!isAvailable(itemId)) {
+                unavailable.add(itemId);
+            }
+        }
+        return unavailable;
+    }
+
+    @TransactionalEventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        restaurants.compute(event.restaurantId(), (id, current) -> {
+            generations.merge(id, 1L, Long::sum);
+            return null;
+        });
+        event.itemIds().forEach(restaurantByItem::remove);
+    }
+
+    //устаревший снимок все равно отвечает на текущий запрос
+    private RestaurantAvailability reload(Long restaurantId) {
+        long generation = generations.getOrDefault(restaurantId, 0L);
+        RestaurantAvailability availability = load(restaurantId);
+        restaurants.compute(restaurantId, (id, current) -> {
+            if (generations.getOrDefault(id, 0L) != generation) {
+                return current;
+            }
+            availability.items().forEach(itemId -> restaurantByItem.put(itemId, id));
+            return availability;
+        });
+        return availability;
+    }
+
+    private RestaurantAvailability load(Long restaurantId) {
+        List<ItemAvailabilityView> items = new ArrayList<>(itemRepository.findAvailabilityByRestaurantId(restaurantId));
+        items.sort(Comparator.comparing(ItemAvailabilityView::getId));
+
+        long[] ids = new long[items.size()];
+        BitSet available = new BitSet(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            ItemAvailabilityView item = items.get(i);
+            ids[i] = item.getId();
+            available.set(i, item.isAvailable());
+        }
+        return new RestaurantAvailability(ids, available);
+    }
+
+    private record RestaurantAvailability(long[] itemIds, BitSet available) {
+        boolean contains(Long itemId) {
+            return Arrays.binarySearch(itemIds, itemId) >= 0;
+        }
+
+        boolean isAvailable(Long itemId) {
+            int index = Arrays.binarySearch(itemIds, itemId);
+            return index >= 0 && available.get(index);
+        }
+
+        LongStream items() {
+            return Arrays.stream(itemIds);
+        }
+    }
+}
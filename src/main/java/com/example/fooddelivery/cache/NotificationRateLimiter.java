@@ -0,0 +1,90 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.config.NotificationProperties;
+import com.example.fooddelivery.enums.NotificationChannel;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.HashMap;
+import java.util.Map;
+
+//token bucket на пользователя и канал, полное ведро удаляется
+@Component
+@RequiredArgsConstructor
+public class NotificationRateLimiter {
+    private static final int STRIPES = 64;
+    private static final NotificationChannel[] CHANNELS = NotificationChannel.values();
+
+    private final NotificationProperties properties;
+    private final Clock clock;
+
+    private final Stripes<Stripe> stripes = new Stripes<>(STRIPES, Stripe::new);
+
+    //0, если уведомление можно отправить сейчас, иначе через сколько миллисекунд появится токен
+    public long tryAcquire(Long userId, NotificationChannel channel) {
+        NotificationProperties.Channel settings = properties.channel(channel);
+        long now = clock.millis();
+        long key = userId * CHANNELS.length + channel.ordinal();
+        Stripe stripe = stripes.get(key);
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(settings.userBurst(), now);
+                stripe.buckets.put(key, bucket);
+            }
+            bucket.refill(now, settings);
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) * settings.userRefill().toMillis());
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictFull() {
+        long now = clock.millis();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.buckets.entrySet().removeIf(entry -> {
+                    NotificationProperties.Channel settings = properties.channel(CHANNELS[(int) (entry.getKey() % CHANNELS.length)]);
+                    entry.getValue().refill(now, settings);
+                    return entry.getValue().tokens >= settings.userBurst();
+                });
+            }
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Stripe {
+        private final Map<Long, Bucket> buckets = new HashMap<>();
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long updatedAt;
+
+        private Bucket(double tokens, long updatedAt) {
+            this.tokens = tokens;
+            this.updatedAt = updatedAt;
+        }
+
+        private void refill(long now, NotificationProperties.Channel settings) {
+            if (now > updatedAt) {
+                tokens = Math.min(settings.userBurst(), tokens + (double) (now - updatedAt) / settings.userRefill().toMillis());
+                updatedAt = now;
+            }
+        }
+    }
+}
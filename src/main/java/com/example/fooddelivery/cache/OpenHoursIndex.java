@@ -0,0 +1,114 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.entity.OpeningHours;
+import com.example.fooddelivery.entity.Restaurant;
+import com.example.fooddelivery.event.RestaurantChangedEvent;
+import com.example.fooddelivery.repository.RestaurantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class OpenHoursIndex {
+    private final RestaurantRepository restaurantRepository;
+    private final Clock clock;
+
+    private final Map<Long, WeeklyHours> schedules = new ConcurrentHashMap<>();
+    private volatile Set<Long> openNow = Set.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        schedules.clear();
+        restaurantRepository.findAllActiveWithOpeningHours()
+                .forEach(restaurant -> schedules.put(restaurant.getId(), WeeklyHours.of(restaurant)));
+        refresh();
+    }
+
+    @Scheduled(cron = "0 * * * * *")
+    public synchronized void refresh() {
+        Instant now = clock.instant();
+        openNow = schedules.entrySet().stream()
+                .filter(entry -> entry.getValue().isOpen(now))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public boolean isOpen(Long restaurantId) {
+        if (!schedules.containsKey(restaurantId)) {
+            reload(restaurantId);
+        }
+        return openNow.contains(restaurantId);
+    }
+
+    public Set<Long> getOpenNow() {
+        return openNow;
+    }
+
+    @TransactionalEventListener
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        reload(event.restaurantId());
+    }
+
+    private synchronized void reload(Long restaurantId) {
+        Optional<Restaurant> restaurant = restaurantRepository.findWithOpeningHoursById(restaurantId)
+                .filter(Restaurant::isActive);
+
+        Set<Long> updated = new HashSet<>(openNow);
+        if (restaurant.isPresent()) {
+            WeeklyHours hours = WeeklyHours.of(restaurant.get());
+            schedules.put(restaurantId, hours);
+            if (hours.isOpen(clock.instant())) {
+                updated.add(restaurantId);
+            } else {
+                updated.remove(restaurantId);
+            }
+        } else {
+            schedules.remove(restaurantId);
+            updated.remove(restaurantId);
+        }
+        openNow = Set.copyOf(updated);
+    }
+
+    record WeeklyHours(ZoneId zone, Map<DayOfWeek, LocalTime[]> days) {
+        static WeeklyHours of(Restaurant restaurant) {
+            ZoneId zone = restaurant.getTimeZone() == null ? ZoneId.systemDefault() : ZoneId.of(restaurant.getTimeZone());
+            Map<DayOfWeek, LocalTime[]> days = new EnumMap<>(DayOfWeek.class);
+
+            if (restaurant.getOpeningHours().isEmpty()) {
+                for (DayOfWeek day : DayOfWeek.values()) {
+                    days.put(day, new LocalTime[]{restaurant.getOpeningTime(), restaurant.getClosingTime()});
+                }
+            } else {
+                for (OpeningHours hours : restaurant.getOpeningHours()) {
+                    days.put(hours.getDayOfWeek(), new LocalTime[]{hours.getOpeningTime(), hours.getClosingTime()});
+                }
+            }
+            return new WeeklyHours(zone, days);
+        }
+
+        boolean isOpen(Instant instant) {
+            ZonedDateTime local = instant.atZone(zone);
+            LocalTime time = local.toLocalTime();
+
+            LocalTime[] today = days.get(local.getDayOfWeek());
+            if (today != null) {
+                boolean overnight = !today[1].isAfter(today[0]);
+                if (!time.isBefore(today[0]) && (overnight || time.isBefore(today[1]))) {
+                    return true;
+                }
+            }
+
+            LocalTime[] yesterday = days.get(local.getDayOfWeek().minus(1));
+            return yesterday != null && !yesterday[1].isAfter(yesterday[0]) && time.isBefore(yesterday[1]);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.config.OrderHistoryProperties;
+import com.example.fooddelivery.dto.response.OrderResponse;
+import com.example.fooddelivery.event.OrderStatusChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+//кэшируется только первая страница истории: ее запрашивают чаще всего, следующие страницы читаются из БД
+@Component
+@RequiredArgsConstructor
+public class OrderHistoryCache {
+    private final OrderHistoryProperties properties;
+    private final Clock clock;
+
+    private final Map<Long, Entry> pages = new ConcurrentHashMap<>();
+
+    public List<OrderResponse> getFirstPage(Long userId, int limit, Supplier<List<OrderResponse>> loader) {
+        long ttl = properties.cacheTtl().toMillis();
+        if (ttl <= 0) {
+            return loader.get();
+        }
+
+        long now = clock.millis();
+        Entry entry = pages.get(userId);
+        if (entry != null && entry.limit() == limit && entry.expiresAt() > now) {
+            return entry.orders();
+        }
+        List<OrderResponse> orders = loader.get();
+        pages.put(userId, new Entry(limit, orders, now + ttl));
+        return orders;
+    }
+
+    //сбрасывается после коммита; страница, прочитанная параллельно до коммита, устареет не дольше чем на ttl
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        pages.remove(event.userId());
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        long now = clock.millis();
+        pages.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+
+    private record Entry(int limit, List<OrderResponse> orders, long expiresAt) {
+    }
+}
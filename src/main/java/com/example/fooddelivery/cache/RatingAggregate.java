@@ -0,0 +1,30 @@
+package com.example.fooddelivery.cache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+//recentSum и recentWeight приведены к моменту последней оценки, их отношение со временем не меняется
+record RatingAggregate(long sum, int count, double recentSum, double recentWeight, LocalDateTime lastRatedAt) {
+    static final RatingAggregate EMPTY = new RatingAggregate(0, 0, 0.0, 0.0, null);
+
+    //результат не зависит от порядка оценок, поэтому пересчет может читать их в любом порядке
+    RatingAggregate plus(int score, LocalDateTime ratedAt, Duration halfLife) {
+        if (lastRatedAt == null) {
+            return new RatingAggregate(score, 1, score, 1.0, ratedAt);
+        }
+        if (ratedAt.isBefore(lastRatedAt)) {
+            double weight = decay(ratedAt, lastRatedAt, halfLife);
+            return new RatingAggregate(sum + score, count + 1, recentSum + score * weight, recentWeight + weight, lastRatedAt);
+        }
+        double factor = decay(lastRatedAt, ratedAt, halfLife);
+        return new RatingAggregate(sum + score, count + 1, recentSum * factor + score, recentWeight * factor + 1.0, ratedAt);
+    }
+
+    double recentScore() {
+        return recentSum / recentWeight;
+    }
+
+    private static double decay(LocalDateTime from, LocalDateTime to, Duration halfLife) {
+        return Math.pow(0.5, (double) Duration.between(from, to).toMillis() / halfLife.toMillis());
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.dto.response.SearchResultResponse;
+import com.example.fooddelivery.entity.Restaurant;
+import com.example.fooddelivery.enums.CuisineType;
+import com.example.fooddelivery.enums.SearchResultType;
+import com.example.fooddelivery.event.MenuChangedEvent;
+import com.example.fooddelivery.event.RestaurantChangedEvent;
+import com.example.fooddelivery.repository.ItemRepository;
+import com.example.fooddelivery.repository.RestaurantRepository;
+import com.example.fooddelivery.repository.ReviewRepository;
+import com.example.fooddelivery.repository.projection.ItemSearchView;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.ru.RussianAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.function.FunctionScoreQuery;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+public class SearchIndex {
+    private static final String KEY = "key";
+    private static final String TYPE = "type";
+    private static final String ID = "id";
+    private static final String RESTAURANT_ID = "restaurantId";
+    private static final String NAME = "name";
+    private static final String CUISINE = "cuisine";
+    private static final String AVAILABLE = "available";
+    private static final String BOOST = "boost";
+
+    private static final float NAME_BOOST = 3f;
+    private static final float PREFIX_BOOST = 0.5f;
+    private static final double UNAVAILABLE_FACTOR = 0.3;
+
+    private final RestaurantRepository restaurantRepository;
+    private final ItemRepository itemRepository;
+    private final ReviewRepository reviewRepository;
+
+    private final Analyzer analyzer = new RussianAnalyzer();
+    private final Map<Long, Double> ratings = new ConcurrentHashMap<>();
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    @PostConstruct
+    void open() {
+        try {
+            writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+            searcherManager = new SearcherManager(writer, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        analyzer.close();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        try {
+            writer.deleteAll();
+            ratings.clear();
+            Map<Long, Double> averages = new HashMap<>();
+            reviewRepository.findAverageRatings()
+                    .forEach(rating -> averages.put(rating.getRestaurantId(), rating.getRating()));
+
+            for (Restaurant restaurant : restaurantRepository.findAllByActiveTrue()) {
+                double rating = averages.getOrDefault(restaurant.getId(), 0.0);
+                ratings.put(restaurant.getId(), rating);
+                writer.addDocument(restaurantDocument(restaurant, rating));
+                for (ItemSearchView item : itemRepository.findSearchViewsByRestaurantId(restaurant.getId())) {
+                    writer.addDocument(itemDocument(item, rating));
+                }
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TransactionalEventListener
+    public synchronized void onMenuChanged(MenuChangedEvent event) {
+        Double rating = ratings.get(event.restaurantId());
+        if (rating == null) {
+            return;
+        }
+
+        try {
+            if (event.itemIds().isEmpty()) {
+                replaceItems(event.restaurantId(), rating);
+            } else {
+                for (Long itemId : event.itemIds()) {
+                    writer.deleteDocuments(new Term(KEY, itemKey(itemId)));
+                }
+                for (ItemSearchView item : itemRepository.findSearchViewsByIds(event.itemIds())) {
+                    writer.addDocument(itemDocument(item, rating));
+                }
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //изменение рейтинга ресторана меняет вес и всех его блюд, поэтому меню переиндексируется целиком
+    @TransactionalEventListener
+    public synchronized void onRestaurantChanged(RestaurantChangedEvent event) {
+        Long restaurantId = event.restaurantId();
+        Optional<Restaurant> restaurant = restaurantRepository.findById(restaurantId)
+                .filter(Restaurant::isActive);
+        try {
+            writer.deleteDocuments(new Term(KEY, restaurantKey(restaurantId)));
+            if (restaurant.isEmpty()) {
+                ratings.remove(restaurantId);
+                writer.deleteDocuments(itemsOf(restaurantId));
+            } else {
+                BigDecimal average = reviewRepository.calculateAverageRatingByRestaurantId(restaurantId);
+                double rating = average == null ? 0.0 : average.doubleValue();
+                ratings.put(restaurantId, rating);
+                writer.addDocument(restaurantDocument(restaurant.get(), rating));
+                replaceItems(restaurantId, rating);
+            }
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public List<SearchResultResponse> search(String text, int limit) {
+        List<String> terms = analyze(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (int i = 0; i < terms.size(); i++) {
+            String term = terms.get(i);
+            List<Query> fields = new ArrayList<>();
+            fields.add(new BoostQuery(new TermQuery(new Term(NAME, term)), NAME_BOOST));
+            fields.add(new TermQuery(new Term(CUISINE, term)));
+            //последнее слово может быть недописано
+            if (i == terms.size() - 1) {
+                fields.add(new BoostQuery(new PrefixQuery(new Term(NAME, term)), PREFIX_BOOST));
+            }
+            builder.add(new DisjunctionMaxQuery(fields, 0f), BooleanClause.Occur.MUST);
+        }
+        Query query = FunctionScoreQuery.boostByValue(builder.build(), DoubleValuesSource.fromDoubleField(BOOST));
+
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(query, limit);
+                StoredFields storedFields = searcher.storedFields();
+                List<SearchResultResponse> results = new ArrayList<>(top.scoreDocs.length);
+                for (ScoreDoc hit : top.scoreDocs) {
+                    Document document = storedFields.document(hit.doc);
+                    results.add(new SearchResultResponse(
+                            SearchResultType.valueOf(document.get(TYPE)),
+                            document.getField(ID).numericValue().longValue(),
+                            document.getField(RESTAURANT_ID).numericValue().longValue(),
+                            document.get(NAME),
+                            document.getField(AVAILABLE).numericValue().intValue() == 1,
+                            hit.score));
+                }
+                return results;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void replaceItems(Long restaurantId, double rating) throws IOException {
+        writer.deleteDocuments(itemsOf(restaurantId));
+        for (ItemSearchView item : itemRepository.findSearchViewsByRestaurantId(restaurantId)) {
+            writer.addDocument(itemDocument(item, rating));
+        }
+    }
+
+    private Query itemsOf(Long restaurantId) {
+        return new BooleanQuery.Builder()
+                .add(new TermQuery(new Term(TYPE, SearchResultType.ITEM.name())), BooleanClause.Occur.FILTER)
+                .add(new TermQuery(new Term(RESTAURANT_ID, restaurantId.toString())), BooleanClause.Occur.FILTER)
+                .build();
+    }
+
+    private Document restaurantDocument(Restaurant restaurant, double rating) {
+        Document document = document(SearchResultType.RESTAURANT, restaurantKey(restaurant.getId()),
+                restaurant.getId(), restaurant.getId(), restaurant.getName(), true, rating);
+        if (restaurant.getCuisineType() != null) {
+            document.add(new TextField(CUISINE, cuisineText(restaurant.getCuisineType()), Field.Store.NO));
+        }
+        return document;
+    }
+
+    private Document itemDocument(ItemSearchView item, double rating) {
+        return document(SearchResultType.ITEM, itemKey(item.getId()),
+                item.getId(), item.getRestaurantId(), item.getName(), item.isAvailable(), rating);
+    }
+
+    //итоговый вес = релевантность * (1 + рейтинг / 5), недоступные блюда опускаются ниже
+    private Document document(SearchResultType type, String key, Long id, Long restaurantId,
+                              String name, boolean available, double rating) {
+        Document document = new Document();
+        document.add(new StringField(KEY, key, Field.Store.NO));
+        document.add(new StringField(TYPE, type.name(), Field.Store.YES));
+        document.add(new StoredField(ID, id));
+        document.add(new StringField(RESTAURANT_ID, restaurantId.toString(), Field.Store.NO));
+        document.add(new StoredField(RESTAURANT_ID, restaurantId));
+        document.add(new TextField(NAME, name, Field.Store.YES));
+        document.add(new StoredField(AVAILABLE, available ? 1 : 0));
+        document.add(new DoubleDocValuesField(BOOST, (1 + rating / 5) * (available ? 1 : UNAVAILABLE_FACTOR)));
+        return document;
+    }
+
+    private List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute attribute = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                terms.add(attribute.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return terms;
+    }
+
+    private static String restaurantKey(Long id) {
+        return "restaurant:" + id;
+    }
+
+    private static String itemKey(Long id) {
+        return "item:" + id;
+    }
+
+    private static String cuisineText(CuisineType cuisine) {
+        String label = switch (cuisine) {
+            case BURGERS -> "бургеры";
+            case PIZZA -> "пицца";
+            case SUSHI -> "суши роллы";
+            case VOK -> "вок лапша";
+            case PASTA -> "паста";
+            case FASTFOOD -> "фастфуд";
+            case ITALIAN -> "итальянская кухня";
+            case RUSSIAN -> "русская кухня";
+            case JAPANESE -> "японская кухня";
+            case EUROPEAN -> "европейская кухня";
+            case ASIAN -> "азиатская кухня";
+            case GEORGIAN -> "грузинская кухня";
+        };
+        return cuisine.name() + " " + label;
+    }
+}
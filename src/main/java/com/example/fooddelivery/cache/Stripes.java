@@ -0,0 +1,38 @@
+package com.example.fooddelivery.cache;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+//фибоначчиево хеширование разносит соседние id по разным полосам
+public class Stripes<S> implements Iterable<S> {
+    private final Object[] stripes;
+    private final int shift;
+
+    public Stripes(int count, Supplier<S> factory) {
+        if (count <= 0 || Integer.bitCount(count) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two: " + count);
+        }
+        this.stripes = new Object[count];
+        this.shift = Long.SIZE - Integer.numberOfTrailingZeros(count);
+        for (int i = 0; i < count; i++) {
+            stripes[i] = factory.get();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public S get(long key) {
+        return (S) stripes[index(key)];
+    }
+
+    int index(long key) {
+        //при одной полосе сдвиг равен 64 и в Java ничего не сдвигает
+        return shift == Long.SIZE ? 0 : (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Iterator<S> iterator() {
+        return (Iterator<S>) Arrays.asList(stripes).iterator();
+    }
+}
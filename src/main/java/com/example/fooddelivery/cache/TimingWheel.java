@@ -0,0 +1,135 @@
+package com.example.fooddelivery.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+//иерархическое колесо таймеров, слот уровня L равен 64^L тикам; не потокобезопасно
+public class TimingWheel<K> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final List<List<Set<K>>> wheels = new ArrayList<>();
+    private final Set<K> overdue = new LinkedHashSet<>();
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, int levels, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        this.currentTick = Math.floorDiv(startMillis, tickMillis);
+        for (int level = 0; level < levels; level++) {
+            List<Set<K>> slots = new ArrayList<>(SLOTS);
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots.add(new HashSet<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    //сколько уровней нужно, чтобы колесо гарантированно вмещало сроки на horizonMillis вперед
+    public static int levelsFor(long tickMillis, long horizonMillis) {
+        int levels = 1;
+        for (long span = MASK; span * tickMillis < horizonMillis; span *= SLOTS) {
+            levels++;
+        }
+        return levels;
+    }
+
+    //повторная постановка того же ключа переносит срок; false, если срок дальше, чем вмещают уровни
+    public boolean schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long tick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        if (tick <= currentTick) {
+            overdue.add(key);
+            timers.put(key, new Timer<>(tick, overdue));
+            return true;
+        }
+
+        Set<K> slot = slotFor(tick);
+        if (slot == null) {
+            return false;
+        }
+        slot.add(key);
+        timers.put(key, new Timer<>(tick, slot));
+        return true;
+    }
+
+    public boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.slot().remove(key);
+        return true;
+    }
+
+    public boolean contains(K key) {
+        return timers.containsKey(key);
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    public List<K> advance(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        List<K> expired = new ArrayList<>(overdue);
+        overdue.forEach(timers::remove);
+        overdue.clear();
+
+        while (currentTick < targetTick) {
+            if (timers.isEmpty()) {
+                currentTick = targetTick;
+                break;
+            }
+            currentTick++;
+            int top = 0;
+            while (top + 1 < levels && (currentTick & ((1L << (BITS * (top + 1))) - 1)) == 0) {
+                top++;
+            }
+            for (int level = top; level > 0; level--) {
+                cascade(level);
+            }
+
+            Set<K> slot = wheels.get(0).get((int) (currentTick & MASK));
+            for (K key : slot) {
+                timers.remove(key);
+                expired.add(key);
+            }
+            slot.clear();
+        }
+        return expired;
+    }
+
+    private void cascade(int level) {
+        Set<K> slot = wheels.get(level).get((int) ((currentTick >>> (BITS * level)) & MASK));
+        List<K> keys = List.copyOf(slot);
+        slot.clear();
+        for (K key : keys) {
+            Timer<K> timer = timers.get(key);
+            Set<K> lower = slotFor(timer.tick());
+            lower.add(key);
+            timers.put(key, new Timer<>(timer.tick(), lower));
+        }
+    }
+
+    private Set<K> slotFor(long tick) {
+        for (int level = 0; level < levels; level++) {
+            int shift = BITS * level;
+            if ((tick >>> shift) - (currentTick >>> shift) < SLOTS) {
+                return wheels.get(level).get((int) ((tick >>> shift) & MASK));
+            }
+        }
+        return null;
+    }
+
+    private record Timer<K>(long tick, Set<K> slot) {}
+}
@@ -0,0 +1,60 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.event.NotificationInboxChangedEvent;
+import com.example.fooddelivery.event.NotificationsSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+//отправка увеличивает загруженный счетчик, смена границы прочитанного его сбрасывает
+@Component
+public class UnreadCountCache {
+    //count == null - метка идущей загрузки, она удаляется, когда загрузка закончится
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    public long get(Long userId, LongSupplier loader) {
+        Entry current = entries.get(userId);
+        if (current != null && current.count() != null) {
+            return current.count();
+        }
+
+        Entry loading = new Entry(null);
+        entries.put(userId, loading);
+        long count;
+        try {
+            count = loader.getAsLong();
+        } catch (RuntimeException e) {
+            entries.remove(userId, loading);
+            throw e;
+        }
+        //если счетчик изменился, пока он читался из БД, метка уже снята и прочитанное значение не кэшируется
+        entries.computeIfPresent(userId, (id, latest) -> latest == loading ? new Entry(count) : latest);
+        return count;
+    }
+
+    //пользователи без загруженного счетчика не заводятся, поэтому рассылка не оставляет записи на каждого получателя
+    @TransactionalEventListener
+    public void onNotificationsSent(NotificationsSentEvent event) {
+        Map<Long, Long> sent = event.userIds().stream()
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+        sent.forEach((userId, count) -> entries.computeIfPresent(userId, (id, current) ->
+                current.count() == null ? null : new Entry(current.count() + count)));
+    }
+
+    @TransactionalEventListener
+    public void onInboxChanged(NotificationInboxChangedEvent event) {
+        entries.remove(event.userId());
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private record Entry(Long count) {
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.fooddelivery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("cart.expiry")
+public record CartExpiryProperties(Duration ttl,
+                                   int batchSize,
+                                   boolean abandonedNotification
+) {
+    public CartExpiryProperties {
+        ttl = ttl == null ? Duration.ofDays(7) : ttl;
+        batchSize = batchSize <= 0 ? 500 : batchSize;
+    }
+}
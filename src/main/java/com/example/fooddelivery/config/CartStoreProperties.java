@@ -0,0 +1,13 @@
+package com.example.fooddelivery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+//корзина без обращений дольше idleTimeout выгружается из памяти, если в ней нет незаписанных изменений
+@ConfigurationProperties("cart.store")
+public record CartStoreProperties(Duration idleTimeout) {
+    public CartStoreProperties {
+        idleTimeout = idleTimeout == null ? Duration.ofMinutes(30) : idleTimeout;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.fooddelivery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("couriers.location")
+public record CourierLocationProperties(int bufferSize,
+                                       Duration trackWindow,
+                                       Duration sampleInterval
+) {
+    public CourierLocationProperties {
+        bufferSize = bufferSize <= 0 ? 256 : bufferSize;
+        trackWindow = trackWindow == null ? Duration.ofMinutes(15) : trackWindow;
+        sampleInterval = sampleInterval == null ? Duration.ofSeconds(15) : sampleInterval;
+    }
+}
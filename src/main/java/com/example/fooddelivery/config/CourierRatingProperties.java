@@ -0,0 +1,12 @@
+package com.example.fooddelivery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("couriers.rating")
+public record CourierRatingProperties(Duration halfLife) {
+    public CourierRatingProperties {
+        halfLife = halfLife == null ? Duration.ofDays(30) : halfLife;
+    }
+}
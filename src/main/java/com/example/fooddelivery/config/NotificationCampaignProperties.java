@@ -0,0 +1,14 @@
+package com.example.fooddelivery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+//ratePerSecond - общий лимит на все рассылки
+@ConfigurationProperties("notifications.campaigns")
+public record NotificationCampaignProperties(int batchSize,
+                                             int ratePerSecond
+) {
+    public NotificationCampaignProperties {
+        batchSize = batchSize <= 0 ? 500 : batchSize;
+        ratePerSecond = ratePerSecond <= 0 ? 200 : ratePerSecond;
+    }
+}
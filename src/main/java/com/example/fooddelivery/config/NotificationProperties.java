@@ -0,0 +1,76 @@
+package com.example.fooddelivery.config;
+
+import com.example.fooddelivery.enums.NotificationChannel;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+//coalescingWindow PT0S отключает склейку статусных уведомлений
+@ConfigurationProperties("notifications")
+public record NotificationProperties(int claimBatchSize,
+                                     Duration coalescingWindow,
+                                     Timer timer,
+                                     Retry retry,
+                                     Map<NotificationChannel, Channel> channels
+) {
+    public NotificationProperties {
+        claimBatchSize = claimBatchSize <= 0 ? 500 : claimBatchSize;
+        coalescingWindow = coalescingWindow == null ? Duration.ofSeconds(3) : coalescingWindow;
+        timer = timer == null ? new Timer(null, null, 0) : timer;
+        retry = retry == null ? new Retry(0, null, null, 0, null) : retry;
+        channels = channels == null ? Map.of() : Map.copyOf(channels);
+    }
+
+    public Channel channel(NotificationChannel channel) {
+        return channels.getOrDefault(channel, new Channel(0, 0, 0, 0, null, 0, null));
+    }
+
+    //сроки в пределах horizon держатся в памяти и срабатывают с точностью до tick, не больше maxSize уведомлений
+    public record Timer(Duration tick,
+                        Duration horizon,
+                        int maxSize
+    ) {
+        public Timer {
+            tick = tick == null ? Duration.ofSeconds(1) : tick;
+            horizon = horizon == null ? Duration.ofHours(1) : horizon;
+            maxSize = maxSize <= 0 ? 100000 : maxSize;
+        }
+    }
+
+    //задержка перед попыткой n: initialDelay * multiplier^(n-1), не больше maxDelay
+    public record Retry(int maxAttempts,
+                        Duration initialDelay,
+                        Duration maxDelay,
+                        double multiplier,
+                        Duration lease
+    ) {
+        public Retry {
+            maxAttempts = maxAttempts <= 0 ? 6 : maxAttempts;
+            initialDelay = initialDelay == null ? Duration.ofSeconds(10) : initialDelay;
+            maxDelay = maxDelay == null ? Duration.ofMinutes(30) : maxDelay;
+            multiplier = multiplier < 1 ? 4 : multiplier;
+            lease = lease == null ? Duration.ofMinutes(5) : lease;
+        }
+    }
+
+    //пользователю уходит не больше userBurst уведомлений подряд, дальше одно за userRefill
+    public record Channel(int queueCapacity,
+                          int concurrency,
+                          int batchSize,
+                          int failureThreshold,
+                          Duration openTimeout,
+                          int userBurst,
+                          Duration userRefill
+    ) {
+        public Channel {
+            queueCapacity = queueCapacity <= 0 ? 10000 : queueCapacity;
+            concurrency = concurrency <= 0 ? 4 : concurrency;
+            batchSize = batchSize <= 0 ? 1 : batchSize;
+            failureThreshold = failureThreshold <= 0 ? 5 : failureThreshold;
+            openTimeout = openTimeout == null ? Duration.ofSeconds(30) : openTimeout;
+            userBurst = userBurst <= 0 ? 10 : userBurst;
+            userRefill = userRefill == null ? Duration.ofSeconds(6) : userRefill;
+        }
+    }
+}
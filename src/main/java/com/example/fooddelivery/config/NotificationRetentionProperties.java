@@ -0,0 +1,20 @@
+package com.example.fooddelivery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+//уведомления старше maxAge выгружаются в directory файлами до fileRows строк
+@ConfigurationProperties("notifications.retention")
+public record NotificationRetentionProperties(Duration maxAge,
+                                              int batchSize,
+                                              int fileRows,
+                                              String directory
+) {
+    public NotificationRetentionProperties {
+        maxAge = maxAge == null ? Duration.ofDays(30) : maxAge;
+        batchSize = batchSize <= 0 ? 1000 : batchSize;
+        fileRows = fileRows <= 0 ? 100000 : fileRows;
+        directory = directory == null ? "archive/notifications" : directory;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.fooddelivery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("orders.history")
+public record OrderHistoryProperties(Duration cacheTtl) {
+    public OrderHistoryProperties {
+        cacheTtl = cacheTtl == null ? Duration.ZERO : cacheTtl;
+    }
+}
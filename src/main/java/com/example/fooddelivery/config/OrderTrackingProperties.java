@@ -0,0 +1,21 @@
+package com.example.fooddelivery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("orders.tracking")
+public record OrderTrackingProperties(Duration heartbeat,
+                                      Duration timeout,
+                                      int senderThreads,
+                                      int senderQueue,
+                                      Duration sendTimeout
+) {
+    public OrderTrackingProperties {
+        heartbeat = heartbeat == null ? Duration.ofSeconds(25) : heartbeat;
+        timeout = timeout == null ? Duration.ofMinutes(30) : timeout;
+        senderThreads = senderThreads <= 0 ? 8 : senderThreads;
+        senderQueue = senderQueue <= 0 ? 10_000 : senderQueue;
+        sendTimeout = sendTimeout == null ? Duration.ofSeconds(10) : sendTimeout;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.fooddelivery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("payments.callbacks")
+public record PaymentCallbackProperties(int workers,
+                                        int batchSize
+) {
+    public PaymentCallbackProperties {
+        workers = workers <= 0 ? 4 : workers;
+        batchSize = batchSize <= 0 ? 200 : batchSize;
+    }
+}
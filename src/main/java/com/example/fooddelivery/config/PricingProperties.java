@@ -0,0 +1,24 @@
+package com.example.fooddelivery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+@ConfigurationProperties("pricing")
+public record PricingProperties(BigDecimal minOrderAmount,
+                                List<DeliveryFeeTier> deliveryFeeTiers,
+                                Map<String, PromoCode> promoCodes
+) {
+    public PricingProperties {
+        minOrderAmount = minOrderAmount == null ? new BigDecimal("300.00") : minOrderAmount;
+        deliveryFeeTiers = deliveryFeeTiers == null ? List.of() : List.copyOf(deliveryFeeTiers);
+        promoCodes = promoCodes == null ? Map.of() : Map.copyOf(promoCodes);
+    }
+
+    //доставка стоит fee, если сумма корзины не меньше from
+    public record DeliveryFeeTier(BigDecimal from, BigDecimal fee) {}
+
+    public record PromoCode(int percent, BigDecimal maxDiscount, BigDecimal minSubtotal) {}
+}
@@ -0,0 +1,10 @@
+package com.example.fooddelivery.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("payments.reconciliation")
+public record ReconciliationProperties(int maxReported) {
+    public ReconciliationProperties {
+        maxReported = maxReported <= 0 ? 1000 : maxReported;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.fooddelivery.controller;
 
 import com.example.fooddelivery.dto.request.CartItemRequest;
+import com.example.fooddelivery.dto.response.CartItemDeltaResponse;
 import com.example.fooddelivery.dto.response.CartResponse;
 import com.example.fooddelivery.service.CartService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -40,6 +41,13 @@ public class CartController {
         return ResponseEntity.ok(cartService.updateQuantity(userId, id, quantity));
     }
 
+    @Operation(summary = "Изменить количество и получить только измененную строку")
+    @PatchMapping("/items/{id}")
+    public ResponseEntity<CartItemDeltaResponse> updateQuantityDelta(@PathVariable Long id, @RequestParam @Min(1) Integer quantity) {
+        Long userId = getCurrentUserId();
+        return ResponseEntity.ok(cartService.updateQuantityDelta(userId, id, quantity));
+    }
+
     @Operation(summary = "Просмотреть корзину")
     @GetMapping
     public ResponseEntity<CartResponse> getCart() {
@@ -1,17 +1,23 @@
 package com.example.fooddelivery.controller;
 
 import com.example.fooddelivery.dto.request.CourierRequest;
+import com.example.fooddelivery.dto.request.LocationBatchRequest;
+import com.example.fooddelivery.dto.response.CourierLocationResponse;
 import com.example.fooddelivery.dto.response.CourierResponse;
 import com.example.fooddelivery.dto.response.OrderResponse;
 import com.example.fooddelivery.enums.CourierStatus;
+import com.example.fooddelivery.service.CourierLocationService;
 import com.example.fooddelivery.service.CourierService;
+import com.example.fooddelivery.service.OrderTrackingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
@@ -21,6 +27,8 @@ import java.util.List;
 @Tag(name = "Courier Service")
 public class CourierController {
     private final CourierService courierService;
+    private final OrderTrackingService orderTrackingService;
+    private final CourierLocationService courierLocationService;
 
     @Operation(summary = "Регистрация курьера")
     @PostMapping
@@ -48,6 +56,25 @@ public class CourierController {
         return ResponseEntity.ok(courierService.getActiveOrders(id));
     }
 
+    @Operation(summary = "Передать пакет координат курьера")
+    @PostMapping("/{id}/locations")
+    public ResponseEntity<Void> addLocations(@PathVariable Long id, @Valid @RequestBody LocationBatchRequest request) {
+        courierLocationService.addLocations(id, request);
+        return ResponseEntity.accepted().build();
+    }
+
+    @Operation(summary = "Текущее местоположение и недавний трек курьера")
+    @GetMapping("/{id}/location")
+    public ResponseEntity<CourierLocationResponse> getLocation(@PathVariable Long id) {
+        return ResponseEntity.ok(courierLocationService.getLocation(id));
+    }
+
+    @Operation(summary = "Подписаться на изменения статусов заказов курьера (SSE)")
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCourierEvents(@PathVariable Long id) {
+        return ResponseEntity.ok(orderTrackingService.subscribeToCourier(id));
+    }
+
     @Operation(summary = "Изменить статус курьера")
     @PatchMapping("/{id}/status")
     public ResponseEntity<CourierResponse> updateStatus(@PathVariable Long id,
@@ -1,6 +1,8 @@
 package com.example.fooddelivery.controller;
 
+import com.example.fooddelivery.dto.request.ItemAvailabilityRequest;
 import com.example.fooddelivery.dto.request.ItemRequest;
+import com.example.fooddelivery.dto.response.ItemAvailabilityResponse;
 import com.example.fooddelivery.dto.response.ItemResponse;
 import com.example.fooddelivery.service.ItemService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -37,4 +39,10 @@ public class ItemController {
                                                            @RequestParam boolean available){
         return ResponseEntity.ok(itemService.updateAvailability(id, available));
     }
+
+    @Operation(summary = "Изменить доступность нескольких блюд")
+    @PatchMapping("/availability")
+    public ResponseEntity<ItemAvailabilityResponse> updateAvailability(@RequestBody @Valid ItemAvailabilityRequest request){
+        return ResponseEntity.ok(itemService.updateAvailability(request));
+    }
 }
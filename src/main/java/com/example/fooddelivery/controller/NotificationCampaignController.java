@@ -0,0 +1,39 @@
+package com.example.fooddelivery.controller;
+
+import com.example.fooddelivery.dto.request.NotificationCampaignRequest;
+import com.example.fooddelivery.dto.response.NotificationCampaignResponse;
+import com.example.fooddelivery.service.NotificationCampaignService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/notifications/campaigns")
+@RequiredArgsConstructor
+@Tag(name = "Notification Service")
+public class NotificationCampaignController {
+    private final NotificationCampaignService campaignService;
+
+    @Operation(summary = "Запустить рекламную рассылку по аудитории")
+    @PostMapping
+    public ResponseEntity<NotificationCampaignResponse> createCampaign(@Valid @RequestBody NotificationCampaignRequest request) {
+        NotificationCampaignResponse response = campaignService.createCampaign(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @Operation(summary = "Получить ход рассылки")
+    @GetMapping("/{id}")
+    public ResponseEntity<NotificationCampaignResponse> getCampaign(@PathVariable Long id) {
+        return ResponseEntity.ok(campaignService.getCampaign(id));
+    }
+
+    @Operation(summary = "Остановить рассылку")
+    @PostMapping("/{id}/cancel")
+    public ResponseEntity<NotificationCampaignResponse> cancelCampaign(@PathVariable Long id) {
+        return ResponseEntity.ok(campaignService.cancelCampaign(id));
+    }
+}
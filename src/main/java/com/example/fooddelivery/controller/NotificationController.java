@@ -1,12 +1,19 @@
 package com.example.fooddelivery.controller;
 
 import com.example.fooddelivery.dto.request.NotificationRequest;
+import com.example.fooddelivery.dto.response.NotificationArchiveResponse;
+import com.example.fooddelivery.dto.response.NotificationArchiveStatsResponse;
+import com.example.fooddelivery.dto.response.NotificationInboxResponse;
 import com.example.fooddelivery.dto.response.NotificationResponse;
+import com.example.fooddelivery.dto.response.NotificationUnreadResponse;
 import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.service.NotificationArchiver;
 import com.example.fooddelivery.service.NotificationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +27,7 @@ import java.util.List;
 @Tag(name = "Notification Service")
 public class NotificationController {
     private final NotificationService notificationService;
+    private final NotificationArchiver notificationArchiver;
 
     @Operation(summary = "Создать уведомление")
     @PostMapping
@@ -34,6 +42,39 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.getUserNotifications(userId));
     }
 
+    @Operation(summary = "Входящие уведомления пользователя страницами от новых к старым, непрочитанные первыми")
+    @GetMapping("/inbox")
+    public ResponseEntity<NotificationInboxResponse> getInbox(@RequestParam Long userId,
+                                                              @RequestParam(required = false) Long before,
+                                                              @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        return ResponseEntity.ok(notificationService.getInbox(userId, before, limit));
+    }
+
+    @Operation(summary = "Количество непрочитанных уведомлений")
+    @GetMapping("/inbox/unread-count")
+    public ResponseEntity<NotificationUnreadResponse> getUnreadCount(@RequestParam Long userId) {
+        return ResponseEntity.ok(notificationService.getUnreadCount(userId));
+    }
+
+    @Operation(summary = "Отметить прочитанными уведомления до upTo включительно, по умолчанию все")
+    @PostMapping("/inbox/read")
+    public ResponseEntity<NotificationUnreadResponse> markRead(@RequestParam Long userId,
+                                                               @RequestParam(required = false) Long upTo) {
+        return ResponseEntity.ok(notificationService.markRead(userId, upTo));
+    }
+
+    @Operation(summary = "Выгрузить старые уведомления в архив, не дожидаясь ночного запуска")
+    @PostMapping("/archive")
+    public ResponseEntity<NotificationArchiveResponse> archive() {
+        return ResponseEntity.ok(notificationArchiver.archive());
+    }
+
+    @Operation(summary = "Статистика архивации уведомлений")
+    @GetMapping("/archive/stats")
+    public ResponseEntity<NotificationArchiveStatsResponse> getArchiveStats() {
+        return ResponseEntity.ok(notificationArchiver.getStats());
+    }
+
     @Operation(summary = "Обновить статус уведомления")
     @PatchMapping("/{id}/status")
     public ResponseEntity<NotificationResponse> updateNotificationStatus(@PathVariable Long id,
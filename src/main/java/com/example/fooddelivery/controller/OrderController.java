@@ -1,17 +1,27 @@
 package com.example.fooddelivery.controller;
 
+import com.example.fooddelivery.dto.request.CourierRatingRequest;
 import com.example.fooddelivery.dto.request.OrderRequest;
+import com.example.fooddelivery.dto.response.CourierLocationResponse;
+import com.example.fooddelivery.dto.response.CourierRatingResponse;
 import com.example.fooddelivery.dto.response.OrderResponse;
 import com.example.fooddelivery.enums.OrderStatus;
+import com.example.fooddelivery.service.CourierLocationService;
+import com.example.fooddelivery.service.CourierRatingService;
 import com.example.fooddelivery.service.OrderService;
+import com.example.fooddelivery.service.OrderTrackingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,6 +32,9 @@ import java.util.List;
 @Tag(name = "Order Service")
 public class OrderController {
     private final OrderService orderService;
+    private final OrderTrackingService orderTrackingService;
+    private final CourierLocationService courierLocationService;
+    private final CourierRatingService courierRatingService;
 
     @Operation(summary = "Создать заказ на основе корзины")
     @PostMapping
@@ -36,13 +49,36 @@ public class OrderController {
         return ResponseEntity.ok(orderService.getOrderById(id));
     }
 
-    @Operation(summary = "Найти заказы по id пользователя и статусу")
+    @Operation(summary = "Подписаться на изменения статуса заказа (SSE)")
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderEvents(@PathVariable Long id) {
+        return ResponseEntity.ok(orderTrackingService.subscribeToOrder(id));
+    }
+
+    @Operation(summary = "Оценить курьера по доставленному заказу")
+    @PostMapping("/{id}/courier-rating")
+    public ResponseEntity<CourierRatingResponse> rateCourier(@PathVariable Long id,
+                                                             @RequestParam Long userId,
+                                                             @Valid @RequestBody CourierRatingRequest request) {
+        CourierRatingResponse response = courierRatingService.rateCourier(id, userId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @Operation(summary = "Местоположение курьера, доставляющего заказ")
+    @GetMapping("/{id}/courier-location")
+    public ResponseEntity<CourierLocationResponse> getCourierLocation(@PathVariable Long id) {
+        return ResponseEntity.ok(courierLocationService.getOrderCourierLocation(id));
+    }
+
+    @Operation(summary = "Найти заказы по id пользователя и статусу; история пользователя отдается страницами от новых к старым")
     @GetMapping
     public ResponseEntity<List<OrderResponse>> getOrders(@RequestParam(required = false) Long userId,
-                                                         @RequestParam(required = false) OrderStatus status){
+                                                         @RequestParam(required = false) OrderStatus status,
+                                                         @RequestParam(required = false) Long before,
+                                                         @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit){
         List<OrderResponse> response = new ArrayList<>();
         if(userId != null){
-            response = orderService.getOrdersById(userId);
+            response = orderService.getOrderHistory(userId, before, limit);
         } else if(status != null){
             response = orderService.getOrdersByStatus(status);
         } else {
@@ -1,9 +1,14 @@
 package com.example.fooddelivery.controller;
 
+import com.example.fooddelivery.dto.request.PaymentCallbackRequest;
 import com.example.fooddelivery.dto.request.PaymentRequest;
+import com.example.fooddelivery.dto.response.PaymentCallbackLagResponse;
 import com.example.fooddelivery.dto.response.PaymentResponse;
+import com.example.fooddelivery.dto.response.ReconciliationResponse;
 import com.example.fooddelivery.enums.PaymentStatus;
+import com.example.fooddelivery.service.PaymentCallbackService;
 import com.example.fooddelivery.service.PaymentService;
+import com.example.fooddelivery.service.ReconciliationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -12,6 +17,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -20,6 +26,8 @@ import java.util.List;
 @Tag(name = "Payment Service")
 public class PaymentController {
     private final PaymentService paymentService;
+    private final PaymentCallbackService paymentCallbackService;
+    private final ReconciliationService reconciliationService;
 
     @Operation(summary = "Создать платеж")
     @PostMapping
@@ -28,6 +36,25 @@ public class PaymentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @Operation(summary = "Принять колбэк платежной системы: статус применяется асинхронно")
+    @PostMapping("/callbacks")
+    public ResponseEntity<Void> acceptCallback(@Valid @RequestBody PaymentCallbackRequest request) {
+        paymentCallbackService.enqueue(request);
+        return ResponseEntity.accepted().build();
+    }
+
+    @Operation(summary = "Отставание очереди колбэков платежной системы")
+    @GetMapping("/callbacks/lag")
+    public ResponseEntity<PaymentCallbackLagResponse> getCallbackLag() {
+        return ResponseEntity.ok(paymentCallbackService.getLag());
+    }
+
+    @Operation(summary = "Сверить платежи с файлом взаиморасчетов платежной системы (CSV: paymentId,amount,status по возрастанию paymentId)")
+    @PostMapping(value = "/reconciliation", consumes = "text/csv")
+    public ResponseEntity<ReconciliationResponse> reconcile(InputStream body) {
+        return ResponseEntity.ok(reconciliationService.reconcile(body));
+    }
+
     @Operation(summary = "Получить платеж по id")
     @GetMapping("/{id}")
     public ResponseEntity<PaymentResponse> getPayment(@PathVariable Long id) {
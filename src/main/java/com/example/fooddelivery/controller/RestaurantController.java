@@ -2,8 +2,11 @@ package com.example.fooddelivery.controller;
 
 import com.example.fooddelivery.dto.request.ItemRequest;
 import com.example.fooddelivery.dto.request.RestaurantRequest;
+import com.example.fooddelivery.dto.request.ScheduleRequest;
 import com.example.fooddelivery.dto.response.ItemResponse;
+import com.example.fooddelivery.dto.response.MenuImportResponse;
 import com.example.fooddelivery.dto.response.RestaurantResponse;
+import com.example.fooddelivery.dto.response.ScheduleResponse;
 import com.example.fooddelivery.enums.CuisineType;
 import com.example.fooddelivery.service.ItemService;
 import com.example.fooddelivery.service.RestaurantService;
@@ -12,9 +15,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -32,11 +37,12 @@ public class RestaurantController {
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
-    @Operation(summary = "Найти все рестораны по кухни и рейтингу")
+    @Operation(summary = "Найти все рестораны по кухни, рейтингу и времени работы")
     @GetMapping
     public ResponseEntity<List<RestaurantResponse>> getRestaurants(@RequestParam(required = false) CuisineType cuisine,
-                                                                   @RequestParam(required = false) Double minRating){
-        return ResponseEntity.ok(restaurantService.getRestaurants(cuisine, minRating));
+                                                                   @RequestParam(required = false) Double minRating,
+                                                                   @RequestParam(defaultValue = "false") boolean openNow){
+        return ResponseEntity.ok(restaurantService.getRestaurants(cuisine, minRating, openNow));
     }
 
     @Operation(summary = "Найти ресторан по id")
@@ -59,6 +65,19 @@ public class RestaurantController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(summary = "Получить расписание работы ресторана")
+    @GetMapping("/{id}/schedule")
+    public ResponseEntity<ScheduleResponse> getSchedule(@PathVariable Long id){
+        return ResponseEntity.ok(restaurantService.getSchedule(id));
+    }
+
+    @Operation(summary = "Обновить недельное расписание и часовой пояс ресторана")
+    @PutMapping("/{id}/schedule")
+    public ResponseEntity<ScheduleResponse> updateSchedule(@PathVariable Long id,
+                                                           @RequestBody @Valid ScheduleRequest scheduleRequest){
+        return ResponseEntity.ok(restaurantService.updateSchedule(id, scheduleRequest));
+    }
+
     @Operation(summary = "Добавить блюдо в меню")
     @PostMapping("/{id}/menu")
     public ResponseEntity<ItemResponse> addItem(@PathVariable Long id,
@@ -72,4 +91,16 @@ public class RestaurantController {
     public ResponseEntity<List<ItemResponse>> getItems(@PathVariable Long id){
         return ResponseEntity.ok(itemService.getItems(id));
     }
+
+    @Operation(summary = "Импортировать меню ресторана из JSON-массива")
+    @PostMapping(value = "/{id}/menu/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<MenuImportResponse> importMenuJson(@PathVariable Long id, InputStream body){
+        return ResponseEntity.ok(itemService.importJson(id, body));
+    }
+
+    @Operation(summary = "Импортировать меню ресторана из CSV")
+    @PostMapping(value = "/{id}/menu/import", consumes = "text/csv")
+    public ResponseEntity<MenuImportResponse> importMenuCsv(@PathVariable Long id, InputStream body){
+        return ResponseEntity.ok(itemService.importCsv(id, body));
+    }
 }
@@ -0,0 +1,32 @@
+package com.example.fooddelivery.controller;
+
+import com.example.fooddelivery.dto.response.SearchResultResponse;
+import com.example.fooddelivery.service.SearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/search")
+@RequiredArgsConstructor
+@Tag(name = "Search Service")
+public class SearchController {
+    private final SearchService searchService;
+
+    @Operation(summary = "Поиск ресторанов и блюд")
+    @GetMapping
+    public ResponseEntity<List<SearchResultResponse>> search(@RequestParam @NotBlank String q,
+                                                             @RequestParam(defaultValue = "20") @Min(1) @Max(100) int limit) {
+        return ResponseEntity.ok(searchService.search(q, limit));
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.fooddelivery.dto.mapper;
 
+import com.example.fooddelivery.cache.CartLine;
+import com.example.fooddelivery.cache.CartState;
 import com.example.fooddelivery.dto.request.CartItemRequest;
 import com.example.fooddelivery.dto.request.CartRequest;
 import com.example.fooddelivery.dto.response.CartItemResponse;
@@ -13,16 +15,17 @@ import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface CartMapper {
-    @Mapping(target = "userId", source = "user.id")
-    @Mapping(target = "restaurantId", source = "restaurant.id")
-    CartResponse toDto(Cart cart);
+    @Mapping(target = "eta", ignore = true)
+    @Mapping(target = "price", ignore = true)
+    CartResponse toDto(CartState cart);
+
+    CartItemResponse toDto(CartLine line);
 
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "restaurant", ignore = true) 
     @Mapping(target = "eta", ignore = true)
     @Mapping(target = "items", ignore = true)
-    @Mapping(target = "order", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
     @Mapping(target = "updatedAt", ignore = true)
     Cart toEntity(CartRequest dto);
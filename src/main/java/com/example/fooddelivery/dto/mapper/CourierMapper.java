@@ -1,8 +1,11 @@
 package com.example.fooddelivery.dto.mapper;
 
+import com.example.fooddelivery.cache.LocationPoint;
 import com.example.fooddelivery.dto.request.CourierRequest;
 import com.example.fooddelivery.dto.response.CourierResponse;
+import com.example.fooddelivery.dto.response.LocationResponse;
 import com.example.fooddelivery.entity.Courier;
+import com.example.fooddelivery.entity.CourierLocation;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
@@ -11,6 +14,8 @@ public interface CourierMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "status", constant = "OFFLINE")
     @Mapping(target = "rating", constant = "0")
+    @Mapping(target = "ratingSum", constant = "0L")
+    @Mapping(target = "ratingCount", constant = "0")
     @Mapping(target = "currentOrdersAmount", constant = "0")
     @Mapping(target = "orders", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
@@ -18,4 +23,8 @@ public interface CourierMapper {
     Courier toEntity(CourierRequest dto);
 
     CourierResponse toDto(Courier courier);
+
+    LocationResponse toDto(LocationPoint point);
+
+    LocationResponse toDto(CourierLocation location);
 }
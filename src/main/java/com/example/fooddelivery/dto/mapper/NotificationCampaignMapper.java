@@ -0,0 +1,21 @@
+package com.example.fooddelivery.dto.mapper;
+
+import com.example.fooddelivery.dto.request.NotificationCampaignRequest;
+import com.example.fooddelivery.dto.response.NotificationCampaignResponse;
+import com.example.fooddelivery.entity.NotificationCampaign;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface NotificationCampaignMapper {
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "status", constant = "RUNNING")
+    @Mapping(target = "lastUserId", ignore = true)
+    @Mapping(target = "notified", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "finishedAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    NotificationCampaign toEntity(NotificationCampaignRequest dto);
+
+    NotificationCampaignResponse toDto(NotificationCampaign campaign);
+}
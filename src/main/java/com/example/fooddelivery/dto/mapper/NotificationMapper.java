@@ -12,6 +12,10 @@ public interface NotificationMapper {
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "status", constant = "PENDING")
     @Mapping(target = "sentAt", ignore = true)
+    @Mapping(target = "deliverySeq", ignore = true)
+    @Mapping(target = "attempts", ignore = true)
+    @Mapping(target = "nextAttemptAt", ignore = true)
+    @Mapping(target = "createdAt", ignore = true)
     Notification toEntity(NotificationRequest dto);
 
     @Mapping(target = "userId", source = "user.id")
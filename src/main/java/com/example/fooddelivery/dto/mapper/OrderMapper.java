@@ -1,16 +1,24 @@
 package com.example.fooddelivery.dto.mapper;
 
 import com.example.fooddelivery.dto.request.OrderRequest;
+import com.example.fooddelivery.dto.response.OrderLineResponse;
 import com.example.fooddelivery.dto.response.OrderResponse;
 import com.example.fooddelivery.entity.Order;
+import com.example.fooddelivery.entity.OrderLine;
+import com.example.fooddelivery.repository.projection.OrderLineView;
+import com.example.fooddelivery.repository.projection.OrderSummaryView;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
+import java.util.List;
+
 @Mapper(componentModel = "spring")
 public interface OrderMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "cart", ignore = true)
+    @Mapping(target = "restaurant", ignore = true)
+    @Mapping(target = "lines", ignore = true)
     @Mapping(target = "courier", ignore = true)
     @Mapping(target = "review", ignore = true)
     @Mapping(target = "payment", ignore = true)
@@ -22,5 +30,12 @@ public interface OrderMapper {
 
     @Mapping(target = "userId", source = "user.id")
     @Mapping(target = "cartId", source = "cart.id")
+    @Mapping(target = "restaurantId", source = "restaurant.id")
     OrderResponse toDto(Order order);
+
+    OrderLineResponse toDto(OrderLine line);
+
+    OrderResponse toDto(OrderSummaryView order, List<OrderLineResponse> lines);
+
+    OrderLineResponse toDto(OrderLineView line);
 }
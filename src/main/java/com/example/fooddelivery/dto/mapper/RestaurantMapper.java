@@ -1,7 +1,9 @@
 package com.example.fooddelivery.dto.mapper;
 
 import com.example.fooddelivery.dto.request.RestaurantRequest;
+import com.example.fooddelivery.dto.response.OpeningHoursResponse;
 import com.example.fooddelivery.dto.response.RestaurantResponse;
+import com.example.fooddelivery.entity.OpeningHours;
 import com.example.fooddelivery.entity.Restaurant;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
@@ -16,6 +18,8 @@ public interface RestaurantMapper {
     @Mapping(target = "updatedAt", ignore = true)
     @Mapping(target = "menu", ignore = true)
     @Mapping(target = "carts", ignore = true)
+    @Mapping(target = "timeZone", ignore = true)
+    @Mapping(target = "openingHours", ignore = true)
     Restaurant toEntity(RestaurantRequest dto);
 
     RestaurantResponse toDto(Restaurant restaurant);
@@ -28,5 +32,9 @@ public interface RestaurantMapper {
     @Mapping(target = "menu", ignore = true)
     @Mapping(target = "carts", ignore = true)
     @Mapping(target = "reviews", ignore = true)
+    @Mapping(target = "timeZone", ignore = true)
+    @Mapping(target = "openingHours", ignore = true)
     void update(RestaurantRequest dto, @MappingTarget Restaurant restaurant);
+
+    OpeningHoursResponse toDto(OpeningHours openingHours);
 }
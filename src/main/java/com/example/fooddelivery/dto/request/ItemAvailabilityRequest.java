@@ -0,0 +1,19 @@
+package com.example.fooddelivery.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Set;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemAvailabilityRequest {
+    @NotEmpty Set<@NotNull Long> itemIds;
+    @NotNull Boolean available;
+}
@@ -0,0 +1,19 @@
+package com.example.fooddelivery.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationBatchRequest {
+    @NotEmpty @Size(max = 100) List<@Valid LocationPingRequest> pings;
+}
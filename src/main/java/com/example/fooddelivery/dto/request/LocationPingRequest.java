@@ -0,0 +1,21 @@
+package com.example.fooddelivery.dto.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationPingRequest {
+    @NotNull @DecimalMin("-90.0") @DecimalMax("90.0") Double latitude;
+    @NotNull @DecimalMin("-180.0") @DecimalMax("180.0") Double longitude;
+    @NotNull LocalDateTime recordedAt;
+}
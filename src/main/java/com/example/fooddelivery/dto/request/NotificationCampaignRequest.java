@@ -0,0 +1,26 @@
+package com.example.fooddelivery.dto.request;
+
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.UserRole;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationCampaignRequest {
+    @NotBlank String message;
+    @NotNull NotificationChannel channel;
+    UserRole role;
+    String city;
+    Boolean active;
+    LocalDateTime lastOrderAfter;
+    LocalDateTime lastOrderBefore;
+}
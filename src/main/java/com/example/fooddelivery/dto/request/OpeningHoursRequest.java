@@ -0,0 +1,20 @@
+package com.example.fooddelivery.dto.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpeningHoursRequest {
+    @NotNull DayOfWeek dayOfWeek;
+    @NotNull LocalTime openingTime;
+    @NotNull LocalTime closingTime;
+}
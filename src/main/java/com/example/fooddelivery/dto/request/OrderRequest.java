@@ -15,4 +15,5 @@ import java.math.BigDecimal;
 @AllArgsConstructor
 public class OrderRequest {
     @NotNull Long cartId;
+    String promoCode;
 }
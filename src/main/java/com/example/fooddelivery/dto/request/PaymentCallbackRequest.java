@@ -0,0 +1,17 @@
+package com.example.fooddelivery.dto.request;
+
+import com.example.fooddelivery.enums.PaymentStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentCallbackRequest {
+    @NotNull Long paymentId;
+    @NotNull PaymentStatus status;
+}
@@ -2,6 +2,7 @@ package com.example.fooddelivery.dto.request;
 
 import com.example.fooddelivery.dto.AddressDto;
 import com.example.fooddelivery.enums.CuisineType;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
@@ -9,6 +10,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.math.BigDecimal;
 import java.time.LocalTime;
 
 @Getter
@@ -21,4 +23,5 @@ public class RestaurantRequest {
     @NotNull CuisineType cuisineType;
     @NotNull LocalTime openingTime;
     @NotNull LocalTime closingTime;
+    @DecimalMin("0.00") BigDecimal minOrderAmount;
 }
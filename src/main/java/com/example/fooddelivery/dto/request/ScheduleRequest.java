@@ -0,0 +1,21 @@
+package com.example.fooddelivery.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleRequest {
+    String timeZone;
+    @Valid @NotNull
+    List<OpeningHoursRequest> days = new ArrayList<>();
+}
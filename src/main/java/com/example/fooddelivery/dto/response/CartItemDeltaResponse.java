@@ -0,0 +1,8 @@
+package com.example.fooddelivery.dto.response;
+
+import java.math.BigDecimal;
+
+public record CartItemDeltaResponse(CartItemResponse item,
+                                    BigDecimal subtotal,
+                                    Integer eta
+) {}
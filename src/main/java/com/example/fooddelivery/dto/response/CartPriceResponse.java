@@ -0,0 +1,10 @@
+package com.example.fooddelivery.dto.response;
+
+import java.math.BigDecimal;
+
+public record CartPriceResponse(BigDecimal subtotal,
+                                BigDecimal deliveryFee,
+                                BigDecimal discount,
+                                BigDecimal total,
+                                BigDecimal minOrderAmount
+) {}
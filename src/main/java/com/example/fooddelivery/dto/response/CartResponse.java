@@ -6,5 +6,6 @@ public record CartResponse(Long id,
                            Long userId,
                            Long restaurantId,
                            List<CartItemResponse> items,
-                           Integer eta
+                           Integer eta,
+                           CartPriceResponse price
 ) {}
@@ -0,0 +1,8 @@
+package com.example.fooddelivery.dto.response;
+
+import java.util.List;
+
+public record CourierLocationResponse(Long courierId,
+                                      LocationResponse current,
+                                      List<LocationResponse> track) {
+}
@@ -0,0 +1,9 @@
+package com.example.fooddelivery.dto.response;
+
+import java.math.BigDecimal;
+
+public record CourierRatingResponse(Long orderId,
+                                    Long courierId,
+                                    Integer score,
+                                    BigDecimal courierRating
+) {}
@@ -0,0 +1,4 @@
+package com.example.fooddelivery.dto.response;
+
+public record ItemAvailabilityResponse(int updated) {
+}
@@ -0,0 +1,8 @@
+package com.example.fooddelivery.dto.response;
+
+import java.time.LocalDateTime;
+
+public record LocationResponse(Double latitude,
+                               Double longitude,
+                               LocalDateTime recordedAt) {
+}
@@ -0,0 +1,6 @@
+package com.example.fooddelivery.dto.response;
+
+public record MenuImportError(int row,
+                              String name,
+                              String message
+) {}
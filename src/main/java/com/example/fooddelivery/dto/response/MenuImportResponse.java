@@ -0,0 +1,9 @@
+package com.example.fooddelivery.dto.response;
+
+import java.util.List;
+
+public record MenuImportResponse(int created,
+                                 int updated,
+                                 int unchanged,
+                                 List<MenuImportError> errors
+) {}
@@ -0,0 +1,11 @@
+package com.example.fooddelivery.dto.response;
+
+import java.time.LocalDateTime;
+
+public record NotificationArchiveResponse(LocalDateTime cutoff,
+                                          long archived,
+                                          int files,
+                                          long durationMillis,
+                                          double rowsPerSecond
+) {
+}
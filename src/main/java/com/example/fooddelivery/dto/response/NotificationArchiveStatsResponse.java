@@ -0,0 +1,7 @@
+package com.example.fooddelivery.dto.response;
+
+public record NotificationArchiveStatsResponse(long runs,
+                                               long totalArchived,
+                                               NotificationArchiveResponse lastRun
+) {
+}
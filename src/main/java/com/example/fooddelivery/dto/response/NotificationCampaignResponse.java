@@ -0,0 +1,17 @@
+package com.example.fooddelivery.dto.response;
+
+import com.example.fooddelivery.enums.CampaignStatus;
+import com.example.fooddelivery.enums.NotificationChannel;
+
+import java.time.LocalDateTime;
+
+public record NotificationCampaignResponse(Long id,
+                                           String message,
+                                           NotificationChannel channel,
+                                           CampaignStatus status,
+                                           long lastUserId,
+                                           long notified,
+                                           LocalDateTime createdAt,
+                                           LocalDateTime finishedAt
+) {
+}
@@ -0,0 +1,10 @@
+package com.example.fooddelivery.dto.response;
+
+import java.util.List;
+
+//непрочитанные идут первыми: это ровно уведомления с deliverySeq больше readUpTo
+public record NotificationInboxResponse(List<NotificationResponse> notifications,
+                                        Long readUpTo,
+                                        long unreadCount
+) {
+}
@@ -13,5 +13,6 @@ public record NotificationResponse(Long id,
                                    NotificationStatus status,
                                    NotificationChannel channel,
                                    LocalDateTime sendAt,
-                                   LocalDateTime sentAt
+                                   LocalDateTime sentAt,
+                                   Long deliverySeq
 ) {}
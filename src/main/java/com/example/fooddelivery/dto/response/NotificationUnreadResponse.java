@@ -0,0 +1,6 @@
+package com.example.fooddelivery.dto.response;
+
+public record NotificationUnreadResponse(Long userId,
+                                         long unreadCount
+) {
+}
@@ -0,0 +1,9 @@
+package com.example.fooddelivery.dto.response;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+public record OpeningHoursResponse(DayOfWeek dayOfWeek,
+                                   LocalTime openingTime,
+                                   LocalTime closingTime
+) {}
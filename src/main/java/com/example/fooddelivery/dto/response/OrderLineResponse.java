@@ -0,0 +1,13 @@
+package com.example.fooddelivery.dto.response;
+
+import com.example.fooddelivery.enums.ItemSize;
+
+import java.math.BigDecimal;
+
+public record OrderLineResponse(Long itemId,
+                                Long itemOptionId,
+                                String itemName,
+                                ItemSize size,
+                                BigDecimal price,
+                                Integer quantity
+) {}
@@ -3,10 +3,13 @@ package com.example.fooddelivery.dto.response;
 import com.example.fooddelivery.enums.OrderStatus;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public record OrderResponse(Long id,
                             Long userId,
                             Long cartId,
                             OrderStatus status,
-                            BigDecimal totalAmount) {
+                            BigDecimal totalAmount,
+                            Long restaurantId,
+                            List<OrderLineResponse> lines) {
 }
@@ -0,0 +1,8 @@
+package com.example.fooddelivery.dto.response;
+
+import com.example.fooddelivery.enums.OrderStatus;
+
+public record OrderStatusEventResponse(Long orderId,
+                                       OrderStatus status,
+                                       Long courierId) {
+}
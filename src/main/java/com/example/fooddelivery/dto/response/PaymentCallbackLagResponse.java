@@ -0,0 +1,6 @@
+package com.example.fooddelivery.dto.response;
+
+public record PaymentCallbackLagResponse(long pending,
+                                         long lagSeconds,
+                                         long failed
+) {}
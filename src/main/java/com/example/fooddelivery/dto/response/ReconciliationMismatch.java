@@ -0,0 +1,14 @@
+package com.example.fooddelivery.dto.response;
+
+import com.example.fooddelivery.enums.PaymentStatus;
+import com.example.fooddelivery.enums.ReconciliationMismatchType;
+
+import java.math.BigDecimal;
+
+public record ReconciliationMismatch(Long paymentId,
+                                     ReconciliationMismatchType type,
+                                     BigDecimal amount,
+                                     BigDecimal providerAmount,
+                                     PaymentStatus status,
+                                     PaymentStatus providerStatus
+) {}
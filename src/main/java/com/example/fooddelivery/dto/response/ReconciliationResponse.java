@@ -0,0 +1,13 @@
+package com.example.fooddelivery.dto.response;
+
+import java.util.List;
+
+public record ReconciliationResponse(long providerRows,
+                                     long systemRows,
+                                     long matched,
+                                     long missingInProvider,
+                                     long missingInSystem,
+                                     long amountMismatches,
+                                     long statusMismatches,
+                                     List<ReconciliationMismatch> mismatches
+) {}
@@ -14,6 +14,7 @@ public record RestaurantResponse(
         BigDecimal rating,
         LocalTime openingTime,
         LocalTime closingTime,
-        boolean active
+        boolean active,
+        BigDecimal minOrderAmount
 ) {}
 
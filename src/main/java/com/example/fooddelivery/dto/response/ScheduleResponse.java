@@ -0,0 +1,8 @@
+package com.example.fooddelivery.dto.response;
+
+import java.util.List;
+
+public record ScheduleResponse(Long restaurantId,
+                               String timeZone,
+                               List<OpeningHoursResponse> days
+) {}
@@ -0,0 +1,11 @@
+package com.example.fooddelivery.dto.response;
+
+import com.example.fooddelivery.enums.SearchResultType;
+
+public record SearchResultResponse(SearchResultType type,
+                                   Long id,
+                                   Long restaurantId,
+                                   String name,
+                                   boolean available,
+                                   float score
+) {}
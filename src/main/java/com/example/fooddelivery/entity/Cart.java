@@ -13,7 +13,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "carts")
+@Table(name = "carts", indexes = @Index(name = "idx_carts_updated_at", columnList = "updated_at"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -37,9 +37,6 @@ public class Cart {
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CartItem> items = new ArrayList<>();
 
-    @OneToOne(mappedBy = "cart", fetch = FetchType.LAZY)
-    private Order order;
-
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -13,8 +13,10 @@ import lombok.Setter;
 @Setter
 @NoArgsConstructor
 public class CartItem {
+    public static final int MAX_QUANTITY = 50;
+
+    //id назначается CartStore из последовательности cart_items_seq при добавлении строки в корзину в памяти
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -31,6 +33,6 @@ public class CartItem {
 
     @Column(nullable = false)
     @Min(1)
-    @Max(50)
+    @Max(MAX_QUANTITY)
     private Integer quantity = 1;
 }
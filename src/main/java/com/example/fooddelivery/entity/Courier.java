@@ -13,6 +13,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -44,6 +45,12 @@ public class Courier {
     @Max(5)
     private BigDecimal rating = BigDecimal.ZERO;
 
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @Column(name = "rating_count", nullable = false)
+    private Integer ratingCount = 0;
+
     @Column(name = "current_orders_amount")
     private Integer currentOrdersAmount = 0;
 
@@ -65,4 +72,11 @@ public class Courier {
         this.rating = rating;
         this.currentOrdersAmount = currentOrdersAmount;
     }
+
+    public void setRatingTotals(long ratingSum, int ratingCount) {
+        this.ratingSum = ratingSum;
+        this.ratingCount = ratingCount;
+        this.rating = ratingCount == 0 ? BigDecimal.ZERO
+                : BigDecimal.valueOf(ratingSum).divide(BigDecimal.valueOf(ratingCount), 2, RoundingMode.HALF_UP);
+    }
 }
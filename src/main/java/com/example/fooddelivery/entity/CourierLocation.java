@@ -0,0 +1,41 @@
+package com.example.fooddelivery.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+//прореженный трек курьера: точки из памяти сохраняются пакетом раз в интервал
+@Entity
+@Immutable
+@Table(name = "courier_locations",
+        indexes = @Index(name = "idx_courier_locations_courier_id_recorded_at", columnList = "courier_id, recorded_at"))
+@Getter
+@NoArgsConstructor
+public class CourierLocation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "courier_locations_seq")
+    @SequenceGenerator(name = "courier_locations_seq", sequenceName = "courier_locations_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "courier_id", nullable = false)
+    private Long courierId;
+
+    @Column(nullable = false)
+    private Double latitude;
+
+    @Column(nullable = false)
+    private Double longitude;
+
+    @Column(name = "recorded_at", nullable = false)
+    private LocalDateTime recordedAt;
+
+    public CourierLocation(Long courierId, Double latitude, Double longitude, LocalDateTime recordedAt) {
+        this.courierId = courierId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.recordedAt = recordedAt;
+    }
+}
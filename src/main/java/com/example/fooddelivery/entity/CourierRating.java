@@ -0,0 +1,43 @@
+package com.example.fooddelivery.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+//сумма и количество оценок ведутся в Courier
+@Entity
+@Immutable
+@Table(name = "courier_ratings")
+@Getter
+@NoArgsConstructor
+public class CourierRating {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false, unique = true)
+    private Long orderId;
+
+    @Column(name = "courier_id", nullable = false)
+    private Long courierId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private Integer score;
+
+    @Column(name = "rated_at", nullable = false)
+    private LocalDateTime ratedAt;
+
+    public CourierRating(Long orderId, Long courierId, Long userId, Integer score, LocalDateTime ratedAt) {
+        this.orderId = orderId;
+        this.courierId = courierId;
+        this.userId = userId;
+        this.score = score;
+        this.ratedAt = ratedAt;
+    }
+}
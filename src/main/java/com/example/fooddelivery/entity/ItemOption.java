@@ -13,13 +13,14 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "item_options")
+@Table(name = "item_options", uniqueConstraints = @UniqueConstraint(columnNames = {"item_id", "size"}))
 @Getter
 @Setter
 @NoArgsConstructor
 public class ItemOption {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_options_seq")
+    @SequenceGenerator(name = "item_options_seq", sequenceName = "item_options_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
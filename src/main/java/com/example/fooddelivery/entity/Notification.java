@@ -8,17 +8,24 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_status_next_attempt_at", columnList = "status, next_attempt_at"),
+        @Index(name = "idx_notifications_user_id_delivery_seq", columnList = "user_id, delivery_seq desc"),
+        @Index(name = "idx_notifications_created_at", columnList = "created_at")
+})
 @Getter
 @Setter
 @NoArgsConstructor
 public class Notification {
+    //id из последовательности, а не identity, чтобы массовые вставки уходили в JDBC пачками
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notifications_seq")
+    @SequenceGenerator(name = "notifications_seq", sequenceName = "notifications_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -47,6 +54,21 @@ public class Notification {
     @Column(name = "sent_at")
     private LocalDateTime sentAt;
 
+    //номер из notifications_delivery_seq, выдается при первой доставке и задает порядок входящих
+    @Column(name = "delivery_seq")
+    private Long deliverySeq;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    //когда уведомление в статусе SCHEDULED или RETRYING нужно забрать на отправку
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
     public Notification(User user, String message, NotificationType type, NotificationStatus status, NotificationChannel channel) {
         this.user = user;
         this.message = message;
@@ -0,0 +1,68 @@
+package com.example.fooddelivery.entity;
+
+import com.example.fooddelivery.enums.CampaignStatus;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.UserRole;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+//lastUserId - точка возобновления рассылки
+@Entity
+@Table(name = "notification_campaigns")
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationCampaign {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotBlank
+    @Column(nullable = false)
+    private String message;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private NotificationChannel channel;
+
+    @Enumerated(EnumType.STRING)
+    private UserRole role;
+
+    private String city;
+
+    private Boolean active;
+
+    @Column(name = "last_order_after")
+    private LocalDateTime lastOrderAfter;
+
+    //последний заказ раньше lastOrderBefore или заказов нет
+    @Column(name = "last_order_before")
+    private LocalDateTime lastOrderBefore;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CampaignStatus status = CampaignStatus.RUNNING;
+
+    @Column(name = "last_user_id", nullable = false)
+    private long lastUserId;
+
+    @Column(nullable = false)
+    private long notified;
+
+    //отмена и сдвиг точки возобновления фоновым потоком не должны затирать друг друга
+    @Version
+    private Long version;
+
+    @CreationTimestamp
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,26 @@
+package com.example.fooddelivery.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+//граница прочитанного во входящих: прочитаны все уведомления пользователя с deliverySeq не больше readUpTo
+@Entity
+@Table(name = "notification_read_marks")
+@Getter
+@Setter
+@NoArgsConstructor
+public class NotificationReadMark {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "read_up_to", nullable = false)
+    private Long readUpTo;
+
+    public NotificationReadMark(Long userId, Long readUpTo) {
+        this.userId = userId;
+        this.readUpTo = readUpTo;
+    }
+}
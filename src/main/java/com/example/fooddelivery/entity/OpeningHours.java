@@ -0,0 +1,43 @@
+package com.example.fooddelivery.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+@Entity
+@Table(name = "restaurant_opening_hours",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"restaurant_id", "day_of_week"}))
+@Getter
+@Setter
+@NoArgsConstructor
+public class OpeningHours {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "restaurant_id", nullable = false)
+    private Restaurant restaurant;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week", nullable = false)
+    private DayOfWeek dayOfWeek;
+
+    @Column(name = "opening_time", nullable = false)
+    private LocalTime openingTime;
+
+    //closingTime <= openingTime означает, что ресторан закрывается на следующий день
+    @Column(name = "closing_time", nullable = false)
+    private LocalTime closingTime;
+
+    public OpeningHours(Restaurant restaurant, DayOfWeek dayOfWeek, LocalTime openingTime, LocalTime closingTime) {
+        this.restaurant = restaurant;
+        this.dayOfWeek = dayOfWeek;
+        this.openingTime = openingTime;
+        this.closingTime = closingTime;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.fooddelivery.entity;
+
+import com.example.fooddelivery.enums.ItemSize;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+//снимок строки корзины на момент оформления: ссылки на меню хранятся как значения и не зависят от его изменений
+@Entity
+@Immutable
+@Table(name = "order_lines", indexes = @Index(name = "idx_order_lines_order_id", columnList = "order_id"))
+@Getter
+@NoArgsConstructor
+public class OrderLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_lines_seq")
+    @SequenceGenerator(name = "order_lines_seq", sequenceName = "order_lines_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id", nullable = false)
+    private Order order;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    @Column(name = "item_option_id", nullable = false)
+    private Long itemOptionId;
+
+    @Column(name = "item_name", nullable = false)
+    private String itemName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ItemSize size;
+
+    @Column(nullable = false)
+    private BigDecimal price;
+
+    @Column(nullable = false)
+    private Integer quantity;
+
+    public OrderLine(Order order, Long itemId, Long itemOptionId, String itemName, ItemSize size, BigDecimal price, Integer quantity) {
+        this.order = order;
+        this.itemId = itemId;
+        this.itemOptionId = itemOptionId;
+        this.itemName = itemName;
+        this.size = size;
+        this.price = price;
+        this.quantity = quantity;
+    }
+}
@@ -33,6 +33,9 @@ public class Payment {
     @Column(name = "payment_type", nullable = false)
     private PaymentType paymentType;
 
+    @Version
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -0,0 +1,48 @@
+package com.example.fooddelivery.entity;
+
+import com.example.fooddelivery.enums.PaymentStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//колбэк, который не удалось применить, остается с failedAt
+@Entity
+@Table(name = "payment_callbacks", indexes = {
+        @Index(name = "idx_payment_callbacks_partition_id", columnList = "partition_no, id")
+})
+@Getter
+@NoArgsConstructor
+public class PaymentCallback {
+    //число партиций не зависит от числа обработчиков, поэтому его можно менять без перекладки очереди
+    public static final int PARTITIONS = 64;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false)
+    private Long paymentId;
+
+    //колбэки одного платежа всегда попадают в одну партицию и применяются по порядку
+    @Column(name = "partition_no", nullable = false)
+    private int partition;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentStatus status;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "failed_at")
+    private LocalDateTime failedAt;
+
+    public PaymentCallback(Long paymentId, PaymentStatus status, LocalDateTime receivedAt) {
+        this.paymentId = paymentId;
+        this.partition = Math.floorMod(paymentId, PARTITIONS);
+        this.status = status;
+        this.receivedAt = receivedAt;
+    }
+}
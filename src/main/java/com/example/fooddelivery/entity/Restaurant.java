@@ -50,6 +50,17 @@ public class Restaurant {
     @Column(name = "closing_time", nullable = false)
     private LocalTime closingTime;
 
+    //null - минимальная сумма заказа по умолчанию из настроек pricing
+    @DecimalMin("0.0")
+    @Column(name = "min_order_amount")
+    private BigDecimal minOrderAmount;
+
+    @Column(name = "time_zone")
+    private String timeZone;
+
+    @OneToMany(mappedBy = "restaurant", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    private List<OpeningHours> openingHours = new ArrayList<>();
+
     @Column(nullable = false)
     private boolean active = true;
 
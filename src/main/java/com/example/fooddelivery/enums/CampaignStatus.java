@@ -0,0 +1,8 @@
+package com.example.fooddelivery.enums;
+
+public enum CampaignStatus {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
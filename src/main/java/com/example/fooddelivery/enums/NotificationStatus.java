@@ -5,5 +5,7 @@ public enum NotificationStatus {
     SCHEDULED,
     SENT,
     DELIVERED,
-    FAILED
+    FAILED,
+    RETRYING,
+    DEAD_LETTER
 }
@@ -4,5 +4,14 @@ public enum PaymentStatus {
     PENDING,
     SUCCEEDED,
     FAILED,
-    REFUNDED
+    REFUNDED;
+
+    //допустимые переходы: ожидание завершается успехом или отказом, вернуть можно только успешный платеж
+    public boolean canTransitionTo(PaymentStatus target) {
+        return switch (this) {
+            case PENDING -> target == SUCCEEDED || target == FAILED;
+            case SUCCEEDED -> target == REFUNDED;
+            case FAILED, REFUNDED -> false;
+        };
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.fooddelivery.enums;
+
+public enum ReconciliationMismatchType {
+    MISSING_IN_PROVIDER,
+    MISSING_IN_SYSTEM,
+    AMOUNT_DIFFERS,
+    STATUS_DIFFERS
+}
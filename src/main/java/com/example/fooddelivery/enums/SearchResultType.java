@@ -0,0 +1,6 @@
+package com.example.fooddelivery.enums;
+
+public enum SearchResultType {
+    RESTAURANT,
+    ITEM
+}
@@ -0,0 +1,6 @@
+package com.example.fooddelivery.event;
+
+import java.time.LocalDateTime;
+
+public record CourierRatedEvent(Long ratingId, Long courierId, int score, LocalDateTime ratedAt) {
+}
@@ -0,0 +1,9 @@
+package com.example.fooddelivery.event;
+
+import java.util.Set;
+
+public record MenuChangedEvent(Long restaurantId,
+                               Set<Long> itemIds,
+                               Set<Long> optionIds,
+                               Set<Long> cartIds
+) {}
@@ -0,0 +1,7 @@
+package com.example.fooddelivery.event;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record NotificationScheduledEvent(List<Long> notificationIds, LocalDateTime nextAttemptAt) {
+}
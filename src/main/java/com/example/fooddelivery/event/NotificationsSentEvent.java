@@ -0,0 +1,7 @@
+package com.example.fooddelivery.event;
+
+import java.util.List;
+
+//по одному userId на каждое отправленное уведомление
+public record NotificationsSentEvent(List<Long> userIds) {
+}
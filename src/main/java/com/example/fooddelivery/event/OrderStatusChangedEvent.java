@@ -0,0 +1,11 @@
+package com.example.fooddelivery.event;
+
+import com.example.fooddelivery.entity.Order;
+import com.example.fooddelivery.enums.OrderStatus;
+
+public record OrderStatusChangedEvent(Long orderId, Long userId, Long courierId, OrderStatus status) {
+    public static OrderStatusChangedEvent of(Order order) {
+        Long courierId = order.getCourier() == null ? null : order.getCourier().getId();
+        return new OrderStatusChangedEvent(order.getId(), order.getUser().getId(), courierId, order.getStatus());
+    }
+}
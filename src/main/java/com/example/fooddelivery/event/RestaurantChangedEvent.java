@@ -0,0 +1,4 @@
+package com.example.fooddelivery.event;
+
+public record RestaurantChangedEvent(Long restaurantId) {
+}
@@ -0,0 +1,11 @@
+package com.example.fooddelivery.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ImportException extends RuntimeException {
+    public ImportException(String message) {
+        super(message);
+    }
+}
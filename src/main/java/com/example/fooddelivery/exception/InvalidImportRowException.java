@@ -0,0 +1,15 @@
+package com.example.fooddelivery.exception;
+
+//строку файла не удалось разобрать: импорт записывает ошибку и продолжает со следующей
+public class InvalidImportRowException extends ImportException {
+    private final String name;
+
+    public InvalidImportRowException(String name, String message) {
+        super(message);
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.fooddelivery.inner;
+
+import com.example.fooddelivery.enums.NotificationChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Slf4j
+public class EmailNotificationSender implements NotificationSender {
+    @Override
+    public NotificationChannel channel() {
+        return NotificationChannel.EMAIL;
+    }
+
+    @Override
+    public void send(List<OutgoingNotification> notifications) throws Exception {
+        for (OutgoingNotification notification : notifications) {
+            log.info("Email sent to user {}, {}", notification.userId(), notification.message());
+        }
+    }
+}
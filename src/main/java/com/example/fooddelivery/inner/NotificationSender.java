@@ -1,7 +1,12 @@
 package com.example.fooddelivery.inner;
 
-import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.enums.NotificationChannel;
+
+import java.util.List;
 
 public interface NotificationSender {
-    void send(Notification notification) throws Exception;
+    NotificationChannel channel();
+
+    //пачка не больше notifications.channels.<канал>.batch-size, ошибка означает, что не отправлено ни одно
+    void send(List<OutgoingNotification> notifications) throws Exception;
 }
@@ -0,0 +1,17 @@
+package com.example.fooddelivery.inner;
+
+import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.enums.NotificationChannel;
+
+//снимок уведомления для отправки вне транзакции, без ленивых связей сущности
+public record OutgoingNotification(Long id,
+                                   Long userId,
+                                   NotificationChannel channel,
+                                   String message,
+                                   int attempts
+) {
+    public static OutgoingNotification of(Notification notification) {
+        return new OutgoingNotification(notification.getId(), notification.getUser().getId(),
+                notification.getChannel(), notification.getMessage(), notification.getAttempts());
+    }
+}
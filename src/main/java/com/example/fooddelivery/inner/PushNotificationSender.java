@@ -1,14 +1,23 @@
 package com.example.fooddelivery.inner;
 
-import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.enums.NotificationChannel;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @Slf4j
 public class PushNotificationSender implements NotificationSender {
     @Override
-    public void send(Notification notification) throws Exception {
-        log.info("Push sent to user {}, {}", notification.getUser().getId(), notification.getMessage());
+    public NotificationChannel channel() {
+        return NotificationChannel.PUSH;
+    }
+
+    @Override
+    public void send(List<OutgoingNotification> notifications) throws Exception {
+        for (OutgoingNotification notification : notifications) {
+            log.info("Push sent to user {}, {}", notification.userId(), notification.message());
+        }
     }
 }
@@ -0,0 +1,22 @@
+package com.example.fooddelivery.inner;
+
+import com.example.fooddelivery.enums.NotificationChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Slf4j
+public class SmsNotificationSender implements NotificationSender {
+    @Override
+    public NotificationChannel channel() {
+        return NotificationChannel.SMS;
+    }
+
+    @Override
+    public void send(List<OutgoingNotification> notifications) throws Exception {
+        log.info("SMS batch of {} sent to users {}", notifications.size(),
+                notifications.stream().map(OutgoingNotification::userId).toList());
+    }
+}
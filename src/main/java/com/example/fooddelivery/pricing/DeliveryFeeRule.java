@@ -0,0 +1,36 @@
+package com.example.fooddelivery.pricing;
+
+import com.example.fooddelivery.config.PricingProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+
+@Component
+public class DeliveryFeeRule implements PricingRule {
+    //пороги по убыванию: берется первый, до которого дотягивает сумма корзины
+    private final long[] thresholds;
+    private final long[] fees;
+
+    public DeliveryFeeRule(PricingProperties properties) {
+        List<PricingProperties.DeliveryFeeTier> tiers = properties.deliveryFeeTiers().stream()
+                .sorted(Comparator.comparing(PricingProperties.DeliveryFeeTier::from).reversed())
+                .toList();
+        thresholds = new long[tiers.size()];
+        fees = new long[tiers.size()];
+        for (int i = 0; i < tiers.size(); i++) {
+            thresholds[i] = Money.toMinor(tiers.get(i).from());
+            fees[i] = Money.toMinor(tiers.get(i).fee());
+        }
+    }
+
+    @Override
+    public void apply(PriceBreakdown price) {
+        for (int i = 0; i < thresholds.length; i++) {
+            if (price.getSubtotal() >= thresholds[i]) {
+                price.setDeliveryFee(fees[i]);
+                return;
+            }
+        }
+    }
+}
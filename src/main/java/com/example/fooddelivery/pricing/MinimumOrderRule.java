@@ -0,0 +1,41 @@
+package com.example.fooddelivery.pricing;
+
+import com.example.fooddelivery.config.PricingProperties;
+import com.example.fooddelivery.event.RestaurantChangedEvent;
+import com.example.fooddelivery.repository.RestaurantRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class MinimumOrderRule implements PricingRule {
+    private final RestaurantRepository restaurantRepository;
+    private final long defaultAmount;
+    private final Map<Long, Long> amounts = new ConcurrentHashMap<>();
+
+    public MinimumOrderRule(RestaurantRepository restaurantRepository, PricingProperties properties) {
+        this.restaurantRepository = restaurantRepository;
+        this.defaultAmount = Money.toMinor(properties.minOrderAmount());
+    }
+
+    @Override
+    public void apply(PriceBreakdown price) {
+        if (price.getRestaurantId() == null) {
+            return;
+        }
+        price.setMinOrderAmount(amounts.computeIfAbsent(price.getRestaurantId(), this::load));
+    }
+
+    @TransactionalEventListener
+    public void onRestaurantChanged(RestaurantChangedEvent event) {
+        amounts.remove(event.restaurantId());
+    }
+
+    private long load(Long restaurantId) {
+        return restaurantRepository.findMinOrderAmountById(restaurantId)
+                .map(Money::toMinor)
+                .orElse(defaultAmount);
+    }
+}
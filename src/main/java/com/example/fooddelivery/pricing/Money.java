@@ -0,0 +1,28 @@
+package com.example.fooddelivery.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+//суммы внутри корзины и правил цены хранятся в копейках в long, BigDecimal только на границе с БД и API
+public final class Money {
+    private static final int SCALE = 2;
+
+    private Money() {
+    }
+
+    public static long toMinor(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, SCALE);
+    }
+
+    public static long times(long minor, int quantity) {
+        return Math.multiplyExact(minor, quantity);
+    }
+
+    public static long percent(long minor, int percent) {
+        return Math.multiplyExact(minor, percent) / 100;
+    }
+}
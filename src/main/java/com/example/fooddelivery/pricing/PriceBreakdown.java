@@ -0,0 +1,25 @@
+package com.example.fooddelivery.pricing;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class PriceBreakdown {
+    private final Long restaurantId;
+    private final long subtotal;
+    private final String promoCode;
+    private long minOrderAmount;
+    private long deliveryFee;
+    private long discount;
+
+    public long getTotal() {
+        return subtotal - discount + deliveryFee;
+    }
+
+    public boolean isBelowMinimum() {
+        return subtotal < minOrderAmount;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.fooddelivery.pricing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class PricingEngine {
+    private final List<PricingRule> rules;
+
+    public PriceBreakdown price(Long restaurantId, long subtotal, String promoCode) {
+        PriceBreakdown price = new PriceBreakdown(restaurantId, subtotal, promoCode);
+        if (subtotal == 0) {
+            return price;
+        }
+        for (int i = 0; i < rules.size(); i++) {
+            rules.get(i).apply(price);
+        }
+        return price;
+    }
+}
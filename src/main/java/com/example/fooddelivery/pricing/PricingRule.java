@@ -0,0 +1,6 @@
+package com.example.fooddelivery.pricing;
+
+//правило читает сумму корзины и заполняет только свою часть расчета, поэтому порядок правил не важен
+public interface PricingRule {
+    void apply(PriceBreakdown price);
+}
@@ -0,0 +1,41 @@
+package com.example.fooddelivery.pricing;
+
+import com.example.fooddelivery.config.PricingProperties;
+import com.example.fooddelivery.exception.BusinessException;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+public class PromoCodeRule implements PricingRule {
+    private final Map<String, Promo> promos = new HashMap<>();
+
+    public PromoCodeRule(PricingProperties properties) {
+        properties.promoCodes().forEach((code, promo) -> promos.put(code.toUpperCase(Locale.ROOT), new Promo(
+                promo.percent(),
+                promo.maxDiscount() == null ? Long.MAX_VALUE : Money.toMinor(promo.maxDiscount()),
+                Money.toMinor(promo.minSubtotal()))));
+    }
+
+    @Override
+    public void apply(PriceBreakdown price) {
+        if (price.getPromoCode() == null || price.getPromoCode().isBlank()) {
+            return;
+        }
+
+        Promo promo = promos.get(price.getPromoCode().trim().toUpperCase(Locale.ROOT));
+        if (promo == null) {
+            throw new BusinessException(String.format("Promo code %s is not valid", price.getPromoCode()));
+        }
+        if (price.getSubtotal() < promo.minSubtotal()) {
+            throw new BusinessException(String.format("Promo code %s requires order amount of at least %s",
+                    price.getPromoCode(), Money.toDecimal(promo.minSubtotal())));
+        }
+        price.setDiscount(Math.min(Money.percent(price.getSubtotal(), promo.percent()), promo.maxDiscount()));
+    }
+
+    private record Promo(int percent, long maxDiscount, long minSubtotal) {
+    }
+}
@@ -2,8 +2,38 @@ package com.example.fooddelivery.repository;
 
 import com.example.fooddelivery.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Set;
+
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
+    //первый id очередного блока из LINE_ID_BLOCK id строк
+    @Query(value = "select next value for cart_items_seq", nativeQuery = true)
+    long nextIdBlock();
+
+    @Query("select distinct ci.cart.id from CartItem ci where ci.itemOption.id in :optionIds")
+    Set<Long> findCartIdsByItemOptionIds(@Param("optionIds") Collection<Long> optionIds);
+
+    @Query("select distinct ci.cart.id from CartItem ci where ci.item.id = :itemId")
+    Set<Long> findCartIdsByItemId(@Param("itemId") Long itemId);
+
+    @Query("select distinct ci.cart.id from CartItem ci where ci.item.id in :itemIds")
+    Set<Long> findCartIdsByItemIds(@Param("itemIds") Collection<Long> itemIds);
+
+    @Modifying
+    @Query("delete from CartItem ci where ci.itemOption.id in :optionIds")
+    int deleteByItemOptionIds(@Param("optionIds") Collection<Long> optionIds);
+
+    @Modifying
+    @Query("delete from CartItem ci where ci.cart.id in :cartIds")
+    int deleteByCartIds(@Param("cartIds") Collection<Long> cartIds);
+
+    @Modifying
+    @Query("delete from CartItem ci where ci.item.id = :itemId")
+    int deleteByItemId(@Param("itemId") Long itemId);
 }
@@ -1,12 +1,34 @@
 package com.example.fooddelivery.repository;
 
 import com.example.fooddelivery.entity.Cart;
+import com.example.fooddelivery.repository.projection.IdleCartView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUserId(Long userId);
+
+    @Query("select distinct c from Cart c left join fetch c.items ci left join fetch ci.itemOption where c.user.id = :userId")
+    Optional<Cart> findWithItemsByUserId(@Param("userId") Long userId);
+
+    @Query("select distinct c from Cart c left join fetch c.items where c.id = :id")
+    Optional<Cart> findWithItemsById(@Param("id") Long id);
+
+    @Query("select c.id as id, c.user.id as userId, size(c.items) as itemCount from Cart c " +
+            "where c.updatedAt < :cutoff order by c.updatedAt")
+    List<IdleCartView> findIdle(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Modifying
+    @Query("delete from Cart c where c.id in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,13 @@
+package com.example.fooddelivery.repository;
+
+import com.example.fooddelivery.entity.CourierLocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CourierLocationRepository extends JpaRepository<CourierLocation, Long> {
+    List<CourierLocation> findByCourierIdAndRecordedAtAfterOrderByRecordedAt(Long courierId, LocalDateTime since);
+}
@@ -0,0 +1,30 @@
+package com.example.fooddelivery.repository;
+
+import com.example.fooddelivery.entity.CourierRating;
+import com.example.fooddelivery.repository.projection.CourierRatingTotalsView;
+import com.example.fooddelivery.repository.projection.CourierRatingView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.stream.Stream;
+
+@Repository
+public interface CourierRatingRepository extends JpaRepository<CourierRating, Long> {
+    boolean existsByOrderId(Long orderId);
+
+    @Query("select max(r.id) from CourierRating r")
+    Long findMaxId();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select r.id as id, r.courierId as courierId, r.score as score, r.ratedAt as ratedAt " +
+            "from CourierRating r where r.id <= :maxId")
+    Stream<CourierRatingView> streamUpTo(@Param("maxId") Long maxId);
+
+    @Query("select coalesce(sum(r.score), 0) as sum, count(r) as count from CourierRating r where r.courierId = :courierId")
+    CourierRatingTotalsView findTotalsByCourierId(@Param("courierId") Long courierId);
+}
@@ -1,9 +1,23 @@
 package com.example.fooddelivery.repository;
 
 import com.example.fooddelivery.entity.Courier;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface CourierRepository extends JpaRepository<Courier, Long> {
+    long countByCurrentOrdersAmountGreaterThan(Integer amount);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Courier> findLockedById(Long id);
+
+    @Query("select c.id from Courier c where c.ratingCount <> (select count(r) from CourierRating r where r.courierId = c.id) " +
+            "or c.ratingSum <> (select coalesce(sum(r.score), 0) from CourierRating r where r.courierId = c.id)")
+    List<Long> findIdsWithDriftedRatingTotals();
 }
@@ -1,9 +1,23 @@
 package com.example.fooddelivery.repository;
 
 import com.example.fooddelivery.entity.ItemOption;
+import com.example.fooddelivery.repository.projection.ItemOptionCartView;
+import com.example.fooddelivery.repository.projection.ItemOptionSnapshotView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ItemOptionRepository extends JpaRepository<ItemOption, Long> {
+    @Query("select o.id as id, i.name as itemName, o.size as size from ItemOption o join o.item i where o.id in :ids")
+    List<ItemOptionSnapshotView> findSnapshotsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select o.id as id, i.id as itemId, i.restaurant.id as restaurantId, o.price as price, " +
+            "o.preparationMinutes as preparationMinutes from ItemOption o join o.item i where o.id = :id")
+    Optional<ItemOptionCartView> findCartViewById(@Param("id") Long id);
 }
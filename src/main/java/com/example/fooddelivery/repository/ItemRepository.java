@@ -1,12 +1,43 @@
 package com.example.fooddelivery.repository;
 
 import com.example.fooddelivery.entity.Item;
+import com.example.fooddelivery.repository.projection.ItemAvailabilityView;
+import com.example.fooddelivery.repository.projection.ItemSearchView;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findByRestaurantId(Long id);
+
+    @Query("select distinct i from Item i left join fetch i.options " +
+            "where i.restaurant.id = :restaurantId and lower(trim(i.name)) in :keys")
+    List<Item> findWithOptionsByRestaurantIdAndNameKeys(@Param("restaurantId") Long restaurantId,
+                                                        @Param("keys") Collection<String> keys);
+
+    @Query("select i.id as id, i.restaurant.id as restaurantId, i.available as available from Item i where i.restaurant.id = :restaurantId")
+    List<ItemAvailabilityView> findAvailabilityByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    @Query("select i.id as id, i.restaurant.id as restaurantId, i.available as available from Item i where i.id in :ids")
+    List<ItemAvailabilityView> findAvailabilityByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.id as id, i.restaurant.id as restaurantId, i.name as name, i.available as available from Item i where i.restaurant.id = :restaurantId")
+    List<ItemSearchView> findSearchViewsByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    @Query("select i.id as id, i.restaurant.id as restaurantId, i.name as name, i.available as available from Item i where i.id in :ids")
+    List<ItemSearchView> findSearchViewsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.restaurant.id from Item i where i.id = :id")
+    Optional<Long> findRestaurantIdById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Item i set i.available = :available where i.id in :ids and i.available <> :available")
+    int updateAvailability(@Param("ids") Collection<Long> ids, @Param("available") boolean available);
 }
@@ -0,0 +1,24 @@
+package com.example.fooddelivery.repository;
+
+import com.example.fooddelivery.entity.NotificationCampaign;
+import com.example.fooddelivery.enums.CampaignStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationCampaignRepository extends JpaRepository<NotificationCampaign, Long> {
+    List<NotificationCampaign> findAllByStatus(CampaignStatus status);
+
+    //версия увеличивается, чтобы пачка, прочитанная до смены статуса, не смогла сохраниться поверх него
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update NotificationCampaign c set c.status = :status, c.finishedAt = :finishedAt, c.version = c.version + 1 " +
+            "where c.id = :id and c.status = :expectedStatus")
+    int finish(@Param("id") Long id, @Param("expectedStatus") CampaignStatus expectedStatus,
+               @Param("status") CampaignStatus status, @Param("finishedAt") LocalDateTime finishedAt);
+}
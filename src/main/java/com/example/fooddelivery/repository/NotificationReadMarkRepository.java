@@ -0,0 +1,15 @@
+package com.example.fooddelivery.repository;
+
+import com.example.fooddelivery.entity.NotificationReadMark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NotificationReadMarkRepository extends JpaRepository<NotificationReadMark, Long> {
+    //граница только сдвигается вперед, поэтому запоздавший запрос не вернет прочитанное в непрочитанные
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update NotificationReadMark m set m.readUpTo = :readUpTo where m.userId = :userId and m.readUpTo < :readUpTo")
+    int advance(Long userId, Long readUpTo);
+}
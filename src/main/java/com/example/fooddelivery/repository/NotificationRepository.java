@@ -2,14 +2,77 @@ package com.example.fooddelivery.repository;
 
 import com.example.fooddelivery.entity.Notification;
 import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.repository.projection.NotificationDueView;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findAllByUserId(Long userId);
-    List<Notification> findAllByStatusAndSendAtLessThanEqual(NotificationStatus status, LocalDateTime sendAt);
+
+    //входящие читаются по индексу (user_id, delivery_seq desc) от последних доставленных к ранним
+    @Query("select n from Notification n where n.user.id = :userId and n.status in :statuses order by n.deliverySeq desc")
+    List<Notification> findInbox(Long userId, Collection<NotificationStatus> statuses, Limit limit);
+
+    @Query("select n from Notification n where n.user.id = :userId and n.status in :statuses " +
+            "and n.deliverySeq < (select b.deliverySeq from Notification b where b.id = :before) order by n.deliverySeq desc")
+    List<Notification> findInboxBefore(Long userId, Collection<NotificationStatus> statuses, Long before, Limit limit);
+
+    @Query("select count(n) from Notification n where n.user.id = :userId and n.status in :statuses and n.deliverySeq > :after")
+    long countInboxAfter(Long userId, Collection<NotificationStatus> statuses, Long after);
+
+    @Query("select n.deliverySeq from Notification n where n.id = :id and n.user.id = :userId and n.status in :statuses")
+    Optional<Long> findDeliverySeq(Long id, Long userId, Collection<NotificationStatus> statuses);
+
+    //кандидаты в архив читаются по возрастанию id, курсор after не дает перечитывать уже выгруженное
+    @Query("select n from Notification n where n.status in :statuses and n.createdAt < :cutoff and n.id > :after order by n.id")
+    List<Notification> findArchivable(Collection<NotificationStatus> statuses, LocalDateTime cutoff, Long after, Limit limit);
+
+    @Modifying
+    @Query("delete from Notification n where n.id in :ids")
+    int deleteByIds(Collection<Long> ids);
+
+    //отложенные отправки и повторы читаются по индексу (status, next_attempt_at)
+    @Query("select n from Notification n where n.status in :statuses and n.nextAttemptAt <= :now order by n.nextAttemptAt")
+    List<Notification> findDue(Collection<NotificationStatus> statuses, LocalDateTime now, Limit limit);
+
+    @Query("select n from Notification n where n.id in :ids and n.status in :statuses and n.nextAttemptAt <= :now")
+    List<Notification> findDueByIds(Collection<Long> ids, Collection<NotificationStatus> statuses, LocalDateTime now);
+
+    @Query("select n.id as id, n.nextAttemptAt as nextAttemptAt from Notification n " +
+            "where n.status in :statuses and n.nextAttemptAt <= :until order by n.nextAttemptAt")
+    List<NotificationDueView> findDueViews(Collection<NotificationStatus> statuses, LocalDateTime until, Limit limit);
+
+    //номер доставки выдается один раз: повторная отправка после истекшей аренды не поднимает уведомление во входящих
+    @Modifying
+    @Query(value = "update notifications set status = 'SENT', sent_at = :sentAt, " +
+            "delivery_seq = coalesce(delivery_seq, next value for notifications_delivery_seq) where id in :ids",
+            nativeQuery = true)
+    int markSent(Collection<Long> ids, LocalDateTime sentAt);
+
+    @Query(value = "select next value for notifications_delivery_seq", nativeQuery = true)
+    long nextDeliverySeq();
+
+    @Modifying
+    @Query("update Notification n set n.status = :status, n.nextAttemptAt = :nextAttemptAt where n.id in :ids")
+    int reschedule(Collection<Long> ids, NotificationStatus status, LocalDateTime nextAttemptAt);
+
+    //строка меняется, только если ее с момента чтения не забрал другой поток: пара (status, nextAttemptAt) служит версией
+    @Modifying
+    @Query("update Notification n set n.status = :status, n.attempts = :attempts, n.nextAttemptAt = :nextAttemptAt " +
+            "where n.id = :id and n.status = :expectedStatus and n.nextAttemptAt = :expectedNextAttemptAt")
+    int compareAndUpdate(Long id, NotificationStatus expectedStatus, LocalDateTime expectedNextAttemptAt,
+                         NotificationStatus status, int attempts, LocalDateTime nextAttemptAt);
+
+    @Modifying
+    @Query("update Notification n set n.status = :status, n.attempts = :attempts, n.nextAttemptAt = :nextAttemptAt where n.id = :id")
+    int updateAttempt(Long id, NotificationStatus status, int attempts, LocalDateTime nextAttemptAt);
 }
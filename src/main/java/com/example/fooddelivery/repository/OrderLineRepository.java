@@ -0,0 +1,18 @@
+package com.example.fooddelivery.repository;
+
+import com.example.fooddelivery.entity.OrderLine;
+import com.example.fooddelivery.repository.projection.OrderLineView;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLine, Long> {
+    @Query("select l.order.id as orderId, l.itemId as itemId, l.itemOptionId as itemOptionId, l.itemName as itemName, " +
+            "l.size as size, l.price as price, l.quantity as quantity from OrderLine l where l.order.id in :orderIds order by l.id")
+    List<OrderLineView> findViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -2,13 +2,54 @@ package com.example.fooddelivery.repository;
 
 import com.example.fooddelivery.entity.Order;
 import com.example.fooddelivery.enums.OrderStatus;
+import com.example.fooddelivery.repository.projection.OrderSummaryView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    List<Order> findByUserId(Long userId);
+    @Query("select o.id as id, o.user.id as userId, o.cart.id as cartId, o.status as status, " +
+            "o.totalAmount as totalAmount, o.restaurant.id as restaurantId from Order o " +
+            "where o.user.id = :userId order by o.createdAt desc, o.id desc")
+    List<OrderSummaryView> findHistory(@Param("userId") Long userId, Limit limit);
+
+    //keyset-пагинация: продолжение после заказа before в порядке (created_at desc, id desc)
+    @Query("select o.id as id, o.user.id as userId, o.cart.id as cartId, o.status as status, " +
+            "o.totalAmount as totalAmount, o.restaurant.id as restaurantId from Order o, Order b " +
+            "where b.id = :before and o.user.id = :userId " +
+            "and (o.createdAt < b.createdAt or (o.createdAt = b.createdAt and o.id < b.id)) " +
+            "order by o.createdAt desc, o.id desc")
+    List<OrderSummaryView> findHistoryBefore(@Param("userId") Long userId, @Param("before") Long before, Limit limit);
+
+    @EntityGraph(attributePaths = "lines")
     List<Order> findByStatus(OrderStatus status);
+
+    @EntityGraph(attributePaths = "lines")
+    List<Order> findByCourierIdAndStatus(Long courierId, OrderStatus status);
+
+    @EntityGraph(attributePaths = "lines")
+    List<Order> findAllWithLinesBy();
+
+    @EntityGraph(attributePaths = "lines")
+    Optional<Order> findWithLinesById(Long id);
+
+    //статус меняется, только если заказ все еще в одном из ожидаемых статусов
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Order o set o.status = :status, o.updatedAt = current_timestamp " +
+            "where o.id = :id and o.status in :expected")
+    int updateStatusIfIn(@Param("id") Long id, @Param("expected") Collection<OrderStatus> expected,
+                         @Param("status") OrderStatus status);
+
+    @Modifying
+    @Query("update Order o set o.cart = null where o.cart.id in :cartIds")
+    int detachCarts(@Param("cartIds") Collection<Long> cartIds);
 }
@@ -0,0 +1,29 @@
+package com.example.fooddelivery.repository;
+
+import com.example.fooddelivery.entity.PaymentCallback;
+import com.example.fooddelivery.repository.projection.PaymentCallbackQueueView;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentCallbackRepository extends JpaRepository<PaymentCallback, Long> {
+    //голова партиции читается по индексу (partition_no, id)
+    @Query("select c from PaymentCallback c where c.partition = :partition and c.failedAt is null order by c.id")
+    List<PaymentCallback> findBatch(int partition, Limit limit);
+
+    @Modifying
+    @Query("update PaymentCallback c set c.failedAt = :failedAt where c.id in :ids")
+    int markFailed(Collection<Long> ids, LocalDateTime failedAt);
+
+    @Query("select coalesce(sum(case when c.failedAt is null then 1 else 0 end), 0) as pending, " +
+            "coalesce(sum(case when c.failedAt is null then 0 else 1 end), 0) as failed, " +
+            "min(case when c.failedAt is null then c.receivedAt end) as oldestReceivedAt from PaymentCallback c")
+    PaymentCallbackQueueView findQueueStats();
+}
@@ -1,13 +1,30 @@
 package com.example.fooddelivery.repository;
 
 import com.example.fooddelivery.entity.Payment;
+import com.example.fooddelivery.enums.PaymentStatus;
+import com.example.fooddelivery.repository.projection.PaymentReconciliationView;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByOrderId(Long orderId);
-    boolean existsByOrderId(Long orderId);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id as id, p.paymentStatus as status, o.totalAmount as amount from Payment p join p.order o order by p.id")
+    Stream<PaymentReconciliationView> streamForReconciliation();
+
+    //переход применяется, только если платеж не менялся с момента чтения: из параллельных колбэков побеждает первый
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Payment p set p.paymentStatus = :status, p.version = p.version + 1, p.updatedAt = current_timestamp " +
+            "where p.id = :id and p.version = :version")
+    int updateStatus(Long id, PaymentStatus status, Long version);
 }
@@ -7,7 +7,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
@@ -18,4 +20,15 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Long> {
             "ORDER BY r.rating DESC")
     List<Restaurant> findByCuisineAndRating(@Param("cuisine") CuisineType cuisine,
                                             @Param("minRating") Double minRating);
+
+    List<Restaurant> findAllByActiveTrue();
+
+    @Query("select r.minOrderAmount from Restaurant r where r.id = :id")
+    Optional<BigDecimal> findMinOrderAmountById(@Param("id") Long id);
+
+    @Query("select distinct r from Restaurant r left join fetch r.openingHours where r.active = true")
+    List<Restaurant> findAllActiveWithOpeningHours();
+
+    @Query("select r from Restaurant r left join fetch r.openingHours where r.id = :id")
+    Optional<Restaurant> findWithOpeningHoursById(@Param("id") Long id);
 }
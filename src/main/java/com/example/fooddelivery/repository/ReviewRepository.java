@@ -2,6 +2,7 @@ package com.example.fooddelivery.repository;
 
 import com.example.fooddelivery.entity.Review;
 import com.example.fooddelivery.enums.ReviewStatus;
+import com.example.fooddelivery.repository.projection.RestaurantRatingView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -24,4 +25,7 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
 
     @Query("SELECT AVG(r.rating) FROM Review r WHERE r.restaurant.id = :restaurantId")
     BigDecimal calculateAverageRatingByRestaurantId(@Param("restaurantId") Long restaurantId);
+
+    @Query("select r.restaurant.id as restaurantId, avg(r.rating) as rating from Review r group by r.restaurant.id")
+    List<RestaurantRatingView> findAverageRatings();
 }
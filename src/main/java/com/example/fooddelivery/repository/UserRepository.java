@@ -2,9 +2,12 @@ package com.example.fooddelivery.repository;
 
 import com.example.fooddelivery.entity.User;
 import com.example.fooddelivery.enums.UserRole;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +16,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findById(Long id);
     List<User> findByRole(UserRole role);
     boolean existsByEmail(String email);
+
+    //аудитория рассылки читается вперед по id от точки возобновления, без смещений и повторов
+    @Query("select u.id from User u where u.id > :after " +
+            "and (:role is null or u.role = :role) " +
+            "and (:city is null or u.address.city = :city) " +
+            "and (:active is null or u.active = :active) " +
+            "and (:lastOrderAfter is null or exists " +
+            "(select o.id from Order o where o.user = u and o.createdAt >= :lastOrderAfter)) " +
+            "and (:lastOrderBefore is null or not exists " +
+            "(select o.id from Order o where o.user = u and o.createdAt >= :lastOrderBefore)) " +
+            "order by u.id")
+    List<Long> findCampaignAudience(UserRole role, String city, Boolean active, LocalDateTime lastOrderAfter,
+                                    LocalDateTime lastOrderBefore, Long after, Limit limit);
 }
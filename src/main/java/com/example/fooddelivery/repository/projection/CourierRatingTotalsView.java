@@ -0,0 +1,6 @@
+package com.example.fooddelivery.repository.projection;
+
+public interface CourierRatingTotalsView {
+    Long getSum();
+    Long getCount();
+}
@@ -0,0 +1,10 @@
+package com.example.fooddelivery.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface CourierRatingView {
+    Long getId();
+    Long getCourierId();
+    Integer getScore();
+    LocalDateTime getRatedAt();
+}
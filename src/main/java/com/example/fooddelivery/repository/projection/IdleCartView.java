@@ -0,0 +1,7 @@
+package com.example.fooddelivery.repository.projection;
+
+public interface IdleCartView {
+    Long getId();
+    Long getUserId();
+    int getItemCount();
+}
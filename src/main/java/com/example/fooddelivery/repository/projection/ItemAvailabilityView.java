@@ -0,0 +1,7 @@
+package com.example.fooddelivery.repository.projection;
+
+public interface ItemAvailabilityView {
+    Long getId();
+    Long getRestaurantId();
+    boolean isAvailable();
+}
@@ -0,0 +1,11 @@
+package com.example.fooddelivery.repository.projection;
+
+import java.math.BigDecimal;
+
+public interface ItemOptionCartView {
+    Long getId();
+    Long getItemId();
+    Long getRestaurantId();
+    BigDecimal getPrice();
+    Integer getPreparationMinutes();
+}
@@ -0,0 +1,9 @@
+package com.example.fooddelivery.repository.projection;
+
+import com.example.fooddelivery.enums.ItemSize;
+
+public interface ItemOptionSnapshotView {
+    Long getId();
+    String getItemName();
+    ItemSize getSize();
+}
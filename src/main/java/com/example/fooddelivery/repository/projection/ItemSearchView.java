@@ -0,0 +1,8 @@
+package com.example.fooddelivery.repository.projection;
+
+public interface ItemSearchView {
+    Long getId();
+    Long getRestaurantId();
+    String getName();
+    boolean isAvailable();
+}
@@ -0,0 +1,8 @@
+package com.example.fooddelivery.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface NotificationDueView {
+    Long getId();
+    LocalDateTime getNextAttemptAt();
+}
@@ -0,0 +1,15 @@
+package com.example.fooddelivery.repository.projection;
+
+import com.example.fooddelivery.enums.ItemSize;
+
+import java.math.BigDecimal;
+
+public interface OrderLineView {
+    Long getOrderId();
+    Long getItemId();
+    Long getItemOptionId();
+    String getItemName();
+    ItemSize getSize();
+    BigDecimal getPrice();
+    Integer getQuantity();
+}
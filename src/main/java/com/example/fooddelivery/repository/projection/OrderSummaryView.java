@@ -0,0 +1,14 @@
+package com.example.fooddelivery.repository.projection;
+
+import com.example.fooddelivery.enums.OrderStatus;
+
+import java.math.BigDecimal;
+
+public interface OrderSummaryView {
+    Long getId();
+    Long getUserId();
+    Long getCartId();
+    OrderStatus getStatus();
+    BigDecimal getTotalAmount();
+    Long getRestaurantId();
+}
@@ -0,0 +1,9 @@
+package com.example.fooddelivery.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface PaymentCallbackQueueView {
+    long getPending();
+    long getFailed();
+    LocalDateTime getOldestReceivedAt();
+}
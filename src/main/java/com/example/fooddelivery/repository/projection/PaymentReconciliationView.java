@@ -0,0 +1,11 @@
+package com.example.fooddelivery.repository.projection;
+
+import com.example.fooddelivery.enums.PaymentStatus;
+
+import java.math.BigDecimal;
+
+public interface PaymentReconciliationView {
+    Long getId();
+    PaymentStatus getStatus();
+    BigDecimal getAmount();
+}
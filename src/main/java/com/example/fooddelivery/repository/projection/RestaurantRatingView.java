@@ -0,0 +1,6 @@
+package com.example.fooddelivery.repository.projection;
+
+public interface RestaurantRatingView {
+    Long getRestaurantId();
+    Double getRating();
+}
@@ -0,0 +1,26 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.enums.NotificationType;
+
+import java.time.LocalDateTime;
+
+public record ArchivedNotification(Long id,
+                                   Long userId,
+                                   String message,
+                                   NotificationType type,
+                                   NotificationStatus status,
+                                   NotificationChannel channel,
+                                   LocalDateTime sendAt,
+                                   LocalDateTime sentAt,
+                                   int attempts,
+                                   LocalDateTime createdAt
+) {
+    public static ArchivedNotification of(Notification notification) {
+        return new ArchivedNotification(notification.getId(), notification.getUser().getId(), notification.getMessage(),
+                notification.getType(), notification.getStatus(), notification.getChannel(), notification.getSendAt(),
+                notification.getSentAt(), notification.getAttempts(), notification.getCreatedAt());
+    }
+}
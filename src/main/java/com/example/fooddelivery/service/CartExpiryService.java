@@ -0,0 +1,88 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.cache.CartStore;
+import com.example.fooddelivery.config.CartExpiryProperties;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.NotificationType;
+import com.example.fooddelivery.repository.CartItemRepository;
+import com.example.fooddelivery.repository.CartRepository;
+import com.example.fooddelivery.repository.OrderRepository;
+import com.example.fooddelivery.repository.projection.IdleCartView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartExpiryService {
+    private static final String ABANDONED_MESSAGE = "Вы не оформили заказ, корзина очищена. Загляните в меню снова!";
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final OrderRepository orderRepository;
+    private final CartStore cartStore;
+    private final NotificationService notificationService;
+    private final CartExpiryProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final Clock clock;
+
+    //каждая пачка удаляется в своей транзакции, чтобы не держать блокировки на всю выборку
+    @Scheduled(fixedDelayString = "${cart.expiry.interval:PT10M}")
+    public int expireIdleCarts() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(properties.ttl());
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        int total = 0;
+        Batch batch;
+        do {
+            batch = transaction.execute(status -> expireBatch(cutoff));
+            total += batch.expired();
+        } while (batch.selected() == properties.batchSize() && batch.expired() > 0);
+
+        if (total > 0) {
+            log.info("Expired {} carts idle since {}", total, cutoff);
+        }
+        return total;
+    }
+
+    private Batch expireBatch(LocalDateTime cutoff) {
+        List<IdleCartView> idle = cartRepository.findIdle(cutoff, Limit.of(properties.batchSize()));
+        //корзину с незаписанными изменениями пользователь только что менял
+        List<IdleCartView> expired = idle.stream()
+                .filter(cart -> cartStore.evictIfClean(cart.getUserId()))
+                .toList();
+        if (expired.isEmpty()) {
+            return new Batch(idle.size(), 0);
+        }
+
+        List<Long> cartIds = expired.stream().map(IdleCartView::getId).toList();
+        if (properties.abandonedNotification()) {
+            List<Long> userIds = expired.stream()
+                    .filter(cart -> cart.getItemCount() > 0)
+                    .map(IdleCartView::getUserId)
+                    .toList();
+            if (!userIds.isEmpty()) {
+                notificationService.createNotifications(userIds, ABANDONED_MESSAGE, NotificationType.PROMOTIONAL, NotificationChannel.PUSH);
+            }
+        }
+
+        cartItemRepository.deleteByCartIds(cartIds);
+        orderRepository.detachCarts(cartIds);
+        cartRepository.deleteByIds(cartIds);
+        return new Batch(idle.size(), expired.size());
+    }
+
+    private record Batch(int selected, int expired) {
+    }
+}
@@ -1,150 +1,159 @@
 package com.example.fooddelivery.service;
 
+import com.example.fooddelivery.cache.CartLine;
+import com.example.fooddelivery.cache.CartState;
+import com.example.fooddelivery.cache.CartStore;
+import com.example.fooddelivery.cache.CourierLoadIndex;
+import com.example.fooddelivery.cache.MenuAvailabilityIndex;
+import com.example.fooddelivery.cache.OpenHoursIndex;
 import com.example.fooddelivery.dto.mapper.CartMapper;
 import com.example.fooddelivery.dto.request.CartItemRequest;
+import com.example.fooddelivery.dto.response.CartItemDeltaResponse;
+import com.example.fooddelivery.dto.response.CartPriceResponse;
 import com.example.fooddelivery.dto.response.CartResponse;
-import com.example.fooddelivery.entity.*;
+import com.example.fooddelivery.entity.CartItem;
 import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
-import com.example.fooddelivery.repository.*;
+import com.example.fooddelivery.pricing.Money;
+import com.example.fooddelivery.pricing.PriceBreakdown;
+import com.example.fooddelivery.pricing.PricingEngine;
+import com.example.fooddelivery.repository.ItemOptionRepository;
+import com.example.fooddelivery.repository.projection.ItemOptionCartView;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.List;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class CartService {
-    private final CartRepository cartRepository;
-    private final CartItemRepository cartItemRepository;
+    private final CartStore cartStore;
     private final ItemOptionRepository itemOptionRepository;
     private final CartMapper cartMapper;
-    private final CourierRepository courierRepository;
+    private final CourierLoadIndex courierLoadIndex;
+    private final MenuAvailabilityIndex menuAvailabilityIndex;
+    private final OpenHoursIndex openHoursIndex;
+    private final PricingEngine pricingEngine;
 
     public CartResponse addItem(Long userId, CartItemRequest request) {
-        Cart cart = getCartOrCreate(userId);
-
-        ItemOption itemOption = itemOptionRepository.findById(request.getItemOptionId())
+        ItemOptionCartView itemOption = itemOptionRepository.findCartViewById(request.getItemOptionId())
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Item option with id %d not found", request.getItemOptionId())));
 
-        validateAddingItem(itemOption, cart);
-
-        CartItem existingItem = cart.getItems().stream()
-                .filter(item -> item.getItemOption().getId().equals(itemOption.getId()))
-                .findFirst()
-                .orElse(null);
-
-        if (existingItem != null) {
-            existingItem.setQuantity(existingItem.getQuantity() + request.getQuantity());
-        } else {
-            CartItem newItem = new CartItem();
-            newItem.setCart(cart);
-            newItem.setItem(itemOption.getItem());
-            newItem.setItemOption(itemOption);
-            newItem.setQuantity(request.getQuantity());
-            cart.getItems().add(newItem);
-        }
+        validateAddingItem(itemOption);
+
+        Long restaurantId = itemOption.getRestaurantId();
+        CartState cart = cartStore.update(userId, current -> {
+            if (current.restaurantId() != null && !current.restaurantId().equals(restaurantId)) {
+                throw new BusinessException("Must not add item from another restaurant");
+            }
+
+            CartLine line = current.findLineByOption(itemOption.getId())
+                    .map(existing -> existing.withQuantity(existing.quantity() + request.getQuantity()))
+                    .orElseGet(() -> new CartLine(cartStore.nextLineId(), itemOption.getItemId(),
+                            itemOption.getId(), request.getQuantity(), Money.toMinor(itemOption.getPrice()), itemOption.getPreparationMinutes()));
+            validateQuantity(line.quantity());
+            return current.withLine(restaurantId, line);
+        });
 
-        cartRepository.save(cart);
-        return addEtaToResponse(cartMapper.toDto(cart), cart);
+        return complete(cartMapper.toDto(cart), cart);
     }
 
-    private void validateAddingItem(ItemOption itemOption, Cart cart){
-        if (!itemOption.getItem().isAvailable()) {
+    //доступность берется из индексов меню и часов работы
+    private void validateAddingItem(ItemOptionCartView itemOption){
+        if (!menuAvailabilityIndex.isAvailable(itemOption.getItemId())) {
             throw new BusinessException("Item is not available now");
         }
 
-        Restaurant restaurant = itemOption.getItem().getRestaurant();
-        if (!restaurant.isActive()) {
-            throw new BusinessException("Restaurant is closed");
-        }
-
-        if (!isRestaurantOpen(itemOption.getItem().getRestaurant())) {
+        if (!openHoursIndex.isOpen(itemOption.getRestaurantId())) {
             throw new BusinessException("Restaurant is closed");
         }
+    }
 
-        if (cart.getRestaurant() == null) {
-            cart.setRestaurant(itemOption.getItem().getRestaurant());
-        } else if (!cart.getRestaurant().getId().equals(itemOption.getItem().getRestaurant().getId())) {
-            throw new BusinessException("Must not add item from another restaurant");
+    //ограничение строки корзины проверяется при запросе: запись в cart_items, где оно сработало бы, идет позже в фоне
+    private void validateQuantity(Integer quantity) {
+        if (quantity > CartItem.MAX_QUANTITY) {
+            throw new BusinessException(String.format("Quantity must not exceed %d", CartItem.MAX_QUANTITY));
         }
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void deleteItem(Long userId, Long itemId) {
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new EntityNotFoundException(String.format("Cart item with id %d not found", itemId)));
-
-        cartItemRepository.delete(cartItem);
-
-        Cart cart = cartItem.getCart();
-        if (cart.getItems().isEmpty()) {
-            cart.setRestaurant(null);
-            cartRepository.save(cart);
-        }
+        cartStore.update(userId, cart -> {
+            findLine(cart, itemId);
+            return cart.withoutLine(itemId);
+        });
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public CartResponse updateQuantity(Long userId, Long itemId, Integer quantity) {
-        CartItem cartItem = cartItemRepository.findById(itemId)
-                .orElseThrow(() -> new EntityNotFoundException(String.format("Cart item with id %d not found", itemId)));
+        CartState cart = changeQuantity(userId, itemId, quantity);
+        return complete(cartMapper.toDto(cart), cart);
+    }
 
-        cartItem.setQuantity(quantity);
-        cartItemRepository.save(cartItem);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CartItemDeltaResponse updateQuantityDelta(Long userId, Long itemId, Integer quantity) {
+        CartState cart = changeQuantity(userId, itemId, quantity);
+        CartLine line = findLine(cart, itemId);
+        return new CartItemDeltaResponse(cartMapper.toDto(line), Money.toDecimal(cart.subtotalMinor()), calculateEta(cart));
+    }
 
-        return getCart(userId);
+    private CartState changeQuantity(Long userId, Long itemId, Integer quantity) {
+        validateQuantity(quantity);
+        return cartStore.updateLine(userId, itemId, line -> line.withQuantity(quantity))
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Cart item with id %d not found", itemId)));
     }
 
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public CartResponse getCart(Long userId) {
-
-        Cart cart = cartRepository.findByUserId(userId)
+        CartState cart = cartStore.find(userId)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Cart for user with id %d not found", userId)));
 
-        return addEtaToResponse(cartMapper.toDto(cart), cart);
+        return complete(cartMapper.toDto(cart), cart);
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void clearCart(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId)
+        cartStore.find(userId)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Cart for user with id %d not found", userId)));
 
-        cart.getItems().clear();
-        cart.setRestaurant(null);
-        cartRepository.save(cart);
+        cartStore.update(userId, CartState::cleared);
     }
 
-    private Cart getCartOrCreate(Long userId){
-        return cartRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    Cart newCart = new Cart();
-                    User user = new User();
-                    user.setId(userId);
-                    newCart.setUser(user);
-                    return cartRepository.save(newCart);
-                });
-    }
-
-    private boolean isRestaurantOpen(Restaurant restaurant) {
-        LocalTime now = LocalTime.now();
-        return !now.isBefore(restaurant.getOpeningTime()) && now.isBefore(restaurant.getClosingTime());
+    private CartLine findLine(CartState cart, Long itemId) {
+        return cart.findLine(itemId)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Cart item with id %d not found", itemId)));
     }
 
-    private CartResponse addEtaToResponse(CartResponse response, Cart cart) {
+    private CartResponse complete(CartResponse response, CartState cart) {
         Integer eta = calculateEta(cart);
         return new CartResponse(
                 response.id(),
                 response.userId(),
                 response.restaurantId(),
                 response.items(),
-                eta
+                eta,
+                calculatePrice(cart)
         );
     }
 
-    private Integer calculateEta(Cart cart){
-        if(cart.getRestaurant()==null || cart.getItems().isEmpty()){
+    private CartPriceResponse calculatePrice(CartState cart) {
+        PriceBreakdown price = pricingEngine.price(cart.restaurantId(), cart.subtotalMinor(), null);
+        return new CartPriceResponse(
+                Money.toDecimal(price.getSubtotal()),
+                Money.toDecimal(price.getDeliveryFee()),
+                Money.toDecimal(price.getDiscount()),
+                Money.toDecimal(price.getTotal()),
+                Money.toDecimal(price.getMinOrderAmount())
+        );
+    }
+
+    private Integer calculateEta(CartState cart){
+        if(cart.restaurantId()==null || cart.items().isEmpty()){
             return null;
         }
 
@@ -153,9 +162,9 @@ public class CartService {
         return preparationTime+deliveryTime;
     }
 
-    private Integer calculatePrepTime(Cart cart) {
-        return cart.getItems().stream()
-                .mapToInt(item -> item.getItemOption().getPreparationMinutes())
+    private Integer calculatePrepTime(CartState cart) {
+        return cart.items().stream()
+                .mapToInt(CartLine::preparationMinutes)
                 .max()
                 .orElse(0);
     }
@@ -182,16 +191,7 @@ public class CartService {
     }
 
     private Integer getCourierLoad() {
-        List<Courier> allCouriers = courierRepository.findAll();
-        long busyCouriers = allCouriers.stream()
-                .filter(courier -> courier.getCurrentOrdersAmount() > 0)
-                .count();
-
-        if (allCouriers.isEmpty()) {
-            return 0;
-        }
-
-        double load = (double) busyCouriers / allCouriers.size();
+        double load = courierLoadIndex.getLoad();
 
         if (load > 0.8) return 15;
         else if (load > 0.5) return 10;
@@ -0,0 +1,82 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.cache.CourierLocationStore;
+import com.example.fooddelivery.cache.CourierTrack;
+import com.example.fooddelivery.cache.LocationPoint;
+import com.example.fooddelivery.config.CourierLocationProperties;
+import com.example.fooddelivery.dto.mapper.CourierMapper;
+import com.example.fooddelivery.dto.request.LocationBatchRequest;
+import com.example.fooddelivery.dto.response.CourierLocationResponse;
+import com.example.fooddelivery.dto.response.LocationResponse;
+import com.example.fooddelivery.entity.Order;
+import com.example.fooddelivery.exception.BusinessException;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.repository.CourierLocationRepository;
+import com.example.fooddelivery.repository.CourierRepository;
+import com.example.fooddelivery.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class CourierLocationService {
+    private static final Duration MAX_CLOCK_SKEW = Duration.ofMinutes(1);
+
+    private final CourierLocationStore courierLocationStore;
+    private final CourierLocationRepository courierLocationRepository;
+    private final CourierRepository courierRepository;
+    private final OrderRepository orderRepository;
+    private final CourierMapper courierMapper;
+    private final CourierLocationProperties properties;
+    private final Clock clock;
+
+    //пинги с часами устройства, ушедшими вперед, отбрасываются: иначе они навсегда остались бы текущей позицией
+    public void addLocations(Long courierId, LocationBatchRequest request) {
+        LocalDateTime latestAllowed = LocalDateTime.now(clock).plus(MAX_CLOCK_SKEW);
+        List<LocationPoint> points = request.getPings().stream()
+                .filter(ping -> !ping.getRecordedAt().isAfter(latestAllowed))
+                .map(ping -> new LocationPoint(ping.getLatitude(), ping.getLongitude(), ping.getRecordedAt()))
+                .toList();
+        courierLocationStore.append(courierId, points);
+    }
+
+    @Transactional(readOnly = true)
+    public CourierLocationResponse getLocation(Long courierId) {
+        LocalDateTime since = LocalDateTime.now(clock).minus(properties.trackWindow());
+        Optional<CourierTrack> track = courierLocationStore.find(courierId);
+        if (track.isPresent()) {
+            List<LocationResponse> points = track.get().since(since).stream()
+                    .map(courierMapper::toDto)
+                    .toList();
+            return new CourierLocationResponse(courierId, courierMapper.toDto(track.get().latest()), points);
+        }
+
+        //после перезапуска или долгого простоя трек берется из сохраненных точек
+        if (!courierRepository.existsById(courierId)) {
+            throw new EntityNotFoundException(String.format("Courier with id %d not found", courierId));
+        }
+        List<LocationResponse> points = courierLocationRepository.findByCourierIdAndRecordedAtAfterOrderByRecordedAt(courierId, since)
+                .stream()
+                .map(courierMapper::toDto)
+                .toList();
+        LocationResponse current = points.isEmpty() ? null : points.get(points.size() - 1);
+        return new CourierLocationResponse(courierId, current, points);
+    }
+
+    @Transactional(readOnly = true)
+    public CourierLocationResponse getOrderCourierLocation(Long orderId) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Order with id %d not found", orderId)));
+        if (order.getCourier() == null) {
+            throw new BusinessException("Order is not assigned to any courier");
+        }
+        return getLocation(order.getCourier().getId());
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.dto.request.CourierRatingRequest;
+import com.example.fooddelivery.dto.response.CourierRatingResponse;
+import com.example.fooddelivery.entity.Courier;
+import com.example.fooddelivery.entity.CourierRating;
+import com.example.fooddelivery.entity.Order;
+import com.example.fooddelivery.enums.OrderStatus;
+import com.example.fooddelivery.event.CourierRatedEvent;
+import com.example.fooddelivery.exception.BusinessException;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.repository.CourierRatingRepository;
+import com.example.fooddelivery.repository.CourierRepository;
+import com.example.fooddelivery.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class CourierRatingService {
+    private final CourierRatingRepository courierRatingRepository;
+    private final OrderRepository orderRepository;
+    private final CourierRepository courierRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+
+    public CourierRatingResponse rateCourier(Long orderId, Long userId, CourierRatingRequest request) {
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Order with id %d not found", orderId)));
+
+        if (!order.getUser().getId().equals(userId)) {
+            throw new BusinessException("This order belongs to other user");
+        }
+
+        if (order.getStatus() != OrderStatus.DELIVERED) {
+            throw new BusinessException("Courier can be rated only for delivered orders");
+        }
+
+        if (order.getCourier() == null) {
+            throw new BusinessException("Order is not assigned to any courier");
+        }
+
+        //блокировка до проверки повтора: вторая оценка того же заказа ждет первую
+        Long courierId = order.getCourier().getId();
+        Courier courier = courierRepository.findLockedById(courierId)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Courier with id %d not found", courierId)));
+
+        if (courierRatingRepository.existsByOrderId(orderId)) {
+            throw new BusinessException("Courier for this order is already rated");
+        }
+
+        CourierRating rating = courierRatingRepository.save(
+                new CourierRating(orderId, courierId, userId, request.getScore(), LocalDateTime.now(clock)));
+
+        courier.setRatingTotals(courier.getRatingSum() + rating.getScore(), courier.getRatingCount() + 1);
+
+        eventPublisher.publishEvent(new CourierRatedEvent(rating.getId(), courierId, rating.getScore(), rating.getRatedAt()));
+        return new CourierRatingResponse(orderId, courierId, rating.getScore(), courier.getRating());
+    }
+}
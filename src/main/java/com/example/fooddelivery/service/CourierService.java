@@ -1,5 +1,7 @@
 package com.example.fooddelivery.service;
 
+import com.example.fooddelivery.cache.CourierActiveOrdersCache;
+import com.example.fooddelivery.cache.CourierRatingIndex;
 import com.example.fooddelivery.dto.mapper.CourierMapper;
 import com.example.fooddelivery.dto.mapper.OrderMapper;
 import com.example.fooddelivery.dto.request.CourierRequest;
@@ -9,15 +11,16 @@ import com.example.fooddelivery.entity.Courier;
 import com.example.fooddelivery.entity.Order;
 import com.example.fooddelivery.enums.CourierStatus;
 import com.example.fooddelivery.enums.OrderStatus;
+import com.example.fooddelivery.event.OrderStatusChangedEvent;
 import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
 import com.example.fooddelivery.repository.CourierRepository;
 import com.example.fooddelivery.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -29,9 +32,12 @@ public class CourierService {
     private final OrderRepository orderRepository;
     private final CourierMapper courierMapper;
     private final OrderMapper orderMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CourierActiveOrdersCache courierActiveOrdersCache;
+    private final CourierRatingIndex courierRatingIndex;
 
     private static final int MAX_ACTIVE_ORDERS = 3;
-    private static final BigDecimal MIN_RATING = new BigDecimal("3.0");
+    private static final double MIN_RATING = 3.0;
 
     public CourierResponse registerCourier(CourierRequest request) {
         Courier courier = courierMapper.toEntity(request);
@@ -69,7 +75,8 @@ public class CourierService {
             throw new BusinessException("Courier cannot have more than " + MAX_ACTIVE_ORDERS + " active orders");
         }
 
-        if (courier.getRating().compareTo(MIN_RATING) < 0) {
+        //назначение смотрит на недавнюю оценку из памяти; курьер еще без оценок к заказам допускается
+        if (courierRatingIndex.getRecentScore(courierId).orElse(MIN_RATING) < MIN_RATING) {
             throw new BusinessException("Courier with rating below 3 cannot be auto-assigned");
         }
 
@@ -80,20 +87,22 @@ public class CourierService {
 
         orderRepository.save(order);
         Courier updatedCourier = courierRepository.save(courier);
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order));
 
         return courierMapper.toDto(updatedCourier);
     }
 
     @Transactional(readOnly = true)
     public List<OrderResponse> getActiveOrders(Long courierId) {
-        Courier courier = courierRepository.findById(courierId)
-                .orElseThrow(() -> new EntityNotFoundException(
-                        String.format("Courier with id %d not found", courierId)));
-
-        return courier.getOrders().stream()
-                .filter(order -> order.getStatus() == OrderStatus.TAKED)
-                .map(orderMapper::toDto)
-                .collect(Collectors.toList());
+        return courierActiveOrdersCache.get(courierId, () -> {
+            if (!courierRepository.existsById(courierId)) {
+                throw new EntityNotFoundException(String.format("Courier with id %d not found", courierId));
+            }
+            return orderRepository.findByCourierIdAndStatus(courierId, OrderStatus.TAKED)
+                    .stream()
+                    .map(orderMapper::toDto)
+                    .toList();
+        });
     }
 
     public CourierResponse updateStatus(Long courierId, CourierStatus status) {
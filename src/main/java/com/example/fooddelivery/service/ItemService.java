@@ -1,19 +1,40 @@
 package com.example.fooddelivery.service;
 
 import com.example.fooddelivery.dto.mapper.ItemMapper;
+import com.example.fooddelivery.dto.request.ItemAvailabilityRequest;
+import com.example.fooddelivery.dto.request.ItemOptionRequest;
 import com.example.fooddelivery.dto.request.ItemRequest;
+import com.example.fooddelivery.dto.response.ItemAvailabilityResponse;
 import com.example.fooddelivery.dto.response.ItemResponse;
+import com.example.fooddelivery.dto.response.MenuImportError;
+import com.example.fooddelivery.dto.response.MenuImportResponse;
 import com.example.fooddelivery.entity.Item;
 import com.example.fooddelivery.entity.ItemOption;
 import com.example.fooddelivery.entity.Restaurant;
+import com.example.fooddelivery.enums.ItemSize;
+import com.example.fooddelivery.event.MenuChangedEvent;
+import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.exception.ImportException;
+import com.example.fooddelivery.exception.InvalidImportRowException;
+import com.example.fooddelivery.repository.CartItemRepository;
 import com.example.fooddelivery.repository.ItemRepository;
 import com.example.fooddelivery.repository.RestaurantRepository;
+import com.example.fooddelivery.repository.projection.ItemAvailabilityView;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,6 +44,14 @@ public class ItemService {
     private final ItemRepository itemRepository;
     private final RestaurantRepository restaurantRepository;
     private final ItemMapper itemMapper;
+    private final MenuImportReader menuImportReader;
+    private final Validator validator;
+    private final CartItemRepository cartItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+    private final EntityManager entityManager;
+
+    private static final int IMPORT_CHUNK_SIZE = 500;
 
     public ItemResponse addItem(Long id, ItemRequest request) {
         Restaurant restaurant = restaurantRepository.findById(id)
@@ -32,12 +61,14 @@ public class ItemService {
         item.setRestaurant(restaurant);
 
         if (request.getOptions() != null && !request.getOptions().isEmpty()) {
+            validateOptionSizes(request.getOptions());
             List<ItemOption> options = itemMapper.toOptionEntities(request.getOptions());
             options.forEach(option -> option.setItem(item));
             item.setOptions(options);
         }
 
         Item saved = itemRepository.save(item);
+        publishMenuChanged(restaurant.getId(), Set.of(saved.getId()), Set.of(), Set.of());
         return itemMapper.toDto(saved);
     }
 
@@ -59,24 +90,31 @@ public class ItemService {
 
         itemMapper.update(request, item);
 
+        Set<Long> optionIds = Set.of();
+        Set<Long> cartIds = Set.of();
         if (request.getOptions() != null) {
-            item.getOptions().clear();
-
-            if (!request.getOptions().isEmpty()) {
-                List<ItemOption> newOptions = itemMapper.toOptionEntities(request.getOptions());
-                newOptions.forEach(option -> option.setItem(item));
-                item.getOptions().addAll(newOptions);
-            }
+            validateOptionSizes(request.getOptions());
+            OptionChanges changes = mergeOptions(item, request.getOptions());
+            optionIds = changes.optionIds();
+            cartIds = changes.cartIds();
         }
 
         Item updated = itemRepository.save(item);
+        publishMenuChanged(updated.getRestaurant().getId(), Set.of(updated.getId()), optionIds, cartIds);
         return itemMapper.toDto(updated);
     }
 
     public void deleteItem(Long id) {
         Item item = itemRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Menu with id %d not found", id)));
+
+        Set<Long> cartIds = cartItemRepository.findCartIdsByItemId(id);
+        if (!cartIds.isEmpty()) {
+            cartItemRepository.deleteByItemId(id);
+        }
+
         itemRepository.delete(item);
+        publishMenuChanged(item.getRestaurant().getId(), Set.of(id), Set.of(), cartIds);
     }
 
     public ItemResponse updateAvailability(Long id, boolean available) {
@@ -85,6 +123,269 @@ public class ItemService {
 
         item.setAvailable(available);
         Item updated = itemRepository.save(item);
+        publishMenuChanged(updated.getRestaurant().getId(), Set.of(updated.getId()), Set.of(), Set.of());
         return itemMapper.toDto(updated);
     }
+
+    public ItemAvailabilityResponse updateAvailability(ItemAvailabilityRequest request) {
+        Map<Long, ItemAvailabilityView> items = itemRepository.findAvailabilityByIds(request.getItemIds()).stream()
+                .collect(Collectors.toMap(ItemAvailabilityView::getId, Function.identity()));
+
+        request.getItemIds().stream()
+                .filter(id -> !items.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new EntityNotFoundException(String.format("Menu with id %d not found", id));
+                });
+
+        Map<Long, Set<Long>> changedByRestaurant = items.values().stream()
+                .filter(item -> item.isAvailable() != request.getAvailable())
+                .collect(Collectors.groupingBy(ItemAvailabilityView::getRestaurantId,
+                        Collectors.mapping(ItemAvailabilityView::getId, Collectors.toSet())));
+        if (changedByRestaurant.isEmpty()) {
+            return new ItemAvailabilityResponse(0);
+        }
+
+        Set<Long> changedIds = changedByRestaurant.values().stream()
+                .flatMap(Set::stream)
+                .collect(Collectors.toSet());
+        int updated = itemRepository.updateAvailability(changedIds, request.getAvailable());
+
+        Set<Long> cartIds = cartItemRepository.findCartIdsByItemIds(changedIds);
+        changedByRestaurant.forEach((restaurantId, itemIds) ->
+                publishMenuChanged(restaurantId, itemIds, Set.of(), cartIds));
+        return new ItemAvailabilityResponse(updated);
+    }
+
+    //каждая пачка импорта коммитится отдельно
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public MenuImportResponse importJson(Long restaurantId, InputStream input) {
+        return importItems(restaurantId, menuImportReader.readJson(input));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public MenuImportResponse importCsv(Long restaurantId, InputStream input) {
+        return importItems(restaurantId, menuImportReader.readCsv(input));
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public MenuImportResponse importItems(Long restaurantId, Iterator<ItemRequest> rows) {
+        Restaurant restaurant = restaurantRepository.findById(restaurantId)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Restaurant with id %d not found", restaurantId)));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Set<String> seen = new HashSet<>();
+        List<MenuImportError> errors = new ArrayList<>();
+        List<ItemRequest> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        ImportCounts counts = new ImportCounts(0, 0, 0);
+        int row = 0;
+
+        while (hasNext(rows, counts)) {
+            ItemRequest request;
+            row++;
+            try {
+                request = rows.next();
+            } catch (InvalidImportRowException e) {
+                errors.add(new MenuImportError(row, e.getName(), e.getMessage()));
+                continue;
+            } catch (ImportException e) {
+                throw interrupted(e, counts);
+            }
+
+            String error = validateImportRow(request);
+            if (error == null && !seen.add(importKey(request.getName()))) {
+                error = "Duplicate item in import";
+            }
+            if (error != null) {
+                errors.add(new MenuImportError(row, request == null ? null : request.getName(), error));
+                continue;
+            }
+
+            chunk.add(request);
+            if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                counts = counts.plus(transaction.execute(status -> importChunk(restaurant, chunk)));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            counts = counts.plus(transaction.execute(status -> importChunk(restaurant, chunk)));
+        }
+        return new MenuImportResponse(counts.created(), counts.updated(), counts.unchanged(), errors);
+    }
+
+    private boolean hasNext(Iterator<ItemRequest> rows, ImportCounts counts) {
+        try {
+            return rows.hasNext();
+        } catch (ImportException e) {
+            throw interrupted(e, counts);
+        }
+    }
+
+    //уже закоммиченные пачки не откатываются, поэтому клиенту сообщается, сколько строк успело примениться
+    private ImportException interrupted(ImportException e, ImportCounts counts) {
+        return new ImportException(String.format("%s (imported before the error: created %d, updated %d, unchanged %d)",
+                e.getMessage(), counts.created(), counts.updated(), counts.unchanged()));
+    }
+
+    private String validateImportRow(ItemRequest request) {
+        if (request == null) {
+            return "Item must not be null";
+        }
+        if (request.getOptions() == null) {
+            return "options: must not be null";
+        }
+
+        List<String> violations = new ArrayList<>();
+        validator.validate(request).forEach(violation ->
+                violations.add(violation.getPropertyPath() + ": " + violation.getMessage()));
+        for (int i = 0; i < request.getOptions().size(); i++) {
+            ItemOptionRequest option = request.getOptions().get(i);
+            if (option == null) {
+                violations.add(String.format("options[%d]: must not be null", i));
+                continue;
+            }
+            for (ConstraintViolation<ItemOptionRequest> violation : validator.validate(option)) {
+                violations.add(String.format("options[%d].%s: %s", i, violation.getPropertyPath(), violation.getMessage()));
+            }
+        }
+        if (!violations.isEmpty()) {
+            Collections.sort(violations);
+            return String.join("; ", violations);
+        }
+
+        if (!hasUniqueSizes(request.getOptions())) {
+            return "Item options must have unique sizes";
+        }
+        return null;
+    }
+
+    private boolean isSameItem(Item item, ItemRequest request) {
+        if (item.isAvailable() != request.isAvailable() || item.getOptions().size() != request.getOptions().size()) {
+            return false;
+        }
+
+        Map<ItemSize, ItemOption> options = item.getOptions().stream()
+                .collect(Collectors.toMap(ItemOption::getSize, Function.identity(), (first, second) -> first));
+        return request.getOptions().stream().allMatch(option -> {
+            ItemOption current = options.get(option.getSize());
+            return current != null
+                    && current.getPrice().compareTo(option.getPrice()) == 0
+                    && current.getPreparationMinutes().equals(option.getPreparationMinutes());
+        });
+    }
+
+    private void attachOptions(Item item, List<ItemOptionRequest> requests) {
+        if (!requests.isEmpty()) {
+            List<ItemOption> options = itemMapper.toOptionEntities(requests);
+            options.forEach(option -> option.setItem(item));
+            item.getOptions().addAll(options);
+        }
+    }
+
+    private OptionChanges mergeOptions(Item item, List<ItemOptionRequest> requests) {
+        Map<ItemSize, ItemOptionRequest> requested = new EnumMap<>(ItemSize.class);
+        requests.forEach(request -> requested.put(request.getSize(), request));
+
+        List<ItemOption> removed = new ArrayList<>();
+        Map<ItemOption, ItemOptionRequest> changed = new HashMap<>();
+        for (ItemOption option : item.getOptions()) {
+            ItemOptionRequest request = requested.remove(option.getSize());
+            if (request == null) {
+                removed.add(option);
+            } else if (option.getPrice().compareTo(request.getPrice()) != 0
+                    || !option.getPreparationMinutes().equals(request.getPreparationMinutes())) {
+                changed.put(option, request);
+            }
+        }
+
+        Set<Long> removedIds = removed.stream().map(ItemOption::getId).filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> optionIds = new HashSet<>(removedIds);
+        changed.keySet().stream().map(ItemOption::getId).filter(Objects::nonNull).forEach(optionIds::add);
+
+        //строки корзин удаляются до orphanRemoval опций, иначе упадет FK cart_items.item_option_id
+        Set<Long> cartIds = optionIds.isEmpty() ? Set.of() : cartItemRepository.findCartIdsByItemOptionIds(optionIds);
+        if (!removedIds.isEmpty() && !cartIds.isEmpty()) {
+            cartItemRepository.deleteByItemOptionIds(removedIds);
+        }
+
+        item.getOptions().removeAll(removed);
+        changed.forEach((option, request) -> {
+            option.setPrice(request.getPrice());
+            option.setPreparationMinutes(request.getPreparationMinutes());
+        });
+        if (!requested.isEmpty()) {
+            List<ItemOption> added = itemMapper.toOptionEntities(new ArrayList<>(requested.values()));
+            added.forEach(option -> option.setItem(item));
+            item.getOptions().addAll(added);
+        }
+
+        return new OptionChanges(optionIds, cartIds);
+    }
+
+    private void validateOptionSizes(List<ItemOptionRequest> requests) {
+        if (!hasUniqueSizes(requests)) {
+            throw new BusinessException("Item options must have unique sizes");
+        }
+    }
+
+    private boolean hasUniqueSizes(List<ItemOptionRequest> requests) {
+        return requests.stream().map(ItemOptionRequest::getSize).distinct().count() == requests.size();
+    }
+
+    private void publishMenuChanged(Long restaurantId, Set<Long> itemIds, Set<Long> optionIds, Set<Long> cartIds) {
+        eventPublisher.publishEvent(new MenuChangedEvent(restaurantId, itemIds, optionIds, cartIds));
+    }
+
+    //событие публикуется внутри транзакции пачки, слушатели получают его после ее коммита
+    private ImportCounts importChunk(Restaurant restaurant, List<ItemRequest> requests) {
+        Set<String> keys = requests.stream().map(request -> importKey(request.getName())).collect(Collectors.toSet());
+        Map<String, Item> existing = itemRepository.findWithOptionsByRestaurantIdAndNameKeys(restaurant.getId(), keys).stream()
+                .collect(Collectors.toMap(item -> importKey(item.getName()), Function.identity(), (first, second) -> first));
+
+        Set<Long> optionIds = new HashSet<>();
+        Set<Long> cartIds = new HashSet<>();
+        List<Item> changed = new ArrayList<>(requests.size());
+        int created = 0;
+        int updated = 0;
+        int unchanged = 0;
+        for (ItemRequest request : requests) {
+            Item item = existing.get(importKey(request.getName()));
+            if (item == null) {
+                item = itemMapper.toEntity(request);
+                item.setRestaurant(restaurant);
+                attachOptions(item, request.getOptions());
+                created++;
+            } else if (isSameItem(item, request)) {
+                unchanged++;
+                continue;
+            } else {
+                item.setAvailable(request.isAvailable());
+                OptionChanges changes = mergeOptions(item, request.getOptions());
+                optionIds.addAll(changes.optionIds());
+                cartIds.addAll(changes.cartIds());
+                updated++;
+            }
+            changed.add(item);
+        }
+
+        if (!changed.isEmpty()) {
+            itemRepository.saveAll(changed);
+            itemRepository.flush();
+            publishMenuChanged(restaurant.getId(), Set.of(), optionIds, cartIds);
+        }
+        entityManager.clear();
+        return new ImportCounts(created, updated, unchanged);
+    }
+
+    private String importKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record OptionChanges(Set<Long> optionIds, Set<Long> cartIds) {}
+
+    private record ImportCounts(int created, int updated, int unchanged) {
+        ImportCounts plus(ImportCounts other) {
+            return new ImportCounts(created + other.created, updated + other.updated, unchanged + other.unchanged);
+        }
+    }
 }
@@ -0,0 +1,230 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.dto.request.ItemOptionRequest;
+import com.example.fooddelivery.dto.request.ItemRequest;
+import com.example.fooddelivery.enums.ItemSize;
+import com.example.fooddelivery.exception.ImportException;
+import com.example.fooddelivery.exception.InvalidImportRowException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Component
+@RequiredArgsConstructor
+public class MenuImportReader {
+    private static final String CSV_HEADER = "name,available,size,price,preparationMinutes";
+
+    private final ObjectMapper objectMapper;
+
+    //импорт прерывает только синтаксическая ошибка, остальные становятся ошибками строки
+    public Iterator<ItemRequest> readJson(InputStream input) {
+        try {
+            MappingIterator<JsonNode> iterator = objectMapper.readerFor(JsonNode.class).readValues(input);
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    try {
+                        return iterator.hasNextValue();
+                    } catch (IOException e) {
+                        throw new ImportException("Malformed JSON menu: " + e.getMessage());
+                    }
+                }
+
+                @Override
+                public ItemRequest next() {
+                    int line = iterator.getParser().currentTokenLocation().getLineNr();
+                    JsonNode node;
+                    try {
+                        node = iterator.nextValue();
+                    } catch (IOException e) {
+                        throw new ImportException("Malformed JSON menu: " + e.getMessage());
+                    }
+                    try {
+                        return objectMapper.treeToValue(node, ItemRequest.class);
+                    } catch (JsonProcessingException e) {
+                        JsonNode name = node.path("name");
+                        throw new InvalidImportRowException(name.isTextual() ? name.asText() : null,
+                                String.format("JSON line %d: %s", line, e.getOriginalMessage()));
+                    }
+                }
+            };
+        } catch (IOException e) {
+            throw new ImportException("Malformed JSON menu: " + e.getMessage());
+        }
+    }
+
+    //одна строка CSV на опцию, подряд идущие строки с одинаковым name - одно блюдо
+    public Iterator<ItemRequest> readCsv(InputStream input) {
+        CsvReader reader = new CsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+        CsvRecord header = reader.next();
+        if (header == null || header.error() != null || !String.join(",", header.columns()).equalsIgnoreCase(CSV_HEADER)) {
+            throw new ImportException("CSV menu must start with header: " + CSV_HEADER);
+        }
+
+        return new Iterator<>() {
+            private CsvRecord pending = reader.next();
+
+            @Override
+            public boolean hasNext() {
+                return pending != null;
+            }
+
+            @Override
+            public ItemRequest next() {
+                if (pending == null) {
+                    throw new NoSuchElementException();
+                }
+                if (pending.error() != null) {
+                    CsvRecord invalid = pending;
+                    pending = reader.next();
+                    throw new InvalidImportRowException(invalid.name(),
+                            String.format("CSV line %d: %s", invalid.line(), invalid.error()));
+                }
+
+                String[] columns = pending.columns();
+                ItemRequest request = new ItemRequest(columns[0], Boolean.parseBoolean(columns[1]), new ArrayList<>());
+                while (pending != null && pending.error() == null && pending.columns()[0].equals(request.getName())) {
+                    columns = pending.columns();
+                    request.getOptions().add(new ItemOptionRequest(
+                            parseSize(columns[2]), parsePrice(columns[3]), parseMinutes(columns[4])));
+                    pending = reader.next();
+                }
+                return request;
+            }
+        };
+    }
+
+    //line - номер строки файла, с которой начинается запись
+    private record CsvRecord(int line, String[] columns, String error) {
+        String name() {
+            return columns.length > 0 ? columns[0] : null;
+        }
+    }
+
+    private static final class CsvReader {
+        private final BufferedReader reader;
+        private int line;
+
+        private CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        //пробелы вокруг поля без кавычек отбрасываются, внутри кавычек сохраняются
+        CsvRecord next() {
+            String text;
+            do {
+                text = readLine();
+            } while (text != null && text.isBlank());
+            if (text == null) {
+                return null;
+            }
+
+            int start = line;
+            List<String> columns = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean wasQuoted = false;
+            String error = null;
+            int i = 0;
+            while (true) {
+                if (i == text.length()) {
+                    if (!quoted) {
+                        break;
+                    }
+                    String continuation = readLine();
+                    if (continuation == null) {
+                        error = "unterminated quoted field";
+                        break;
+                    }
+                    field.append('\n');
+                    text = continuation;
+                    i = 0;
+                    continue;
+                }
+
+                char c = text.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < text.length() && text.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == ',') {
+                    columns.add(wasQuoted ? field.toString() : field.toString().trim());
+                    field.setLength(0);
+                    wasQuoted = false;
+                } else if (c == '"' && !wasQuoted && field.toString().isBlank()) {
+                    field.setLength(0);
+                    quoted = true;
+                    wasQuoted = true;
+                } else if (wasQuoted && !Character.isWhitespace(c)) {
+                    error = "unexpected character after closing quote";
+                    break;
+                } else if (!wasQuoted) {
+                    field.append(c);
+                }
+            }
+            columns.add(wasQuoted ? field.toString() : field.toString().trim());
+
+            String[] values = columns.toArray(String[]::new);
+            if (error == null && values.length != 5) {
+                error = "row must have 5 columns, found " + values.length;
+            }
+            return new CsvRecord(start, values, error);
+        }
+
+        private String readLine() {
+            try {
+                String text = reader.readLine();
+                if (text != null) {
+                    line++;
+                }
+                return text;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private ItemSize parseSize(String value) {
+        try {
+            return ItemSize.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private BigDecimal parsePrice(String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Integer parseMinutes(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.NotificationRetentionProperties;
+import com.example.fooddelivery.dto.response.NotificationArchiveResponse;
+import com.example.fooddelivery.dto.response.NotificationArchiveStatsResponse;
+import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.event.NotificationInboxChangedEvent;
+import com.example.fooddelivery.exception.BusinessException;
+import com.example.fooddelivery.repository.NotificationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+//строки удаляются только после записи файла: сбой дает дубль в архиве, а не потерю
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationArchiver {
+    private static final Set<NotificationStatus> ARCHIVED_STATUSES = Set.of(NotificationStatus.SENT,
+            NotificationStatus.DELIVERED, NotificationStatus.FAILED, NotificationStatus.DEAD_LETTER);
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationRetentionProperties properties;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+
+    private final ReentrantLock running = new ReentrantLock();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong totalArchived = new AtomicLong();
+    private volatile NotificationArchiveResponse lastRun;
+
+    @Scheduled(cron = "${notifications.retention.cron:0 0 4 * * *}")
+    public NotificationArchiveResponse archive() {
+        if (!running.tryLock()) {
+            throw new BusinessException("Notification archiving is already running");
+        }
+        try {
+            return archiveOld();
+        } finally {
+            running.unlock();
+        }
+    }
+
+    public NotificationArchiveStatsResponse getStats() {
+        return new NotificationArchiveStatsResponse(runs.get(), totalArchived.get(), lastRun);
+    }
+
+    private NotificationArchiveResponse archiveOld() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(properties.maxAge());
+        long started = System.nanoTime();
+        long archived = 0;
+        int files = 0;
+        long after = 0;
+
+        try {
+            List<ArchivedNotification> chunk;
+            do {
+                chunk = writeChunk(cutoff, after);
+                if (!chunk.isEmpty()) {
+                    delete(chunk);
+                    archived += chunk.size();
+                    files++;
+                    after = chunk.get(chunk.size() - 1).id();
+                }
+            } while (chunk.size() == properties.fileRows());
+        } catch (IOException e) {
+            log.error("Failed to write notification archive", e);
+        }
+
+        long durationMillis = (System.nanoTime() - started) / 1_000_000;
+        double rowsPerSecond = durationMillis == 0 ? archived : archived * 1000.0 / durationMillis;
+        NotificationArchiveResponse response = new NotificationArchiveResponse(cutoff, archived, files, durationMillis, rowsPerSecond);
+        runs.incrementAndGet();
+        totalArchived.addAndGet(archived);
+        lastRun = response;
+        if (archived > 0) {
+            log.info("Archived {} notifications older than {} into {} files, {} rows/s", archived, cutoff, files,
+                    Math.round(rowsPerSecond));
+        }
+        return response;
+    }
+
+    //файл пишется под временным именем и переименовывается, когда gzip дописан до конца
+    private List<ArchivedNotification> writeChunk(LocalDateTime cutoff, long after) throws IOException {
+        Path directory = Path.of(properties.directory());
+        Files.createDirectories(directory);
+        Path part = Files.createTempFile(directory, "notifications-", ".part");
+        TransactionTemplate transaction = newTransaction();
+        transaction.setReadOnly(true);
+
+        List<ArchivedNotification> chunk = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE);
+             GZIPOutputStream gzip = new GZIPOutputStream(Channels.newOutputStream(channel));
+             Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8))) {
+            boolean more;
+            do {
+                long cursor = chunk.isEmpty() ? after : chunk.get(chunk.size() - 1).id();
+                int limit = Math.min(properties.batchSize(), properties.fileRows() - chunk.size());
+                List<ArchivedNotification> batch = transaction.execute(status -> notificationRepository
+                        .findArchivable(ARCHIVED_STATUSES, cutoff, cursor, Limit.of(limit)).stream()
+                        .map(ArchivedNotification::of)
+                        .toList());
+                for (ArchivedNotification notification : batch) {
+                    writer.write(objectMapper.writeValueAsString(notification));
+                    writer.write('\n');
+                }
+                chunk.addAll(batch);
+                more = batch.size() == limit;
+            } while (more && chunk.size() < properties.fileRows());
+            writer.flush();
+            gzip.finish();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(part);
+            throw e;
+        }
+
+        if (chunk.isEmpty()) {
+            Files.delete(part);
+            return chunk;
+        }
+        String name = String.format("notifications-%s-%d.ndjson.gz", LocalDateTime.now(clock).format(FILE_TIME), chunk.get(0).id());
+        Files.move(part, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(directory);
+        return chunk;
+    }
+
+    //без сброса каталога переименование может не пережить сбой питания, а строки к тому времени уже удалены
+    private void forceDirectory(Path directory) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            //на Windows каталог не открывается как файл, там остается только сброс самого архива
+            log.debug("Cannot open archive directory {} to sync it", directory, e);
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+
+    //удаление идет пачками в отдельных транзакциях, чтобы не держать блокировки на весь файл
+    private void delete(List<ArchivedNotification> chunk) {
+        TransactionTemplate transaction = newTransaction();
+        for (int from = 0; from < chunk.size(); from += properties.batchSize()) {
+            List<ArchivedNotification> batch = chunk.subList(from, Math.min(from + properties.batchSize(), chunk.size()));
+            transaction.executeWithoutResult(status -> {
+                notificationRepository.deleteByIds(batch.stream().map(ArchivedNotification::id).toList());
+                batch.stream()
+                        .map(ArchivedNotification::userId)
+                        .distinct()
+                        .forEach(userId -> eventPublisher.publishEvent(new NotificationInboxChangedEvent(userId)));
+            });
+        }
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return transaction;
+    }
+}
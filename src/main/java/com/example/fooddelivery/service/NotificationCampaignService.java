@@ -0,0 +1,168 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.NotificationCampaignProperties;
+import com.example.fooddelivery.dto.mapper.NotificationCampaignMapper;
+import com.example.fooddelivery.dto.request.NotificationCampaignRequest;
+import com.example.fooddelivery.dto.response.NotificationCampaignResponse;
+import com.example.fooddelivery.entity.NotificationCampaign;
+import com.example.fooddelivery.enums.CampaignStatus;
+import com.example.fooddelivery.enums.NotificationType;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.exception.StatusException;
+import com.example.fooddelivery.repository.NotificationCampaignRepository;
+import com.example.fooddelivery.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+//пачка и сдвиг точки возобновления пишутся одной транзакцией
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class NotificationCampaignService {
+    private final NotificationCampaignRepository campaignRepository;
+    private final UserRepository userRepository;
+    private final NotificationService notificationService;
+    private final NotificationCampaignMapper campaignMapper;
+    private final NotificationCampaignProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final Clock clock;
+
+    private ExecutorService runner;
+
+    @PostConstruct
+    void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("notification-campaigns-");
+        threadFactory.setDaemon(true);
+        runner = Executors.newSingleThreadExecutor(threadFactory);
+    }
+
+    @PreDestroy
+    void stop() {
+        runner.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void resumeCampaigns() {
+        campaignRepository.findAllByStatus(CampaignStatus.RUNNING)
+                .forEach(campaign -> submit(campaign.getId()));
+    }
+
+    public NotificationCampaignResponse createCampaign(NotificationCampaignRequest request) {
+        NotificationCampaign campaign = campaignRepository.save(campaignMapper.toEntity(request));
+        Long campaignId = campaign.getId();
+        //фоновый поток должен увидеть рассылку, поэтому она запускается после коммита
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                submit(campaignId);
+            }
+        });
+        return campaignMapper.toDto(campaign);
+    }
+
+    @Transactional(readOnly = true)
+    public NotificationCampaignResponse getCampaign(Long id) {
+        return campaignMapper.toDto(findCampaign(id));
+    }
+
+    //уже созданные уведомления остаются, следующая пачка не выбирается
+    public NotificationCampaignResponse cancelCampaign(Long id) {
+        if (campaignRepository.finish(id, CampaignStatus.RUNNING, CampaignStatus.CANCELLED,
+                LocalDateTime.now(clock)) == 0) {
+            NotificationCampaign campaign = findCampaign(id);
+            throw new StatusException(String.format("Campaign with id %d is already %s", id, campaign.getStatus()));
+        }
+        return campaignMapper.toDto(findCampaign(id));
+    }
+
+    void submit(Long campaignId) {
+        runner.execute(() -> {
+            try {
+                run(campaignId);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                log.error("Campaign {} stopped", campaignId, e);
+            }
+        });
+    }
+
+    void run(Long campaignId) throws InterruptedException {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        long nanosPerNotification = TimeUnit.SECONDS.toNanos(1) / properties.ratePerSecond();
+
+        int created;
+        do {
+            long started = System.nanoTime();
+            try {
+                created = transaction.execute(status -> processBatch(campaignId));
+            } catch (OptimisticLockingFailureException e) {
+                //рассылку отменили, пока шла пачка: пачка откатилась вместе с ее уведомлениями
+                log.info("Campaign {} was cancelled, stopping", campaignId);
+                return;
+            } catch (RuntimeException e) {
+                log.error("Campaign {} failed", campaignId, e);
+                transaction.executeWithoutResult(status -> campaignRepository.finish(campaignId, CampaignStatus.RUNNING,
+                        CampaignStatus.FAILED, LocalDateTime.now(clock)));
+                return;
+            }
+            //пачка занимает свою долю секунды, поэтому скорость не зависит от размера пачки
+            long remaining = created * nanosPerNotification - (System.nanoTime() - started);
+            if (remaining > 0) {
+                TimeUnit.NANOSECONDS.sleep(remaining);
+            }
+        } while (created > 0);
+    }
+
+    private int processBatch(Long campaignId) {
+        NotificationCampaign campaign = findCampaign(campaignId);
+        if (campaign.getStatus() != CampaignStatus.RUNNING) {
+            return 0;
+        }
+
+        List<Long> userIds = userRepository.findCampaignAudience(campaign.getRole(), campaign.getCity(),
+                campaign.getActive(), campaign.getLastOrderAfter(), campaign.getLastOrderBefore(),
+                campaign.getLastUserId(), Limit.of(properties.batchSize()));
+        if (!userIds.isEmpty()) {
+            notificationService.createNotifications(userIds, campaign.getMessage(), NotificationType.PROMOTIONAL,
+                    campaign.getChannel());
+            campaign.setLastUserId(userIds.get(userIds.size() - 1));
+            campaign.setNotified(campaign.getNotified() + userIds.size());
+        }
+        if (userIds.size() < properties.batchSize()) {
+            campaign.setStatus(CampaignStatus.COMPLETED);
+            campaign.setFinishedAt(LocalDateTime.now(clock));
+            log.info("Campaign {} completed, {} notifications created", campaignId, campaign.getNotified());
+        }
+        return userIds.size();
+    }
+
+    private NotificationCampaign findCampaign(Long id) {
+        return campaignRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Campaign with id %d not found", id)));
+    }
+}
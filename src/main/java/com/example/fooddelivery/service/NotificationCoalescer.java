@@ -0,0 +1,132 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.cache.Stripes;
+import com.example.fooddelivery.config.NotificationProperties;
+import com.example.fooddelivery.dto.request.NotificationRequest;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//статусные уведомления заказа копятся coalescing-window и уходят одним, с последним статусом
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationCoalescer {
+    private static final int STRIPES = 64;
+
+    private final NotificationService notificationService;
+    private final NotificationProperties properties;
+    private final Clock clock;
+
+    private final Stripes<Stripe> stripes = new Stripes<>(STRIPES, Stripe::new);
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void start() {
+        if (properties.coalescingWindow().isZero()) {
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("notification-coalescer-");
+        threadFactory.setDaemon(true);
+        flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        long period = Math.max(properties.coalescingWindow().toMillis() / 4, 50);
+        flusher.scheduleWithFixedDelay(() -> flush(clock.millis()), period, period, TimeUnit.MILLISECONDS);
+    }
+
+    //при остановке накопленные уведомления отправляются сразу, а не теряются
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flush(Long.MAX_VALUE);
+    }
+
+    //учитывается только после коммита изменившей статус транзакции
+    public void offer(Long orderId, NotificationRequest request) {
+        if (properties.coalescingWindow().isZero()) {
+            notificationService.createNotification(request);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(orderId, request);
+                }
+            });
+        } else {
+            add(orderId, request);
+        }
+    }
+
+    private void add(Long orderId, NotificationRequest request) {
+        Stripe stripe = stripes.get(request.getUserId());
+        synchronized (stripe) {
+            Pending pending = stripe.pending.get(orderId);
+            if (pending == null) {
+                stripe.pending.put(orderId, new Pending(request, clock.millis() + properties.coalescingWindow().toMillis()));
+            } else {
+                //окно не продлевается, поэтому поток частых смен статуса не откладывает уведомление бесконечно
+                pending.request = request;
+            }
+        }
+    }
+
+    void flush(long now) {
+        for (Stripe stripe : stripes) {
+            List<NotificationRequest> due = null;
+            synchronized (stripe) {
+                Iterator<Pending> iterator = stripe.pending.values().iterator();
+                while (iterator.hasNext()) {
+                    Pending pending = iterator.next();
+                    if (pending.dueAt <= now) {
+                        if (due == null) {
+                            due = new ArrayList<>();
+                        }
+                        due.add(pending.request);
+                        iterator.remove();
+                    }
+                }
+            }
+            if (due != null) {
+                due.forEach(this::send);
+            }
+        }
+    }
+
+    private void send(NotificationRequest request) {
+        try {
+            notificationService.createNotification(request);
+        } catch (RuntimeException e) {
+            log.warn("Failed to create {} notification for user {}", request.getType(), request.getUserId(), e);
+        }
+    }
+
+    private static final class Stripe {
+        private final Map<Long, Pending> pending = new HashMap<>();
+    }
+
+    private static final class Pending {
+        private NotificationRequest request;
+        private final long dueAt;
+
+        private Pending(NotificationRequest request, long dueAt) {
+            this.request = request;
+            this.dueAt = dueAt;
+        }
+    }
+}
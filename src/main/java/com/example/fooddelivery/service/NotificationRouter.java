@@ -0,0 +1,278 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.cache.NotificationRateLimiter;
+import com.example.fooddelivery.config.NotificationProperties;
+import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.event.NotificationScheduledEvent;
+import com.example.fooddelivery.event.NotificationsSentEvent;
+import com.example.fooddelivery.inner.NotificationSender;
+import com.example.fooddelivery.inner.OutgoingNotification;
+import com.example.fooddelivery.repository.NotificationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+//у каждого канала своя очередь, пул отправителей и предохранитель
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationRouter {
+    private final List<NotificationSender> senders;
+    private final NotificationRepository notificationRepository;
+    private final NotificationProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NotificationRateLimiter rateLimiter;
+    private final Clock clock;
+
+    private final Map<NotificationChannel, ChannelDispatcher> dispatchers = new EnumMap<>(NotificationChannel.class);
+
+    @PostConstruct
+    void start() {
+        for (NotificationSender sender : senders) {
+            ChannelDispatcher dispatcher = new ChannelDispatcher(sender, properties.channel(sender.channel()));
+            if (dispatchers.putIfAbsent(sender.channel(), dispatcher) != null) {
+                throw new IllegalStateException(String.format("Several senders for channel %s", sender.channel()));
+            }
+            dispatcher.start();
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatchers.values().forEach(ChannelDispatcher::stop);
+    }
+
+    //уведомления попадают в очередь канала только после коммита, иначе отправитель может обогнать транзакцию
+    public void dispatch(Collection<Notification> notifications) {
+        dispatchOutgoing(notifications.stream().map(OutgoingNotification::of).toList());
+    }
+
+    public void dispatchOutgoing(List<OutgoingNotification> outgoing) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(outgoing);
+                }
+            });
+        } else {
+            enqueue(outgoing);
+        }
+    }
+
+    private void enqueue(List<OutgoingNotification> notifications) {
+        List<OutgoingNotification> rejected = new ArrayList<>();
+        for (OutgoingNotification notification : notifications) {
+            long wait = rateLimiter.tryAcquire(notification.userId(), notification.channel());
+            if (wait > 0) {
+                defer(List.of(notification), LocalDateTime.now(clock).plus(Duration.ofMillis(wait)));
+                continue;
+            }
+            ChannelDispatcher dispatcher = dispatchers.get(notification.channel());
+            if (dispatcher == null || !dispatcher.queue.offer(notification)) {
+                rejected.add(notification);
+            }
+        }
+        //очередь канала переполнена: уведомление откладывается без траты попытки
+        if (!rejected.isEmpty()) {
+            log.warn("Notification queues are full, {} notifications deferred", rejected.size());
+            defer(rejected, LocalDateTime.now(clock).plus(properties.retry().initialDelay()));
+        }
+    }
+
+    private void markSent(List<OutgoingNotification> notifications) {
+        List<Long> ids = notifications.stream().map(OutgoingNotification::id).toList();
+        newTransaction().executeWithoutResult(status -> {
+            notificationRepository.markSent(ids, LocalDateTime.now(clock));
+            eventPublisher.publishEvent(new NotificationsSentEvent(
+                    notifications.stream().map(OutgoingNotification::userId).toList()));
+        });
+    }
+
+    //неудачная попытка: повтор с экспоненциальной задержкой или DEAD_LETTER, если попытки кончились
+    private void retryOrDeadLetter(List<OutgoingNotification> notifications) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        NotificationProperties.Retry retry = properties.retry();
+        newTransaction().executeWithoutResult(status -> {
+            for (OutgoingNotification notification : notifications) {
+                int attempts = notification.attempts() + 1;
+                if (attempts >= retry.maxAttempts()) {
+                    log.warn("Notification {} moved to dead letter after {} attempts", notification.id(), attempts);
+                    notificationRepository.updateAttempt(notification.id(), NotificationStatus.DEAD_LETTER, attempts, null);
+                } else {
+                    LocalDateTime nextAttemptAt = now.plus(backoff(attempts));
+                    notificationRepository.updateAttempt(notification.id(), NotificationStatus.RETRYING, attempts, nextAttemptAt);
+                    eventPublisher.publishEvent(new NotificationScheduledEvent(List.of(notification.id()), nextAttemptAt));
+                }
+            }
+        });
+    }
+
+    private void defer(List<OutgoingNotification> notifications, LocalDateTime nextAttemptAt) {
+        Map<Boolean, List<Long>> byRetry = notifications.stream().collect(Collectors.partitioningBy(
+                notification -> notification.attempts() > 0,
+                Collectors.mapping(OutgoingNotification::id, Collectors.toList())));
+        newTransaction().executeWithoutResult(status -> {
+            if (!byRetry.get(false).isEmpty()) {
+                notificationRepository.reschedule(byRetry.get(false), NotificationStatus.SCHEDULED, nextAttemptAt);
+            }
+            if (!byRetry.get(true).isEmpty()) {
+                notificationRepository.reschedule(byRetry.get(true), NotificationStatus.RETRYING, nextAttemptAt);
+            }
+            eventPublisher.publishEvent(new NotificationScheduledEvent(
+                    notifications.stream().map(OutgoingNotification::id).toList(), nextAttemptAt));
+        });
+    }
+
+    //запись идет и из afterCommit создавшей уведомление транзакции, поэтому всегда в новой транзакции
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    //половина задержки фиксирована, вторая случайна, чтобы повторы после сбоя провайдера не шли одной волной
+    Duration backoff(int attempt) {
+        NotificationProperties.Retry retry = properties.retry();
+        double delay = retry.initialDelay().toMillis() * Math.pow(retry.multiplier(), attempt - 1);
+        long capped = (long) Math.min(delay, retry.maxDelay().toMillis());
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    private final class ChannelDispatcher {
+        private final NotificationSender sender;
+        private final NotificationProperties.Channel settings;
+        private final BlockingQueue<OutgoingNotification> queue;
+        private final CircuitBreaker circuitBreaker;
+        private ExecutorService workers;
+
+        private ChannelDispatcher(NotificationSender sender, NotificationProperties.Channel settings) {
+            this.sender = sender;
+            this.settings = settings;
+            this.queue = new ArrayBlockingQueue<>(settings.queueCapacity());
+            this.circuitBreaker = new CircuitBreaker(settings);
+        }
+
+        private void start() {
+            String name = sender.channel().name().toLowerCase();
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("notifications-" + name + "-");
+            threadFactory.setDaemon(true);
+            workers = Executors.newFixedThreadPool(settings.concurrency(), threadFactory);
+            for (int i = 0; i < settings.concurrency(); i++) {
+                workers.execute(this::run);
+            }
+        }
+
+        private void stop() {
+            workers.shutdownNow();
+        }
+
+        private void run() {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<OutgoingNotification> batch = new ArrayList<>(settings.batchSize());
+                try {
+                    batch.add(queue.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queue.drainTo(batch, settings.batchSize() - 1);
+                try {
+                    deliver(batch);
+                } catch (RuntimeException e) {
+                    //статус не записался: уведомления остаются PENDING и будут забраны снова по истечении аренды
+                    log.error("Failed to record delivery of {} {} notifications", batch.size(), sender.channel(), e);
+                }
+            }
+        }
+
+        private void deliver(List<OutgoingNotification> batch) {
+            Instant now = clock.instant();
+            if (!circuitBreaker.tryAcquire(now)) {
+                defer(batch, LocalDateTime.ofInstant(circuitBreaker.retryAt(now, properties.retry().initialDelay()), clock.getZone()));
+                return;
+            }
+
+            try {
+                sender.send(batch);
+            } catch (Exception e) {
+                circuitBreaker.onFailure(clock.instant());
+                log.warn("Failed to send {} {} notifications", batch.size(), sender.channel(), e);
+                retryOrDeadLetter(batch);
+                return;
+            }
+            circuitBreaker.onSuccess();
+            markSent(batch);
+        }
+    }
+
+    //после паузы одна пробная пачка решает, замкнуть канал или разомкнуть снова
+    private static final class CircuitBreaker {
+        private final NotificationProperties.Channel settings;
+        private int failures;
+        private Instant openUntil;
+        private boolean probing;
+
+        private CircuitBreaker(NotificationProperties.Channel settings) {
+            this.settings = settings;
+        }
+
+        synchronized boolean tryAcquire(Instant now) {
+            if (openUntil == null) {
+                return true;
+            }
+            if (probing || now.isBefore(openUntil)) {
+                return false;
+            }
+            probing = true;
+            return true;
+        }
+
+        //пока идет проба, остальные пачки откладываются хотя бы на minDelay
+        synchronized Instant retryAt(Instant now, Duration minDelay) {
+            Instant earliest = now.plus(minDelay);
+            return openUntil == null || openUntil.isBefore(earliest) ? earliest : openUntil;
+        }
+
+        synchronized void onSuccess() {
+            failures = 0;
+            openUntil = null;
+            probing = false;
+        }
+
+        synchronized void onFailure(Instant now) {
+            probing = false;
+            failures++;
+            if (failures >= settings.failureThreshold()) {
+                openUntil = now.plus(settings.openTimeout());
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.NotificationProperties;
+import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.inner.OutgoingNotification;
+import com.example.fooddelivery.repository.NotificationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+//строку забирает с арендой только один из опроса и таймера
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationScheduler {
+    //PENDING с истекшей арендой: узел упал после захвата или статус отправки не записался
+    private static final Set<NotificationStatus> DUE_STATUSES = Set.of(NotificationStatus.SCHEDULED,
+            NotificationStatus.RETRYING, NotificationStatus.PENDING);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationRouter notificationRouter;
+    private final NotificationProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final Clock clock;
+
+    @Scheduled(fixedDelayString = "${notifications.poll-interval:PT1M}")
+    public int processDueNotifications() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now(clock);
+        int total = 0;
+        int claimed;
+        //отложенные при переполнении очереди получают время в будущем, поэтому цикл не забирает их повторно
+        do {
+            claimed = transaction.execute(status -> claimBatch(now));
+            total += claimed;
+        } while (claimed == properties.claimBatchSize());
+        return total;
+    }
+
+    //уведомления, уже забранные опросом или перенесенные на более поздний срок, пропускаются
+    public int processDue(Collection<Long> ids) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        LocalDateTime now = LocalDateTime.now(clock);
+        List<Long> remaining = List.copyOf(ids);
+        int total = 0;
+        for (int from = 0; from < remaining.size(); from += properties.claimBatchSize()) {
+            List<Long> batch = remaining.subList(from, Math.min(from + properties.claimBatchSize(), remaining.size()));
+            total += transaction.execute(status ->
+                    claim(notificationRepository.findDueByIds(batch, DUE_STATUSES, now), now));
+        }
+        return total;
+    }
+
+    private int claimBatch(LocalDateTime now) {
+        List<Notification> due = notificationRepository.findDue(DUE_STATUSES, now, Limit.of(properties.claimBatchSize()));
+        claim(due, now);
+        //размер выборки, а не число забранных: строки, перехваченные другим потоком, не значат, что пачка последняя
+        return due.size();
+    }
+
+    private int claim(List<Notification> due, LocalDateTime now) {
+        NotificationProperties.Retry retry = properties.retry();
+        LocalDateTime leaseUntil = now.plus(retry.lease());
+        List<OutgoingNotification> claimed = new ArrayList<>();
+        for (Notification notification : due) {
+            //истекшая аренда считается неудачной попыткой, иначе уведомление, роняющее отправку, крутилось бы вечно
+            int attempts = notification.getStatus() == NotificationStatus.PENDING
+                    ? notification.getAttempts() + 1 : notification.getAttempts();
+            boolean exhausted = attempts >= retry.maxAttempts();
+            int updated = notificationRepository.compareAndUpdate(notification.getId(), notification.getStatus(),
+                    notification.getNextAttemptAt(), exhausted ? NotificationStatus.DEAD_LETTER : NotificationStatus.PENDING,
+                    attempts, exhausted ? null : leaseUntil);
+            if (updated == 0) {
+                continue;
+            }
+            if (exhausted) {
+                log.warn("Notification {} moved to dead letter after {} attempts", notification.getId(), attempts);
+            } else {
+                OutgoingNotification outgoing = OutgoingNotification.of(notification);
+                claimed.add(new OutgoingNotification(outgoing.id(), outgoing.userId(), outgoing.channel(),
+                        outgoing.message(), attempts));
+            }
+        }
+        if (!claimed.isEmpty()) {
+            notificationRouter.dispatchOutgoing(claimed);
+        }
+        return claimed.size();
+    }
+}
@@ -1,32 +1,52 @@
 package com.example.fooddelivery.service;
 
+import com.example.fooddelivery.config.NotificationProperties;
 import com.example.fooddelivery.dto.mapper.NotificationMapper;
 import com.example.fooddelivery.dto.request.NotificationRequest;
+import com.example.fooddelivery.cache.UnreadCountCache;
+import com.example.fooddelivery.dto.response.NotificationInboxResponse;
 import com.example.fooddelivery.dto.response.NotificationResponse;
+import com.example.fooddelivery.dto.response.NotificationUnreadResponse;
 import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.entity.NotificationReadMark;
 import com.example.fooddelivery.entity.User;
+import com.example.fooddelivery.enums.NotificationChannel;
 import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.enums.NotificationType;
+import com.example.fooddelivery.event.NotificationInboxChangedEvent;
+import com.example.fooddelivery.event.NotificationScheduledEvent;
 import com.example.fooddelivery.exception.EntityNotFoundException;
-import com.example.fooddelivery.inner.NotificationSender;
+import com.example.fooddelivery.repository.NotificationReadMarkRepository;
 import com.example.fooddelivery.repository.NotificationRepository;
 import com.example.fooddelivery.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class NotificationService {
+    //во входящих только дошедшие до пользователя уведомления
+    private static final Set<NotificationStatus> INBOX_STATUSES = Set.of(NotificationStatus.SENT, NotificationStatus.DELIVERED);
+
     private final NotificationRepository notificationRepository;
+    private final NotificationReadMarkRepository notificationReadMarkRepository;
+    private final UnreadCountCache unreadCountCache;
     private final UserRepository userRepository;
     private final NotificationMapper notificationMapper;
-    private final NotificationSender notificationSender;
+    private final NotificationRouter notificationRouter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final NotificationProperties notificationProperties;
 
     public NotificationResponse createNotification(NotificationRequest request){
         User user = userRepository.findById(request.getUserId())
@@ -38,14 +58,37 @@ public class NotificationService {
 
         if (request.getSendAt() != null && request.getSendAt().isAfter(LocalDateTime.now())) {
             notification.setStatus(NotificationStatus.SCHEDULED);
+            notification.setNextAttemptAt(request.getSendAt());
+            notificationRepository.save(notification);
+            eventPublisher.publishEvent(new NotificationScheduledEvent(List.of(notification.getId()), request.getSendAt()));
         } else {
-            sendNotification(notification);
+            //статус проставит отправитель, после падения узла уведомление заберет опрос
+            notification.setStatus(NotificationStatus.PENDING);
+            notification.setNextAttemptAt(LocalDateTime.now().plus(notificationProperties.retry().lease()));
+            notificationRepository.save(notification);
+            notificationRouter.dispatch(List.of(notification));
         }
 
-        notificationRepository.save(notification);
         return notificationMapper.toDto(notification);
     }
 
+    //массовая рассылка: уведомления ставятся в очередь отложенных и уходят при ближайшей обработке
+    public void createNotifications(Collection<Long> userIds, String message, NotificationType type, NotificationChannel channel) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> notifications = userIds.stream()
+                .map(userId -> {
+                    Notification notification = new Notification(userRepository.getReferenceById(userId), message, type,
+                            NotificationStatus.SCHEDULED, channel);
+                    notification.setSendAt(now);
+                    notification.setNextAttemptAt(now);
+                    return notification;
+                })
+                .toList();
+        notificationRepository.saveAll(notifications);
+        eventPublisher.publishEvent(new NotificationScheduledEvent(
+                notifications.stream().map(Notification::getId).toList(), now));
+    }
+
     @Transactional(readOnly = true)
     public List<NotificationResponse> getUserNotifications(Long userId) {
         if(!userRepository.existsById(userId)){
@@ -58,6 +101,61 @@ public class NotificationService {
                 .collect(Collectors.toList());
     }
 
+    //входящие в порядке доставки от новых к старым; before - id последнего уведомления предыдущей страницы
+    @Transactional(readOnly = true)
+    public NotificationInboxResponse getInbox(Long userId, Long before, int limit) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException(String.format("User with id %d not found", userId));
+        }
+
+        List<Notification> notifications = before == null
+                ? notificationRepository.findInbox(userId, INBOX_STATUSES, Limit.of(limit))
+                : notificationRepository.findInboxBefore(userId, INBOX_STATUSES, before, Limit.of(limit));
+        long readUpTo = getReadUpTo(userId);
+        long unread = unreadCountCache.get(userId, () -> notificationRepository.countInboxAfter(userId, INBOX_STATUSES, readUpTo));
+        return new NotificationInboxResponse(notifications.stream().map(notificationMapper::toDto).toList(), readUpTo, unread);
+    }
+
+    //счетчик отдается из памяти без обращения к БД, пока его не сбросит новая граница прочитанного
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public NotificationUnreadResponse getUnreadCount(Long userId) {
+        long unread = unreadCountCache.get(userId, () -> {
+            if (!userRepository.existsById(userId)) {
+                throw new EntityNotFoundException(String.format("User with id %d not found", userId));
+            }
+            return notificationRepository.countInboxAfter(userId, INBOX_STATUSES, getReadUpTo(userId));
+        });
+        return new NotificationUnreadResponse(userId, unread);
+    }
+
+    //отмечает прочитанными уведомление upTo и все доставленные раньше него, по умолчанию - все полученные
+    public NotificationUnreadResponse markRead(Long userId, Long upTo) {
+        if (!userRepository.existsById(userId)) {
+            throw new EntityNotFoundException(String.format("User with id %d not found", userId));
+        }
+
+        long readUpTo;
+        if (upTo == null) {
+            List<Notification> latest = notificationRepository.findInbox(userId, INBOX_STATUSES, Limit.of(1));
+            if (latest.isEmpty()) {
+                return new NotificationUnreadResponse(userId, 0);
+            }
+            readUpTo = latest.get(0).getDeliverySeq();
+        } else {
+            readUpTo = notificationRepository.findDeliverySeq(upTo, userId, INBOX_STATUSES)
+                    .orElseThrow(() -> new EntityNotFoundException(
+                            String.format("Notification with id %d not found in inbox of user %d", upTo, userId)));
+        }
+        if (notificationReadMarkRepository.advance(userId, readUpTo) == 0
+                && !notificationReadMarkRepository.existsById(userId)) {
+            notificationReadMarkRepository.save(new NotificationReadMark(userId, readUpTo));
+        }
+        eventPublisher.publishEvent(new NotificationInboxChangedEvent(userId));
+
+        return new NotificationUnreadResponse(userId,
+                notificationRepository.countInboxAfter(userId, INBOX_STATUSES, getReadUpTo(userId)));
+    }
+
     public NotificationResponse updateNotificationStatus(Long id, NotificationStatus status) {
         Notification notification = notificationRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Notification with id %d not found", id)));
@@ -67,32 +165,18 @@ public class NotificationService {
         if (status == NotificationStatus.SENT) {
             notification.setSentAt(LocalDateTime.now());
         }
+        if (INBOX_STATUSES.contains(status) && notification.getDeliverySeq() == null) {
+            notification.setDeliverySeq(notificationRepository.nextDeliverySeq());
+        }
 
         notificationRepository.save(notification);
+        eventPublisher.publishEvent(new NotificationInboxChangedEvent(notification.getUser().getId()));
         return notificationMapper.toDto(notification);
     }
 
-    private void sendNotification(Notification notification) {
-        try {
-            notificationSender.send(notification);
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setSentAt(LocalDateTime.now());
-        } catch (Exception e) {
-            notification.setStatus(NotificationStatus.FAILED);
-        }
-    }
-
-    @Scheduled(fixedRate = 60000)
-    public void processScheduledNotifications() {
-        List<Notification> scheduled = notificationRepository.findAllByStatusAndSendAtLessThanEqual(NotificationStatus.SCHEDULED, LocalDateTime.now());
-
-        for (Notification notification : scheduled) {
-            try {
-                sendNotification(notification);
-            } catch (Exception e) {
-                notification.setStatus(NotificationStatus.FAILED);
-            }
-            notificationRepository.save(notification);
-        }
+    private long getReadUpTo(Long userId) {
+        return notificationReadMarkRepository.findById(userId)
+                .map(NotificationReadMark::getReadUpTo)
+                .orElse(0L);
     }
 }
@@ -0,0 +1,118 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.cache.TimingWheel;
+import com.example.fooddelivery.config.NotificationProperties;
+import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.event.NotificationScheduledEvent;
+import com.example.fooddelivery.repository.NotificationRepository;
+import com.example.fooddelivery.repository.projection.NotificationDueView;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//ближайшие сроки в колесе таймеров, дальние подгружаются раз в horizon
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class NotificationTimer {
+    private static final Set<NotificationStatus> DUE_STATUSES = Set.of(NotificationStatus.SCHEDULED, NotificationStatus.RETRYING);
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationScheduler notificationScheduler;
+    private final NotificationProperties properties;
+    private final Clock clock;
+
+    private TimingWheel<Long> wheel;
+    private ScheduledExecutorService ticker;
+
+    @PostConstruct
+    void start() {
+        NotificationProperties.Timer timer = properties.timer();
+        long tickMillis = timer.tick().toMillis();
+        wheel = new TimingWheel<>(tickMillis, TimingWheel.levelsFor(tickMillis, timer.horizon().toMillis()), clock.millis());
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("notification-timer-");
+        threadFactory.setDaemon(true);
+        ticker = Executors.newSingleThreadScheduledExecutor(threadFactory);
+        ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+    }
+
+    @TransactionalEventListener
+    public void onNotificationScheduled(NotificationScheduledEvent event) {
+        if (event.nextAttemptAt().isAfter(horizonEnd())) {
+            return;
+        }
+        long deadline = toMillis(event.nextAttemptAt());
+        synchronized (this) {
+            for (Long id : event.notificationIds()) {
+                if (wheel.size() >= properties.timer().maxSize() && !wheel.contains(id)) {
+                    return;
+                }
+                wheel.schedule(id, deadline);
+            }
+        }
+    }
+
+    //при старте и на каждой границе горизонта подгружаются сроки на горизонт вперед
+    @Scheduled(fixedRateString = "${notifications.timer.horizon:PT1H}")
+    public void reload() {
+        List<NotificationDueView> due = notificationRepository.findDueViews(DUE_STATUSES, horizonEnd(),
+                Limit.of(properties.timer().maxSize()));
+        synchronized (this) {
+            for (NotificationDueView notification : due) {
+                if (wheel.size() >= properties.timer().maxSize() && !wheel.contains(notification.getId())) {
+                    break;
+                }
+                wheel.schedule(notification.getId(), toMillis(notification.getNextAttemptAt()));
+            }
+        }
+        log.debug("Loaded {} due notifications into timer", due.size());
+    }
+
+    void tick() {
+        List<Long> due;
+        synchronized (this) {
+            due = wheel.advance(clock.millis());
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        try {
+            notificationScheduler.processDue(due);
+        } catch (RuntimeException e) {
+            //сработавшие уведомления остаются в таблице и будут забраны опросом
+            log.error("Failed to claim {} due notifications", due.size(), e);
+        }
+    }
+
+    synchronized int size() {
+        return wheel.size();
+    }
+
+    private LocalDateTime horizonEnd() {
+        return LocalDateTime.now(clock).plus(properties.timer().horizon());
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+}
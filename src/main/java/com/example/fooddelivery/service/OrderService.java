@@ -1,8 +1,14 @@
 package com.example.fooddelivery.service;
 
+import com.example.fooddelivery.cache.CartLine;
+import com.example.fooddelivery.cache.CartState;
+import com.example.fooddelivery.cache.CartStore;
+import com.example.fooddelivery.cache.MenuAvailabilityIndex;
+import com.example.fooddelivery.cache.OrderHistoryCache;
 import com.example.fooddelivery.dto.mapper.OrderMapper;
 import com.example.fooddelivery.dto.request.NotificationRequest;
 import com.example.fooddelivery.dto.request.OrderRequest;
+import com.example.fooddelivery.dto.response.OrderLineResponse;
 import com.example.fooddelivery.dto.response.OrderResponse;
 import com.example.fooddelivery.entity.*;
 import com.example.fooddelivery.enums.NotificationChannel;
@@ -11,16 +17,26 @@ import com.example.fooddelivery.enums.OrderStatus;
 import com.example.fooddelivery.exception.AccessDeniedException;
 import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.event.OrderStatusChangedEvent;
 import com.example.fooddelivery.exception.StatusException;
+import com.example.fooddelivery.pricing.Money;
+import com.example.fooddelivery.pricing.PriceBreakdown;
+import com.example.fooddelivery.pricing.PricingEngine;
 import com.example.fooddelivery.repository.*;
+import com.example.fooddelivery.repository.projection.ItemOptionSnapshotView;
+import com.example.fooddelivery.repository.projection.OrderLineView;
+import com.example.fooddelivery.repository.projection.OrderSummaryView;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,56 +44,86 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class OrderService {
     private final NotificationService notificationService;
+    private final NotificationCoalescer notificationCoalescer;
     private final OrderRepository orderRepository;
     private final CartRepository cartRepository;
     private final OrderMapper orderMapper;
-
-    private static final BigDecimal MIN_AMOUNT = new BigDecimal("300.00");
+    private final MenuAvailabilityIndex menuAvailabilityIndex;
+    private final CartStore cartStore;
+    private final PricingEngine pricingEngine;
+    private final ItemOptionRepository itemOptionRepository;
+    private final RestaurantRepository restaurantRepository;
+    private final OrderLineRepository orderLineRepository;
+    private final OrderHistoryCache orderHistoryCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     public OrderResponse createOrder(OrderRequest request){
+        cartStore.flush(request.getCartId());
         Cart cart = cartRepository.findById(request.getCartId())
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Cart with id %d not found", request.getCartId())));
 
-        if (cart.getItems().isEmpty()){
+        //содержимое берется из корзины в памяти: после flush оно совпадает с cart_items
+        Long userId = cart.getUser().getId();
+        CartState state = cartStore.find(userId)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Cart with id %d not found", cart.getId())));
+
+        if (state.items().isEmpty()){
             throw new BusinessException("Order cannot be created without items");
         }
 
-        checkItemAvailability(cart);
+        Map<Long, ItemOptionSnapshotView> options = itemOptionRepository.findSnapshotsByIds(
+                        state.items().stream().map(CartLine::itemOptionId).toList())
+                .stream()
+                .collect(Collectors.toMap(ItemOptionSnapshotView::getId, Function.identity()));
+
+        checkItemAvailability(state, options);
 
-        BigDecimal totalAmount = calculateAmountFromCart(cart);
+        PriceBreakdown price = pricingEngine.price(state.restaurantId(), state.subtotalMinor(), request.getPromoCode());
 
-        if (totalAmount.compareTo(MIN_AMOUNT) < 0){
-            throw new BusinessException("Order cannot be created with total amount smaller than 300.00");
+        if (price.isBelowMinimum()){
+            throw new BusinessException(String.format("Order cannot be created with total amount smaller than %s",
+                    Money.toDecimal(price.getMinOrderAmount())));
         }
 
         Order order = orderMapper.toEntity(request);
         order.setUser(cart.getUser());
         order.setStatus(OrderStatus.NEW);
         order.setCart(cart);
-        order.setTotalAmount(totalAmount);
+        order.setRestaurant(restaurantRepository.getReferenceById(state.restaurantId()));
+        order.setTotalAmount(Money.toDecimal(price.getTotal()));
+        for (CartLine line : state.items()) {
+            ItemOptionSnapshotView option = options.get(line.itemOptionId());
+            order.getLines().add(new OrderLine(order, line.itemId(), line.itemOptionId(), option.getItemName(),
+                    option.getSize(), Money.toDecimal(line.priceMinor()), line.quantity()));
+        }
         order = orderRepository.save(order);
 
-        cart.getItems().clear();
-        cartRepository.save(cart);
+        //корзина очищается через CartStore в этой же транзакции, при откате заказа она перечитается из БД
+        cartStore.update(userId, CartState::cleared);
+        cartStore.flush(cart.getId());
+        cartStore.evict(userId);
 
         sendNotification(order);
+        publishStatusChanged(order);
 
         return orderMapper.toDto(order);
     }
 
     @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long id) {
-        Order order = orderRepository.findById(id)
+        Order order = orderRepository.findWithLinesById(id)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Order with id %d not found", id)));
         return orderMapper.toDto(order);
     }
 
+    //история заказов пользователя от новых к старым; before - id последнего заказа предыдущей страницы
     @Transactional(readOnly = true)
-    public List<OrderResponse> getOrdersById(Long userId) {
-        return orderRepository.findByUserId(userId)
-                .stream()
-                .map(orderMapper::toDto)
-                .collect(Collectors.toList());
+    public List<OrderResponse> getOrderHistory(Long userId, Long before, int limit) {
+        if (before != null) {
+            return loadHistory(orderRepository.findHistoryBefore(userId, before, Limit.of(limit)));
+        }
+        return orderHistoryCache.getFirstPage(userId, limit,
+                () -> loadHistory(orderRepository.findHistory(userId, Limit.of(limit))));
     }
 
     @Transactional(readOnly = true)
@@ -90,7 +136,7 @@ public class OrderService {
 
     @Transactional(readOnly = true)
     public List<OrderResponse> getAllOrders() {
-        return orderRepository.findAll()
+        return orderRepository.findAllWithLinesBy()
                 .stream()
                 .map(orderMapper::toDto)
                 .collect(Collectors.toList());
@@ -105,6 +151,7 @@ public class OrderService {
         orderRepository.save(order);
 
         sendNotification(order);
+        publishStatusChanged(order);
         if (status == OrderStatus.DELIVERED) {
             scheduleNotification(order);
         }
@@ -122,6 +169,7 @@ public class OrderService {
         orderRepository.save(order);
 
         sendNotification(order);
+        publishStatusChanged(order);
 
         if(status == OrderStatus.DELIVERED){
             scheduleNotification(order);
@@ -139,20 +187,50 @@ public class OrderService {
         order.setStatus(OrderStatus.CANCELLED);
         orderRepository.save(order);
         sendNotification(order);
+        publishStatusChanged(order);
     }
 
-    private void checkItemAvailability(Cart cart) {
-        List<String> unavailableItems = new ArrayList<>();
-        for (CartItem cartItem : cart.getItems()){
-            Item item = cartItem.getItem();
-            if(!item.isAvailable()){
-                unavailableItems.add(item.getName());
-            }
+    private List<OrderResponse> loadHistory(List<OrderSummaryView> orders) {
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<OrderLineResponse>> lines = orderLineRepository.findViewsByOrderIds(
+                        orders.stream().map(OrderSummaryView::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(OrderLineView::getOrderId,
+                        Collectors.mapping(orderMapper::toDto, Collectors.toList())));
+
+        return orders.stream()
+                .map(order -> orderMapper.toDto(order, lines.getOrDefault(order.getId(), List.of())))
+                .toList();
+    }
+
+    private void publishStatusChanged(Order order) {
+        eventPublisher.publishEvent(OrderStatusChangedEvent.of(order));
+    }
+
+    private void checkItemAvailability(CartState cart, Map<Long, ItemOptionSnapshotView> options) {
+        List<Long> itemIds = cart.items().stream()
+                .map(CartLine::itemId)
+                .collect(Collectors.toList());
+
+        List<Long> unavailableIds = menuAvailabilityIndex.findUnavailable(itemIds);
+        //опция могла быть удалена из меню после последней проверки корзины
+        if (unavailableIds.isEmpty() && options.size() == cart.items().size()) {
+            return;
         }
 
-        if (!unavailableItems.isEmpty()) {
-            throw new BusinessException("These items are not available now: " + String.join(", ", unavailableItems));
+        List<String> unavailableItems = new ArrayList<>();
+        for (CartLine line : cart.items()){
+            ItemOptionSnapshotView option = options.get(line.itemOptionId());
+            if (option == null) {
+                unavailableItems.add(String.format("item option %d", line.itemOptionId()));
+            } else if (unavailableIds.contains(line.itemId()) && !unavailableItems.contains(option.getItemName())){
+                unavailableItems.add(option.getItemName());
+            }
         }
+        throw new BusinessException("These items are not available now: " + String.join(", ", unavailableItems));
     }
 
     private void validateStatusUpdate(Order order, OrderStatus status, Long courierId){
@@ -170,18 +248,6 @@ public class OrderService {
         }
     }
 
-    private BigDecimal calculateAmountFromCart(Cart cart) {
-        return cart.getItems().stream()
-                .map(this::calculateItemTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-    }
-
-    private BigDecimal calculateItemTotal(CartItem cartItem) {
-        BigDecimal price = cartItem.getItemOption().getPrice();
-        int quantity = cartItem.getQuantity();
-        return price.multiply(BigDecimal.valueOf(quantity));
-    }
-
     private void sendNotification(Order order){
         OrderStatus orderStatus = order.getStatus();
         String message = generateMessage(orderStatus);
@@ -190,7 +256,7 @@ public class OrderService {
 
         NotificationRequest request = new NotificationRequest(order.getUser().getId(), message, type, channel, null);
 
-        notificationService.createNotification(request);
+        notificationCoalescer.offer(order.getId(), request);
     }
 
     private String generateMessage(OrderStatus status){
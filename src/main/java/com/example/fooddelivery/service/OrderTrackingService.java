@@ -0,0 +1,272 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.OrderTrackingProperties;
+import com.example.fooddelivery.dto.response.OrderStatusEventResponse;
+import com.example.fooddelivery.entity.Order;
+import com.example.fooddelivery.enums.OrderStatus;
+import com.example.fooddelivery.event.OrderStatusChangedEvent;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.repository.CourierRepository;
+import com.example.fooddelivery.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+//у подписчика в очереди пула не больше одной задачи
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderTrackingService {
+    private static final String STATUS_EVENT = "status";
+
+    private final OrderRepository orderRepository;
+    private final CourierRepository courierRepository;
+    private final OrderTrackingProperties properties;
+
+    private final Map<Long, Set<Subscriber>> orderSubscribers = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> courierSubscribers = new ConcurrentHashMap<>();
+    private ExecutorService sender;
+
+    @PostConstruct
+    void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("order-tracking-");
+        threadFactory.setDaemon(true);
+        sender = new ThreadPoolExecutor(properties.senderThreads(), properties.senderThreads(), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.senderQueue()), threadFactory);
+    }
+
+    @PreDestroy
+    void stop() {
+        sender.shutdownNow();
+        orderSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        courierSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    @Transactional(readOnly = true)
+    public SseEmitter subscribeToOrder(Long orderId) {
+        if (!orderRepository.existsById(orderId)) {
+            throw new EntityNotFoundException(String.format("Order with id %d not found", orderId));
+        }
+
+        Subscriber subscriber = subscribe(orderSubscribers, orderId, true);
+        //текущий статус читается уже после подписки, чтобы не потерять переход между ними
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Order with id %d not found", orderId)));
+        subscriber.offer(toEvent(order), true);
+        return subscriber.emitter;
+    }
+
+    public SseEmitter subscribeToCourier(Long courierId) {
+        if (!courierRepository.existsById(courierId)) {
+            throw new EntityNotFoundException(String.format("Courier with id %d not found", courierId));
+        }
+        return subscribe(courierSubscribers, courierId, false).emitter;
+    }
+
+    @TransactionalEventListener
+    public void onOrderStatusChanged(OrderStatusChangedEvent event) {
+        OrderStatusEventResponse response = new OrderStatusEventResponse(event.orderId(), event.status(), event.courierId());
+        orderSubscribers.getOrDefault(event.orderId(), Set.of())
+                .forEach(subscriber -> subscriber.offer(response, false));
+        if (event.courierId() != null) {
+            courierSubscribers.getOrDefault(event.courierId(), Set.of())
+                    .forEach(subscriber -> subscriber.offer(response, false));
+        }
+    }
+
+    //не дает прокси закрыть простаивающее соединение
+    @Scheduled(fixedDelayString = "${orders.tracking.heartbeat:PT25S}")
+    public void sendHeartbeats() {
+        orderSubscribers.values().forEach(subscribers -> subscribers.forEach(Subscriber::heartbeat));
+        courierSubscribers.values().forEach(subscribers -> subscribers.forEach(Subscriber::heartbeat));
+    }
+
+    @Scheduled(fixedDelayString = "${orders.tracking.send-timeout:PT10S}")
+    public void closeStuckSubscribers() {
+        long now = System.nanoTime();
+        orderSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.expireSend(now)));
+        courierSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.expireSend(now)));
+    }
+
+    int countSubscribers() {
+        return orderSubscribers.values().stream().mapToInt(Set::size).sum()
+                + courierSubscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(properties.timeout().toMillis());
+    }
+
+    private Subscriber subscribe(Map<Long, Set<Subscriber>> subscribers, Long key, boolean completeOnFinalStatus) {
+        Subscriber subscriber = new Subscriber(newEmitter(), completeOnFinalStatus);
+        subscriber.unsubscribe = () -> subscribers.computeIfPresent(key, (id, current) -> {
+            current.remove(subscriber);
+            return current.isEmpty() ? null : current;
+        });
+        subscribers.compute(key, (id, current) -> {
+            Set<Subscriber> updated = current != null ? current : ConcurrentHashMap.newKeySet();
+            updated.add(subscriber);
+            return updated;
+        });
+
+        subscriber.emitter.onCompletion(subscriber::close);
+        subscriber.emitter.onTimeout(subscriber::close);
+        subscriber.emitter.onError(error -> subscriber.close());
+        return subscriber;
+    }
+
+    private OrderStatusEventResponse toEvent(Order order) {
+        Long courierId = order.getCourier() == null ? null : order.getCourier().getId();
+        return new OrderStatusEventResponse(order.getId(), order.getStatus(), courierId);
+    }
+
+    private static boolean isFinal(OrderStatus status) {
+        return status == OrderStatus.DELIVERED || status == OrderStatus.CANCELLED;
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final boolean completeOnFinalStatus;
+        private Runnable unsubscribe = () -> { };
+
+        //по каждому заказу хранится только последний неотправленный статус
+        private final Map<Long, OrderStatusEventResponse> pending = new LinkedHashMap<>();
+        private boolean live;
+        private boolean heartbeat;
+        private boolean scheduled;
+        private boolean closed;
+        private Thread sendingThread;
+        private long sendStartedAt;
+
+        private Subscriber(SseEmitter emitter, boolean completeOnFinalStatus) {
+            this.emitter = emitter;
+            this.completeOnFinalStatus = completeOnFinalStatus;
+        }
+
+        //снимок при подписке не должен перезаписать событие, пришедшее после нее
+        synchronized void offer(OrderStatusEventResponse event, boolean snapshot) {
+            if (closed || (snapshot && live)) {
+                return;
+            }
+            live |= !snapshot;
+            pending.put(event.orderId(), event);
+            schedule();
+        }
+
+        synchronized void heartbeat() {
+            if (!closed) {
+                heartbeat = true;
+                schedule();
+            }
+        }
+
+        private void schedule() {
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                //очередь пула заполнена: неотправленное остается и уйдет со следующим событием или heartbeat
+                scheduled = false;
+            }
+        }
+
+        //вызов эмиттера отсюда ждал бы ту же зависшую запись
+        void expireSend(long now) {
+            synchronized (this) {
+                if (sendingThread == null || now - sendStartedAt < properties.sendTimeout().toNanos()) {
+                    return;
+                }
+                sendingThread.interrupt();
+            }
+            log.warn("Order tracking client did not accept an event within {}, disconnecting", properties.sendTimeout());
+            close();
+        }
+
+        private void drain() {
+            while (true) {
+                List<OrderStatusEventResponse> events;
+                boolean ping;
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && !heartbeat)) {
+                        scheduled = false;
+                        return;
+                    }
+                    events = List.copyOf(pending.values());
+                    pending.clear();
+                    ping = heartbeat && events.isEmpty();
+                    heartbeat = false;
+                    sendingThread = Thread.currentThread();
+                    sendStartedAt = System.nanoTime();
+                }
+
+                boolean finished = false;
+                try {
+                    if (ping) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    for (OrderStatusEventResponse event : events) {
+                        emitter.send(SseEmitter.event().name(STATUS_EVENT).data(event));
+                        finished |= completeOnFinalStatus && isFinal(event.status());
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Order tracking client disconnected", e);
+                    close();
+                    emitter.completeWithError(e);
+                    return;
+                } finally {
+                    synchronized (this) {
+                        sendingThread = null;
+                    }
+                }
+
+                //запись все же вернулась после отключения по таймауту
+                if (isClosed()) {
+                    emitter.completeWithError(new TimeoutException("Order tracking send timed out"));
+                    return;
+                }
+
+                if (finished) {
+                    close();
+                    emitter.complete();
+                    return;
+                }
+            }
+        }
+
+        private synchronized boolean isClosed() {
+            return closed;
+        }
+
+        private void close() {
+            synchronized (this) {
+                closed = true;
+                scheduled = false;
+                pending.clear();
+            }
+            unsubscribe.run();
+        }
+    }
+}
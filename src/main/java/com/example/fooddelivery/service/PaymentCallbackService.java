@@ -0,0 +1,162 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.PaymentCallbackProperties;
+import com.example.fooddelivery.dto.request.PaymentCallbackRequest;
+import com.example.fooddelivery.dto.response.PaymentCallbackLagResponse;
+import com.example.fooddelivery.entity.PaymentCallback;
+import com.example.fooddelivery.enums.PaymentStatus;
+import com.example.fooddelivery.repository.PaymentCallbackRepository;
+import com.example.fooddelivery.repository.projection.PaymentCallbackQueueView;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+//колбэки принимаются вставкой в очередь и применяются пачками в фоне
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentCallbackService {
+    private final PaymentCallbackRepository paymentCallbackRepository;
+    private final PaymentService paymentService;
+    private final PaymentCallbackProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final Clock clock;
+
+    private ExecutorService workers;
+
+    @PostConstruct
+    void start() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("payment-callbacks-");
+        threadFactory.setDaemon(true);
+        workers = Executors.newFixedThreadPool(properties.workers(), threadFactory);
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.shutdownNow();
+    }
+
+    public void enqueue(PaymentCallbackRequest request) {
+        paymentCallbackRepository.save(new PaymentCallback(request.getPaymentId(), request.getStatus(), LocalDateTime.now(clock)));
+    }
+
+    public PaymentCallbackLagResponse getLag() {
+        PaymentCallbackQueueView queue = paymentCallbackRepository.findQueueStats();
+        if (queue.getOldestReceivedAt() == null) {
+            return new PaymentCallbackLagResponse(0, 0, queue.getFailed());
+        }
+        long lag = Duration.between(queue.getOldestReceivedAt(), LocalDateTime.now(clock)).toSeconds();
+        return new PaymentCallbackLagResponse(queue.getPending(), Math.max(lag, 0), queue.getFailed());
+    }
+
+    @Scheduled(fixedDelayString = "${payments.callbacks.poll-interval:PT0.5S}")
+    public int processCallbacks() {
+        List<Callable<Integer>> tasks = IntStream.range(0, properties.workers())
+                .<Callable<Integer>>mapToObj(worker -> () -> drainWorker(worker))
+                .toList();
+
+        int total = 0;
+        try {
+            for (Future<Integer> processed : workers.invokeAll(tasks)) {
+                total += processed.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            //пачка откатилась и будет прочитана заново при следующем опросе
+            log.error("Failed to apply payment callbacks", e.getCause());
+        }
+        return total;
+    }
+
+    //обработчик забирает каждую партицию с номером worker по модулю числа обработчиков
+    private int drainWorker(int worker) {
+        int total = 0;
+        for (int partition = worker; partition < PaymentCallback.PARTITIONS; partition += properties.workers()) {
+            total += drainPartition(partition);
+        }
+        return total;
+    }
+
+    private int drainPartition(int partition) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int total = 0;
+        List<PaymentCallback> callbacks;
+        do {
+            callbacks = transaction.execute(status -> paymentCallbackRepository.findBatch(partition,
+                    Limit.of(properties.batchSize())));
+            if (callbacks.isEmpty()) {
+                break;
+            }
+            total += applyBatch(transaction, callbacks);
+        } while (callbacks.size() == properties.batchSize());
+        return total;
+    }
+
+    //после отката пачки платежи применяются по одному, снова упавший откладывается
+    private int applyBatch(TransactionTemplate transaction, List<PaymentCallback> callbacks) {
+        try {
+            transaction.executeWithoutResult(status -> apply(callbacks));
+            return callbacks.size();
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply {} payment callbacks as a batch, applying one payment at a time", callbacks.size(), e);
+        }
+
+        int applied = 0;
+        Map<Long, List<PaymentCallback>> byPayment = callbacks.stream()
+                .collect(Collectors.groupingBy(PaymentCallback::getPaymentId, LinkedHashMap::new, Collectors.toList()));
+        for (List<PaymentCallback> payment : byPayment.values()) {
+            try {
+                transaction.executeWithoutResult(status -> apply(payment));
+                applied += payment.size();
+            } catch (TransientDataAccessException | DataAccessResourceFailureException | CannotCreateTransactionException e) {
+                //база недоступна, а не данные плохие: колбэки остаются в очереди до следующего опроса
+                throw e;
+            } catch (RuntimeException e) {
+                log.error("Failed to apply callbacks for payment {}, moved aside", payment.get(0).getPaymentId(), e);
+                List<Long> ids = payment.stream().map(PaymentCallback::getId).toList();
+                transaction.executeWithoutResult(status ->
+                        paymentCallbackRepository.markFailed(ids, LocalDateTime.now(clock)));
+            }
+        }
+        return applied;
+    }
+
+    private void apply(List<PaymentCallback> callbacks) {
+        //повторы одного колбэка схлопываются, разные статусы применяются в порядке поступления
+        Map<Long, Set<PaymentStatus>> coalesced = new LinkedHashMap<>();
+        callbacks.forEach(callback -> coalesced
+                .computeIfAbsent(callback.getPaymentId(), id -> new LinkedHashSet<>())
+                .add(callback.getStatus()));
+        List<Long> ids = callbacks.stream().map(PaymentCallback::getId).toList();
+
+        paymentService.applyCallbacks(coalesced);
+        paymentCallbackRepository.deleteAllByIdInBatch(ids);
+    }
+}
@@ -7,37 +7,54 @@ import com.example.fooddelivery.entity.Order;
 import com.example.fooddelivery.entity.Payment;
 import com.example.fooddelivery.enums.OrderStatus;
 import com.example.fooddelivery.enums.PaymentStatus;
+import com.example.fooddelivery.event.OrderStatusChangedEvent;
 import com.example.fooddelivery.exception.EntityNotFoundException;
 import com.example.fooddelivery.exception.PaymentException;
+import com.example.fooddelivery.exception.StatusException;
 import com.example.fooddelivery.repository.OrderRepository;
 import com.example.fooddelivery.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class PaymentService {
+    //переходов не больше двух, а под REPEATABLE READ перечитывать в той же транзакции бесполезно
+    private static final int MAX_ATTEMPTS = 3;
+    //оплата подтверждает или отменяет только заказ, который еще ждет ее
+    private static final Set<OrderStatus> AWAITING_PAYMENT = Set.of(OrderStatus.NEW);
+
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final PaymentMapper paymentMapper;
+    private final ApplicationEventPublisher eventPublisher;
 
     public PaymentResponse createPayment(PaymentRequest request) {
         Order order = orderRepository.findById(request.getOrderId())
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Order with id %d not found", request.getOrderId())));
 
-        if (paymentRepository.existsByOrderId(request.getOrderId())) {
-            throw new PaymentException(String.format("Order with is %d already is payed", request.getOrderId()));
-        }
-
+        //повторный платеж отсекает уникальный индекс по order_id
         Payment payment = paymentMapper.toEntity(request);
         payment.setOrder(order);
-        Payment savedPayment = paymentRepository.save(payment);
-        return paymentMapper.toDto(savedPayment);
+        try {
+            Payment savedPayment = paymentRepository.saveAndFlush(payment);
+            return paymentMapper.toDto(savedPayment);
+        } catch (DataIntegrityViolationException e) {
+            throw new PaymentException(String.format("Order with is %d already is payed", request.getOrderId()));
+        }
     }
 
     @Transactional(readOnly = true)
@@ -48,24 +65,79 @@ public class PaymentService {
     }
 
     public PaymentResponse updateStatus(Long id, PaymentStatus status) {
-        Payment payment = paymentRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(String.format("Payment with id %d not found", id)));
+        //проигравший гонку перечитывает платеж и решает заново
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            Payment payment = paymentRepository.findById(id)
+                    .orElseThrow(() -> new EntityNotFoundException(String.format("Payment with id %d not found", id)));
 
-        payment.setPaymentStatus(status);
+            //повторный колбэк с тем же статусом ничего не меняет
+            if (payment.getPaymentStatus() == status) {
+                return paymentMapper.toDto(payment);
+            }
 
-        Order order = payment.getOrder();
+            if (!payment.getPaymentStatus().canTransitionTo(status)) {
+                throw new StatusException(String.format("Payment status cannot be changed from %s to %s",
+                        payment.getPaymentStatus(), status));
+            }
 
-        if (status == PaymentStatus.FAILED) {
-            order.setStatus(OrderStatus.CANCELLED);
-            orderRepository.save(order);
+            if (tryTransition(payment, status)) {
+                return paymentMapper.toDto(payment);
+            }
         }
+        throw new StatusException(String.format("Payment with id %d was changed concurrently, retry the request", id));
+    }
+
+    //неизвестный платеж или недопустимый переход пропускаются, не откатывая пачку
+    public void applyCallbacks(Map<Long, Set<PaymentStatus>> callbacks) {
+        Map<Long, Payment> payments = paymentRepository.findAllById(callbacks.keySet()).stream()
+                .collect(Collectors.toMap(Payment::getId, Function.identity()));
+
+        callbacks.forEach((id, statuses) -> {
+            Payment payment = payments.get(id);
+            if (payment == null) {
+                log.warn("Skipping callbacks for unknown payment {}", id);
+                return;
+            }
+            for (PaymentStatus status : statuses) {
+                int attempts = 0;
+                while (payment.getPaymentStatus() != status) {
+                    if (!payment.getPaymentStatus().canTransitionTo(status)) {
+                        log.info("Skipping callback {} for payment {} in status {}", status, id, payment.getPaymentStatus());
+                        break;
+                    }
+                    if (tryTransition(payment, status)) {
+                        break;
+                    }
+                    //пачка откатывается, и колбэки перечитываются в новой транзакции при следующем опросе
+                    if (++attempts == MAX_ATTEMPTS) {
+                        throw new OptimisticLockingFailureException(String.format("Payment %d was changed concurrently", id));
+                    }
+                    payment = paymentRepository.findById(id).orElseThrow();
+                }
+            }
+        });
+    }
 
-        if (status == PaymentStatus.SUCCEEDED) {
-            order.setStatus(OrderStatus.CONFIRMED);
-            orderRepository.save(order);
+    private boolean tryTransition(Payment payment, PaymentStatus status) {
+        Long orderId = payment.getOrder().getId();
+        if (paymentRepository.updateStatus(payment.getId(), status, payment.getVersion()) == 0) {
+            return false;
         }
-        payment = paymentRepository.save(payment);
-        return paymentMapper.toDto(payment);
+
+        payment.setPaymentStatus(status);
+        payment.setVersion(payment.getVersion() + 1);
+        if (status == PaymentStatus.SUCCEEDED || status == PaymentStatus.FAILED) {
+            OrderStatus orderStatus = status == PaymentStatus.SUCCEEDED ? OrderStatus.CONFIRMED : OrderStatus.CANCELLED;
+            //поздний колбэк не возвращает к жизни заказ, который пользователь уже отменил
+            if (orderRepository.updateStatusIfIn(orderId, AWAITING_PAYMENT, orderStatus) == 0) {
+                log.warn("Order {} no longer awaits payment, payment {} {} left it unchanged", orderId, payment.getId(), status);
+                return true;
+            }
+            Order order = orderRepository.findById(orderId)
+                    .orElseThrow(() -> new EntityNotFoundException(String.format("Order with id %d not found", orderId)));
+            eventPublisher.publishEvent(OrderStatusChangedEvent.of(order));
+        }
+        return true;
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,130 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.ReconciliationProperties;
+import com.example.fooddelivery.dto.response.ReconciliationMismatch;
+import com.example.fooddelivery.dto.response.ReconciliationResponse;
+import com.example.fooddelivery.enums.PaymentStatus;
+import com.example.fooddelivery.enums.ReconciliationMismatchType;
+import com.example.fooddelivery.pricing.Money;
+import com.example.fooddelivery.repository.PaymentRepository;
+import com.example.fooddelivery.repository.projection.PaymentReconciliationView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+//файл и платежи сливаются за один проход по возрастанию id
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReconciliationService {
+    private final PaymentRepository paymentRepository;
+    private final SettlementFileReader settlementFileReader;
+    private final ReconciliationProperties properties;
+
+    @Transactional(readOnly = true)
+    public ReconciliationResponse reconcile(InputStream input) {
+        Iterator<SettlementRow> settlement = settlementFileReader.read(input);
+        Report report = new Report(properties.maxReported());
+
+        try (Stream<PaymentReconciliationView> stream = paymentRepository.streamForReconciliation()) {
+            Iterator<PaymentReconciliationView> payments = stream.iterator();
+            SettlementRow row = settlement.hasNext() ? settlement.next() : null;
+            PaymentReconciliationView payment = payments.hasNext() ? payments.next() : null;
+
+            while (row != null || payment != null) {
+                int order = row == null ? -1 : payment == null ? 1 : Long.compare(payment.getId(), row.paymentId());
+                if (order < 0) {
+                    report.system(payment);
+                    payment = payments.hasNext() ? payments.next() : null;
+                } else if (order > 0) {
+                    report.provider(row);
+                    row = settlement.hasNext() ? settlement.next() : null;
+                } else {
+                    report.both(payment, row);
+                    payment = payments.hasNext() ? payments.next() : null;
+                    row = settlement.hasNext() ? settlement.next() : null;
+                }
+            }
+        }
+
+        ReconciliationResponse response = report.toResponse();
+        log.info("Reconciled {} settlement rows against {} payments: {} matched, {} mismatched",
+                response.providerRows(), response.systemRows(), response.matched(),
+                response.missingInProvider() + response.missingInSystem() + response.amountMismatches() + response.statusMismatches());
+        return response;
+    }
+
+    //в ответ попадают только первые mismatches, счетчики ведутся по всему файлу
+    private static final class Report {
+        private final int maxReported;
+        private final List<ReconciliationMismatch> mismatches = new ArrayList<>();
+        private long providerRows;
+        private long systemRows;
+        private long matched;
+        private long missingInProvider;
+        private long missingInSystem;
+        private long amountMismatches;
+        private long statusMismatches;
+
+        private Report(int maxReported) {
+            this.maxReported = maxReported;
+        }
+
+        //неоплаченный платеж в файл взаиморасчетов еще не попадает
+        void system(PaymentReconciliationView payment) {
+            systemRows++;
+            if (payment.getStatus() == PaymentStatus.PENDING) {
+                matched++;
+                return;
+            }
+            missingInProvider++;
+            add(payment.getId(), ReconciliationMismatchType.MISSING_IN_PROVIDER, payment, null);
+        }
+
+        void provider(SettlementRow row) {
+            providerRows++;
+            missingInSystem++;
+            add(row.paymentId(), ReconciliationMismatchType.MISSING_IN_SYSTEM, null, row);
+        }
+
+        void both(PaymentReconciliationView payment, SettlementRow row) {
+            systemRows++;
+            providerRows++;
+            boolean amountDiffers = Money.toMinor(payment.getAmount()) != row.amount();
+            boolean statusDiffers = payment.getStatus() != row.status();
+            if (amountDiffers) {
+                amountMismatches++;
+                add(payment.getId(), ReconciliationMismatchType.AMOUNT_DIFFERS, payment, row);
+            }
+            if (statusDiffers) {
+                statusMismatches++;
+                add(payment.getId(), ReconciliationMismatchType.STATUS_DIFFERS, payment, row);
+            }
+            if (!amountDiffers && !statusDiffers) {
+                matched++;
+            }
+        }
+
+        private void add(Long paymentId, ReconciliationMismatchType type, PaymentReconciliationView payment, SettlementRow row) {
+            if (mismatches.size() < maxReported) {
+                mismatches.add(new ReconciliationMismatch(paymentId, type,
+                        payment == null ? null : payment.getAmount(),
+                        row == null ? null : Money.toDecimal(row.amount()),
+                        payment == null ? null : payment.getStatus(),
+                        row == null ? null : row.status()));
+            }
+        }
+
+        private ReconciliationResponse toResponse() {
+            return new ReconciliationResponse(providerRows, systemRows, matched, missingInProvider, missingInSystem,
+                    amountMismatches, statusMismatches, List.copyOf(mismatches));
+        }
+    }
+}
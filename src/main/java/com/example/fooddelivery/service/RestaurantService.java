@@ -1,19 +1,30 @@
 package com.example.fooddelivery.service;
 
+import com.example.fooddelivery.cache.OpenHoursIndex;
 import com.example.fooddelivery.dto.mapper.RestaurantMapper;
+import com.example.fooddelivery.dto.request.OpeningHoursRequest;
 import com.example.fooddelivery.dto.request.RestaurantRequest;
+import com.example.fooddelivery.dto.request.ScheduleRequest;
 import com.example.fooddelivery.dto.response.RestaurantResponse;
+import com.example.fooddelivery.dto.response.ScheduleResponse;
+import com.example.fooddelivery.entity.OpeningHours;
 import com.example.fooddelivery.entity.Restaurant;
 import com.example.fooddelivery.enums.CuisineType;
+import com.example.fooddelivery.event.RestaurantChangedEvent;
+import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
 import com.example.fooddelivery.repository.RestaurantRepository;
 import com.example.fooddelivery.repository.ReviewRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.List;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.ZoneId;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,20 +34,25 @@ public class RestaurantService {
     private final RestaurantRepository restaurantRepository;
     private final RestaurantMapper restaurantMapper;
     private final ReviewRepository reviewRepository;
+    private final OpenHoursIndex openHoursIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     public RestaurantResponse createRestaurant(RestaurantRequest request) {
         Restaurant restaurant = restaurantMapper.toEntity(request);
         restaurant.setRating(BigDecimal.ZERO);
         restaurant.setActive(true);
         Restaurant saved = restaurantRepository.save(restaurant);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(saved.getId()));
         return restaurantMapper.toDto(saved);
     }
 
     @Transactional(readOnly = true)
-    public List<RestaurantResponse> getRestaurants(CuisineType cuisine, Double minRating) {
+    public List<RestaurantResponse> getRestaurants(CuisineType cuisine, Double minRating, boolean openNow) {
         List<Restaurant> restaurants = restaurantRepository.findByCuisineAndRating(cuisine, minRating);
+        Set<Long> open = openNow ? openHoursIndex.getOpenNow() : null;
 
         return restaurants.stream()
+                .filter(restaurant -> open == null || open.contains(restaurant.getId()))
                 .map(restaurant -> {
                     BigDecimal currentRating = reviewRepository.calculateAverageRatingByRestaurantId(restaurant.getId());
                     restaurant.setRating(currentRating);
@@ -61,6 +77,7 @@ public class RestaurantService {
 
         restaurantMapper.update(request, restaurant);
         Restaurant updated = restaurantRepository.save(restaurant);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(id));
         return restaurantMapper.toDto(updated);
     }
 
@@ -69,5 +86,58 @@ public class RestaurantService {
                 .orElseThrow(() -> new EntityNotFoundException(String.format("Restaurant with id %d not found", id)));
         restaurant.setActive(false);
         restaurantRepository.save(restaurant);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(id));
+    }
+
+    @Transactional(readOnly = true)
+    public ScheduleResponse getSchedule(Long id) {
+        Restaurant restaurant = restaurantRepository.findWithOpeningHoursById(id)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Restaurant with id %d not found", id)));
+        return toScheduleResponse(restaurant);
+    }
+
+    public ScheduleResponse updateSchedule(Long id, ScheduleRequest request) {
+        Restaurant restaurant = restaurantRepository.findWithOpeningHoursById(id)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("Restaurant with id %d not found", id)));
+
+        if (request.getTimeZone() != null) {
+            try {
+                ZoneId.of(request.getTimeZone());
+            } catch (DateTimeException e) {
+                throw new BusinessException(String.format("Unknown time zone %s", request.getTimeZone()));
+            }
+        }
+
+        Map<DayOfWeek, OpeningHoursRequest> requested = new EnumMap<>(DayOfWeek.class);
+        for (OpeningHoursRequest day : request.getDays()) {
+            if (requested.put(day.getDayOfWeek(), day) != null) {
+                throw new BusinessException(String.format("Schedule contains %s more than once", day.getDayOfWeek()));
+            }
+        }
+
+        restaurant.setTimeZone(request.getTimeZone());
+        restaurant.getOpeningHours().removeIf(hours -> !requested.containsKey(hours.getDayOfWeek()));
+        for (OpeningHours hours : restaurant.getOpeningHours()) {
+            OpeningHoursRequest day = requested.remove(hours.getDayOfWeek());
+            hours.setOpeningTime(day.getOpeningTime());
+            hours.setClosingTime(day.getClosingTime());
+        }
+        requested.values().forEach(day -> restaurant.getOpeningHours()
+                .add(new OpeningHours(restaurant, day.getDayOfWeek(), day.getOpeningTime(), day.getClosingTime())));
+
+        Restaurant updated = restaurantRepository.save(restaurant);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(id));
+        return toScheduleResponse(updated);
+    }
+
+    private ScheduleResponse toScheduleResponse(Restaurant restaurant) {
+        return new ScheduleResponse(
+                restaurant.getId(),
+                restaurant.getTimeZone(),
+                restaurant.getOpeningHours().stream()
+                        .sorted(Comparator.comparing(OpeningHours::getDayOfWeek))
+                        .map(restaurantMapper::toDto)
+                        .collect(Collectors.toList())
+        );
     }
 }
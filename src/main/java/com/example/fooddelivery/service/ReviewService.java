@@ -7,12 +7,14 @@ import com.example.fooddelivery.entity.Order;
 import com.example.fooddelivery.entity.Review;
 import com.example.fooddelivery.enums.OrderStatus;
 import com.example.fooddelivery.enums.ReviewStatus;
+import com.example.fooddelivery.event.RestaurantChangedEvent;
 import com.example.fooddelivery.exception.EntityNotFoundException;
 import com.example.fooddelivery.exception.ReviewException;
 import com.example.fooddelivery.repository.OrderRepository;
 import com.example.fooddelivery.repository.ReviewRepository;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,6 +30,7 @@ public class ReviewService {
     private final OrderRepository orderRepository;
     private final ReviewMapper reviewMapper;
     private final SpamService spamService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ReviewResponse createReview(ReviewRequest request, Long userId){
         if (reviewRepository.existsByOrderId(request.getOrderId())) {
@@ -45,18 +48,19 @@ public class ReviewService {
             throw new ReviewException("Review can be left only for delivered orders");
         }
 
-        Long restaurantId = order.getCart().getRestaurant().getId();
+        Long restaurantId = order.getRestaurant().getId();
         ReviewStatus status = spamService.moderateReview(request, userId, restaurantId);
 
         Review review = reviewMapper.toEntity(request);
         review.setUser(order.getUser());
-        review.setRestaurant(order.getCart().getRestaurant());
+        review.setRestaurant(order.getRestaurant());
         review.setOrder(order);
         review.setRating(request.getRating());
         review.setComment(request.getComment());
         review.setStatus(status);
 
         Review savedReview = reviewRepository.save(review);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(restaurantId));
         return reviewMapper.toDto(savedReview);
     }
 
@@ -76,6 +80,7 @@ public class ReviewService {
         review.setStatus(status);
 
         Review updatedReview = reviewRepository.save(review);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(restaurantId));
         return reviewMapper.toDto(updatedReview);
     }
 
@@ -88,6 +93,7 @@ public class ReviewService {
         }
 
         reviewRepository.delete(review);
+        eventPublisher.publishEvent(new RestaurantChangedEvent(review.getRestaurant().getId()));
     }
 
     public List<ReviewResponse> getReviewsByRestaurant(Long restaurantId) {
@@ -0,0 +1,18 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.cache.SearchIndex;
+import com.example.fooddelivery.dto.response.SearchResultResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+    private final SearchIndex searchIndex;
+
+    public List<SearchResultResponse> search(String query, int limit) {
+        return searchIndex.search(query.trim(), limit);
+    }
+}
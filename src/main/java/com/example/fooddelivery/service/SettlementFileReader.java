@@ -0,0 +1,133 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.enums.PaymentStatus;
+import com.example.fooddelivery.exception.ImportException;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+//строки должны идти по возрастанию paymentId
+@Component
+public class SettlementFileReader {
+    private static final String CSV_HEADER = "paymentId,amount,status";
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    public Iterator<SettlementRow> read(InputStream input) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), BUFFER_SIZE);
+        String header = readLine(reader);
+        if (header == null || !header.trim().equalsIgnoreCase(CSV_HEADER)) {
+            throw new ImportException("Settlement file must start with header: " + CSV_HEADER);
+        }
+
+        return new Iterator<>() {
+            private long row = 1;
+            private long previousId = Long.MIN_VALUE;
+            private SettlementRow pending = readRow();
+
+            @Override
+            public boolean hasNext() {
+                return pending != null;
+            }
+
+            @Override
+            public SettlementRow next() {
+                if (pending == null) {
+                    throw new NoSuchElementException();
+                }
+                SettlementRow current = pending;
+                pending = readRow();
+                return current;
+            }
+
+            private SettlementRow readRow() {
+                String line;
+                do {
+                    line = readLine(reader);
+                    row++;
+                } while (line != null && line.isBlank());
+
+                if (line == null) {
+                    return null;
+                }
+
+                int first = line.indexOf(',');
+                int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+                if (second < 0 || line.indexOf(',', second + 1) >= 0) {
+                    throw new ImportException(String.format("Settlement row %d must have 3 columns: %s", row, line));
+                }
+
+                long paymentId = parseId(line.substring(0, first).trim(), line);
+                if (paymentId <= previousId) {
+                    throw new ImportException(String.format("Settlement file must be sorted by paymentId, row %d: %s", row, line));
+                }
+                previousId = paymentId;
+                return new SettlementRow(paymentId, parseAmount(line.substring(first + 1, second).trim(), line),
+                        parseStatus(line.substring(second + 1).trim(), line));
+            }
+        };
+    }
+
+    private String readLine(BufferedReader reader) {
+        try {
+            return reader.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long parseId(String value, String line) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new ImportException("Invalid paymentId in settlement row: " + line);
+        }
+    }
+
+    //сумма разбирается сразу в копейки, возврат идет со знаком минус
+    private long parseAmount(String value, String line) {
+        int start = value.startsWith("-") ? 1 : 0;
+        if (value.length() == start || value.length() - start > 18) {
+            throw new ImportException("Invalid amount in settlement row: " + line);
+        }
+
+        long minor = 0;
+        int fraction = -1;
+        boolean digits = false;
+        for (int i = start; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '.' && fraction < 0) {
+                fraction = 0;
+            } else if (c >= '0' && c <= '9' && fraction < 2) {
+                minor = minor * 10 + (c - '0');
+                digits = true;
+                if (fraction >= 0) {
+                    fraction++;
+                }
+            } else {
+                throw new ImportException("Invalid amount in settlement row: " + line);
+            }
+        }
+        if (!digits) {
+            throw new ImportException("Invalid amount in settlement row: " + line);
+        }
+        for (int i = Math.max(fraction, 0); i < 2; i++) {
+            minor *= 10;
+        }
+        return start == 0 ? minor : -minor;
+    }
+
+    private PaymentStatus parseStatus(String value, String line) {
+        try {
+            return PaymentStatus.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ImportException("Invalid status in settlement row: " + line);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.enums.PaymentStatus;
+
+public record SettlementRow(long paymentId, long amount, PaymentStatus status) {
+}
@@ -0,0 +1,2 @@
+create sequence if not exists notifications_delivery_seq start with 1 increment by 1;
+create sequence if not exists cart_items_seq start with 1 increment by 50;
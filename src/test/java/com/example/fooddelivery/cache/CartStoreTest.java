@@ -0,0 +1,398 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.config.CartStoreProperties;
+import com.example.fooddelivery.entity.*;
+import com.example.fooddelivery.event.MenuChangedEvent;
+import com.example.fooddelivery.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartStoreTest {
+    private static final Long USER_ID = 1L;
+    private static final Long CART_ID = 3L;
+    private static final Long RESTAURANT_ID = 5L;
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ItemOptionRepository itemOptionRepository;
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private Cart cart;
+    private ItemOption option;
+    private Restaurant restaurant;
+    private Instant now;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(USER_ID);
+
+        restaurant = new Restaurant();
+        restaurant.setId(RESTAURANT_ID);
+
+        Item item = new Item();
+        item.setId(10L);
+        item.setRestaurant(restaurant);
+
+        option = new ItemOption();
+        option.setId(100L);
+        option.setItem(item);
+        option.setPreparationMinutes(15);
+        option.setPrice(new BigDecimal("300.00"));
+
+        CartItem cartItem = new CartItem();
+        cartItem.setId(7L);
+        cartItem.setItem(item);
+        cartItem.setItemOption(option);
+        cartItem.setQuantity(2);
+
+        cart = new Cart();
+        cart.setId(CART_ID);
+        cart.setUser(user);
+        cart.setRestaurant(restaurant);
+        cart.setItems(new ArrayList<>(List.of(cartItem)));
+        cartItem.setCart(cart);
+
+        now = Instant.parse("2026-10-19T12:00:00Z");
+    }
+
+    @Test
+    void find_LoadsCartOnceAndServesItFromMemory() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        CartStore store = store();
+
+        CartState first = store.find(USER_ID).orElseThrow();
+        CartState second = store.find(USER_ID).orElseThrow();
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first.items()).containsExactly(new CartLine(7L, 10L, 100L, 2, 30000L, 15));
+        verify(cartRepository, times(1)).findWithItemsByUserId(USER_ID);
+    }
+
+    @Test
+    void update_IsKeptInMemoryUntilFlush() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        CartStore store = store();
+
+        CartState updated = store.update(USER_ID, state -> state.withLine(RESTAURANT_ID, state.items().get(0).withQuantity(4)));
+        store.update(USER_ID, state -> state.withLine(RESTAURANT_ID, state.items().get(0).withQuantity(6)));
+
+        assertThat(updated.items().get(0).quantity()).isEqualTo(4);
+        assertThat(store.find(USER_ID).orElseThrow().items().get(0).quantity()).isEqualTo(6);
+        verify(cartRepository, never()).findWithItemsById(any());
+        assertThat(cart.getItems().get(0).getQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void flushAll_WritesCoalescedStateOnce() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        when(cartRepository.findWithItemsById(CART_ID)).thenReturn(Optional.of(cart));
+        when(cartItemRepository.nextIdBlock()).thenReturn(21L);
+        when(restaurantRepository.getReferenceById(RESTAURANT_ID)).thenReturn(restaurant);
+        when(itemRepository.getReferenceById(11L)).thenReturn(new Item());
+        when(itemOptionRepository.getReferenceById(101L)).thenReturn(new ItemOption());
+        CartStore store = store();
+
+        store.update(USER_ID, state -> state.withoutLine(7L));
+        long lineId = store.nextLineId();
+        store.update(USER_ID, state -> state.withLine(RESTAURANT_ID, new CartLine(lineId, 11L, 101L, 3, 25000L, 10)));
+        store.flushAll();
+        store.flushAll();
+
+        assertThat(lineId).isEqualTo(21L);
+        assertThat(cart.getItems()).singleElement().satisfies(cartItem -> {
+            assertThat(cartItem.getId()).isEqualTo(21L);
+            assertThat(cartItem.getQuantity()).isEqualTo(3);
+            assertThat(cartItem.getCart()).isSameAs(cart);
+        });
+        verify(cartRepository, times(1)).findWithItemsById(CART_ID);
+    }
+
+    @Test
+    void nextLineId_TakesNextBlockWhenCurrentIsUsedUp() {
+        when(cartItemRepository.nextIdBlock()).thenReturn(1L, 101L);
+        CartStore store = store();
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 51; i++) {
+            ids.add(store.nextLineId());
+        }
+
+        assertThat(ids.get(0)).isEqualTo(1L);
+        assertThat(ids.get(49)).isEqualTo(50L);
+        assertThat(ids.get(50)).isEqualTo(101L);
+        verify(cartItemRepository, times(2)).nextIdBlock();
+    }
+
+    @Test
+    void flush_WritesDirtyCartById() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        when(cartRepository.findWithItemsById(CART_ID)).thenReturn(Optional.of(cart));
+        CartStore store = store();
+
+        store.update(USER_ID, CartState::cleared);
+        store.flush(CART_ID);
+
+        assertThat(cart.getItems()).isEmpty();
+        assertThat(cart.getRestaurant()).isNull();
+        assertThat(cart.getUpdatedAt()).isEqualTo(LocalDateTime.of(2026, 10, 19, 12, 0));
+    }
+
+    @Test
+    void flushAll_DropsCartDeletedInDatabase() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart), Optional.empty());
+        when(cartRepository.findWithItemsById(CART_ID)).thenReturn(Optional.empty());
+        CartStore store = store();
+
+        store.update(USER_ID, CartState::cleared);
+        store.flushAll();
+
+        assertThat(store.hasPendingChanges(USER_ID)).isFalse();
+        assertThat(store.find(USER_ID)).isEmpty();
+    }
+
+    @Test
+    void flushAll_OnDeletedOption_KeepsOtherUnflushedLines() {
+        ItemOption large = new ItemOption();
+        large.setId(101L);
+        large.setItem(option.getItem());
+        large.setPreparationMinutes(20);
+        large.setPrice(new BigDecimal("450.00"));
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        when(cartRepository.findWithItemsById(CART_ID))
+                .thenThrow(new DataIntegrityViolationException("item_option_id"))
+                .thenReturn(Optional.of(cart));
+        when(itemOptionRepository.findAllById(Set.of(100L, 101L))).thenReturn(List.of(large));
+        when(restaurantRepository.getReferenceById(RESTAURANT_ID)).thenReturn(restaurant);
+        when(itemRepository.getReferenceById(10L)).thenReturn(option.getItem());
+        when(itemOptionRepository.getReferenceById(101L)).thenReturn(large);
+        CartStore store = store();
+
+        store.update(USER_ID, state -> state.withLine(RESTAURANT_ID, new CartLine(8L, 10L, 101L, 3, 45_000, 20)));
+        store.flushAll();
+
+        assertThat(store.find(USER_ID).orElseThrow().items()).containsExactly(new CartLine(8L, 10L, 101L, 3, 45_000L, 20));
+        assertThat(store.hasPendingChanges(USER_ID)).isTrue();
+
+        store.flushAll();
+
+        assertThat(store.hasPendingChanges(USER_ID)).isFalse();
+        assertThat(cart.getItems()).singleElement().satisfies(cartItem -> {
+            assertThat(cartItem.getId()).isEqualTo(8L);
+            assertThat(cartItem.getQuantity()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void evictIfClean_KeepsCartWithPendingChanges() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        CartStore store = store();
+
+        store.update(USER_ID, CartState::cleared);
+
+        assertThat(store.evictIfClean(USER_ID)).isFalse();
+        assertThat(store.find(USER_ID).orElseThrow().items()).isEmpty();
+        verify(cartRepository, times(1)).findWithItemsByUserId(USER_ID);
+    }
+
+    @Test
+    void evictIfClean_DropsCleanCart() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        CartStore store = store();
+        store.find(USER_ID);
+
+        assertThat(store.evictIfClean(USER_ID)).isTrue();
+        store.find(USER_ID);
+
+        verify(cartRepository, times(2)).findWithItemsByUserId(USER_ID);
+    }
+
+    @Test
+    void find_WhileCartIsExpiring_WaitsUntilDeletionCompletes() throws Exception {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart), Optional.empty());
+        CartStore store = store();
+        store.find(USER_ID);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertThat(store.evictIfClean(USER_ID)).isTrue();
+            CompletableFuture<Optional<CartState>> reload = CompletableFuture.supplyAsync(() -> store.find(USER_ID));
+
+            assertThatThrownBy(() -> reload.get(100, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            assertThat(reload.get(1, TimeUnit.SECONDS)).isEmpty();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(cartRepository, times(2)).findWithItemsByUserId(USER_ID);
+    }
+
+    @Test
+    void updateLine_ChangesOnlyTheGivenLine() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        when(cartRepository.findWithItemsById(CART_ID)).thenReturn(Optional.of(cart));
+        CartStore store = store();
+
+        Optional<CartState> updated = store.updateLine(USER_ID, 7L, line -> line.withQuantity(5));
+        store.flushAll();
+
+        assertThat(updated).hasValueSatisfying(state ->
+                assertThat(state.items()).containsExactly(new CartLine(7L, 10L, 100L, 5, 30000L, 15)));
+        assertThat(cart.getItems().get(0).getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void updateLine_WithSameQuantity_DoesNotScheduleWrite() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        CartStore store = store();
+
+        store.updateLine(USER_ID, 7L, line -> line.withQuantity(2));
+        store.flushAll();
+
+        verify(cartRepository, never()).findWithItemsById(any());
+    }
+
+    @Test
+    void updateLine_WhenLineMissing_ReturnsEmpty() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+
+        assertThat(store().updateLine(USER_ID, 99L, line -> line.withQuantity(5))).isEmpty();
+    }
+
+    @Test
+    void flush_SkipsCartsThatAreNotInMemory() {
+        store().flush(CART_ID);
+
+        verifyNoInteractions(cartRepository);
+    }
+
+    @Test
+    void getOrCreate_CreatesMissingCart() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.empty());
+        when(cartRepository.save(any(Cart.class))).thenAnswer(invocation -> {
+            Cart created = invocation.getArgument(0);
+            created.setId(CART_ID);
+            return created;
+        });
+
+        CartState created = store().getOrCreate(USER_ID);
+
+        assertThat(created).isEqualTo(new CartState(CART_ID, USER_ID, null, List.of()));
+    }
+
+    @Test
+    void onMenuChanged_DropsLinesOfDeletedOptions() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        when(itemOptionRepository.findAllById(Set.of(100L))).thenReturn(List.of());
+        CartStore store = store();
+        store.find(USER_ID);
+
+        store.onMenuChanged(new MenuChangedEvent(RESTAURANT_ID, Set.of(10L), Set.of(100L), Set.of(CART_ID)));
+
+        CartState state = store.find(USER_ID).orElseThrow();
+        assertThat(state.items()).isEmpty();
+        assertThat(state.restaurantId()).isNull();
+    }
+
+    @Test
+    void onMenuChanged_KeepsLinesAddedAfterSnapshot() {
+        ItemOption large = new ItemOption();
+        large.setId(101L);
+        large.setItem(option.getItem());
+        large.setPreparationMinutes(20);
+        large.setPrice(new BigDecimal("450.00"));
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        CartStore store = store();
+        store.find(USER_ID);
+        when(itemOptionRepository.findAllById(Set.of(100L))).thenAnswer(invocation -> {
+            //строка добавлена, пока грузились опции из снимка
+            store.update(USER_ID, state -> state.withLine(RESTAURANT_ID, new CartLine(8L, 10L, 101L, 1, 40_000, 20)));
+            return List.of(option);
+        });
+        when(itemOptionRepository.findAllById(Set.of(101L))).thenReturn(List.of(large));
+
+        store.onMenuChanged(new MenuChangedEvent(RESTAURANT_ID, Set.of(10L), Set.of(101L), Set.of(CART_ID)));
+
+        CartState state = store.find(USER_ID).orElseThrow();
+        assertThat(state.items()).extracting(CartLine::itemOptionId).containsExactly(100L, 101L);
+        assertThat(state.findLineByOption(101L).orElseThrow().priceMinor()).isEqualTo(45_000);
+        assertThat(state.restaurantId()).isEqualTo(RESTAURANT_ID);
+    }
+
+    @Test
+    void flushAll_EvictsIdleCarts() {
+        when(cartRepository.findWithItemsByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        CartStore store = store();
+
+        store.find(USER_ID);
+        now = now.plus(Duration.ofMinutes(31));
+        store.flushAll();
+        store.find(USER_ID);
+
+        verify(cartRepository, times(2)).findWithItemsByUserId(USER_ID);
+    }
+
+    private CartStore store() {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        return new CartStore(cartRepository, cartItemRepository, itemRepository, itemOptionRepository,
+                restaurantRepository, transactionManager, new CartStoreProperties(null), clock);
+    }
+}
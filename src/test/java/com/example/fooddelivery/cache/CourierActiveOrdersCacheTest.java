@@ -0,0 +1,72 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.dto.response.OrderResponse;
+import com.example.fooddelivery.enums.OrderStatus;
+import com.example.fooddelivery.event.OrderStatusChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CourierActiveOrdersCacheTest {
+    private static final Long COURIER_ID = 3L;
+
+    private CourierActiveOrdersCache cache;
+    private AtomicInteger loads;
+    private Supplier<List<OrderResponse>> loader;
+
+    @BeforeEach
+    void setUp() {
+        cache = new CourierActiveOrdersCache();
+        loads = new AtomicInteger();
+        loader = () -> {
+            loads.incrementAndGet();
+            return List.of(new OrderResponse(1L, 2L, 1L, OrderStatus.TAKED, new BigDecimal("500.00"), 5L, List.of()));
+        };
+    }
+
+    @Test
+    void get_ServesRepeatedReadsFromMemory() {
+        List<OrderResponse> first = cache.get(COURIER_ID, loader);
+        List<OrderResponse> second = cache.get(COURIER_ID, loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void onOrderStatusChanged_EvictsCourierOrders() {
+        cache.get(COURIER_ID, loader);
+        cache.get(4L, loader);
+        cache.onOrderStatusChanged(new OrderStatusChangedEvent(1L, 2L, COURIER_ID, OrderStatus.DELIVERED));
+        cache.get(COURIER_ID, loader);
+        cache.get(4L, loader);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void onOrderStatusChanged_WithoutCourier_KeepsEntries() {
+        cache.get(COURIER_ID, loader);
+        cache.onOrderStatusChanged(new OrderStatusChangedEvent(1L, 2L, null, OrderStatus.CONFIRMED));
+        cache.get(COURIER_ID, loader);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void get_WhenStatusChangesDuringLoad_DoesNotCacheStaleOrders() {
+        cache.get(COURIER_ID, () -> {
+            cache.onOrderStatusChanged(new OrderStatusChangedEvent(1L, 2L, COURIER_ID, OrderStatus.TAKED));
+            return List.of();
+        });
+        cache.get(COURIER_ID, loader);
+
+        assertThat(loads).hasValue(1);
+    }
+}
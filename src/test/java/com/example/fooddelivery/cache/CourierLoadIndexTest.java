@@ -0,0 +1,38 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.repository.CourierRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CourierLoadIndexTest {
+    @Mock
+    private CourierRepository courierRepository;
+
+    @InjectMocks
+    private CourierLoadIndex courierLoadIndex;
+
+    @Test
+    void getLoad_IsComputedOnceUntilRefresh() {
+        when(courierRepository.count()).thenReturn(4L);
+        when(courierRepository.countByCurrentOrdersAmountGreaterThan(0)).thenReturn(3L);
+
+        assertThat(courierLoadIndex.getLoad()).isEqualTo(0.75);
+        assertThat(courierLoadIndex.getLoad()).isEqualTo(0.75);
+
+        verify(courierRepository, times(1)).count();
+    }
+
+    @Test
+    void getLoad_WithoutCouriers_IsZero() {
+        when(courierRepository.count()).thenReturn(0L);
+
+        assertThat(courierLoadIndex.getLoad()).isZero();
+    }
+}
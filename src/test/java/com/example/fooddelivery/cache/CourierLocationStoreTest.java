@@ -0,0 +1,122 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.config.CourierLocationProperties;
+import com.example.fooddelivery.entity.CourierLocation;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.repository.CourierLocationRepository;
+import com.example.fooddelivery.repository.CourierRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CourierLocationStoreTest {
+    private static final Long COURIER_ID = 3L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+    @Mock
+    private CourierRepository courierRepository;
+
+    @Mock
+    private CourierLocationRepository courierLocationRepository;
+
+    private CourierLocationStore store;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+        store = new CourierLocationStore(courierRepository, courierLocationRepository,
+                new CourierLocationProperties(4, Duration.ofMinutes(15), Duration.ofSeconds(15)), clock);
+    }
+
+    @Test
+    void append_ChecksCourierOnlyOnFirstBatch() {
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+
+        store.append(COURIER_ID, List.of(point(-30)));
+        store.append(COURIER_ID, List.of(point(-25)));
+
+        assertThat(store.find(COURIER_ID)).hasValueSatisfying(track ->
+                assertThat(track.latest()).isEqualTo(point(-25)));
+        verify(courierRepository, times(1)).existsById(COURIER_ID);
+    }
+
+    @Test
+    void append_WhenCourierNotFound_Throws() {
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(false);
+
+        assertThatThrownBy(() -> store.append(COURIER_ID, List.of(point(-30))))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Courier with id 3 not found");
+        assertThat(store.find(COURIER_ID)).isEmpty();
+    }
+
+    @Test
+    void append_OverwritesOldestPointsAndKeepsLatestByTime() {
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+
+        store.append(COURIER_ID, List.of(point(-60), point(-50), point(-40), point(-5), point(-30), point(-20)));
+
+        CourierTrack track = store.find(COURIER_ID).orElseThrow();
+        assertThat(track.since(LocalDateTime.MIN)).containsExactly(point(-40), point(-30), point(-20), point(-5));
+        assertThat(track.latest()).isEqualTo(point(-5));
+    }
+
+    @Test
+    void snapshot_StoresDownsampledTrackOnce() {
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+        store.append(COURIER_ID, List.of(point(-40), point(-35), point(-25), point(-20)));
+
+        store.snapshot();
+        store.snapshot();
+
+        ArgumentCaptor<List<CourierLocation>> saved = ArgumentCaptor.captor();
+        verify(courierLocationRepository, times(1)).saveAll(saved.capture());
+        assertThat(saved.getValue()).extracting(CourierLocation::getRecordedAt)
+                .containsExactly(NOW.minusSeconds(40), NOW.minusSeconds(25));
+    }
+
+    @Test
+    void snapshot_WhenSaveFails_RetriesSamePoints() {
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+        when(courierLocationRepository.saveAll(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"))
+                .thenReturn(List.of());
+        store.append(COURIER_ID, List.of(point(-40)));
+
+        store.snapshot();
+        store.snapshot();
+
+        verify(courierLocationRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    void snapshot_DropsIdleTracks() {
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+        store.append(COURIER_ID, List.of(new LocationPoint(55.75, 37.61, NOW.minusMinutes(20))));
+
+        store.snapshot();
+
+        assertThat(store.find(COURIER_ID)).isEmpty();
+    }
+
+    private LocationPoint point(int secondsAgo) {
+        return new LocationPoint(55.75, 37.61, NOW.plusSeconds(secondsAgo));
+    }
+}
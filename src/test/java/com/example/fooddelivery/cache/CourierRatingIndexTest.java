@@ -0,0 +1,167 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.config.CourierRatingProperties;
+import com.example.fooddelivery.entity.Courier;
+import com.example.fooddelivery.event.CourierRatedEvent;
+import com.example.fooddelivery.repository.CourierRatingRepository;
+import com.example.fooddelivery.repository.CourierRepository;
+import com.example.fooddelivery.repository.projection.CourierRatingTotalsView;
+import com.example.fooddelivery.repository.projection.CourierRatingView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CourierRatingIndexTest {
+    private static final Long COURIER_ID = 3L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+    @Mock
+    private CourierRatingRepository courierRatingRepository;
+
+    @Mock
+    private CourierRepository courierRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CourierRatingIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CourierRatingIndex(courierRatingRepository, courierRepository,
+                new CourierRatingProperties(Duration.ofDays(30)), transactionManager);
+    }
+
+    @Test
+    void getRecentScore_WithoutRatings_IsEmpty() {
+        assertThat(index.getRecentScore(COURIER_ID)).isEmpty();
+    }
+
+    @Test
+    void onCourierRated_WeighsRecentRatingsHigher() {
+        index.onCourierRated(new CourierRatedEvent(1L, COURIER_ID, 5, NOW.minusDays(60)));
+        index.onCourierRated(new CourierRatedEvent(2L, COURIER_ID, 1, NOW));
+
+        //оценка двухмесячной давности весит вчетверо меньше свежей
+        assertThat(index.getRecentScore(COURIER_ID).getAsDouble()).isCloseTo((5 * 0.25 + 1) / 1.25, within(1e-9));
+    }
+
+    @Test
+    void onCourierRated_DoesNotDependOnArrivalOrder() {
+        index.onCourierRated(new CourierRatedEvent(2L, COURIER_ID, 1, NOW));
+        index.onCourierRated(new CourierRatedEvent(1L, COURIER_ID, 5, NOW.minusDays(60)));
+
+        assertThat(index.getRecentScore(COURIER_ID).getAsDouble()).isCloseTo((5 * 0.25 + 1) / 1.25, within(1e-9));
+    }
+
+    @Test
+    void rebuild_ReplacesDriftedAggregates() {
+        index.onCourierRated(new CourierRatedEvent(1L, COURIER_ID, 1, NOW));
+        when(courierRatingRepository.findMaxId()).thenReturn(2L);
+        when(courierRatingRepository.streamUpTo(2L)).thenReturn(Stream.of(rating(1L, COURIER_ID, 5), rating(2L, 4L, 4)));
+
+        index.rebuild();
+
+        assertThat(index.getRecentScore(COURIER_ID)).hasValue(5.0);
+        assertThat(index.getRecentScore(4L)).hasValue(4.0);
+    }
+
+    @Test
+    void rebuild_KeepsRatingsCommittedDuringRecompute() {
+        when(courierRatingRepository.findMaxId()).thenReturn(1L);
+        when(courierRatingRepository.streamUpTo(1L)).thenAnswer(invocation -> {
+            index.onCourierRated(new CourierRatedEvent(2L, COURIER_ID, 3, NOW));
+            return Stream.of(rating(1L, COURIER_ID, 3));
+        });
+
+        index.rebuild();
+
+        assertThat(index.getRecentScore(COURIER_ID)).hasValue(3.0);
+        index.onCourierRated(new CourierRatedEvent(3L, COURIER_ID, 5, NOW));
+        assertThat(index.getRecentScore(COURIER_ID).getAsDouble()).isCloseTo(11.0 / 3, within(1e-9));
+    }
+
+    @Test
+    void rebuild_ReplaysRatingCommittedLateWithLowerId() {
+        when(courierRatingRepository.findMaxId()).thenReturn(3L);
+        when(courierRatingRepository.streamUpTo(3L)).thenAnswer(invocation -> {
+            //оценка 2 получила id раньше оценки 3, но закоммитилась уже после чтения
+            index.onCourierRated(new CourierRatedEvent(2L, COURIER_ID, 1, NOW));
+            index.onCourierRated(new CourierRatedEvent(3L, COURIER_ID, 5, NOW));
+            return Stream.of(rating(1L, COURIER_ID, 3), rating(3L, COURIER_ID, 5));
+        });
+
+        index.rebuild();
+
+        assertThat(index.getRecentScore(COURIER_ID)).hasValue(3.0);
+    }
+
+    @Test
+    void rebuild_RewritesDriftedCourierTotals() {
+        Courier courier = new Courier();
+        courier.setRatingTotals(4, 1);
+        when(courierRatingRepository.findMaxId()).thenReturn(2L);
+        when(courierRatingRepository.streamUpTo(2L)).thenReturn(Stream.of(rating(1L, COURIER_ID, 5), rating(2L, COURIER_ID, 4)));
+        when(courierRepository.findIdsWithDriftedRatingTotals()).thenReturn(List.of(COURIER_ID));
+        when(courierRepository.findLockedById(COURIER_ID)).thenReturn(Optional.of(courier));
+        when(courierRatingRepository.findTotalsByCourierId(COURIER_ID)).thenReturn(totals(9L, 2L));
+
+        index.rebuild();
+
+        assertThat(courier.getRatingSum()).isEqualTo(9L);
+        assertThat(courier.getRatingCount()).isEqualTo(2);
+        assertThat(courier.getRating()).isEqualByComparingTo("4.50");
+    }
+
+    private CourierRatingTotalsView totals(Long sum, Long count) {
+        return new CourierRatingTotalsView() {
+            @Override
+            public Long getSum() {
+                return sum;
+            }
+
+            @Override
+            public Long getCount() {
+                return count;
+            }
+        };
+    }
+
+    private CourierRatingView rating(Long id, Long courierId, int score) {
+        return new CourierRatingView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getCourierId() {
+                return courierId;
+            }
+
+            @Override
+            public Integer getScore() {
+                return score;
+            }
+
+            @Override
+            public LocalDateTime getRatedAt() {
+                return NOW;
+            }
+        };
+    }
+}
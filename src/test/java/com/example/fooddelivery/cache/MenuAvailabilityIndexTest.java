@@ -0,0 +1,115 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.event.MenuChangedEvent;
+import com.example.fooddelivery.repository.ItemRepository;
+import com.example.fooddelivery.repository.projection.ItemAvailabilityView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MenuAvailabilityIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+
+    @InjectMocks
+    private MenuAvailabilityIndex menuAvailabilityIndex;
+
+    private final Long RESTAURANT_ID = 5L;
+
+    @Test
+    void isAvailable_LoadsRestaurantOnce() {
+        when(itemRepository.findRestaurantIdById(1L)).thenReturn(Optional.of(RESTAURANT_ID));
+        when(itemRepository.findAvailabilityByRestaurantId(RESTAURANT_ID))
+                .thenReturn(List.of(view(2L, false), view(1L, true)));
+
+        assertThat(menuAvailabilityIndex.isAvailable(1L)).isTrue();
+        assertThat(menuAvailabilityIndex.isAvailable(2L)).isFalse();
+        assertThat(menuAvailabilityIndex.findUnavailable(List.of(1L, 2L))).containsExactly(2L);
+
+        verify(itemRepository, times(1)).findAvailabilityByRestaurantId(RESTAURANT_ID);
+        verify(itemRepository, never()).findRestaurantIdById(2L);
+    }
+
+    @Test
+    void isAvailableWhenItemNotFound() {
+        when(itemRepository.findRestaurantIdById(1L)).thenReturn(Optional.empty());
+
+        assertThat(menuAvailabilityIndex.isAvailable(1L)).isFalse();
+
+        verify(itemRepository, never()).findAvailabilityByRestaurantId(any());
+    }
+
+    @Test
+    void onMenuChanged_ReloadsRestaurant() {
+        when(itemRepository.findRestaurantIdById(1L)).thenReturn(Optional.of(RESTAURANT_ID));
+        when(itemRepository.findAvailabilityByRestaurantId(RESTAURANT_ID))
+                .thenReturn(List.of(view(1L, true)))
+                .thenReturn(List.of(view(1L, false)));
+
+        assertThat(menuAvailabilityIndex.isAvailable(1L)).isTrue();
+
+        menuAvailabilityIndex.onMenuChanged(new MenuChangedEvent(RESTAURANT_ID, Set.of(), Set.of(), Set.of()));
+
+        assertThat(menuAvailabilityIndex.isAvailable(1L)).isFalse();
+        verify(itemRepository, times(2)).findAvailabilityByRestaurantId(RESTAURANT_ID);
+    }
+
+    @Test
+    void onMenuChanged_DuringLoad_DiscardsStaleSnapshot() {
+        when(itemRepository.findRestaurantIdById(1L)).thenReturn(Optional.of(RESTAURANT_ID));
+        when(itemRepository.findAvailabilityByRestaurantId(RESTAURANT_ID))
+                .thenAnswer(invocation -> {
+                    //меню изменилось, пока читался снимок
+                    menuAvailabilityIndex.onMenuChanged(new MenuChangedEvent(RESTAURANT_ID, Set.of(), Set.of(), Set.of()));
+                    return List.of(view(1L, true));
+                })
+                .thenReturn(List.of(view(1L, false)));
+
+        assertThat(menuAvailabilityIndex.isAvailable(1L)).isTrue();
+        assertThat(menuAvailabilityIndex.isAvailable(1L)).isFalse();
+        assertThat(menuAvailabilityIndex.isAvailable(1L)).isFalse();
+
+        verify(itemRepository, times(2)).findAvailabilityByRestaurantId(RESTAURANT_ID);
+    }
+
+    @Test
+    void isAvailable_ReloadsWhenItemIsNew() {
+        when(itemRepository.findRestaurantIdById(1L)).thenReturn(Optional.of(RESTAURANT_ID));
+        when(itemRepository.findRestaurantIdById(3L)).thenReturn(Optional.of(RESTAURANT_ID));
+        when(itemRepository.findAvailabilityByRestaurantId(RESTAURANT_ID))
+                .thenReturn(List.of(view(1L, true)))
+                .thenReturn(List.of(view(1L, true), view(3L, true)));
+
+        assertThat(menuAvailabilityIndex.isAvailable(1L)).isTrue();
+        assertThat(menuAvailabilityIndex.isAvailable(3L)).isTrue();
+    }
+
+    private ItemAvailabilityView view(Long id, boolean available) {
+        return new ItemAvailabilityView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getRestaurantId() {
+                return RESTAURANT_ID;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return available;
+            }
+        };
+    }
+}
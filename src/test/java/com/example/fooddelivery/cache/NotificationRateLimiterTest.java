@@ -0,0 +1,88 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.config.NotificationProperties;
+import com.example.fooddelivery.enums.NotificationChannel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NotificationRateLimiterTest {
+    private static final Long USER_ID = 1L;
+
+    private Instant now;
+    private NotificationRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        now = Instant.parse("2026-10-19T12:00:00Z");
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        NotificationProperties properties = new NotificationProperties(0, null, null, null, Map.of(
+                NotificationChannel.SMS, new NotificationProperties.Channel(0, 0, 0, 0, null, 2, Duration.ofMinutes(1))));
+        limiter = new NotificationRateLimiter(properties, clock);
+    }
+
+    @Test
+    void tryAcquire_AllowsBurstThenReportsWait() {
+        assertThat(limiter.tryAcquire(USER_ID, NotificationChannel.SMS)).isZero();
+        assertThat(limiter.tryAcquire(USER_ID, NotificationChannel.SMS)).isZero();
+
+        assertThat(limiter.tryAcquire(USER_ID, NotificationChannel.SMS)).isEqualTo(60_000);
+        now = now.plusSeconds(15);
+        assertThat(limiter.tryAcquire(USER_ID, NotificationChannel.SMS)).isEqualTo(45_000);
+    }
+
+    @Test
+    void tryAcquire_RefillsOneTokenPerInterval() {
+        limiter.tryAcquire(USER_ID, NotificationChannel.SMS);
+        limiter.tryAcquire(USER_ID, NotificationChannel.SMS);
+
+        now = now.plusSeconds(60);
+
+        assertThat(limiter.tryAcquire(USER_ID, NotificationChannel.SMS)).isZero();
+        assertThat(limiter.tryAcquire(USER_ID, NotificationChannel.SMS)).isPositive();
+    }
+
+    @Test
+    void tryAcquire_KeepsUsersAndChannelsApart() {
+        limiter.tryAcquire(USER_ID, NotificationChannel.SMS);
+        limiter.tryAcquire(USER_ID, NotificationChannel.SMS);
+
+        assertThat(limiter.tryAcquire(2L, NotificationChannel.SMS)).isZero();
+        assertThat(limiter.tryAcquire(USER_ID, NotificationChannel.PUSH)).isZero();
+    }
+
+    @Test
+    void evictFull_DropsRefilledBuckets() {
+        limiter.tryAcquire(USER_ID, NotificationChannel.SMS);
+        limiter.tryAcquire(2L, NotificationChannel.SMS);
+        limiter.tryAcquire(2L, NotificationChannel.SMS);
+
+        now = now.plusSeconds(60);
+        limiter.evictFull();
+
+        assertThat(limiter.size()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.entity.OpeningHours;
+import com.example.fooddelivery.entity.Restaurant;
+import com.example.fooddelivery.event.RestaurantChangedEvent;
+import com.example.fooddelivery.repository.RestaurantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.*;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OpenHoursIndexTest {
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private Restaurant restaurant;
+
+    @BeforeEach
+    void setUp() {
+        restaurant = new Restaurant();
+        restaurant.setId(1L);
+        restaurant.setActive(true);
+        restaurant.setTimeZone("Europe/Moscow");
+        restaurant.setOpeningTime(LocalTime.of(10, 0));
+        restaurant.setClosingTime(LocalTime.of(22, 0));
+    }
+
+    @Test
+    void load_UsesDailyHoursInRestaurantTimeZone() {
+        when(restaurantRepository.findAllActiveWithOpeningHours()).thenReturn(List.of(restaurant));
+
+        //07:30 UTC = 10:30 МСК
+        OpenHoursIndex index = indexAt("2026-10-19T07:30:00Z");
+        index.load();
+        assertThat(index.isOpen(1L)).isTrue();
+
+        //19:30 UTC = 22:30 МСК
+        index = indexAt("2026-10-19T19:30:00Z");
+        index.load();
+        assertThat(index.isOpen(1L)).isFalse();
+    }
+
+    @Test
+    void load_SupportsOvernightRanges() {
+        restaurant.setOpeningTime(LocalTime.of(18, 0));
+        restaurant.setClosingTime(LocalTime.of(2, 0));
+        when(restaurantRepository.findAllActiveWithOpeningHours()).thenReturn(List.of(restaurant));
+
+        //22:30 UTC понедельника = 01:30 МСК вторника
+        OpenHoursIndex index = indexAt("2026-10-19T22:30:00Z");
+        index.load();
+        assertThat(index.getOpenNow()).containsExactly(1L);
+
+        //23:30 UTC понедельника = 02:30 МСК вторника
+        index = indexAt("2026-10-19T23:30:00Z");
+        index.load();
+        assertThat(index.getOpenNow()).isEmpty();
+    }
+
+    @Test
+    void load_UsesWeeklySchedule() {
+        restaurant.setOpeningHours(List.of(
+                new OpeningHours(restaurant, DayOfWeek.FRIDAY, LocalTime.of(20, 0), LocalTime.of(4, 0))));
+        when(restaurantRepository.findAllActiveWithOpeningHours()).thenReturn(List.of(restaurant));
+
+        //суббота 03:00 МСК: открыто по пятничному интервалу
+        OpenHoursIndex index = indexAt("2026-10-24T00:00:00Z");
+        index.load();
+        assertThat(index.isOpen(1L)).isTrue();
+
+        //понедельник 12:00 МСК: в расписании нет понедельника
+        index = indexAt("2026-10-19T09:00:00Z");
+        index.load();
+        assertThat(index.isOpen(1L)).isFalse();
+    }
+
+    @Test
+    void onRestaurantChanged_RemovesClosedRestaurant() {
+        when(restaurantRepository.findAllActiveWithOpeningHours()).thenReturn(List.of(restaurant));
+        OpenHoursIndex index = indexAt("2026-10-19T07:30:00Z");
+        index.load();
+
+        restaurant.setActive(false);
+        when(restaurantRepository.findWithOpeningHoursById(1L)).thenReturn(Optional.of(restaurant));
+        index.onRestaurantChanged(new RestaurantChangedEvent(1L));
+
+        assertThat(index.getOpenNow()).isEmpty();
+    }
+
+    @Test
+    void isOpen_LoadsUnknownRestaurant() {
+        when(restaurantRepository.findWithOpeningHoursById(1L)).thenReturn(Optional.of(restaurant));
+        OpenHoursIndex index = indexAt("2026-10-19T07:30:00Z");
+
+        assertThat(index.isOpen(1L)).isTrue();
+        assertThat(index.isOpen(1L)).isTrue();
+
+        verify(restaurantRepository, times(1)).findWithOpeningHoursById(1L);
+    }
+
+    private OpenHoursIndex indexAt(String instant) {
+        return new OpenHoursIndex(restaurantRepository, Clock.fixed(Instant.parse(instant), ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.config.OrderHistoryProperties;
+import com.example.fooddelivery.dto.response.OrderResponse;
+import com.example.fooddelivery.enums.OrderStatus;
+import com.example.fooddelivery.event.OrderStatusChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderHistoryCacheTest {
+    private static final Long USER_ID = 1L;
+
+    private Instant now;
+    private AtomicInteger loads;
+    private Supplier<List<OrderResponse>> loader;
+
+    @BeforeEach
+    void setUp() {
+        now = Instant.parse("2026-10-19T12:00:00Z");
+        loads = new AtomicInteger();
+        loader = () -> {
+            loads.incrementAndGet();
+            return List.of(new OrderResponse(1L, USER_ID, 1L, OrderStatus.NEW, new BigDecimal("500.00"), 5L, List.of()));
+        };
+    }
+
+    @Test
+    void getFirstPage_ServesRepeatedReadsFromMemory() {
+        OrderHistoryCache cache = cache(Duration.ofSeconds(5));
+
+        List<OrderResponse> first = cache.getFirstPage(USER_ID, 20, loader);
+        List<OrderResponse> second = cache.getFirstPage(USER_ID, 20, loader);
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void getFirstPage_ReloadsForDifferentLimit() {
+        OrderHistoryCache cache = cache(Duration.ofSeconds(5));
+
+        cache.getFirstPage(USER_ID, 20, loader);
+        cache.getFirstPage(USER_ID, 10, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void getFirstPage_ReloadsAfterTtl() {
+        OrderHistoryCache cache = cache(Duration.ofSeconds(5));
+
+        cache.getFirstPage(USER_ID, 20, loader);
+        now = now.plusSeconds(6);
+        cache.getFirstPage(USER_ID, 20, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void onOrderStatusChanged_EvictsUserPage() {
+        OrderHistoryCache cache = cache(Duration.ofSeconds(5));
+
+        cache.getFirstPage(USER_ID, 20, loader);
+        cache.getFirstPage(2L, 20, loader);
+        cache.onOrderStatusChanged(new OrderStatusChangedEvent(1L, USER_ID, null, OrderStatus.CONFIRMED));
+        cache.getFirstPage(USER_ID, 20, loader);
+        cache.getFirstPage(2L, 20, loader);
+
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void getFirstPage_WithZeroTtl_AlwaysLoads() {
+        OrderHistoryCache cache = cache(Duration.ZERO);
+
+        cache.getFirstPage(USER_ID, 20, loader);
+        cache.getFirstPage(USER_ID, 20, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private OrderHistoryCache cache(Duration ttl) {
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        return new OrderHistoryCache(new OrderHistoryProperties(ttl), clock);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.dto.response.SearchResultResponse;
+import com.example.fooddelivery.entity.Restaurant;
+import com.example.fooddelivery.enums.CuisineType;
+import com.example.fooddelivery.enums.SearchResultType;
+import com.example.fooddelivery.event.MenuChangedEvent;
+import com.example.fooddelivery.event.RestaurantChangedEvent;
+import com.example.fooddelivery.repository.ItemRepository;
+import com.example.fooddelivery.repository.RestaurantRepository;
+import com.example.fooddelivery.repository.ReviewRepository;
+import com.example.fooddelivery.repository.projection.ItemSearchView;
+import com.example.fooddelivery.repository.projection.RestaurantRatingView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SearchIndexTest {
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    @Mock
+    private ItemRepository itemRepository;
+
+    @Mock
+    private ReviewRepository reviewRepository;
+
+    private SearchIndex searchIndex;
+    private Restaurant pizzeria;
+    private Restaurant sushiBar;
+
+    @BeforeEach
+    void setUp() {
+        pizzeria = restaurant(1L, "Папа Джузеппе", CuisineType.PIZZA);
+        sushiBar = restaurant(2L, "Токио", CuisineType.SUSHI);
+
+        searchIndex = new SearchIndex(restaurantRepository, itemRepository, reviewRepository);
+        searchIndex.open();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        searchIndex.close();
+    }
+
+    @Test
+    void search_MatchesInflectedFormsOfItemName() {
+        when(reviewRepository.findAverageRatings()).thenReturn(List.of());
+        when(restaurantRepository.findAllByActiveTrue()).thenReturn(List.of(pizzeria));
+        when(itemRepository.findSearchViewsByRestaurantId(1L))
+                .thenReturn(List.of(item(10L, 1L, "Пицца Маргарита", true), item(11L, 1L, "Салат Цезарь", true)));
+        searchIndex.load();
+
+        List<SearchResultResponse> results = searchIndex.search("пиццы", 10);
+
+        assertThat(results).extracting(SearchResultResponse::id).contains(10L).doesNotContain(11L);
+    }
+
+    @Test
+    void search_MatchesRussianCuisineLabel() {
+        when(reviewRepository.findAverageRatings()).thenReturn(List.of());
+        when(restaurantRepository.findAllByActiveTrue()).thenReturn(List.of(sushiBar));
+        when(itemRepository.findSearchViewsByRestaurantId(2L)).thenReturn(List.of());
+        searchIndex.load();
+
+        List<SearchResultResponse> results = searchIndex.search("роллы", 10);
+
+        assertThat(results).singleElement().satisfies(result -> {
+            assertThat(result.type()).isEqualTo(SearchResultType.RESTAURANT);
+            assertThat(result.id()).isEqualTo(2L);
+        });
+    }
+
+    @Test
+    void search_MatchesPrefixOfLastWord() {
+        when(reviewRepository.findAverageRatings()).thenReturn(List.of());
+        when(restaurantRepository.findAllByActiveTrue()).thenReturn(List.of(pizzeria));
+        when(itemRepository.findSearchViewsByRestaurantId(1L)).thenReturn(List.of(item(10L, 1L, "Пицца Маргарита", true)));
+        searchIndex.load();
+
+        assertThat(searchIndex.search("марг", 10)).extracting(SearchResultResponse::id).containsExactly(10L);
+    }
+
+    @Test
+    void search_RanksByRatingAndAvailability() {
+        when(reviewRepository.findAverageRatings()).thenReturn(List.of(rating(1L, 2.0), rating(2L, 5.0)));
+        when(restaurantRepository.findAllByActiveTrue()).thenReturn(List.of(pizzeria, sushiBar));
+        when(itemRepository.findSearchViewsByRestaurantId(1L)).thenReturn(List.of(item(10L, 1L, "Суп мисо", true)));
+        when(itemRepository.findSearchViewsByRestaurantId(2L))
+                .thenReturn(List.of(item(20L, 2L, "Суп мисо", true), item(21L, 2L, "Суп том ям", false)));
+        searchIndex.load();
+
+        List<SearchResultResponse> results = searchIndex.search("суп", 10);
+
+        assertThat(results).extracting(SearchResultResponse::id).containsExactly(20L, 10L, 21L);
+        assertThat(results.get(2).available()).isFalse();
+    }
+
+    @Test
+    void onMenuChanged_ReindexesChangedItems() {
+        when(reviewRepository.findAverageRatings()).thenReturn(List.of());
+        when(restaurantRepository.findAllByActiveTrue()).thenReturn(List.of(pizzeria));
+        when(itemRepository.findSearchViewsByRestaurantId(1L))
+                .thenReturn(List.of(item(10L, 1L, "Пицца Маргарита", true), item(11L, 1L, "Пицца Пепперони", true)));
+        searchIndex.load();
+        when(itemRepository.findSearchViewsByIds(Set.of(10L, 11L))).thenReturn(List.of(item(10L, 1L, "Лазанья", true)));
+
+        searchIndex.onMenuChanged(new MenuChangedEvent(1L, Set.of(10L, 11L), Set.of(), Set.of()));
+
+        assertThat(searchIndex.search("пицца", 10)).extracting(SearchResultResponse::type)
+                .containsExactly(SearchResultType.RESTAURANT);
+        assertThat(searchIndex.search("лазанья", 10)).extracting(SearchResultResponse::id).containsExactly(10L);
+    }
+
+    @Test
+    void onRestaurantChanged_RemovesClosedRestaurantWithMenu() {
+        when(reviewRepository.findAverageRatings()).thenReturn(List.of());
+        when(restaurantRepository.findAllByActiveTrue()).thenReturn(List.of(pizzeria));
+        when(itemRepository.findSearchViewsByRestaurantId(1L)).thenReturn(List.of(item(10L, 1L, "Пицца Маргарита", true)));
+        searchIndex.load();
+        pizzeria.setActive(false);
+        when(restaurantRepository.findById(1L)).thenReturn(Optional.of(pizzeria));
+
+        searchIndex.onRestaurantChanged(new RestaurantChangedEvent(1L));
+
+        assertThat(searchIndex.search("пицца", 10)).isEmpty();
+    }
+
+    @Test
+    void onRestaurantChanged_IndexesNewRestaurant() {
+        when(reviewRepository.findAverageRatings()).thenReturn(List.of());
+        when(restaurantRepository.findAllByActiveTrue()).thenReturn(List.of());
+        searchIndex.load();
+        when(restaurantRepository.findById(2L)).thenReturn(Optional.of(sushiBar));
+        when(reviewRepository.calculateAverageRatingByRestaurantId(2L)).thenReturn(new BigDecimal("4.5"));
+        when(itemRepository.findSearchViewsByRestaurantId(2L)).thenReturn(List.of(item(20L, 2L, "Филадельфия", true)));
+
+        searchIndex.onRestaurantChanged(new RestaurantChangedEvent(2L));
+
+        assertThat(searchIndex.search("токио", 10)).extracting(SearchResultResponse::id).containsExactly(2L);
+        assertThat(searchIndex.search("филадельфия", 10)).extracting(SearchResultResponse::restaurantId).containsExactly(2L);
+    }
+
+    private Restaurant restaurant(Long id, String name, CuisineType cuisine) {
+        Restaurant restaurant = new Restaurant();
+        restaurant.setId(id);
+        restaurant.setName(name);
+        restaurant.setCuisineType(cuisine);
+        restaurant.setActive(true);
+        return restaurant;
+    }
+
+    private ItemSearchView item(Long id, Long restaurantId, String name, boolean available) {
+        return new ItemSearchView() {
+            public Long getId() { return id; }
+            public Long getRestaurantId() { return restaurantId; }
+            public String getName() { return name; }
+            public boolean isAvailable() { return available; }
+        };
+    }
+
+    private RestaurantRatingView rating(Long restaurantId, Double rating) {
+        return new RestaurantRatingView() {
+            public Long getRestaurantId() { return restaurantId; }
+            public Double getRating() { return rating; }
+        };
+    }
+}
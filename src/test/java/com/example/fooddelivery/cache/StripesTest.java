@@ -0,0 +1,49 @@
+package com.example.fooddelivery.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StripesTest {
+
+    @Test
+    void get_SpreadsSequentialKeysAcrossStripes() {
+        Stripes<Object> stripes = new Stripes<>(64, Object::new);
+
+        Set<Integer> used = new HashSet<>();
+        LongStream.rangeClosed(1, 64).forEach(key -> used.add(stripes.index(key)));
+
+        assertThat(used).hasSizeGreaterThan(32).allMatch(index -> index >= 0 && index < 64);
+        assertThat(stripes.get(42)).isSameAs(stripes.get(42));
+    }
+
+    @Test
+    void iterator_ReturnsEveryStripeOnce() {
+        AtomicInteger created = new AtomicInteger();
+        Stripes<Integer> stripes = new Stripes<>(8, created::incrementAndGet);
+
+        assertThat(StreamSupport.stream(stripes.spliterator(), false)).containsExactly(1, 2, 3, 4, 5, 6, 7, 8);
+    }
+
+    @Test
+    void get_WithSingleStripe() {
+        Stripes<Object> stripes = new Stripes<>(1, Object::new);
+
+        assertThat(stripes.index(-7)).isZero();
+        assertThat(stripes.index(Long.MAX_VALUE)).isZero();
+    }
+
+    @Test
+    void createWhenCountIsNotPowerOfTwo() {
+        assertThatThrownBy(() -> new Stripes<>(48, Object::new))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Stripe count must be a power of two: 48");
+    }
+}
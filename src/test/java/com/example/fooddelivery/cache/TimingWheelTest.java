@@ -0,0 +1,102 @@
+package com.example.fooddelivery.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+    private static final long TICK = 1000;
+    private static final long START = 1_760_000_000_000L;
+
+    @Test
+    void advance_FiresOnDeadlineAndNotBefore() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 2, START);
+        wheel.schedule(1L, START + 30_000);
+
+        assertThat(wheel.advance(START + 29_999)).isEmpty();
+        assertThat(wheel.advance(START + 30_000)).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_CascadesFarDeadlinesDownToExactTick() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 3, START);
+        wheel.schedule(1L, START + 1_800_000);
+        wheel.schedule(2L, START + 100_000);
+
+        assertThat(wheel.advance(START + 99_000)).isEmpty();
+        assertThat(wheel.advance(START + 100_000)).containsExactly(2L);
+        assertThat(wheel.advance(START + 1_799_000)).isEmpty();
+        assertThat(wheel.advance(START + 1_800_000)).containsExactly(1L);
+    }
+
+    @Test
+    void schedule_SameKeyMovesDeadline() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 2, START);
+        wheel.schedule(1L, START + 10_000);
+        wheel.schedule(1L, START + 20_000);
+
+        assertThat(wheel.advance(START + 15_000)).isEmpty();
+        assertThat(wheel.advance(START + 20_000)).containsExactly(1L);
+    }
+
+    @Test
+    void cancel_RemovesTimer() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 2, START);
+        wheel.schedule(1L, START + 10_000);
+
+        assertThat(wheel.cancel(1L)).isTrue();
+        assertThat(wheel.advance(START + 60_000)).isEmpty();
+        assertThat(wheel.cancel(1L)).isFalse();
+    }
+
+    @Test
+    void schedule_PastDeadlineFiresOnNextAdvance() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 2, START);
+        wheel.schedule(1L, START - 5_000);
+
+        assertThat(wheel.advance(START)).containsExactly(1L);
+    }
+
+    @Test
+    void schedule_RejectsDeadlineBeyondWheel() {
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 2, START);
+
+        assertThat(wheel.schedule(1L, START + 64L * 64 * TICK + TICK)).isFalse();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void levelsFor_CoversHorizon() {
+        assertThat(TimingWheel.levelsFor(TICK, 60_000)).isEqualTo(1);
+        assertThat(TimingWheel.levelsFor(TICK, 3_600_000)).isEqualTo(2);
+        assertThat(TimingWheel.levelsFor(100, 3_600_000)).isEqualTo(3);
+    }
+
+    @Test
+    void advance_FiresRandomDeadlinesWithinOneTick() {
+        long horizon = 3_600_000;
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, TimingWheel.levelsFor(TICK, horizon), START);
+        Random random = new Random(42);
+        long[] deadlines = new long[10_000];
+        for (int i = 0; i < deadlines.length; i++) {
+            deadlines[i] = START + random.nextLong(horizon);
+            assertThat(wheel.schedule((long) i, deadlines[i])).isTrue();
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long now = START; now <= START + horizon; now += TICK) {
+            for (Long key : wheel.advance(now)) {
+                long deadline = deadlines[key.intValue()];
+                assertThat(deadline).isLessThanOrEqualTo(now);
+                assertThat(now - deadline).isLessThan(TICK);
+                fired.add(key);
+            }
+        }
+        assertThat(fired).hasSize(deadlines.length);
+    }
+}
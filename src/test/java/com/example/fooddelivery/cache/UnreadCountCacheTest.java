@@ -0,0 +1,86 @@
+package com.example.fooddelivery.cache;
+
+import com.example.fooddelivery.event.NotificationInboxChangedEvent;
+import com.example.fooddelivery.event.NotificationsSentEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UnreadCountCacheTest {
+    private static final Long USER_ID = 1L;
+
+    private UnreadCountCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UnreadCountCache();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void onNotificationsSent_IncrementsLoadedCountInPlace() {
+        cache.get(USER_ID, () -> load(2));
+        cache.onNotificationsSent(new NotificationsSentEvent(List.of(USER_ID, 5L, USER_ID)));
+
+        assertThat(cache.get(USER_ID, () -> load(0))).isEqualTo(4);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void onInboxChanged_ReloadsCount() {
+        cache.get(USER_ID, () -> load(2));
+        cache.onInboxChanged(new NotificationInboxChangedEvent(USER_ID));
+
+        assertThat(cache.get(USER_ID, () -> load(0))).isZero();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_WhenChangedDuringLoad_DoesNotCacheLoadedCount() {
+        cache.get(USER_ID, () -> {
+            cache.onInboxChanged(new NotificationInboxChangedEvent(USER_ID));
+            return load(2);
+        });
+
+        assertThat(cache.get(USER_ID, () -> load(3))).isEqualTo(3);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void onNotificationsSent_DoesNotTrackUsersWithoutLoadedCount() {
+        cache.onNotificationsSent(new NotificationsSentEvent(List.of(2L, 3L, 4L)));
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void get_WhenSentDuringLoad_DoesNotCacheLoadedCount() {
+        cache.get(USER_ID, () -> {
+            cache.onNotificationsSent(new NotificationsSentEvent(List.of(USER_ID)));
+            return load(2);
+        });
+
+        assertThat(cache.get(USER_ID, () -> load(3))).isEqualTo(3);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void get_WhenLoadFails_LeavesNoEntry() {
+        assertThatThrownBy(() -> cache.get(USER_ID, () -> {
+            throw new IllegalStateException("db down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    private long load(long count) {
+        loads.incrementAndGet();
+        return count;
+    }
+}
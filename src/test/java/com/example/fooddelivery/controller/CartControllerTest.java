@@ -1,7 +1,9 @@
 package com.example.fooddelivery.controller;
 
 import com.example.fooddelivery.dto.request.CartItemRequest;
+import com.example.fooddelivery.dto.response.CartItemDeltaResponse;
 import com.example.fooddelivery.dto.response.CartItemResponse;
+import com.example.fooddelivery.dto.response.CartPriceResponse;
 import com.example.fooddelivery.dto.response.CartResponse;
 import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
@@ -18,12 +20,14 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CartController.class)
@@ -47,7 +51,8 @@ class CartControllerTest {
     void setUp() {
         cartItemRequest = new CartItemRequest(1L, 10L, 3);
         cartItemResponse = new CartItemResponse(5L, 1L, 10L, 3);
-        cartResponse = new CartResponse(1L, 1L, 5L, List.of(cartItemResponse), 45);
+        cartResponse = new CartResponse(1L, 1L, 5L, List.of(cartItemResponse), 45, new CartPriceResponse(
+                new BigDecimal("1350.00"), new BigDecimal("99.00"), BigDecimal.ZERO.setScale(2), new BigDecimal("1449.00"), new BigDecimal("300.00")));
     }
 
     @Test
@@ -136,6 +141,31 @@ class CartControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void updateQuantityDelta_Success() throws Exception {
+        Long itemId = 5L;
+        CartItemDeltaResponse delta = new CartItemDeltaResponse(cartItemResponse, new BigDecimal("1350.00"), 50);
+
+        when(cartService.updateQuantityDelta(anyLong(), eq(itemId), eq(3))).thenReturn(delta);
+
+        mockMvc.perform(patch(BASE_URL + "/items/{id}", itemId)
+                        .param("quantity", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.id").value(5))
+                .andExpect(jsonPath("$.subtotal").value(1350.00))
+                .andExpect(jsonPath("$.eta").value(50));
+    }
+
+    @Test
+    void updateQuantityDeltaWhenItemNotFound() throws Exception {
+        when(cartService.updateQuantityDelta(anyLong(), eq(100L), eq(3)))
+                .thenThrow(new EntityNotFoundException("Cart item with id 100 not found"));
+
+        mockMvc.perform(patch(BASE_URL + "/items/{id}", 100L)
+                        .param("quantity", "3"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void updateQuantityWithInvalidData() throws Exception {
         Long itemId = 5L;
@@ -163,7 +193,9 @@ class CartControllerTest {
         when(cartService.getCart(anyLong())).thenReturn(cartResponse);
 
         mockMvc.perform(get(BASE_URL))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price.deliveryFee").value(99.00))
+                .andExpect(jsonPath("$.price.total").value(1449.00));
     }
 
     @Test
@@ -1,13 +1,19 @@
 package com.example.fooddelivery.controller;
 
 import com.example.fooddelivery.dto.request.CourierRequest;
+import com.example.fooddelivery.dto.request.LocationBatchRequest;
+import com.example.fooddelivery.dto.request.LocationPingRequest;
+import com.example.fooddelivery.dto.response.CourierLocationResponse;
 import com.example.fooddelivery.dto.response.CourierResponse;
+import com.example.fooddelivery.dto.response.LocationResponse;
 import com.example.fooddelivery.dto.response.OrderResponse;
 import com.example.fooddelivery.enums.CourierStatus;
 import com.example.fooddelivery.enums.OrderStatus;
 import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.service.CourierLocationService;
 import com.example.fooddelivery.service.CourierService;
+import com.example.fooddelivery.service.OrderTrackingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,16 +25,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CourierController.class)
@@ -42,6 +51,12 @@ class CourierControllerTest {
     @MockBean
     private CourierService courierService;
 
+    @MockBean
+    private OrderTrackingService orderTrackingService;
+
+    @MockBean
+    private CourierLocationService courierLocationService;
+
     private CourierRequest courierRequest;
     private CourierResponse courierResponse;
 
@@ -150,8 +165,8 @@ class CourierControllerTest {
     void getActiveOrders_Success() throws Exception {
         Long courierId = 1L;
 
-        OrderResponse order1 = new OrderResponse(100L, 1L, 50L, OrderStatus.TAKED, new BigDecimal("2500.00"));
-        OrderResponse order2 = new OrderResponse(150L, 2L, 55L, OrderStatus.TAKED, new BigDecimal("1900.00"));
+        OrderResponse order1 = new OrderResponse(100L, 1L, 50L, OrderStatus.TAKED, new BigDecimal("2500.00"), 5L, List.of());
+        OrderResponse order2 = new OrderResponse(150L, 2L, 55L, OrderStatus.TAKED, new BigDecimal("1900.00"), 5L, List.of());
 
         List<OrderResponse> activeOrders = List.of(order1, order2);
 
@@ -226,4 +241,57 @@ class CourierControllerTest {
                         .param("status", "INVALID_STATUS"))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void addLocations_ReturnsAccepted() throws Exception {
+        LocationBatchRequest request = new LocationBatchRequest(List.of(
+                new LocationPingRequest(55.75, 37.61, LocalDateTime.of(2026, 10, 19, 12, 0))));
+
+        mockMvc.perform(post(BASE_URL + "/{id}/locations", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted());
+
+        verify(courierLocationService).addLocations(eq(1L), any(LocationBatchRequest.class));
+    }
+
+    @Test
+    void addLocationsWithInvalidLatitude() throws Exception {
+        LocationBatchRequest request = new LocationBatchRequest(List.of(
+                new LocationPingRequest(95.0, 37.61, LocalDateTime.of(2026, 10, 19, 12, 0))));
+
+        mockMvc.perform(post(BASE_URL + "/{id}/locations", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(courierLocationService, never()).addLocations(any(), any());
+    }
+
+    @Test
+    void getLocation() throws Exception {
+        LocationResponse current = new LocationResponse(55.75, 37.61, LocalDateTime.of(2026, 10, 19, 12, 0));
+        when(courierLocationService.getLocation(1L)).thenReturn(new CourierLocationResponse(1L, current, List.of(current)));
+
+        mockMvc.perform(get(BASE_URL + "/{id}/location", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.current.latitude").value(55.75))
+                .andExpect(jsonPath("$.track.length()").value(1));
+    }
+
+    @Test
+    void streamCourierEvents() throws Exception {
+        when(orderTrackingService.subscribeToCourier(1L)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get(BASE_URL + "/{id}/events", 1L))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void streamCourierEventsWhenCourierNotFound() throws Exception {
+        when(orderTrackingService.subscribeToCourier(999L)).thenThrow(new EntityNotFoundException("Courier with id 999 not found"));
+
+        mockMvc.perform(get(BASE_URL + "/{id}/events", 999L))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.fooddelivery.controller;
 
+import com.example.fooddelivery.dto.request.ItemAvailabilityRequest;
 import com.example.fooddelivery.dto.request.ItemOptionRequest;
 import com.example.fooddelivery.dto.request.ItemRequest;
+import com.example.fooddelivery.dto.response.ItemAvailabilityResponse;
 import com.example.fooddelivery.dto.response.ItemOptionResponse;
 import com.example.fooddelivery.dto.response.ItemResponse;
 import com.example.fooddelivery.enums.ItemSize;
@@ -21,6 +23,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -156,4 +159,29 @@ class ItemControllerTest {
                         .param("available", "invalid"))
                 .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void bulkUpdateAvailability_Success() throws Exception {
+        ItemAvailabilityRequest request = new ItemAvailabilityRequest(Set.of(1L, 2L), false);
+        when(itemService.updateAvailability(any(ItemAvailabilityRequest.class))).thenReturn(new ItemAvailabilityResponse(2));
+
+        mockMvc.perform(patch(BASE_URL + "/availability")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk());
+
+        verify(itemService).updateAvailability(any(ItemAvailabilityRequest.class));
+    }
+
+    @Test
+    void bulkUpdateAvailabilityWithEmptyIds() throws Exception {
+        ItemAvailabilityRequest request = new ItemAvailabilityRequest(Set.of(), false);
+
+        mockMvc.perform(patch(BASE_URL + "/availability")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).updateAvailability(any(ItemAvailabilityRequest.class));
+    }
+}
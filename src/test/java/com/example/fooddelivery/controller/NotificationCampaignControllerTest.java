@@ -0,0 +1,85 @@
+package com.example.fooddelivery.controller;
+
+import com.example.fooddelivery.dto.request.NotificationCampaignRequest;
+import com.example.fooddelivery.dto.response.NotificationCampaignResponse;
+import com.example.fooddelivery.enums.CampaignStatus;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.UserRole;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.exception.StatusException;
+import com.example.fooddelivery.service.NotificationCampaignService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(NotificationCampaignController.class)
+class NotificationCampaignControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private NotificationCampaignService campaignService;
+
+    private static final String BASE_URL = "/notifications/campaigns";
+
+    @Test
+    void createCampaign_Success() throws Exception {
+        NotificationCampaignRequest request = new NotificationCampaignRequest("Скидка 20% на пиццу", NotificationChannel.PUSH,
+                UserRole.CUSTOMER, "Москва", true, LocalDateTime.now().minusDays(30), null);
+        when(campaignService.createCampaign(any(NotificationCampaignRequest.class))).thenReturn(response(CampaignStatus.RUNNING));
+
+        mockMvc.perform(post(BASE_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    void createCampaignWithoutChannel() throws Exception {
+        NotificationCampaignRequest request = new NotificationCampaignRequest("Скидка 20% на пиццу", null,
+                null, null, null, null, null);
+
+        mockMvc.perform(post(BASE_URL)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getCampaignWhenCampaignNotFound() throws Exception {
+        when(campaignService.getCampaign(100L)).thenThrow(new EntityNotFoundException("Campaign with id 100 not found"));
+
+        mockMvc.perform(get(BASE_URL + "/{id}", 100L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void cancelCampaignWhenAlreadyCompleted() throws Exception {
+        when(campaignService.cancelCampaign(1L)).thenThrow(new StatusException("Campaign with id 1 is already COMPLETED"));
+
+        mockMvc.perform(post(BASE_URL + "/{id}/cancel", 1L))
+                .andExpect(status().isConflict());
+    }
+
+    private NotificationCampaignResponse response(CampaignStatus status) {
+        return new NotificationCampaignResponse(1L, "Скидка 20% на пиццу", NotificationChannel.PUSH, status, 0, 0,
+                LocalDateTime.now(), null);
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.fooddelivery.controller;
 
 import com.example.fooddelivery.dto.request.NotificationRequest;
+import com.example.fooddelivery.dto.response.NotificationArchiveResponse;
+import com.example.fooddelivery.dto.response.NotificationArchiveStatsResponse;
+import com.example.fooddelivery.dto.response.NotificationInboxResponse;
 import com.example.fooddelivery.dto.response.NotificationResponse;
+import com.example.fooddelivery.dto.response.NotificationUnreadResponse;
 import com.example.fooddelivery.enums.NotificationChannel;
 import com.example.fooddelivery.enums.NotificationStatus;
 import com.example.fooddelivery.enums.NotificationType;
+import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.service.NotificationArchiver;
 import com.example.fooddelivery.service.NotificationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -40,6 +46,9 @@ class NotificationControllerTest {
     @MockBean
     private NotificationService notificationService;
 
+    @MockBean
+    private NotificationArchiver notificationArchiver;
+
     private NotificationRequest notificationRequest;
     private NotificationResponse notificationResponse;
 
@@ -48,7 +57,7 @@ class NotificationControllerTest {
     @BeforeEach
     void setUp() {
         notificationRequest = new NotificationRequest(1L, "Заказ готов к выдаче", NotificationType.ORDER_READY, NotificationChannel.PUSH, LocalDateTime.now());
-        notificationResponse = new NotificationResponse(1L, 1L, "Заказ готов к выдаче", NotificationType.ORDER_READY, NotificationStatus.PENDING, NotificationChannel.PUSH, LocalDateTime.now(), null);
+        notificationResponse = new NotificationResponse(1L, 1L, "Заказ готов к выдаче", NotificationType.ORDER_READY, NotificationStatus.PENDING, NotificationChannel.PUSH, LocalDateTime.now(), null, null);
     }
 
     @Test
@@ -98,9 +107,9 @@ class NotificationControllerTest {
         Long userId = 1L;
         List<NotificationResponse> notifications = List.of(
                 new NotificationResponse(1L, userId, "Заказ ожидает оплаты", NotificationType.ORDER_CREATED,
-                        NotificationStatus.SENT, NotificationChannel.PUSH, LocalDateTime.now(), LocalDateTime.now()),
+                        NotificationStatus.SENT, NotificationChannel.PUSH, LocalDateTime.now(), LocalDateTime.now(), 1L),
                 new NotificationResponse(2L, userId, "Курьер в пути", NotificationType.ORDER_DELIVERING,
-                        NotificationStatus.DELIVERED, NotificationChannel.PUSH, LocalDateTime.now(), LocalDateTime.now()));
+                        NotificationStatus.DELIVERED, NotificationChannel.PUSH, LocalDateTime.now(), LocalDateTime.now(), 2L));
 
         when(notificationService.getUserNotifications(userId)).thenReturn(notifications);
 
@@ -126,6 +135,67 @@ class NotificationControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void getInbox_Success() throws Exception {
+        when(notificationService.getInbox(1L, 10L, 20))
+                .thenReturn(new NotificationInboxResponse(List.of(notificationResponse), 5L, 1));
+
+        mockMvc.perform(get(BASE_URL + "/inbox")
+                        .param("userId", "1")
+                        .param("before", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.notifications.length()").value(1))
+                .andExpect(jsonPath("$.readUpTo").value(5))
+                .andExpect(jsonPath("$.unreadCount").value(1));
+    }
+
+    @Test
+    void getInboxWithTooLargeLimit() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/inbox")
+                        .param("userId", "1")
+                        .param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getUnreadCount_Success() throws Exception {
+        when(notificationService.getUnreadCount(1L)).thenReturn(new NotificationUnreadResponse(1L, 3));
+
+        mockMvc.perform(get(BASE_URL + "/inbox/unread-count")
+                        .param("userId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unreadCount").value(3));
+    }
+
+    @Test
+    void markRead_Success() throws Exception {
+        when(notificationService.markRead(1L, null)).thenReturn(new NotificationUnreadResponse(1L, 0));
+
+        mockMvc.perform(post(BASE_URL + "/inbox/read")
+                        .param("userId", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unreadCount").value(0));
+    }
+
+    @Test
+    void getArchiveStats_Success() throws Exception {
+        when(notificationArchiver.getStats()).thenReturn(new NotificationArchiveStatsResponse(1, 1500,
+                new NotificationArchiveResponse(LocalDateTime.now(), 1500, 1, 300, 5000.0)));
+
+        mockMvc.perform(get(BASE_URL + "/archive/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalArchived").value(1500))
+                .andExpect(jsonPath("$.lastRun.rowsPerSecond").value(5000.0));
+    }
+
+    @Test
+    void archiveWhenAlreadyRunning() throws Exception {
+        when(notificationArchiver.archive()).thenThrow(new BusinessException("Notification archiving is already running"));
+
+        mockMvc.perform(post(BASE_URL + "/archive"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void updateNotificationStatus_Success() throws Exception {
         Long notificationId = 1L;
@@ -133,7 +203,7 @@ class NotificationControllerTest {
 
         NotificationResponse updatedResponse = new NotificationResponse(
                 notificationId, 1L, "Заказ готов к выдаче", NotificationType.ORDER_READY,
-                newStatus, NotificationChannel.PUSH, LocalDateTime.now(), LocalDateTime.now());
+                newStatus, NotificationChannel.PUSH, LocalDateTime.now(), LocalDateTime.now(), 1L);
 
         when(notificationService.updateNotificationStatus(notificationId, newStatus)).thenReturn(updatedResponse);
 
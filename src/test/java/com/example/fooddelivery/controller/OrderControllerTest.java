@@ -1,13 +1,20 @@
 package com.example.fooddelivery.controller;
 
+import com.example.fooddelivery.dto.request.CourierRatingRequest;
 import com.example.fooddelivery.dto.request.OrderRequest;
+import com.example.fooddelivery.dto.response.CourierLocationResponse;
+import com.example.fooddelivery.dto.response.CourierRatingResponse;
 import com.example.fooddelivery.dto.response.OrderResponse;
+import com.example.fooddelivery.dto.response.OrderStatusEventResponse;
 import com.example.fooddelivery.enums.OrderStatus;
 import com.example.fooddelivery.exception.AccessDeniedException;
 import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
 import com.example.fooddelivery.exception.StatusException;
+import com.example.fooddelivery.service.CourierLocationService;
+import com.example.fooddelivery.service.CourierRatingService;
 import com.example.fooddelivery.service.OrderService;
+import com.example.fooddelivery.service.OrderTrackingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,14 +23,19 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.math.BigDecimal;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(OrderController.class)
@@ -37,14 +49,23 @@ class OrderControllerTest {
     @MockBean
     private OrderService orderService;
 
+    @MockBean
+    private OrderTrackingService orderTrackingService;
+
+    @MockBean
+    private CourierLocationService courierLocationService;
+
+    @MockBean
+    private CourierRatingService courierRatingService;
+
     private OrderRequest orderRequest;
     private OrderResponse orderResponse;
     private static final String BASE_URL = "/orders";
 
     @BeforeEach
     void setUp() {
-        orderRequest = new OrderRequest(1L);
-        orderResponse = new OrderResponse(1L, 5L, 10L, OrderStatus.NEW, new BigDecimal("500.00"));
+        orderRequest = new OrderRequest(1L, null);
+        orderResponse = new OrderResponse(1L, 5L, 10L, OrderStatus.NEW, new BigDecimal("500.00"), 5L, List.of());
     }
 
     @Test
@@ -59,7 +80,7 @@ class OrderControllerTest {
 
     @Test
     void createOrderWithNullCartId() throws Exception {
-        OrderRequest invalidRequest = new OrderRequest(null);
+        OrderRequest invalidRequest = new OrderRequest(null, null);
 
         mockMvc.perform(post(BASE_URL)
                         .contentType(MediaType.APPLICATION_JSON)
@@ -123,11 +144,11 @@ class OrderControllerTest {
     void getOrdersByUserId() throws Exception {
         Long userId = 1L;
         List<OrderResponse> orders = List.of(
-                new OrderResponse(1L, userId, 1L, OrderStatus.NEW, new BigDecimal("500.00")),
-                new OrderResponse(2L, userId, 1L, OrderStatus.CONFIRMED, new BigDecimal("550.00"))
+                new OrderResponse(1L, userId, 1L, OrderStatus.NEW, new BigDecimal("500.00"), 5L, List.of()),
+                new OrderResponse(2L, userId, 1L, OrderStatus.CONFIRMED, new BigDecimal("550.00"), 5L, List.of())
         );
 
-        when(orderService.getOrdersById(userId)).thenReturn(orders);
+        when(orderService.getOrderHistory(userId, null, 20)).thenReturn(orders);
 
         mockMvc.perform(get(BASE_URL)
                         .param("userId", userId.toString()))
@@ -135,12 +156,100 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.length()").value(2));
     }
 
+    @Test
+    void streamOrderEvents_SendsStatusEvents() throws Exception {
+        SseEmitter emitter = new SseEmitter();
+        when(orderTrackingService.subscribeToOrder(1L)).thenReturn(emitter);
+
+        MvcResult result = mockMvc.perform(get(BASE_URL + "/{id}/events", 1L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().name("status").data(new OrderStatusEventResponse(1L, OrderStatus.CONFIRMED, null)));
+        emitter.complete();
+
+        assertThat(result.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(result.getResponse().getContentAsString())
+                .contains("event:status")
+                .contains("\"status\":\"CONFIRMED\"");
+    }
+
+    @Test
+    void getCourierLocation() throws Exception {
+        when(courierLocationService.getOrderCourierLocation(1L)).thenReturn(new CourierLocationResponse(3L, null, List.of()));
+
+        mockMvc.perform(get(BASE_URL + "/{id}/courier-location", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.courierId").value(3));
+    }
+
+    @Test
+    void rateCourier_Success() throws Exception {
+        when(courierRatingService.rateCourier(eq(1L), eq(5L), any(CourierRatingRequest.class)))
+                .thenReturn(new CourierRatingResponse(1L, 3L, 5, new BigDecimal("4.75")));
+
+        mockMvc.perform(post(BASE_URL + "/{id}/courier-rating", 1L)
+                        .param("userId", "5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CourierRatingRequest(5))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.courierRating").value(4.75));
+    }
+
+    @Test
+    void rateCourierWithScoreOutOfRange() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/{id}/courier-rating", 1L)
+                        .param("userId", "5")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new CourierRatingRequest(6))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(courierRatingService);
+    }
+
+    @Test
+    void getCourierLocationWhenCourierNotAssigned() throws Exception {
+        when(courierLocationService.getOrderCourierLocation(1L)).thenThrow(new BusinessException("Order is not assigned to any courier"));
+
+        mockMvc.perform(get(BASE_URL + "/{id}/courier-location", 1L))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void streamOrderEventsWhenOrderNotFound() throws Exception {
+        when(orderTrackingService.subscribeToOrder(999L)).thenThrow(new EntityNotFoundException("Order with id 999 not found"));
+
+        mockMvc.perform(get(BASE_URL + "/{id}/events", 999L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getOrdersByUserId_WithCursor() throws Exception {
+        when(orderService.getOrderHistory(1L, 40L, 10)).thenReturn(List.of());
+
+        mockMvc.perform(get(BASE_URL)
+                        .param("userId", "1")
+                        .param("before", "40")
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void getOrdersByUserId_WithTooLargeLimit_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL)
+                        .param("userId", "1")
+                        .param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).getOrderHistory(any(), any(), anyInt());
+    }
+
     @Test
     void getOrdersByStatus() throws Exception {
         OrderStatus status = OrderStatus.READY;
         List<OrderResponse> orders = List.of(
-                new OrderResponse(1L, 1L, 1L, status, new BigDecimal("500.00")),
-                new OrderResponse(2L, 2L, 2L, status, new BigDecimal("1000.00"))
+                new OrderResponse(1L, 1L, 1L, status, new BigDecimal("500.00"), 5L, List.of()),
+                new OrderResponse(2L, 2L, 2L, status, new BigDecimal("1000.00"), 5L, List.of())
         );
 
         when(orderService.getOrdersByStatus(status)).thenReturn(orders);
@@ -155,7 +264,7 @@ class OrderControllerTest {
     void updateStatus_Success() throws Exception {
         Long orderId = 1L;
         OrderStatus newStatus = OrderStatus.CONFIRMED;
-        OrderResponse updatedResponse = new OrderResponse(orderId, 1L, 1L, newStatus, new BigDecimal("500.00"));
+        OrderResponse updatedResponse = new OrderResponse(orderId, 1L, 1L, newStatus, new BigDecimal("500.00"), 5L, List.of());
 
         when(orderService.updateStatus(orderId, newStatus)).thenReturn(updatedResponse);
 
@@ -195,7 +304,7 @@ class OrderControllerTest {
         Long orderId = 1L;
         Long courierId = 5L;
         OrderStatus newStatus = OrderStatus.TAKED;
-        OrderResponse updatedResponse = new OrderResponse(orderId, 1L, 1L, newStatus, new BigDecimal("500.00"));
+        OrderResponse updatedResponse = new OrderResponse(orderId, 1L, 1L, newStatus, new BigDecimal("500.00"), 5L, List.of());
 
         when(orderService.updateStatusByCourier(orderId, newStatus, courierId)).thenReturn(updatedResponse);
 
@@ -1,12 +1,17 @@
 package com.example.fooddelivery.controller;
 
+import com.example.fooddelivery.dto.request.PaymentCallbackRequest;
 import com.example.fooddelivery.dto.request.PaymentRequest;
+import com.example.fooddelivery.dto.response.PaymentCallbackLagResponse;
 import com.example.fooddelivery.dto.response.PaymentResponse;
+import com.example.fooddelivery.dto.response.ReconciliationResponse;
 import com.example.fooddelivery.enums.PaymentStatus;
 import com.example.fooddelivery.enums.PaymentType;
 import com.example.fooddelivery.exception.EntityNotFoundException;
 import com.example.fooddelivery.exception.PaymentException;
+import com.example.fooddelivery.service.PaymentCallbackService;
 import com.example.fooddelivery.service.PaymentService;
+import com.example.fooddelivery.service.ReconciliationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,6 +24,8 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -36,6 +43,12 @@ class PaymentControllerTest {
     @MockBean
     private PaymentService paymentService;
 
+    @MockBean
+    private PaymentCallbackService paymentCallbackService;
+
+    @MockBean
+    private ReconciliationService reconciliationService;
+
     private PaymentRequest paymentRequest;
     private PaymentResponse paymentResponse;
 
@@ -47,6 +60,47 @@ class PaymentControllerTest {
         paymentResponse = new PaymentResponse(1L, 1L, PaymentStatus.PENDING, PaymentType.CARD);
     }
 
+    @Test
+    void acceptCallback_ReturnsAccepted() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/callbacks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PaymentCallbackRequest(1L, PaymentStatus.SUCCEEDED))))
+                .andExpect(status().isAccepted());
+
+        verify(paymentCallbackService).enqueue(any(PaymentCallbackRequest.class));
+    }
+
+    @Test
+    void acceptCallbackWithoutStatus() throws Exception {
+        mockMvc.perform(post(BASE_URL + "/callbacks")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new PaymentCallbackRequest(1L, null))))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(paymentCallbackService);
+    }
+
+    @Test
+    void getCallbackLag() throws Exception {
+        when(paymentCallbackService.getLag()).thenReturn(new PaymentCallbackLagResponse(12, 3, 0));
+
+        mockMvc.perform(get(BASE_URL + "/callbacks/lag"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pending").value(12))
+                .andExpect(jsonPath("$.lagSeconds").value(3));
+    }
+
+    @Test
+    void reconcile_ReturnsReport() throws Exception {
+        when(reconciliationService.reconcile(any())).thenReturn(new ReconciliationResponse(1, 1, 1, 0, 0, 0, 0, List.of()));
+
+        mockMvc.perform(post(BASE_URL + "/reconciliation")
+                        .contentType("text/csv")
+                        .content("paymentId,amount,status\n1,599.00,SUCCEEDED\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.matched").value(1));
+    }
+
     @Test
     void createPayment_Success() throws Exception{
         when(paymentService.createPayment(any(PaymentRequest.class))).thenReturn(paymentResponse);
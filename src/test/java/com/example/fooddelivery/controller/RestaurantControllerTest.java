@@ -3,10 +3,16 @@ package com.example.fooddelivery.controller;
 import com.example.fooddelivery.dto.AddressDto;
 import com.example.fooddelivery.dto.request.ItemOptionRequest;
 import com.example.fooddelivery.dto.request.ItemRequest;
+import com.example.fooddelivery.dto.request.OpeningHoursRequest;
 import com.example.fooddelivery.dto.request.RestaurantRequest;
+import com.example.fooddelivery.dto.request.ScheduleRequest;
 import com.example.fooddelivery.dto.response.ItemOptionResponse;
 import com.example.fooddelivery.dto.response.ItemResponse;
+import com.example.fooddelivery.dto.response.MenuImportError;
+import com.example.fooddelivery.dto.response.MenuImportResponse;
+import com.example.fooddelivery.dto.response.OpeningHoursResponse;
 import com.example.fooddelivery.dto.response.RestaurantResponse;
+import com.example.fooddelivery.dto.response.ScheduleResponse;
 import com.example.fooddelivery.enums.CuisineType;
 import com.example.fooddelivery.enums.ItemSize;
 import com.example.fooddelivery.exception.EntityNotFoundException;
@@ -25,6 +31,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.stream.Stream;
@@ -63,8 +70,8 @@ class RestaurantControllerTest {
 
     @BeforeEach
     void setUp(){
-        restaurantRequest = new RestaurantRequest("PizzaMania", ADDRESS, CuisineType.PIZZA, LocalTime.of(10, 0), LocalTime.of(22, 0));
-        restaurantResponse = new RestaurantResponse(1L, "PizzaMania", ADDRESS, CuisineType.PIZZA, new BigDecimal("4.3"), LocalTime.of(10, 0), LocalTime.of(22, 0), true);
+        restaurantRequest = new RestaurantRequest("PizzaMania", ADDRESS, CuisineType.PIZZA, LocalTime.of(10, 0), LocalTime.of(22, 0), null);
+        restaurantResponse = new RestaurantResponse(1L, "PizzaMania", ADDRESS, CuisineType.PIZZA, new BigDecimal("4.3"), LocalTime.of(10, 0), LocalTime.of(22, 0), true, null);
 
         itemOptionRequest = new ItemOptionRequest(ItemSize.LARGE, new BigDecimal("1000.00"), 20);
         itemOptionResponse = new ItemOptionResponse(1L, ItemSize.LARGE, new BigDecimal("1000.00"), 20);
@@ -95,17 +102,17 @@ class RestaurantControllerTest {
     private static Stream<Arguments> invalidRestaurantData(){
         return Stream.of(
                 Arguments.of("emptyName",
-                        new RestaurantRequest("", ADDRESS, CuisineType.ITALIAN, LocalTime.of(9, 0), LocalTime.of(23, 0))),
+                        new RestaurantRequest("", ADDRESS, CuisineType.ITALIAN, LocalTime.of(9, 0), LocalTime.of(23, 0), null)),
                 Arguments.of("nullName",
-                        new RestaurantRequest(null, ADDRESS, CuisineType.ITALIAN, LocalTime.of(9, 0), LocalTime.of(23, 0))),
+                        new RestaurantRequest(null, ADDRESS, CuisineType.ITALIAN, LocalTime.of(9, 0), LocalTime.of(23, 0), null)),
                 Arguments.of("nullAddress",
-                        new RestaurantRequest("Pizza House", null, CuisineType.ITALIAN, LocalTime.of(9, 0), LocalTime.of(23, 0))),
+                        new RestaurantRequest("Pizza House", null, CuisineType.ITALIAN, LocalTime.of(9, 0), LocalTime.of(23, 0), null)),
                 Arguments.of("nullCuisineType",
-                        new RestaurantRequest("Pizza House", ADDRESS, null, LocalTime.of(9, 0), LocalTime.of(23, 0))),
+                        new RestaurantRequest("Pizza House", ADDRESS, null, LocalTime.of(9, 0), LocalTime.of(23, 0), null)),
                 Arguments.of("nullOpeningTime",
-                        new RestaurantRequest("Pizza House", ADDRESS, CuisineType.ITALIAN, null, LocalTime.of(23, 0))),
+                        new RestaurantRequest("Pizza House", ADDRESS, CuisineType.ITALIAN, null, LocalTime.of(23, 0), null)),
                 Arguments.of("nullClosingTime",
-                        new RestaurantRequest("Pizza House", ADDRESS, CuisineType.ITALIAN, LocalTime.of(9, 0), null))
+                        new RestaurantRequest("Pizza House", ADDRESS, CuisineType.ITALIAN, LocalTime.of(9, 0), null, null))
         );
     }
 
@@ -113,7 +120,7 @@ class RestaurantControllerTest {
     void getRestaurantsWithoutFilters() throws Exception {
         List<RestaurantResponse> restaurants = List.of(restaurantResponse);
 
-        when(restaurantService.getRestaurants(null, null)).thenReturn(restaurants);
+        when(restaurantService.getRestaurants(null, null, false)).thenReturn(restaurants);
 
         mockMvc.perform(get(BASE_URL))
                 .andExpect(status().isOk())
@@ -125,7 +132,7 @@ class RestaurantControllerTest {
         CuisineType cuisine = CuisineType.PIZZA;
         List<RestaurantResponse> restaurants = List.of(restaurantResponse);
 
-        when(restaurantService.getRestaurants(cuisine, null)).thenReturn(restaurants);
+        when(restaurantService.getRestaurants(cuisine, null, false)).thenReturn(restaurants);
 
         mockMvc.perform(get(BASE_URL)
                         .param("cuisine", cuisine.toString()))
@@ -138,7 +145,7 @@ class RestaurantControllerTest {
         Double minRating = 4.0;
         List<RestaurantResponse> restaurants = List.of(restaurantResponse);
 
-        when(restaurantService.getRestaurants(null, minRating)).thenReturn(restaurants);
+        when(restaurantService.getRestaurants(null, minRating, false)).thenReturn(restaurants);
 
         mockMvc.perform(get(BASE_URL)
                         .param("minRating", minRating.toString()))
@@ -152,7 +159,7 @@ class RestaurantControllerTest {
         Double minRating = 4.0;
         List<RestaurantResponse> restaurants = List.of(restaurantResponse);
 
-        when(restaurantService.getRestaurants(cuisine, minRating)).thenReturn(restaurants);
+        when(restaurantService.getRestaurants(cuisine, minRating, false)).thenReturn(restaurants);
 
         mockMvc.perform(get(BASE_URL)
                         .param("cuisine", cuisine.toString())
@@ -161,6 +168,16 @@ class RestaurantControllerTest {
                 .andExpect(jsonPath("$.length()").value(1));
     }
 
+    @Test
+    void getRestaurantsOpenNow() throws Exception {
+        when(restaurantService.getRestaurants(null, null, true)).thenReturn(List.of(restaurantResponse));
+
+        mockMvc.perform(get(BASE_URL)
+                        .param("openNow", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
     @Test
     void getRestaurantById_Success() throws Exception {
         Long restaurantId = 1L;
@@ -188,11 +205,12 @@ class RestaurantControllerTest {
                 ADDRESS,
                 CuisineType.ITALIAN,
                 LocalTime.of(10, 0),
-                LocalTime.of(22, 0)
+                LocalTime.of(22, 0),
+                null
         );
 
         RestaurantResponse updatedResponse = new RestaurantResponse(restaurantId, "Pizza House", restaurantResponse.address(),
-                CuisineType.ITALIAN, new BigDecimal("4.3"), LocalTime.of(10, 0), LocalTime.of(22, 0), true);
+                CuisineType.ITALIAN, new BigDecimal("4.3"), LocalTime.of(10, 0), LocalTime.of(22, 0), true, null);
 
         when(restaurantService.updateRestaurant(eq(restaurantId), any(RestaurantRequest.class))).thenReturn(updatedResponse);
 
@@ -278,4 +296,81 @@ class RestaurantControllerTest {
         mockMvc.perform(get(BASE_URL + "/{id}/menu", restaurantId))
                 .andExpect(status().isNotFound());
     }
-}
\ No newline at end of file
+
+    @Test
+    void importMenuJson_Success() throws Exception {
+        Long restaurantId = 1L;
+        MenuImportResponse response = new MenuImportResponse(1, 0, 0, List.of());
+        when(itemService.importJson(eq(restaurantId), any())).thenReturn(response);
+
+        mockMvc.perform(post(BASE_URL + "/{id}/menu/import", restaurantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(itemRequest))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1));
+    }
+
+    @Test
+    void importMenuCsv_Success() throws Exception {
+        Long restaurantId = 1L;
+        MenuImportResponse response = new MenuImportResponse(0, 0, 0, List.of(new MenuImportError(1, "Pepperoni", "Duplicate item in import")));
+        when(itemService.importCsv(eq(restaurantId), any())).thenReturn(response);
+
+        mockMvc.perform(post(BASE_URL + "/{id}/menu/import", restaurantId)
+                        .contentType("text/csv")
+                        .content("name,available,size,price,preparationMinutes\nPepperoni,true,LARGE,1000.00,20\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors[0].row").value(1));
+    }
+
+    @Test
+    void importMenuWhenRestaurantNotFound() throws Exception {
+        Long restaurantId = 100L;
+        when(itemService.importJson(eq(restaurantId), any()))
+                .thenThrow(new EntityNotFoundException("Restaurant with id 100 not found"));
+
+        mockMvc.perform(post(BASE_URL + "/{id}/menu/import", restaurantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void updateSchedule_Success() throws Exception {
+        Long restaurantId = 1L;
+        ScheduleRequest request = new ScheduleRequest("Europe/Moscow",
+                List.of(new OpeningHoursRequest(DayOfWeek.FRIDAY, LocalTime.of(18, 0), LocalTime.of(2, 0))));
+        ScheduleResponse response = new ScheduleResponse(restaurantId, "Europe/Moscow",
+                List.of(new OpeningHoursResponse(DayOfWeek.FRIDAY, LocalTime.of(18, 0), LocalTime.of(2, 0))));
+        when(restaurantService.updateSchedule(eq(restaurantId), any(ScheduleRequest.class))).thenReturn(response);
+
+        mockMvc.perform(put(BASE_URL + "/{id}/schedule", restaurantId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.days[0].dayOfWeek").value("FRIDAY"));
+    }
+
+    @Test
+    void updateScheduleWithInvalidDay() throws Exception {
+        ScheduleRequest request = new ScheduleRequest(null,
+                List.of(new OpeningHoursRequest(null, LocalTime.of(18, 0), LocalTime.of(2, 0))));
+
+        mockMvc.perform(put(BASE_URL + "/{id}/schedule", 1L)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+
+        verify(restaurantService, never()).updateSchedule(any(), any());
+    }
+
+    @Test
+    void getScheduleWhenRestaurantNotFound() throws Exception {
+        Long restaurantId = 100L;
+        when(restaurantService.getSchedule(restaurantId))
+                .thenThrow(new EntityNotFoundException("Restaurant with id 100 not found"));
+
+        mockMvc.perform(get(BASE_URL + "/{id}/schedule", restaurantId))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.fooddelivery.controller;
+
+import com.example.fooddelivery.dto.response.SearchResultResponse;
+import com.example.fooddelivery.enums.SearchResultType;
+import com.example.fooddelivery.service.SearchService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(SearchController.class)
+class SearchControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SearchService searchService;
+
+    @Test
+    void search_ReturnsResults() throws Exception {
+        when(searchService.search("пицца", 20)).thenReturn(List.of(
+                new SearchResultResponse(SearchResultType.ITEM, 10L, 1L, "Пицца Маргарита", true, 2.5f)));
+
+        mockMvc.perform(get("/search").param("q", "пицца"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("ITEM"))
+                .andExpect(jsonPath("$[0].id").value(10))
+                .andExpect(jsonPath("$[0].restaurantId").value(1));
+    }
+
+    @Test
+    void search_WithBlankQuery_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+
+        verify(searchService, never()).search(anyString(), anyInt());
+    }
+
+    @Test
+    void search_WithTooLargeLimit_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/search").param("q", "суши").param("limit", "1000"))
+                .andExpect(status().isBadRequest());
+
+        verify(searchService, never()).search(anyString(), anyInt());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.fooddelivery.pricing;
+
+import com.example.fooddelivery.cache.CartLine;
+import com.example.fooddelivery.cache.CartState;
+import com.example.fooddelivery.config.PricingProperties;
+import com.example.fooddelivery.entity.CartItem;
+import com.example.fooddelivery.entity.ItemOption;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//сравнение расчета суммы корзины: поток BigDecimal по строкам (как было в OrderService) и накопленная сумма в копейках;
+//запуск: mvn test-compile, затем java -cp target/test-classes:target/classes:<classpath> org.openjdk.jmh.Main PricingBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+    private static final BigDecimal MIN_AMOUNT = new BigDecimal("300.00");
+
+    @Param({"3", "20"})
+    private int lines;
+
+    private List<CartItem> cartItems;
+    private CartState cart;
+    private PricingEngine pricingEngine;
+    private int quantity;
+
+    @Setup
+    public void setUp() {
+        cartItems = new ArrayList<>();
+        List<CartLine> cartLines = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            ItemOption option = new ItemOption();
+            option.setPrice(new BigDecimal("129.90").add(BigDecimal.valueOf(i)));
+            CartItem cartItem = new CartItem();
+            cartItem.setItemOption(option);
+            cartItem.setQuantity(i % 3 + 1);
+            cartItems.add(cartItem);
+            cartLines.add(new CartLine((long) i, (long) i, (long) i, i % 3 + 1, Money.toMinor(option.getPrice()), 15));
+        }
+        cart = new CartState(1L, 1L, 1L, cartLines);
+
+        PricingProperties properties = new PricingProperties(MIN_AMOUNT,
+                List.of(new PricingProperties.DeliveryFeeTier(BigDecimal.ZERO, new BigDecimal("199.00")),
+                        new PricingProperties.DeliveryFeeTier(new BigDecimal("1500.00"), new BigDecimal("99.00"))),
+                Map.of("WELCOME", new PricingProperties.PromoCode(10, new BigDecimal("300.00"), BigDecimal.ZERO)));
+        long minOrderAmount = Money.toMinor(MIN_AMOUNT);
+        pricingEngine = new PricingEngine(List.of(price -> price.setMinOrderAmount(minOrderAmount),
+                new DeliveryFeeRule(properties), new PromoCodeRule(properties)));
+    }
+
+    @Benchmark
+    public boolean checkoutStream() {
+        BigDecimal total = cartItems.stream()
+                .map(cartItem -> cartItem.getItemOption().getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return total.compareTo(MIN_AMOUNT) < 0;
+    }
+
+    @Benchmark
+    public long checkoutEngine() {
+        PriceBreakdown price = pricingEngine.price(cart.restaurantId(), cart.subtotalMinor(), "WELCOME");
+        return price.isBelowMinimum() ? -1 : price.getTotal();
+    }
+
+    @Benchmark
+    public BigDecimal quantityChangeStream() {
+        CartItem cartItem = cartItems.get(0);
+        cartItem.setQuantity(++quantity % 5 + 1);
+        return cartItems.stream()
+                .map(item -> item.getItemOption().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public long quantityChangeRunning() {
+        CartLine line = cart.items().get(0);
+        cart = cart.withLine(cart.restaurantId(), line.withQuantity(++quantity % 5 + 1));
+        return cart.subtotalMinor();
+    }
+}
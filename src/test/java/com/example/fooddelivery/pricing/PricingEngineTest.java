@@ -0,0 +1,121 @@
+package com.example.fooddelivery.pricing;
+
+import com.example.fooddelivery.config.PricingProperties;
+import com.example.fooddelivery.event.RestaurantChangedEvent;
+import com.example.fooddelivery.exception.BusinessException;
+import com.example.fooddelivery.repository.RestaurantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PricingEngineTest {
+    private static final Long RESTAURANT_ID = 5L;
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    private MinimumOrderRule minimumOrderRule;
+    private PricingEngine pricingEngine;
+
+    @BeforeEach
+    void setUp() {
+        PricingProperties properties = new PricingProperties(
+                new BigDecimal("300.00"),
+                List.of(new PricingProperties.DeliveryFeeTier(new BigDecimal("1500.00"), new BigDecimal("99.00")),
+                        new PricingProperties.DeliveryFeeTier(BigDecimal.ZERO, new BigDecimal("199.00")),
+                        new PricingProperties.DeliveryFeeTier(new BigDecimal("3000.00"), BigDecimal.ZERO)),
+                Map.of("welcome", new PricingProperties.PromoCode(10, new BigDecimal("150.00"), new BigDecimal("500.00"))));
+
+        minimumOrderRule = new MinimumOrderRule(restaurantRepository, properties);
+        pricingEngine = new PricingEngine(List.of(minimumOrderRule, new DeliveryFeeRule(properties), new PromoCodeRule(properties)));
+    }
+
+    @Test
+    void price_UsesDefaultMinimumAndDeliveryFeeTier() {
+        when(restaurantRepository.findMinOrderAmountById(RESTAURANT_ID)).thenReturn(Optional.empty());
+
+        PriceBreakdown price = pricingEngine.price(RESTAURANT_ID, 20000L, null);
+
+        assertThat(price.getMinOrderAmount()).isEqualTo(30000L);
+        assertThat(price.isBelowMinimum()).isTrue();
+        assertThat(price.getDeliveryFee()).isEqualTo(19900L);
+        assertThat(price.getTotal()).isEqualTo(39900L);
+    }
+
+    @Test
+    void price_PicksHighestReachedDeliveryTier() {
+        when(restaurantRepository.findMinOrderAmountById(RESTAURANT_ID)).thenReturn(Optional.empty());
+
+        assertThat(pricingEngine.price(RESTAURANT_ID, 150000L, null).getDeliveryFee()).isEqualTo(9900L);
+        assertThat(pricingEngine.price(RESTAURANT_ID, 300000L, null).getDeliveryFee()).isZero();
+    }
+
+    @Test
+    void price_UsesRestaurantMinimumAndCachesIt() {
+        when(restaurantRepository.findMinOrderAmountById(RESTAURANT_ID)).thenReturn(Optional.of(new BigDecimal("1000.00")));
+
+        pricingEngine.price(RESTAURANT_ID, 50000L, null);
+        PriceBreakdown price = pricingEngine.price(RESTAURANT_ID, 50000L, null);
+
+        assertThat(price.getMinOrderAmount()).isEqualTo(100000L);
+        assertThat(price.isBelowMinimum()).isTrue();
+        verify(restaurantRepository, times(1)).findMinOrderAmountById(RESTAURANT_ID);
+    }
+
+    @Test
+    void onRestaurantChanged_ReloadsMinimum() {
+        when(restaurantRepository.findMinOrderAmountById(RESTAURANT_ID))
+                .thenReturn(Optional.of(new BigDecimal("1000.00")), Optional.of(new BigDecimal("400.00")));
+
+        pricingEngine.price(RESTAURANT_ID, 50000L, null);
+        minimumOrderRule.onRestaurantChanged(new RestaurantChangedEvent(RESTAURANT_ID));
+
+        assertThat(pricingEngine.price(RESTAURANT_ID, 50000L, null).isBelowMinimum()).isFalse();
+    }
+
+    @Test
+    void price_AppliesPromoDiscountCappedByMaximum() {
+        when(restaurantRepository.findMinOrderAmountById(RESTAURANT_ID)).thenReturn(Optional.empty());
+
+        assertThat(pricingEngine.price(RESTAURANT_ID, 80000L, "Welcome").getDiscount()).isEqualTo(8000L);
+        assertThat(pricingEngine.price(RESTAURANT_ID, 250000L, "WELCOME").getDiscount()).isEqualTo(15000L);
+    }
+
+    @Test
+    void price_WithUnknownPromoCode_ThrowsException() {
+        when(restaurantRepository.findMinOrderAmountById(RESTAURANT_ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> pricingEngine.price(RESTAURANT_ID, 80000L, "FREE"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Promo code FREE is not valid");
+    }
+
+    @Test
+    void price_WithPromoBelowItsMinimum_ThrowsException() {
+        when(restaurantRepository.findMinOrderAmountById(RESTAURANT_ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> pricingEngine.price(RESTAURANT_ID, 40000L, "WELCOME"))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Promo code WELCOME requires order amount of at least 500.00");
+    }
+
+    @Test
+    void price_OfEmptyCart_IsZero() {
+        PriceBreakdown price = pricingEngine.price(null, 0L, null);
+
+        assertThat(price.getTotal()).isZero();
+        verifyNoInteractions(restaurantRepository);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.cache.CartStore;
+import com.example.fooddelivery.config.CartExpiryProperties;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.NotificationType;
+import com.example.fooddelivery.repository.CartItemRepository;
+import com.example.fooddelivery.repository.CartRepository;
+import com.example.fooddelivery.repository.OrderRepository;
+import com.example.fooddelivery.repository.projection.IdleCartView;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CartExpiryServiceTest {
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 10, 12, 12, 0);
+
+    @Mock
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private CartStore cartStore;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void expireIdleCarts_DeletesCartsInBatches() {
+        when(cartRepository.findIdle(CUTOFF, Limit.of(2)))
+                .thenReturn(List.of(idle(1L, 11L, 2), idle(2L, 12L, 0)), List.of(idle(3L, 13L, 1)));
+        when(cartStore.evictIfClean(anyLong())).thenReturn(true);
+
+        int expired = service(2, false).expireIdleCarts();
+
+        assertThat(expired).isEqualTo(3);
+        verify(cartItemRepository).deleteByCartIds(List.of(1L, 2L));
+        verify(orderRepository).detachCarts(List.of(1L, 2L));
+        verify(cartRepository).deleteByIds(List.of(1L, 2L));
+        verify(cartRepository).deleteByIds(List.of(3L));
+        verify(cartStore).evictIfClean(11L);
+        verify(cartStore).evictIfClean(13L);
+        verify(transactionManager, times(2)).commit(any());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void expireIdleCarts_NotifiesOnlyUsersWithItems() {
+        when(cartRepository.findIdle(CUTOFF, Limit.of(10))).thenReturn(List.of(idle(1L, 11L, 2), idle(2L, 12L, 0)));
+        when(cartStore.evictIfClean(anyLong())).thenReturn(true);
+
+        service(10, true).expireIdleCarts();
+
+        verify(notificationService).createNotifications(eq(List.of(11L)), anyString(),
+                eq(NotificationType.PROMOTIONAL), eq(NotificationChannel.PUSH));
+    }
+
+    @Test
+    void expireIdleCarts_SkipsCartsWithPendingChanges() {
+        when(cartRepository.findIdle(CUTOFF, Limit.of(1))).thenReturn(List.of(idle(1L, 11L, 2)));
+        when(cartStore.evictIfClean(11L)).thenReturn(false);
+
+        int expired = service(1, false).expireIdleCarts();
+
+        assertThat(expired).isZero();
+        verify(cartRepository, times(1)).findIdle(any(), any());
+        verify(cartRepository, never()).deleteByIds(anyCollection());
+    }
+
+    private CartExpiryService service(int batchSize, boolean notify) {
+        Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+        CartExpiryProperties properties = new CartExpiryProperties(Duration.ofDays(7), batchSize, notify);
+        return new CartExpiryService(cartRepository, cartItemRepository, orderRepository, cartStore, notificationService,
+                properties, transactionManager, clock);
+    }
+
+    private IdleCartView idle(Long id, Long userId, int itemCount) {
+        return new IdleCartView() {
+            public Long getId() { return id; }
+            public Long getUserId() { return userId; }
+            public int getItemCount() { return itemCount; }
+        };
+    }
+}
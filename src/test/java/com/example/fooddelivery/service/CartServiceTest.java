@@ -1,41 +1,45 @@
 package com.example.fooddelivery.service;
 
+import com.example.fooddelivery.cache.CartLine;
+import com.example.fooddelivery.cache.CartState;
+import com.example.fooddelivery.cache.CartStore;
+import com.example.fooddelivery.cache.CourierLoadIndex;
+import com.example.fooddelivery.cache.MenuAvailabilityIndex;
+import com.example.fooddelivery.cache.OpenHoursIndex;
 import com.example.fooddelivery.dto.mapper.CartMapper;
 import com.example.fooddelivery.dto.request.CartItemRequest;
+import com.example.fooddelivery.dto.response.CartItemDeltaResponse;
 import com.example.fooddelivery.dto.response.CartItemResponse;
 import com.example.fooddelivery.dto.response.CartResponse;
-import com.example.fooddelivery.entity.*;
 import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
-import com.example.fooddelivery.repository.CartItemRepository;
-import com.example.fooddelivery.repository.CartRepository;
-import com.example.fooddelivery.repository.CourierRepository;
+import com.example.fooddelivery.pricing.PricingEngine;
 import com.example.fooddelivery.repository.ItemOptionRepository;
+import com.example.fooddelivery.repository.projection.ItemOptionCartView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.time.LocalTime;
-import java.util.ArrayList;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 import static org.assertj.core.api.Assertions.assertThat;
-
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class CartServiceTest {
     @Mock
-    private CartRepository cartRepository;
-
-    @Mock
-    private CartItemRepository cartItemRepository;
+    private CartStore cartStore;
 
     @Mock
     private ItemOptionRepository itemOptionRepository;
@@ -44,7 +48,16 @@ class CartServiceTest {
     private CartMapper cartMapper;
 
     @Mock
-    private CourierRepository courierRepository;
+    private CourierLoadIndex courierLoadIndex;
+
+    @Mock
+    private MenuAvailabilityIndex menuAvailabilityIndex;
+
+    @Mock
+    private OpenHoursIndex openHoursIndex;
+
+    @Spy
+    private PricingEngine pricingEngine = new PricingEngine(List.of());
 
     @InjectMocks
     private CartService cartService;
@@ -56,202 +69,208 @@ class CartServiceTest {
     private final Long RESTAURANT_ID = 5L;
     private final Long NON_EXISTENT_USER_ID = 999L;
     private final Long NON_EXISTENT_ITEM_ID = 999L;
+    private final BigDecimal PRICE = new BigDecimal("450.00");
+    private final long PRICE_MINOR = 45000L;
 
     private CartItemRequest cartItemRequest;
     private CartItemResponse cartItemResponse;
     private CartResponse cartResponse;
-    private Cart cart;
-    private User user;
-    private Restaurant restaurant;
-    private ItemOption itemOption;
-    private Item item;
+    private CartState cart;
 
     @BeforeEach
     void setUp() {
         cartItemRequest = new CartItemRequest(ITEM_ID, ITEM_OPTION_ID, 3);
         cartItemResponse = new CartItemResponse(5L, ITEM_ID, ITEM_OPTION_ID, 3);
-        cartResponse = new CartResponse(CART_ID, USER_ID, RESTAURANT_ID, List.of(cartItemResponse), 45);
-
-        user = new User();
-        user.setId(USER_ID);
-
-        restaurant = new Restaurant();
-        restaurant.setId(RESTAURANT_ID);
-        restaurant.setActive(true);
-        restaurant.setOpeningTime(LocalTime.of(10, 0));
-        restaurant.setClosingTime(LocalTime.of(22, 0));
-
-        item = new Item();
-        item.setId(ITEM_ID);
-        item.setAvailable(true);
-        item.setRestaurant(restaurant);
-
-        itemOption = new ItemOption();
-        itemOption.setId(ITEM_OPTION_ID);
-        itemOption.setItem(item);
-        itemOption.setPreparationMinutes(20);
-
-        cart = new Cart();
-        cart.setId(CART_ID);
-        cart.setUser(user);
-        cart.setRestaurant(restaurant);
-        cart.setItems(new ArrayList<>());
+        cartResponse = new CartResponse(CART_ID, USER_ID, RESTAURANT_ID, List.of(cartItemResponse), 45, null);
+
+        cart = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of());
     }
 
     @Test
     void addItem_Success() {
-        restaurant.setActive(true);
-        restaurant.setOpeningTime(LocalTime.MIN);
-        restaurant.setClosingTime(LocalTime.MAX);
-
-        when(cartRepository.findByUserId(USER_ID)).thenReturn(Optional.of(cart));
-        when(itemOptionRepository.findById(ITEM_OPTION_ID)).thenReturn(Optional.of(itemOption));
-        when(cartRepository.save(cart)).thenReturn(cart);
-        when(cartMapper.toDto(cart)).thenReturn(cartResponse);
+        when(itemOptionRepository.findCartViewById(ITEM_OPTION_ID)).thenReturn(Optional.of(optionView()));
+        when(menuAvailabilityIndex.isAvailable(ITEM_ID)).thenReturn(true);
+        when(openHoursIndex.isOpen(RESTAURANT_ID)).thenReturn(true);
+        mockUpdate(cart);
+        when(cartStore.nextLineId()).thenReturn(5L);
+        when(cartMapper.toDto(any(CartState.class))).thenReturn(cartResponse);
 
         CartResponse result = cartService.addItem(USER_ID, cartItemRequest);
 
         assertThat(result).isNotNull();
         assertThat(result.items()).hasSize(1);
-        assertThat(result.items().get(0).quantity()).isEqualTo(3);
+        assertThat(result.eta()).isNotNull();
+
+        CartState updated = capturedUpdate();
+        assertThat(updated.restaurantId()).isEqualTo(RESTAURANT_ID);
+        assertThat(updated.items()).containsExactly(new CartLine(5L, ITEM_ID, ITEM_OPTION_ID, 3, PRICE_MINOR, 20));
+    }
+
+    @Test
+    void addItem_WhenOptionAlreadyInCart_IncreasesQuantity() {
+        cart = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(5L, ITEM_ID, ITEM_OPTION_ID, 2, PRICE_MINOR, 20)));
+
+        when(itemOptionRepository.findCartViewById(ITEM_OPTION_ID)).thenReturn(Optional.of(optionView()));
+        when(menuAvailabilityIndex.isAvailable(ITEM_ID)).thenReturn(true);
+        when(openHoursIndex.isOpen(RESTAURANT_ID)).thenReturn(true);
+        mockUpdate(cart);
+        when(cartMapper.toDto(any(CartState.class))).thenReturn(cartResponse);
+
+        cartService.addItem(USER_ID, cartItemRequest);
+
+        assertThat(capturedUpdate().items()).containsExactly(new CartLine(5L, ITEM_ID, ITEM_OPTION_ID, 5, PRICE_MINOR, 20));
+        verify(cartStore, never()).nextLineId();
+    }
+
+    @Test
+    void addItemWhenQuantityExceedsLimit() {
+        cart = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(5L, ITEM_ID, ITEM_OPTION_ID, 49, PRICE_MINOR, 20)));
 
-        verify(cartRepository).save(cart);
+        when(itemOptionRepository.findCartViewById(ITEM_OPTION_ID)).thenReturn(Optional.of(optionView()));
+        when(menuAvailabilityIndex.isAvailable(ITEM_ID)).thenReturn(true);
+        when(openHoursIndex.isOpen(RESTAURANT_ID)).thenReturn(true);
+        mockUpdate(cart);
+
+        assertThatThrownBy(() -> cartService.addItem(USER_ID, cartItemRequest))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Quantity must not exceed 50");
     }
 
     @Test
     void addItemWhenItemOptionNotFound() {
-        when(cartRepository.findByUserId(USER_ID)).thenReturn(Optional.of(cart));
-        when(itemOptionRepository.findById(ITEM_OPTION_ID)).thenReturn(Optional.empty());
+        when(itemOptionRepository.findCartViewById(ITEM_OPTION_ID)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cartService.addItem(USER_ID, cartItemRequest))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Item option with id 10 not found");
 
-        verify(cartRepository, never()).save(any());
+        verify(cartStore, never()).update(any(), any());
     }
 
     @Test
     void addItemWhenItemNotAvailable() {
-        item.setAvailable(false);
-
-        when(cartRepository.findByUserId(USER_ID)).thenReturn(Optional.of(cart));
-        when(itemOptionRepository.findById(ITEM_OPTION_ID)).thenReturn(Optional.of(itemOption));
+        when(itemOptionRepository.findCartViewById(ITEM_OPTION_ID)).thenReturn(Optional.of(optionView()));
+        when(menuAvailabilityIndex.isAvailable(ITEM_ID)).thenReturn(false);
 
         assertThatThrownBy(() -> cartService.addItem(USER_ID, cartItemRequest))
                 .isInstanceOf(BusinessException.class)
                 .hasMessage("Item is not available now");
 
-        verify(cartRepository, never()).save(any());
+        verify(cartStore, never()).update(any(), any());
     }
 
     @Test
     void addItemWhenRestaurantClosed() {
-        restaurant.setActive(false);
-
-        when(cartRepository.findByUserId(USER_ID)).thenReturn(Optional.of(cart));
-        when(itemOptionRepository.findById(ITEM_OPTION_ID)).thenReturn(Optional.of(itemOption));
+        when(itemOptionRepository.findCartViewById(ITEM_OPTION_ID)).thenReturn(Optional.of(optionView()));
+        when(menuAvailabilityIndex.isAvailable(ITEM_ID)).thenReturn(true);
+        when(openHoursIndex.isOpen(RESTAURANT_ID)).thenReturn(false);
 
         assertThatThrownBy(() -> cartService.addItem(USER_ID, cartItemRequest))
                 .isInstanceOf(BusinessException.class)
                 .hasMessage("Restaurant is closed");
 
-        verify(cartRepository, never()).save(any());
+        verify(cartStore, never()).update(any(), any());
     }
 
     @Test
     void addItemWhenDifferentRestaurant() {
-        Restaurant differentRestaurant = new Restaurant();
-        differentRestaurant.setId(2L);
-        differentRestaurant.setActive(true);
-        differentRestaurant.setOpeningTime(LocalTime.MIN);
-        differentRestaurant.setClosingTime(LocalTime.MAX);
-        cart.setRestaurant(differentRestaurant);
-
-        restaurant.setActive(true);
-        restaurant.setOpeningTime(LocalTime.MIN);
-        restaurant.setClosingTime(LocalTime.MAX);
+        cart = new CartState(CART_ID, USER_ID, 2L, List.of(new CartLine(7L, 3L, 30L, 1, PRICE_MINOR, 10)));
 
-        when(cartRepository.findByUserId(USER_ID)).thenReturn(Optional.of(cart));
-        when(itemOptionRepository.findById(ITEM_OPTION_ID)).thenReturn(Optional.of(itemOption));
+        when(itemOptionRepository.findCartViewById(ITEM_OPTION_ID)).thenReturn(Optional.of(optionView()));
+        when(menuAvailabilityIndex.isAvailable(ITEM_ID)).thenReturn(true);
+        when(openHoursIndex.isOpen(RESTAURANT_ID)).thenReturn(true);
+        mockUpdate(cart);
 
         assertThatThrownBy(() -> cartService.addItem(USER_ID, cartItemRequest))
                 .isInstanceOf(BusinessException.class)
                 .hasMessage("Must not add item from another restaurant");
-
-        verify(cartRepository, never()).save(any());
     }
 
     @Test
     void deleteItem_Success() {
-        CartItem cartItem = new CartItem();
-        cartItem.setId(ITEM_ID);
-        cartItem.setCart(cart);
-        cart.getItems().add(cartItem);
-
-        when(cartItemRepository.findById(ITEM_ID)).thenReturn(Optional.of(cartItem));
+        cart = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(5L, ITEM_ID, ITEM_OPTION_ID, 2, PRICE_MINOR, 20)));
+        mockUpdate(cart);
 
-        cartService.deleteItem(USER_ID, ITEM_ID);
+        cartService.deleteItem(USER_ID, 5L);
 
-        verify(cartItemRepository).delete(cartItem);
-        verify(cartRepository, never()).save(any());
+        CartState updated = capturedUpdate();
+        assertThat(updated.items()).isEmpty();
+        assertThat(updated.restaurantId()).isNull();
     }
 
     @Test
     void deleteItemWhenItemNotFound() {
-        when(cartItemRepository.findById(NON_EXISTENT_ITEM_ID)).thenReturn(Optional.empty());
+        mockUpdate(cart);
 
         assertThatThrownBy(() -> cartService.deleteItem(USER_ID, NON_EXISTENT_ITEM_ID))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Cart item with id 999 not found");
-
-        verify(cartItemRepository, never()).delete(any());
     }
 
     @Test
     void updateQuantity_Success() {
-        CartItem cartItem = new CartItem();
-        cartItem.setId(ITEM_ID);
-        cartItem.setQuantity(2);
+        cart = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(5L, ITEM_ID, ITEM_OPTION_ID, 2, PRICE_MINOR, 20)));
+        mockUpdateLine(cart);
+        when(cartMapper.toDto(any(CartState.class))).thenReturn(cartResponse);
 
-        when(cartItemRepository.findById(ITEM_ID)).thenReturn(Optional.of(cartItem));
-        when(cartItemRepository.save(cartItem)).thenReturn(cartItem);
-        when(cartRepository.findByUserId(USER_ID)).thenReturn(Optional.of(cart));
-        when(cartMapper.toDto(cart)).thenReturn(cartResponse);
-
-        CartResponse result = cartService.updateQuantity(USER_ID, ITEM_ID, 5);
+        CartResponse result = cartService.updateQuantity(USER_ID, 5L, 5);
 
         assertThat(result).isNotNull();
-        assertThat(cartItem.getQuantity()).isEqualTo(5);
+        verify(cartStore, never()).update(any(), any());
+    }
 
-        verify(cartItemRepository).save(cartItem);
+    @Test
+    void updateQuantityDelta_ReturnsChangedLineSubtotalAndEta() {
+        CartLine other = new CartLine(6L, 2L, 11L, 1, 10000L, 35);
+        cart = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(5L, ITEM_ID, ITEM_OPTION_ID, 2, PRICE_MINOR, 20), other));
+        mockUpdateLine(cart);
+        when(cartMapper.toDto(new CartLine(5L, ITEM_ID, ITEM_OPTION_ID, 3, PRICE_MINOR, 20))).thenReturn(cartItemResponse);
+        when(courierLoadIndex.getLoad()).thenReturn(0.9);
+
+        CartItemDeltaResponse result = cartService.updateQuantityDelta(USER_ID, 5L, 3);
+
+        assertThat(result.item()).isEqualTo(cartItemResponse);
+        assertThat(result.subtotal()).isEqualByComparingTo("1450.00");
+        assertThat(result.eta()).isGreaterThanOrEqualTo(35 + 30 + 15);
+        verify(cartMapper, never()).toDto(any(CartState.class));
     }
 
     @Test
     void updateQuantityWhenItemNotFound() {
-        when(cartItemRepository.findById(NON_EXISTENT_ITEM_ID)).thenReturn(Optional.empty());
+        when(cartStore.updateLine(eq(USER_ID), eq(NON_EXISTENT_ITEM_ID), any())).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cartService.updateQuantity(USER_ID, NON_EXISTENT_ITEM_ID, 5))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Cart item with id 999 not found");
+    }
+
+    @Test
+    void updateQuantityWhenQuantityExceedsLimit() {
+        assertThatThrownBy(() -> cartService.updateQuantity(USER_ID, 5L, 51))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Quantity must not exceed 50");
 
-        verify(cartItemRepository, never()).save(any());
+        verify(cartStore, never()).updateLine(any(), any(), any());
     }
 
     @Test
     void getCart_Success() {
-        when(cartRepository.findByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        cart = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(5L, ITEM_ID, ITEM_OPTION_ID, 2, PRICE_MINOR, 20)));
+        when(cartStore.find(USER_ID)).thenReturn(Optional.of(cart));
         when(cartMapper.toDto(cart)).thenReturn(cartResponse);
 
         CartResponse result = cartService.getCart(USER_ID);
 
         assertThat(result).isNotNull();
+        assertThat(result.price().subtotal()).isEqualByComparingTo("900.00");
+        assertThat(result.price().total()).isEqualByComparingTo("900.00");
 
-        verify(cartRepository).findByUserId(USER_ID);
+        verify(cartStore).find(USER_ID);
     }
 
     @Test
     void getCartWhenCartNotFound() {
-        when(cartRepository.findByUserId(NON_EXISTENT_USER_ID)).thenReturn(Optional.empty());
+        when(cartStore.find(NON_EXISTENT_USER_ID)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cartService.getCart(NON_EXISTENT_USER_ID))
                 .isInstanceOf(EntityNotFoundException.class)
@@ -260,29 +279,76 @@ class CartServiceTest {
 
     @Test
     void clearCart_Success() {
-        CartItem cartItem = new CartItem();
-        cartItem.setId(ITEM_ID);
-        cart.getItems().add(cartItem);
-
-        when(cartRepository.findByUserId(USER_ID)).thenReturn(Optional.of(cart));
+        cart = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(5L, ITEM_ID, ITEM_OPTION_ID, 2, PRICE_MINOR, 20)));
+        when(cartStore.find(USER_ID)).thenReturn(Optional.of(cart));
+        mockUpdate(cart);
 
         cartService.clearCart(USER_ID);
 
-        assertThat(cart.getItems()).isEmpty();
-        assertThat(cart.getRestaurant()).isNull();
-
-        verify(cartRepository).save(cart);
-        assertThat(cart.getItems()).hasSize(0);
+        CartState updated = capturedUpdate();
+        assertThat(updated.items()).isEmpty();
+        assertThat(updated.restaurantId()).isNull();
     }
 
     @Test
     void clearCartWhenCartNotFound() {
-        when(cartRepository.findByUserId(NON_EXISTENT_USER_ID)).thenReturn(Optional.empty());
+        when(cartStore.find(NON_EXISTENT_USER_ID)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> cartService.clearCart(NON_EXISTENT_USER_ID))
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Cart for user with id 999 not found");
 
-        verify(cartRepository, never()).save(any());
+        verify(cartStore, never()).update(any(), any());
+    }
+
+    private void mockUpdate(CartState current) {
+        when(cartStore.update(eq(USER_ID), any())).thenAnswer(invocation -> {
+            UnaryOperator<CartState> change = invocation.getArgument(1);
+            return change.apply(current);
+        });
+    }
+
+    private void mockUpdateLine(CartState current) {
+        when(cartStore.updateLine(eq(USER_ID), eq(5L), any())).thenAnswer(invocation -> {
+            UnaryOperator<CartLine> change = invocation.getArgument(2);
+            CartLine line = current.findLine(5L).orElseThrow();
+            return Optional.of(current.withLine(current.restaurantId(), change.apply(line)));
+        });
+    }
+
+    private ItemOptionCartView optionView() {
+        return new ItemOptionCartView() {
+            @Override
+            public Long getId() {
+                return ITEM_OPTION_ID;
+            }
+
+            @Override
+            public Long getItemId() {
+                return ITEM_ID;
+            }
+
+            @Override
+            public Long getRestaurantId() {
+                return RESTAURANT_ID;
+            }
+
+            @Override
+            public BigDecimal getPrice() {
+                return PRICE;
+            }
+
+            @Override
+            public Integer getPreparationMinutes() {
+                return 20;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private CartState capturedUpdate() {
+        ArgumentCaptor<UnaryOperator<CartState>> captor = ArgumentCaptor.forClass(UnaryOperator.class);
+        verify(cartStore).update(eq(USER_ID), captor.capture());
+        return captor.getValue().apply(cart);
     }
-}
\ No newline at end of file
+}
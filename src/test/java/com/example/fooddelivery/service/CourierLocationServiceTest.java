@@ -0,0 +1,151 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.cache.CourierLocationStore;
+import com.example.fooddelivery.cache.CourierTrack;
+import com.example.fooddelivery.cache.LocationPoint;
+import com.example.fooddelivery.config.CourierLocationProperties;
+import com.example.fooddelivery.dto.mapper.CourierMapper;
+import com.example.fooddelivery.dto.request.LocationBatchRequest;
+import com.example.fooddelivery.dto.request.LocationPingRequest;
+import com.example.fooddelivery.dto.response.CourierLocationResponse;
+import com.example.fooddelivery.dto.response.LocationResponse;
+import com.example.fooddelivery.entity.Courier;
+import com.example.fooddelivery.entity.CourierLocation;
+import com.example.fooddelivery.entity.Order;
+import com.example.fooddelivery.exception.BusinessException;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.repository.CourierLocationRepository;
+import com.example.fooddelivery.repository.CourierRepository;
+import com.example.fooddelivery.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CourierLocationServiceTest {
+    private static final Long COURIER_ID = 3L;
+    private static final Long ORDER_ID = 1L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+    @Mock
+    private CourierLocationStore courierLocationStore;
+
+    @Mock
+    private CourierLocationRepository courierLocationRepository;
+
+    @Mock
+    private CourierRepository courierRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private CourierMapper courierMapper;
+
+    private CourierLocationService courierLocationService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+        courierLocationService = new CourierLocationService(courierLocationStore, courierLocationRepository,
+                courierRepository, orderRepository, courierMapper,
+                new CourierLocationProperties(256, Duration.ofMinutes(15), Duration.ofSeconds(15)), clock);
+    }
+
+    @Test
+    void addLocations_SkipsPingsFromTheFuture() {
+        LocationBatchRequest request = new LocationBatchRequest(List.of(
+                new LocationPingRequest(55.75, 37.61, NOW.minusSeconds(5)),
+                new LocationPingRequest(55.76, 37.62, NOW.plusHours(1))));
+
+        courierLocationService.addLocations(COURIER_ID, request);
+
+        verify(courierLocationStore).append(COURIER_ID, List.of(new LocationPoint(55.75, 37.61, NOW.minusSeconds(5))));
+    }
+
+    @Test
+    void getLocation_ReadsTrackFromMemory() {
+        CourierTrack track = new CourierTrack(8);
+        LocationPoint old = new LocationPoint(55.70, 37.60, NOW.minusMinutes(30));
+        LocationPoint recent = new LocationPoint(55.75, 37.61, NOW.minusSeconds(5));
+        track.add(old);
+        track.add(recent);
+        LocationResponse response = new LocationResponse(55.75, 37.61, NOW.minusSeconds(5));
+        when(courierLocationStore.find(COURIER_ID)).thenReturn(Optional.of(track));
+        when(courierMapper.toDto(recent)).thenReturn(response);
+
+        CourierLocationResponse result = courierLocationService.getLocation(COURIER_ID);
+
+        assertThat(result.current()).isEqualTo(response);
+        assertThat(result.track()).containsExactly(response);
+        verifyNoInteractions(courierLocationRepository);
+    }
+
+    @Test
+    void getLocation_WhenNotInMemory_ReadsStoredTrack() {
+        CourierLocation stored = new CourierLocation(COURIER_ID, 55.75, 37.61, NOW.minusMinutes(1));
+        LocationResponse response = new LocationResponse(55.75, 37.61, NOW.minusMinutes(1));
+        when(courierLocationStore.find(COURIER_ID)).thenReturn(Optional.empty());
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+        when(courierLocationRepository.findByCourierIdAndRecordedAtAfterOrderByRecordedAt(COURIER_ID, NOW.minusMinutes(15)))
+                .thenReturn(List.of(stored));
+        when(courierMapper.toDto(stored)).thenReturn(response);
+
+        CourierLocationResponse result = courierLocationService.getLocation(COURIER_ID);
+
+        assertThat(result).isEqualTo(new CourierLocationResponse(COURIER_ID, response, List.of(response)));
+    }
+
+    @Test
+    void getLocationWhenCourierNotFound() {
+        when(courierLocationStore.find(999L)).thenReturn(Optional.empty());
+        when(courierRepository.existsById(999L)).thenReturn(false);
+
+        assertThatThrownBy(() -> courierLocationService.getLocation(999L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Courier with id 999 not found");
+    }
+
+    @Test
+    void getOrderCourierLocationWhenCourierNotAssigned() {
+        Order order = new Order();
+        order.setId(ORDER_ID);
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+
+        assertThatThrownBy(() -> courierLocationService.getOrderCourierLocation(ORDER_ID))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Order is not assigned to any courier");
+    }
+
+    @Test
+    void getOrderCourierLocation_ReturnsCourierTrack() {
+        Courier courier = new Courier();
+        courier.setId(COURIER_ID);
+        Order order = new Order();
+        order.setId(ORDER_ID);
+        order.setCourier(courier);
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+        when(courierLocationStore.find(COURIER_ID)).thenReturn(Optional.empty());
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+        when(courierLocationRepository.findByCourierIdAndRecordedAtAfterOrderByRecordedAt(COURIER_ID, NOW.minusMinutes(15)))
+                .thenReturn(List.of());
+
+        CourierLocationResponse result = courierLocationService.getOrderCourierLocation(ORDER_ID);
+
+        assertThat(result).isEqualTo(new CourierLocationResponse(COURIER_ID, null, List.of()));
+    }
+}
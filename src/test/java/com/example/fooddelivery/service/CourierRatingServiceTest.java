@@ -0,0 +1,139 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.dto.request.CourierRatingRequest;
+import com.example.fooddelivery.dto.response.CourierRatingResponse;
+import com.example.fooddelivery.entity.Courier;
+import com.example.fooddelivery.entity.CourierRating;
+import com.example.fooddelivery.entity.Order;
+import com.example.fooddelivery.entity.User;
+import com.example.fooddelivery.enums.OrderStatus;
+import com.example.fooddelivery.event.CourierRatedEvent;
+import com.example.fooddelivery.exception.BusinessException;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.repository.CourierRatingRepository;
+import com.example.fooddelivery.repository.CourierRepository;
+import com.example.fooddelivery.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CourierRatingServiceTest {
+    private static final Long ORDER_ID = 1L;
+    private static final Long USER_ID = 2L;
+    private static final Long COURIER_ID = 3L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+    @Mock
+    private CourierRatingRepository courierRatingRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private CourierRepository courierRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CourierRatingService courierRatingService;
+    private Courier courier;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        courierRatingService = new CourierRatingService(courierRatingRepository, orderRepository, courierRepository,
+                eventPublisher, Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC));
+
+        courier = new Courier();
+        courier.setId(COURIER_ID);
+        courier.setRatingSum(14L);
+        courier.setRatingCount(3);
+
+        User user = new User();
+        user.setId(USER_ID);
+
+        order = new Order();
+        order.setId(ORDER_ID);
+        order.setUser(user);
+        order.setCourier(courier);
+        order.setStatus(OrderStatus.DELIVERED);
+    }
+
+    @Test
+    void rateCourier_UpdatesAggregateAndPublishesEvent() {
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+        when(courierRatingRepository.existsByOrderId(ORDER_ID)).thenReturn(false);
+        when(courierRepository.findLockedById(COURIER_ID)).thenReturn(Optional.of(courier));
+        when(courierRatingRepository.save(any(CourierRating.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        CourierRatingResponse result = courierRatingService.rateCourier(ORDER_ID, USER_ID, new CourierRatingRequest(5));
+
+        assertThat(result).isEqualTo(new CourierRatingResponse(ORDER_ID, COURIER_ID, 5, new BigDecimal("4.75")));
+        assertThat(courier.getRatingSum()).isEqualTo(19L);
+        assertThat(courier.getRatingCount()).isEqualTo(4);
+        verify(eventPublisher).publishEvent(new CourierRatedEvent(null, COURIER_ID, 5, NOW));
+    }
+
+    @Test
+    void rateCourierWhenOrderNotDelivered() {
+        order.setStatus(OrderStatus.TAKED);
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+
+        assertThatThrownBy(() -> courierRatingService.rateCourier(ORDER_ID, USER_ID, new CourierRatingRequest(5)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Courier can be rated only for delivered orders");
+        verify(courierRatingRepository, never()).save(any());
+    }
+
+    @Test
+    void rateCourierWhenOrderBelongsToOtherUser() {
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+
+        assertThatThrownBy(() -> courierRatingService.rateCourier(ORDER_ID, 999L, new CourierRatingRequest(5)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("This order belongs to other user");
+    }
+
+    @Test
+    void rateCourierWhenAlreadyRated() {
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+        when(courierRepository.findLockedById(COURIER_ID)).thenReturn(Optional.of(courier));
+        when(courierRatingRepository.existsByOrderId(ORDER_ID)).thenReturn(true);
+
+        assertThatThrownBy(() -> courierRatingService.rateCourier(ORDER_ID, USER_ID, new CourierRatingRequest(5)))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Courier for this order is already rated");
+        InOrder inOrder = inOrder(courierRepository, courierRatingRepository);
+        inOrder.verify(courierRepository).findLockedById(COURIER_ID);
+        inOrder.verify(courierRatingRepository).existsByOrderId(ORDER_ID);
+        verify(courierRatingRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+        assertThat(courier.getRatingCount()).isEqualTo(3);
+    }
+
+    @Test
+    void rateCourierWhenOrderNotFound() {
+        when(orderRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> courierRatingService.rateCourier(999L, USER_ID, new CourierRatingRequest(5)))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Order with id 999 not found");
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.fooddelivery.service;
 
+import com.example.fooddelivery.cache.CourierActiveOrdersCache;
+import com.example.fooddelivery.cache.CourierRatingIndex;
 import com.example.fooddelivery.dto.mapper.CourierMapper;
 import com.example.fooddelivery.dto.mapper.OrderMapper;
 import com.example.fooddelivery.dto.request.CourierRequest;
@@ -7,6 +9,7 @@ import com.example.fooddelivery.dto.response.CourierResponse;
 import com.example.fooddelivery.dto.response.OrderResponse;
 import com.example.fooddelivery.entity.Courier;
 import com.example.fooddelivery.entity.Order;
+import com.example.fooddelivery.entity.User;
 import com.example.fooddelivery.enums.CourierStatus;
 import com.example.fooddelivery.enums.OrderStatus;
 import com.example.fooddelivery.exception.BusinessException;
@@ -18,11 +21,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalDouble;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -41,6 +47,15 @@ class CourierServiceTest {
     @Mock
     private OrderMapper orderMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CourierRatingIndex courierRatingIndex;
+
+    @Spy
+    private CourierActiveOrdersCache courierActiveOrdersCache = new CourierActiveOrdersCache();
+
     @InjectMocks
     private CourierService courierService;
 
@@ -69,6 +84,9 @@ class CourierServiceTest {
 
         order = new Order();
         order.setId(ORDER_ID);
+        User user = new User();
+        user.setId(1L);
+        order.setUser(user);
         order.setStatus(OrderStatus.READY);
     }
 
@@ -195,9 +213,8 @@ class CourierServiceTest {
 
     @Test
     void assignOrderWhenCourierRatingLow() {
-        courier.setRating(new BigDecimal("2.5"));
-
         when(courierRepository.findById(COURIER_ID)).thenReturn(Optional.of(courier));
+        when(courierRatingIndex.getRecentScore(COURIER_ID)).thenReturn(OptionalDouble.of(2.5));
         when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
 
         assertThatThrownBy(() -> courierService.assignOrder(COURIER_ID, ORDER_ID))
@@ -214,28 +231,32 @@ class CourierServiceTest {
         activeOrder.setStatus(OrderStatus.TAKED);
         activeOrder.setCourier(courier);
 
-        Order deliveredOrder = new Order();
-        deliveredOrder.setId(2L);
-        deliveredOrder.setStatus(OrderStatus.DELIVERED);
-        deliveredOrder.setCourier(courier);
-
-        courier.setOrders(List.of(activeOrder, deliveredOrder));
-
-        OrderResponse orderResponse = new OrderResponse(ORDER_ID, 1L, 1L, OrderStatus.TAKED, new BigDecimal("500.00"));
+        OrderResponse orderResponse = new OrderResponse(ORDER_ID, 1L, 1L, OrderStatus.TAKED, new BigDecimal("500.00"), 5L, List.of());
 
-        when(courierRepository.findById(COURIER_ID)).thenReturn(Optional.of(courier));
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+        when(orderRepository.findByCourierIdAndStatus(COURIER_ID, OrderStatus.TAKED)).thenReturn(List.of(activeOrder));
         when(orderMapper.toDto(activeOrder)).thenReturn(orderResponse);
 
         List<OrderResponse> result = courierService.getActiveOrders(COURIER_ID);
 
-        assertThat(result).hasSize(1);
+        assertThat(result).containsExactly(orderResponse);
+        verify(courierRepository, never()).findById(COURIER_ID);
+    }
 
-        verify(courierRepository).findById(COURIER_ID);
+    @Test
+    void getActiveOrders_ServesRepeatedReadsFromCache() {
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+        when(orderRepository.findByCourierIdAndStatus(COURIER_ID, OrderStatus.TAKED)).thenReturn(List.of());
+
+        courierService.getActiveOrders(COURIER_ID);
+        courierService.getActiveOrders(COURIER_ID);
+
+        verify(orderRepository, times(1)).findByCourierIdAndStatus(COURIER_ID, OrderStatus.TAKED);
     }
 
     @Test
     void getActiveOrdersWhenCourierNotFound() {
-        when(courierRepository.findById(NON_EXISTENT_COURIER_ID)).thenReturn(Optional.empty());
+        when(courierRepository.existsById(NON_EXISTENT_COURIER_ID)).thenReturn(false);
 
         assertThatThrownBy(() -> courierService.getActiveOrders(NON_EXISTENT_COURIER_ID))
                 .isInstanceOf(EntityNotFoundException.class)
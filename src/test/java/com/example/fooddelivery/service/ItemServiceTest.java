@@ -1,27 +1,45 @@
 package com.example.fooddelivery.service;
 
 import com.example.fooddelivery.dto.mapper.ItemMapper;
+import com.example.fooddelivery.dto.request.ItemAvailabilityRequest;
 import com.example.fooddelivery.dto.request.ItemOptionRequest;
 import com.example.fooddelivery.dto.request.ItemRequest;
+import com.example.fooddelivery.dto.response.ItemAvailabilityResponse;
 import com.example.fooddelivery.dto.response.ItemOptionResponse;
 import com.example.fooddelivery.dto.response.ItemResponse;
+import com.example.fooddelivery.dto.response.MenuImportError;
+import com.example.fooddelivery.dto.response.MenuImportResponse;
 import com.example.fooddelivery.entity.Item;
 import com.example.fooddelivery.entity.ItemOption;
 import com.example.fooddelivery.entity.Restaurant;
 import com.example.fooddelivery.enums.ItemSize;
+import com.example.fooddelivery.event.MenuChangedEvent;
+import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.exception.ImportException;
+import com.example.fooddelivery.exception.InvalidImportRowException;
+import com.example.fooddelivery.repository.CartItemRepository;
 import com.example.fooddelivery.repository.ItemRepository;
 import com.example.fooddelivery.repository.RestaurantRepository;
+import com.example.fooddelivery.repository.projection.ItemAvailabilityView;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -37,6 +55,24 @@ class ItemServiceTest {
     @Mock
     private ItemMapper itemMapper;
 
+    @Mock
+    private MenuImportReader menuImportReader;
+
+    @Mock
+    private Validator validator;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private ItemService itemService;
 
@@ -176,6 +212,67 @@ class ItemServiceTest {
         verify(itemRepository).save(item);
     }
 
+    @Test
+    void updateItem_UpdatesChangedOptionInPlace() {
+        ItemOption largeOption = new ItemOption(ItemSize.LARGE, new BigDecimal("900.00"), 20, item);
+        largeOption.setId(11L);
+        ItemOption smallOption = new ItemOption(ItemSize.SMALL, new BigDecimal("500.00"), 15, item);
+        smallOption.setId(12L);
+        item.setOptions(new ArrayList<>(List.of(largeOption, smallOption)));
+        ItemRequest updateRequest = new ItemRequest("Pepperoni", true,
+                List.of(itemOptionRequest, new ItemOptionRequest(ItemSize.SMALL, new BigDecimal("500.00"), 15)));
+
+        when(itemRepository.findById(ITEM_ID)).thenReturn(Optional.of(item));
+        when(cartItemRepository.findCartIdsByItemOptionIds(Set.of(11L))).thenReturn(Set.of(7L));
+        when(itemRepository.save(item)).thenReturn(item);
+        when(itemMapper.toDto(item)).thenReturn(itemResponse);
+
+        itemService.updateItem(ITEM_ID, updateRequest);
+
+        assertThat(item.getOptions()).containsExactly(largeOption, smallOption);
+        assertThat(largeOption.getPrice()).isEqualByComparingTo("1000.00");
+
+        ArgumentCaptor<MenuChangedEvent> event = ArgumentCaptor.forClass(MenuChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().optionIds()).containsExactly(11L);
+        assertThat(event.getValue().cartIds()).containsExactly(7L);
+        verify(cartItemRepository, never()).deleteByItemOptionIds(any());
+        verify(itemMapper, never()).toOptionEntities(any());
+    }
+
+    @Test
+    void updateItem_RemovesMissingOptionAndItsCartLines() {
+        ItemOption largeOption = new ItemOption(ItemSize.LARGE, new BigDecimal("1000.00"), 20, item);
+        largeOption.setId(11L);
+        ItemOption smallOption = new ItemOption(ItemSize.SMALL, new BigDecimal("500.00"), 15, item);
+        smallOption.setId(12L);
+        item.setOptions(new ArrayList<>(List.of(largeOption, smallOption)));
+
+        when(itemRepository.findById(ITEM_ID)).thenReturn(Optional.of(item));
+        when(cartItemRepository.findCartIdsByItemOptionIds(Set.of(12L))).thenReturn(Set.of(7L));
+        when(itemRepository.save(item)).thenReturn(item);
+        when(itemMapper.toDto(item)).thenReturn(itemResponse);
+
+        itemService.updateItem(ITEM_ID, itemRequest);
+
+        assertThat(item.getOptions()).containsExactly(largeOption);
+
+        verify(cartItemRepository).deleteByItemOptionIds(Set.of(12L));
+    }
+
+    @Test
+    void updateItemWithDuplicateSizes() {
+        ItemRequest updateRequest = new ItemRequest("Pepperoni", true, List.of(itemOptionRequest, itemOptionRequest));
+
+        when(itemRepository.findById(ITEM_ID)).thenReturn(Optional.of(item));
+
+        assertThatThrownBy(() -> itemService.updateItem(ITEM_ID, updateRequest))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Item options must have unique sizes");
+
+        verify(itemRepository, never()).save(any());
+    }
+
     @Test
     void updateItemWhenItemNotFound() {
         when(itemRepository.findById(NON_EXISTENT_ITEM_ID)).thenReturn(Optional.empty());
@@ -194,6 +291,19 @@ class ItemServiceTest {
         itemService.deleteItem(ITEM_ID);
 
         verify(itemRepository).delete(item);
+        verify(cartItemRepository, never()).deleteByItemId(any());
+    }
+
+    @Test
+    void deleteItem_RemovesCartLines() {
+        when(itemRepository.findById(ITEM_ID)).thenReturn(Optional.of(item));
+        when(cartItemRepository.findCartIdsByItemId(ITEM_ID)).thenReturn(Set.of(7L));
+
+        itemService.deleteItem(ITEM_ID);
+
+        verify(cartItemRepository).deleteByItemId(ITEM_ID);
+        verify(itemRepository).delete(item);
+        verify(eventPublisher).publishEvent(new MenuChangedEvent(RESTAURANT_ID, Set.of(ITEM_ID), Set.of(), Set.of(7L)));
     }
 
     @Test
@@ -233,4 +343,177 @@ class ItemServiceTest {
 
         verify(itemRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void bulkUpdateAvailability_UpdatesOnlyChangedItems() {
+        ItemAvailabilityRequest request = new ItemAvailabilityRequest(Set.of(1L, 2L), false);
+
+        when(itemRepository.findAvailabilityByIds(request.getItemIds()))
+                .thenReturn(List.of(availabilityView(1L, true), availabilityView(2L, false)));
+        when(itemRepository.updateAvailability(Set.of(1L), false)).thenReturn(1);
+        when(cartItemRepository.findCartIdsByItemIds(Set.of(1L))).thenReturn(Set.of(7L));
+
+        ItemAvailabilityResponse result = itemService.updateAvailability(request);
+
+        assertThat(result.updated()).isEqualTo(1);
+
+        verify(eventPublisher).publishEvent(new MenuChangedEvent(RESTAURANT_ID, Set.of(1L), Set.of(), Set.of(7L)));
+    }
+
+    @Test
+    void bulkUpdateAvailabilityWhenNothingChanged() {
+        ItemAvailabilityRequest request = new ItemAvailabilityRequest(Set.of(1L), true);
+
+        when(itemRepository.findAvailabilityByIds(request.getItemIds())).thenReturn(List.of(availabilityView(1L, true)));
+
+        ItemAvailabilityResponse result = itemService.updateAvailability(request);
+
+        assertThat(result.updated()).isZero();
+
+        verify(itemRepository, never()).updateAvailability(any(), anyBoolean());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void bulkUpdateAvailabilityWhenItemNotFound() {
+        ItemAvailabilityRequest request = new ItemAvailabilityRequest(Set.of(1L, NON_EXISTENT_ITEM_ID), false);
+
+        when(itemRepository.findAvailabilityByIds(request.getItemIds())).thenReturn(List.of(availabilityView(1L, true)));
+
+        assertThatThrownBy(() -> itemService.updateAvailability(request))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Menu with id 999 not found");
+
+        verify(itemRepository, never()).updateAvailability(any(), anyBoolean());
+    }
+
+    @Test
+    void importItems_CreatesNewAndSkipsUnchanged() {
+        ItemOption existingOption = new ItemOption(ItemSize.LARGE, new BigDecimal("1000.00"), 20, item);
+        item.setOptions(new ArrayList<>(List.of(existingOption)));
+        ItemRequest newRequest = new ItemRequest("Margarita", true, List.of(itemOptionRequest));
+        Item newItem = new Item();
+        newItem.setName("Margarita");
+
+        when(restaurantRepository.findById(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+        when(itemRepository.findWithOptionsByRestaurantIdAndNameKeys(RESTAURANT_ID, Set.of("pepperoni", "margarita")))
+                .thenReturn(List.of(item));
+        when(itemMapper.toEntity(newRequest)).thenReturn(newItem);
+        when(itemMapper.toOptionEntities(newRequest.getOptions()))
+                .thenReturn(List.of(new ItemOption(ItemSize.LARGE, new BigDecimal("1000.00"), 20, null)));
+
+        MenuImportResponse result = itemService.importItems(RESTAURANT_ID, List.of(itemRequest, newRequest).iterator());
+
+        assertThat(result.created()).isEqualTo(1);
+        assertThat(result.unchanged()).isEqualTo(1);
+        assertThat(result.updated()).isZero();
+        assertThat(result.errors()).isEmpty();
+        assertThat(newItem.getRestaurant()).isEqualTo(restaurant);
+        assertThat(newItem.getOptions()).hasSize(1);
+
+        verify(itemRepository).saveAll(List.of(newItem));
+        verify(itemRepository).flush();
+        verify(transactionManager).commit(any());
+        verify(entityManager).clear();
+    }
+
+    @Test
+    void importItems_UpdatesChangedItem() {
+        ItemOption existingOption = new ItemOption(ItemSize.LARGE, new BigDecimal("900.00"), 20, item);
+        item.setOptions(new ArrayList<>(List.of(existingOption)));
+
+        when(restaurantRepository.findById(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+        when(itemRepository.findWithOptionsByRestaurantIdAndNameKeys(RESTAURANT_ID, Set.of("pepperoni"))).thenReturn(List.of(item));
+
+        MenuImportResponse result = itemService.importItems(RESTAURANT_ID, List.of(itemRequest).iterator());
+
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(item.getOptions()).containsExactly(existingOption);
+        assertThat(item.getOptions().get(0).getPrice()).isEqualByComparingTo("1000.00");
+
+        verify(itemRepository).saveAll(List.of(item));
+    }
+
+    @Test
+    void importItems_ReportsRowErrors() {
+        ItemRequest duplicateSizes = new ItemRequest("Calzone", true, List.of(itemOptionRequest, itemOptionRequest));
+        ItemRequest repeated = new ItemRequest("pepperoni ", true, List.of(itemOptionRequest));
+        item.setOptions(new ArrayList<>(List.of(new ItemOption(ItemSize.LARGE, new BigDecimal("1000.00"), 20, item))));
+
+        when(restaurantRepository.findById(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+        when(itemRepository.findWithOptionsByRestaurantIdAndNameKeys(RESTAURANT_ID, Set.of("pepperoni"))).thenReturn(List.of(item));
+
+        MenuImportResponse result = itemService.importItems(RESTAURANT_ID,
+                List.of(itemRequest, duplicateSizes, repeated).iterator());
+
+        assertThat(result.unchanged()).isEqualTo(1);
+        assertThat(result.errors()).hasSize(2);
+        assertThat(result.errors().get(0).row()).isEqualTo(2);
+        assertThat(result.errors().get(0).message()).isEqualTo("Item options must have unique sizes");
+        assertThat(result.errors().get(1).row()).isEqualTo(3);
+        assertThat(result.errors().get(1).message()).isEqualTo("Duplicate item in import");
+
+        verify(itemRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void importItems_ReportsUnreadableRowAndContinues() {
+        item.setOptions(new ArrayList<>(List.of(new ItemOption(ItemSize.LARGE, new BigDecimal("1000.00"), 20, item))));
+        Iterator<ItemRequest> rows = mock(Iterator.class);
+        when(rows.hasNext()).thenReturn(true, true, false);
+        when(rows.next())
+                .thenThrow(new InvalidImportRowException("Calzone", "CSV line 2: unterminated quoted field"))
+                .thenReturn(itemRequest);
+        when(restaurantRepository.findById(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+        when(itemRepository.findWithOptionsByRestaurantIdAndNameKeys(RESTAURANT_ID, Set.of("pepperoni"))).thenReturn(List.of(item));
+
+        MenuImportResponse result = itemService.importItems(RESTAURANT_ID, rows);
+
+        assertThat(result.unchanged()).isEqualTo(1);
+        assertThat(result.errors()).containsExactly(new MenuImportError(1, "Calzone", "CSV line 2: unterminated quoted field"));
+    }
+
+    @Test
+    void importItemsWhenFileBreaksOff() {
+        Iterator<ItemRequest> rows = mock(Iterator.class);
+        when(rows.hasNext()).thenReturn(true).thenThrow(new ImportException("Malformed JSON menu: Unexpected end-of-input"));
+        when(rows.next()).thenReturn(itemRequest);
+        when(restaurantRepository.findById(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+
+        assertThatThrownBy(() -> itemService.importItems(RESTAURANT_ID, rows))
+                .isInstanceOf(ImportException.class)
+                .hasMessage("Malformed JSON menu: Unexpected end-of-input (imported before the error: created 0, updated 0, unchanged 0)");
+
+        verify(itemRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void importItemsWhenRestaurantNotFound() {
+        when(restaurantRepository.findById(NON_EXISTENT_RESTAURANT_ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> itemService.importItems(NON_EXISTENT_RESTAURANT_ID, List.of(itemRequest).iterator()))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Restaurant with id 999 not found");
+
+        verify(itemRepository, never()).saveAll(any());
+    }
+
+    private ItemAvailabilityView availabilityView(Long id, boolean available) {
+        return new ItemAvailabilityView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getRestaurantId() {
+                return RESTAURANT_ID;
+            }
+
+            @Override
+            public boolean isAvailable() {
+                return available;
+            }
+        };
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.dto.request.ItemRequest;
+import com.example.fooddelivery.enums.ItemSize;
+import com.example.fooddelivery.exception.ImportException;
+import com.example.fooddelivery.exception.InvalidImportRowException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MenuImportReaderTest {
+    private final MenuImportReader reader = new MenuImportReader(new ObjectMapper());
+
+    @Test
+    void readJson_StreamsArrayElements() {
+        String json = "[{\"name\":\"Pepperoni\",\"available\":true,\"options\":[{\"size\":\"LARGE\",\"price\":1000.00,\"preparationMinutes\":20}]}," +
+                "{\"name\":\"Margarita\",\"available\":false,\"options\":[]}]";
+
+        List<ItemRequest> result = toList(reader.readJson(stream(json)));
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getOptions()).hasSize(1);
+        assertThat(result.get(0).getOptions().get(0).getSize()).isEqualTo(ItemSize.LARGE);
+        assertThat(result.get(1).isAvailable()).isFalse();
+    }
+
+    @Test
+    void readJsonWhenMalformed() {
+        Iterator<ItemRequest> iterator = reader.readJson(stream("[{\"name\":\"Pepperoni\"}, {"));
+        iterator.next();
+
+        assertThatThrownBy(() -> {
+            iterator.hasNext();
+            iterator.next();
+        })
+                .isInstanceOf(ImportException.class);
+    }
+
+    @Test
+    void readJson_ReportsUnboundElementAndContinues() {
+        String json = "[{\"name\":\"Pepperoni\",\"available\":true,\"options\":[{\"size\":\"HUGE\"}]},\n" +
+                "{\"name\":\"Margarita\",\"available\":false,\"options\":[]}]";
+        Iterator<ItemRequest> iterator = reader.readJson(stream(json));
+
+        assertThatThrownBy(iterator::next)
+                .isInstanceOf(InvalidImportRowException.class)
+                .hasMessageStartingWith("JSON line 1: ")
+                .satisfies(e -> assertThat(((InvalidImportRowException) e).getName()).isEqualTo("Pepperoni"));
+        assertThat(iterator.next().getName()).isEqualTo("Margarita");
+        assertThat(iterator.hasNext()).isFalse();
+    }
+
+    @Test
+    void readCsv_GroupsOptionsByName() {
+        String csv = "name,available,size,price,preparationMinutes\n" +
+                "Pepperoni,true,SMALL,600.00,15\n" +
+                "Pepperoni,true,LARGE,1000.00,20\n" +
+                "\n" +
+                "Margarita,false,STANDARD,abc,15\n";
+
+        List<ItemRequest> result = toList(reader.readCsv(stream(csv)));
+
+        assertThat(result).hasSize(2);
+        assertThat(result.get(0).getOptions()).hasSize(2);
+        assertThat(result.get(1).isAvailable()).isFalse();
+        assertThat(result.get(1).getOptions().get(0).getPrice()).isNull();
+    }
+
+    @Test
+    void readCsv_ParsesQuotedFields() {
+        String csv = "name,available,size,price,preparationMinutes\n" +
+                "\"Пицца \"\"Четыре сыра\"\", большая\",true,LARGE,900.00,25\n" +
+                "\"Салат\nс тунцом\",true,STANDARD,450.00,10\n";
+
+        List<ItemRequest> result = toList(reader.readCsv(stream(csv)));
+
+        assertThat(result).extracting(ItemRequest::getName)
+                .containsExactly("Пицца \"Четыре сыра\", большая", "Салат\nс тунцом");
+        assertThat(result.get(0).getOptions().get(0).getPreparationMinutes()).isEqualTo(25);
+    }
+
+    @Test
+    void readCsv_ReportsMalformedRowAndContinues() {
+        String csv = "name,available,size,price,preparationMinutes\n" +
+                "Pepperoni,true,SMALL,600.00\n" +
+                "Margarita,true,STANDARD,500.00,15\n";
+        Iterator<ItemRequest> iterator = reader.readCsv(stream(csv));
+
+        assertThatThrownBy(iterator::next)
+                .isInstanceOf(InvalidImportRowException.class)
+                .hasMessage("CSV line 2: row must have 5 columns, found 4");
+        assertThat(iterator.next().getName()).isEqualTo("Margarita");
+        assertThat(iterator.hasNext()).isFalse();
+    }
+
+    @Test
+    void readCsvWhenQuoteIsNotClosed() {
+        Iterator<ItemRequest> iterator = reader.readCsv(stream("name,available,size,price,preparationMinutes\n" +
+                "\"Pepperoni,true,SMALL,600.00,15\n"));
+
+        assertThatThrownBy(iterator::next)
+                .isInstanceOf(InvalidImportRowException.class)
+                .hasMessage("CSV line 2: unterminated quoted field");
+        assertThat(iterator.hasNext()).isFalse();
+    }
+
+    @Test
+    void readCsvWithoutHeader() {
+        assertThatThrownBy(() -> reader.readCsv(stream("Pepperoni,true,SMALL,600.00,15\n")))
+                .isInstanceOf(ImportException.class)
+                .hasMessageStartingWith("CSV menu must start with header");
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<ItemRequest> toList(Iterator<ItemRequest> iterator) {
+        List<ItemRequest> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.NotificationRetentionProperties;
+import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.entity.User;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.enums.NotificationType;
+import com.example.fooddelivery.event.NotificationInboxChangedEvent;
+import com.example.fooddelivery.repository.NotificationRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationArchiverTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+    private static final LocalDateTime CUTOFF = NOW.minusDays(30);
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @TempDir
+    private Path directory;
+
+    private ObjectMapper objectMapper;
+    private NotificationArchiver archiver;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules().disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+        archiver = new NotificationArchiver(notificationRepository,
+                new NotificationRetentionProperties(Duration.ofDays(30), 2, 3, directory.toString()),
+                objectMapper, transactionManager, eventPublisher, clock);
+    }
+
+    @Test
+    void archive_WritesChunkedFilesBeforeDeletingInBatches() throws IOException {
+        when(notificationRepository.findArchivable(anySet(), eq(CUTOFF), eq(0L), eq(Limit.of(2))))
+                .thenReturn(List.of(notification(1L, 10L), notification(2L, 10L)));
+        when(notificationRepository.findArchivable(anySet(), eq(CUTOFF), eq(2L), eq(Limit.of(1))))
+                .thenReturn(List.of(notification(3L, 11L)));
+        when(notificationRepository.findArchivable(anySet(), eq(CUTOFF), eq(3L), eq(Limit.of(2))))
+                .thenReturn(List.of(notification(4L, 11L)));
+
+        var response = archiver.archive();
+
+        assertThat(response.archived()).isEqualTo(4);
+        assertThat(response.files()).isEqualTo(2);
+        assertThat(readArchive("notifications-20261019-120000-1.ndjson.gz"))
+                .extracting(ArchivedNotification::id).containsExactly(1L, 2L, 3L);
+        assertThat(readArchive("notifications-20261019-120000-4.ndjson.gz"))
+                .extracting(ArchivedNotification::userId).containsExactly(11L);
+
+        var inOrder = inOrder(notificationRepository);
+        inOrder.verify(notificationRepository).deleteByIds(List.of(1L, 2L));
+        inOrder.verify(notificationRepository).deleteByIds(List.of(3L));
+        inOrder.verify(notificationRepository).deleteByIds(List.of(4L));
+        verify(eventPublisher, times(2)).publishEvent(new NotificationInboxChangedEvent(11L));
+        assertThat(archiver.getStats().totalArchived()).isEqualTo(4);
+    }
+
+    @Test
+    void archive_WhenNothingIsOld_LeavesNoFiles() throws IOException {
+        when(notificationRepository.findArchivable(anySet(), eq(CUTOFF), eq(0L), eq(Limit.of(2)))).thenReturn(List.of());
+
+        var response = archiver.archive();
+
+        assertThat(response.archived()).isZero();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+        verify(notificationRepository, never()).deleteByIds(any());
+    }
+
+    @Test
+    void archive_WhenReadFails_DeletesNothing() throws IOException {
+        when(notificationRepository.findArchivable(anySet(), eq(CUTOFF), eq(0L), eq(Limit.of(2))))
+                .thenReturn(List.of(notification(1L, 10L), notification(2L, 10L)));
+        when(notificationRepository.findArchivable(anySet(), eq(CUTOFF), eq(2L), eq(Limit.of(1))))
+                .thenThrow(new IllegalStateException("Connection reset"));
+
+        assertThatThrownBy(() -> archiver.archive()).isInstanceOf(IllegalStateException.class);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+        verify(notificationRepository, never()).deleteByIds(any());
+    }
+
+    private List<ArchivedNotification> readArchive(String name) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(directory.resolve(name))), StandardCharsets.UTF_8))) {
+            return reader.lines().map(line -> {
+                try {
+                    return objectMapper.readValue(line, ArchivedNotification.class);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+        }
+    }
+
+    private Notification notification(Long id, Long userId) {
+        User user = new User();
+        user.setId(userId);
+        Notification notification = new Notification(user, "Заказ доставлен", NotificationType.ORDER_DELIVERED,
+                NotificationStatus.SENT, NotificationChannel.PUSH);
+        notification.setId(id);
+        notification.setSentAt(CUTOFF.minusDays(1));
+        notification.setCreatedAt(CUTOFF.minusDays(1));
+        return notification;
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.NotificationCampaignProperties;
+import com.example.fooddelivery.dto.mapper.NotificationCampaignMapper;
+import com.example.fooddelivery.dto.response.NotificationCampaignResponse;
+import com.example.fooddelivery.entity.NotificationCampaign;
+import com.example.fooddelivery.enums.CampaignStatus;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.NotificationType;
+import com.example.fooddelivery.enums.UserRole;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.exception.StatusException;
+import com.example.fooddelivery.repository.NotificationCampaignRepository;
+import com.example.fooddelivery.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationCampaignServiceTest {
+    private static final Long CAMPAIGN_ID = 1L;
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+    @Mock
+    private NotificationCampaignRepository campaignRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private NotificationCampaignMapper campaignMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationCampaignService campaignService;
+    private NotificationCampaign campaign;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+        campaignService = new NotificationCampaignService(campaignRepository, userRepository, notificationService,
+                campaignMapper, new NotificationCampaignProperties(2, 1_000_000), transactionManager, clock);
+
+        campaign = new NotificationCampaign();
+        campaign.setId(CAMPAIGN_ID);
+        campaign.setMessage("Скидка 20% на пиццу");
+        campaign.setChannel(NotificationChannel.PUSH);
+        campaign.setRole(UserRole.CUSTOMER);
+        campaign.setCity("Москва");
+        campaign.setActive(true);
+    }
+
+    @Test
+    void run_CreatesNotificationsInBatchesAndAdvancesCheckpoint() throws InterruptedException {
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign));
+        when(userRepository.findCampaignAudience(UserRole.CUSTOMER, "Москва", true, null, null, 0L, Limit.of(2)))
+                .thenReturn(List.of(1L, 2L));
+        when(userRepository.findCampaignAudience(UserRole.CUSTOMER, "Москва", true, null, null, 2L, Limit.of(2)))
+                .thenReturn(List.of(5L));
+
+        campaignService.run(CAMPAIGN_ID);
+
+        verify(notificationService).createNotifications(List.of(1L, 2L), "Скидка 20% на пиццу",
+                NotificationType.PROMOTIONAL, NotificationChannel.PUSH);
+        verify(notificationService).createNotifications(List.of(5L), "Скидка 20% на пиццу",
+                NotificationType.PROMOTIONAL, NotificationChannel.PUSH);
+        assertThat(campaign.getLastUserId()).isEqualTo(5L);
+        assertThat(campaign.getNotified()).isEqualTo(3);
+        assertThat(campaign.getStatus()).isEqualTo(CampaignStatus.COMPLETED);
+        assertThat(campaign.getFinishedAt()).isEqualTo(NOW);
+    }
+
+    @Test
+    void run_ResumesFromCheckpoint() throws InterruptedException {
+        campaign.setLastUserId(7L);
+        campaign.setNotified(4);
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign));
+        when(userRepository.findCampaignAudience(UserRole.CUSTOMER, "Москва", true, null, null, 7L, Limit.of(2)))
+                .thenReturn(List.of());
+
+        campaignService.run(CAMPAIGN_ID);
+
+        verifyNoInteractions(notificationService);
+        assertThat(campaign.getNotified()).isEqualTo(4);
+        assertThat(campaign.getStatus()).isEqualTo(CampaignStatus.COMPLETED);
+    }
+
+    @Test
+    void run_WhenCancelled_StopsBeforeNextBatch() throws InterruptedException {
+        campaign.setStatus(CampaignStatus.CANCELLED);
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign));
+
+        campaignService.run(CAMPAIGN_ID);
+
+        verifyNoInteractions(userRepository, notificationService);
+    }
+
+    @Test
+    void run_WhenCancelledDuringBatch_Stops() throws InterruptedException {
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign));
+        when(userRepository.findCampaignAudience(UserRole.CUSTOMER, "Москва", true, null, null, 0L, Limit.of(2)))
+                .thenReturn(List.of(1L, 2L));
+        doThrow(new ObjectOptimisticLockingFailureException(NotificationCampaign.class, CAMPAIGN_ID))
+                .when(transactionManager).commit(any());
+
+        campaignService.run(CAMPAIGN_ID);
+
+        verify(userRepository, times(1)).findCampaignAudience(any(), any(), any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void run_WhenBatchFails_MarksCampaignFailed() throws InterruptedException {
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign));
+        when(userRepository.findCampaignAudience(UserRole.CUSTOMER, "Москва", true, null, null, 0L, Limit.of(2)))
+                .thenReturn(List.of(1L, 2L));
+        doThrow(new DataAccessResourceFailureException("Connection refused")).doNothing()
+                .when(transactionManager).commit(any());
+
+        campaignService.run(CAMPAIGN_ID);
+
+        verify(campaignRepository).finish(CAMPAIGN_ID, CampaignStatus.RUNNING, CampaignStatus.FAILED, NOW);
+        verify(userRepository, times(1)).findCampaignAudience(any(), any(), any(), any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void cancelCampaign_WhenRunning_FinishesConditionally() {
+        NotificationCampaignResponse response = mock(NotificationCampaignResponse.class);
+        when(campaignRepository.finish(CAMPAIGN_ID, CampaignStatus.RUNNING, CampaignStatus.CANCELLED, NOW)).thenReturn(1);
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign));
+        when(campaignMapper.toDto(campaign)).thenReturn(response);
+
+        assertThat(campaignService.cancelCampaign(CAMPAIGN_ID)).isSameAs(response);
+    }
+
+    @Test
+    void cancelCampaignWhenAlreadyCompleted() {
+        campaign.setStatus(CampaignStatus.COMPLETED);
+        when(campaignRepository.finish(CAMPAIGN_ID, CampaignStatus.RUNNING, CampaignStatus.CANCELLED, NOW)).thenReturn(0);
+        when(campaignRepository.findById(CAMPAIGN_ID)).thenReturn(Optional.of(campaign));
+
+        assertThatThrownBy(() -> campaignService.cancelCampaign(CAMPAIGN_ID))
+                .isInstanceOf(StatusException.class)
+                .hasMessage("Campaign with id 1 is already COMPLETED");
+    }
+
+    @Test
+    void getCampaignWhenCampaignNotFound() {
+        when(campaignRepository.findById(999L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> campaignService.getCampaign(999L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Campaign with id 999 not found");
+    }
+}
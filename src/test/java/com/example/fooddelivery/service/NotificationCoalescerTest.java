@@ -0,0 +1,101 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.NotificationProperties;
+import com.example.fooddelivery.dto.request.NotificationRequest;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.NotificationType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationCoalescerTest {
+    private static final Long USER_ID = 2L;
+    private static final long NOW = Instant.parse("2026-10-19T12:00:00Z").toEpochMilli();
+
+    @Mock
+    private NotificationService notificationService;
+
+    private NotificationCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        if (coalescer != null) {
+            coalescer.stop();
+        }
+    }
+
+    @Test
+    void flush_SendsOnlyLatestStatusOfOrder() {
+        //окно большое, чтобы фоновый поток не сбрасывал уведомления раньше ручного вызова
+        coalescer = coalescer(Duration.ofHours(1));
+        NotificationRequest confirmed = request(NotificationType.PAYMENT_SUCCEEDED, "Заказ подтвержден");
+        NotificationRequest ready = request(NotificationType.ORDER_READY, "Заказ готов к выдаче");
+
+        coalescer.offer(1L, confirmed);
+        coalescer.offer(1L, ready);
+        coalescer.flush(NOW + Duration.ofHours(1).toMillis() - 1);
+        verifyNoInteractions(notificationService);
+
+        coalescer.flush(NOW + Duration.ofHours(1).toMillis());
+        verify(notificationService).createNotification(ready);
+        verifyNoMoreInteractions(notificationService);
+    }
+
+    @Test
+    void flush_KeepsOrdersApart() {
+        coalescer = coalescer(Duration.ofHours(1));
+        NotificationRequest first = request(NotificationType.ORDER_READY, "Заказ готов к выдаче");
+        NotificationRequest second = request(NotificationType.ORDER_DELIVERED, "Заказ доставлен");
+
+        coalescer.offer(1L, first);
+        coalescer.offer(2L, second);
+        coalescer.flush(NOW + Duration.ofHours(1).toMillis());
+
+        verify(notificationService).createNotification(first);
+        verify(notificationService).createNotification(second);
+    }
+
+    @Test
+    void offer_WithZeroWindow_SendsImmediately() {
+        coalescer = coalescer(Duration.ZERO);
+        NotificationRequest request = request(NotificationType.ORDER_READY, "Заказ готов к выдаче");
+
+        coalescer.offer(1L, request);
+
+        verify(notificationService).createNotification(request);
+    }
+
+    @Test
+    void stop_SendsPendingNotifications() {
+        coalescer = coalescer(Duration.ofHours(1));
+        NotificationRequest request = request(NotificationType.ORDER_READY, "Заказ готов к выдаче");
+        coalescer.offer(1L, request);
+
+        coalescer.stop();
+        coalescer = null;
+
+        verify(notificationService).createNotification(request);
+    }
+
+    private NotificationCoalescer coalescer(Duration window) {
+        Clock clock = Clock.fixed(Instant.ofEpochMilli(NOW), ZoneOffset.UTC);
+        NotificationCoalescer coalescer = new NotificationCoalescer(notificationService,
+                new NotificationProperties(0, window, null, null, null), clock);
+        coalescer.start();
+        return coalescer;
+    }
+
+    private NotificationRequest request(NotificationType type, String message) {
+        return new NotificationRequest(USER_ID, message, type, NotificationChannel.PUSH, null);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.dto.response.NotificationInboxResponse;
+import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.entity.User;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.enums.NotificationType;
+import com.example.fooddelivery.enums.UserRole;
+import com.example.fooddelivery.event.NotificationsSentEvent;
+import com.example.fooddelivery.repository.NotificationRepository;
+import com.example.fooddelivery.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//граница прочитанного на настоящей БД: уведомление считается непрочитанным по моменту доставки, а не по id
+@SpringBootTest
+class NotificationInboxTest {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCE.incrementAndGet();
+        user = new User();
+        user.setUsername("reader" + n);
+        user.setEmail("reader" + n + "@example.com");
+        user.setPassword("secret123");
+        user.setRole(UserRole.CUSTOMER);
+        user = userRepository.save(user);
+    }
+
+    @Test
+    void markRead_ScheduledNotificationSentLaterIsUnread() {
+        Notification reminder = save("Оцените заказ", NotificationStatus.SCHEDULED);
+        Notification ready = save("Заказ готов к выдаче", NotificationStatus.PENDING);
+        assertThat(reminder.getId()).isLessThan(ready.getId());
+
+        send(ready);
+        assertThat(notificationService.markRead(user.getId(), null).unreadCount()).isZero();
+        assertThat(notificationService.getUnreadCount(user.getId()).unreadCount()).isZero();
+
+        send(reminder);
+
+        assertThat(notificationService.getUnreadCount(user.getId()).unreadCount()).isEqualTo(1);
+        NotificationInboxResponse inbox = notificationService.getInbox(user.getId(), null, 20);
+        assertThat(inbox.unreadCount()).isEqualTo(1);
+        assertThat(inbox.notifications()).extracting(response -> response.id())
+                .containsExactly(reminder.getId(), ready.getId());
+        assertThat(notificationRepository.countInboxAfter(user.getId(),
+                Set.of(NotificationStatus.SENT, NotificationStatus.DELIVERED), inbox.readUpTo())).isEqualTo(1);
+    }
+
+    @Test
+    void markSent_KeepsDeliverySeqOnRepeatedSend() {
+        Notification ready = save("Заказ готов к выдаче", NotificationStatus.PENDING);
+
+        send(ready);
+        Long first = notificationRepository.findById(ready.getId()).orElseThrow().getDeliverySeq();
+        send(ready);
+
+        assertThat(first).isNotNull();
+        assertThat(notificationRepository.findById(ready.getId()).orElseThrow().getDeliverySeq()).isEqualTo(first);
+    }
+
+    //срок отправки далеко в будущем, чтобы уведомление не забрал фоновый опрос
+    private Notification save(String message, NotificationStatus status) {
+        Notification notification = new Notification(user, message, NotificationType.ORDER_READY, status, NotificationChannel.PUSH);
+        notification.setNextAttemptAt(LocalDateTime.now().plusDays(1));
+        return notificationRepository.save(notification);
+    }
+
+    //так же, как отметку делает отправитель после успешной доставки
+    private void send(Notification notification) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            notificationRepository.markSent(List.of(notification.getId()), LocalDateTime.now());
+            eventPublisher.publishEvent(new NotificationsSentEvent(List.of(user.getId())));
+        });
+    }
+}
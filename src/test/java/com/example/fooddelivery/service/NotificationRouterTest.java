@@ -0,0 +1,253 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.cache.NotificationRateLimiter;
+import com.example.fooddelivery.config.NotificationProperties;
+import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.entity.User;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.enums.NotificationType;
+import com.example.fooddelivery.event.NotificationScheduledEvent;
+import com.example.fooddelivery.inner.NotificationSender;
+import com.example.fooddelivery.inner.OutgoingNotification;
+import com.example.fooddelivery.repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationRouterTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private NotificationRouter router;
+
+    @AfterEach
+    void tearDown() {
+        router.stop();
+    }
+
+    @Test
+    void dispatch_GroupsSmsIntoProviderBatches() throws InterruptedException {
+        RecordingSender sms = new RecordingSender(NotificationChannel.SMS);
+        sms.blockFirstCall();
+        startRouter(Map.of(NotificationChannel.SMS, new NotificationProperties.Channel(1000, 1, 100, 5, null, 0, null)), sms);
+
+        router.dispatch(List.of(notification(1L, NotificationChannel.SMS)));
+        assertThat(sms.entered.await(1, TimeUnit.SECONDS)).isTrue();
+        router.dispatch(LongStream.rangeClosed(2, 250).mapToObj(id -> notification(id, NotificationChannel.SMS)).toList());
+        sms.release.countDown();
+
+        verify(notificationRepository, timeout(1000).times(4)).markSent(anyList(), eq(NOW));
+        assertThat(sms.batches).extracting(List::size).containsExactly(1, 100, 100, 49);
+    }
+
+    @Test
+    void dispatch_SlowChannelDoesNotDelayOtherChannels() throws InterruptedException {
+        RecordingSender sms = new RecordingSender(NotificationChannel.SMS);
+        RecordingSender push = new RecordingSender(NotificationChannel.PUSH);
+        sms.blockFirstCall();
+        startRouter(Map.of(), sms, push);
+
+        router.dispatch(List.of(notification(1L, NotificationChannel.SMS)));
+        assertThat(sms.entered.await(1, TimeUnit.SECONDS)).isTrue();
+        router.dispatch(List.of(notification(2L, NotificationChannel.PUSH)));
+
+        verify(notificationRepository, timeout(1000)).markSent(List.of(2L), NOW);
+        sms.release.countDown();
+        verify(notificationRepository, timeout(1000)).markSent(List.of(1L), NOW);
+    }
+
+    @Test
+    void dispatch_WhenSendFails_SchedulesRetryWithBackoff() {
+        RecordingSender push = new RecordingSender(NotificationChannel.PUSH);
+        push.failing = true;
+        startRouter(Map.of(), push);
+        Notification notification = notification(1L, NotificationChannel.PUSH);
+        notification.setAttempts(2);
+
+        router.dispatch(List.of(notification));
+
+        ArgumentCaptor<LocalDateTime> nextAttemptAt = ArgumentCaptor.captor();
+        verify(notificationRepository, timeout(1000))
+                .updateAttempt(eq(1L), eq(NotificationStatus.RETRYING), eq(3), nextAttemptAt.capture());
+        //третья попытка: 10s * 4^2 = 160s, из них половина случайная
+        assertThat(nextAttemptAt.getValue()).isBetween(NOW.plusSeconds(80), NOW.plusSeconds(160));
+        verify(eventPublisher).publishEvent(new NotificationScheduledEvent(List.of(1L), nextAttemptAt.getValue()));
+    }
+
+    @Test
+    void dispatch_WhenAttemptsExhausted_MovesToDeadLetter() {
+        RecordingSender push = new RecordingSender(NotificationChannel.PUSH);
+        push.failing = true;
+        startRouter(Map.of(), push);
+        Notification notification = notification(1L, NotificationChannel.PUSH);
+        notification.setAttempts(5);
+
+        router.dispatch(List.of(notification));
+
+        verify(notificationRepository, timeout(1000)).updateAttempt(1L, NotificationStatus.DEAD_LETTER, 6, null);
+    }
+
+    @Test
+    void backoff_GrowsExponentiallyUpToMaxDelay() {
+        startRouter(Map.of());
+
+        assertThat(router.backoff(1)).isBetween(Duration.ofSeconds(5), Duration.ofSeconds(10));
+        assertThat(router.backoff(2)).isBetween(Duration.ofSeconds(20), Duration.ofSeconds(40));
+        assertThat(router.backoff(10)).isBetween(Duration.ofMinutes(15), Duration.ofMinutes(30));
+    }
+
+    @Test
+    void dispatch_OpensCircuitAfterConsecutiveFailures() {
+        RecordingSender email = new RecordingSender(NotificationChannel.EMAIL);
+        email.failing = true;
+        startRouter(Map.of(NotificationChannel.EMAIL,
+                new NotificationProperties.Channel(10, 1, 1, 2, Duration.ofMinutes(1), 0, null)), email);
+
+        router.dispatch(List.of(notification(1L, NotificationChannel.EMAIL)));
+        verify(notificationRepository, timeout(1000)).updateAttempt(eq(1L), eq(NotificationStatus.RETRYING), eq(1), any());
+        router.dispatch(List.of(notification(2L, NotificationChannel.EMAIL)));
+        verify(notificationRepository, timeout(1000)).updateAttempt(eq(2L), eq(NotificationStatus.RETRYING), eq(1), any());
+        router.dispatch(List.of(notification(3L, NotificationChannel.EMAIL)));
+
+        verify(notificationRepository, timeout(1000))
+                .reschedule(List.of(3L), NotificationStatus.SCHEDULED, NOW.plusMinutes(1));
+        assertThat(email.batches).hasSize(2);
+    }
+
+    @Test
+    void dispatch_WhileProbeIsInFlight_DefersOtherBatches() throws InterruptedException {
+        RecordingSender email = new RecordingSender(NotificationChannel.EMAIL);
+        email.failing = true;
+        startRouter(Map.of(NotificationChannel.EMAIL,
+                new NotificationProperties.Channel(10, 2, 1, 1, Duration.ZERO, 0, null)), email);
+        router.dispatch(List.of(notification(1L, NotificationChannel.EMAIL)));
+        verify(notificationRepository, timeout(1000)).updateAttempt(eq(1L), eq(NotificationStatus.RETRYING), eq(1), any());
+
+        email.failing = false;
+        email.blockFirstCall();
+        router.dispatch(List.of(notification(2L, NotificationChannel.EMAIL)));
+        assertThat(email.entered.await(1, TimeUnit.SECONDS)).isTrue();
+        router.dispatch(List.of(notification(3L, NotificationChannel.EMAIL)));
+
+        verify(notificationRepository, timeout(1000)).reschedule(List.of(3L), NotificationStatus.SCHEDULED, NOW.plusSeconds(10));
+        email.release.countDown();
+        verify(notificationRepository, timeout(1000)).markSent(List.of(2L), NOW);
+    }
+
+    @Test
+    void dispatch_WhenQueueIsFull_DefersNotification() throws InterruptedException {
+        RecordingSender push = new RecordingSender(NotificationChannel.PUSH);
+        push.blockFirstCall();
+        startRouter(Map.of(NotificationChannel.PUSH, new NotificationProperties.Channel(1, 1, 1, 5, null, 0, null)), push);
+
+        router.dispatch(List.of(notification(1L, NotificationChannel.PUSH)));
+        assertThat(push.entered.await(1, TimeUnit.SECONDS)).isTrue();
+        router.dispatch(List.of(notification(2L, NotificationChannel.PUSH), notification(3L, NotificationChannel.PUSH)));
+
+        verify(notificationRepository).reschedule(List.of(3L), NotificationStatus.SCHEDULED, NOW.plusSeconds(10));
+        push.release.countDown();
+        verify(notificationRepository, timeout(1000)).markSent(List.of(2L), NOW);
+        verify(notificationRepository, never()).markSent(eq(List.of(3L)), any());
+    }
+
+    @Test
+    void dispatch_WhenUserLimitExhausted_DefersUntilNextToken() {
+        RecordingSender push = new RecordingSender(NotificationChannel.PUSH);
+        startRouter(Map.of(NotificationChannel.PUSH,
+                new NotificationProperties.Channel(10, 1, 1, 5, null, 1, Duration.ofMinutes(1))), push);
+        Notification first = notification(1L, NotificationChannel.PUSH);
+        Notification second = notification(2L, NotificationChannel.PUSH);
+        second.setUser(first.getUser());
+
+        router.dispatch(List.of(first, second));
+
+        verify(notificationRepository).reschedule(List.of(2L), NotificationStatus.SCHEDULED, NOW.plusMinutes(1));
+        verify(notificationRepository, timeout(1000)).markSent(List.of(1L), NOW);
+        assertThat(push.batches).hasSize(1);
+    }
+
+    private void startRouter(Map<NotificationChannel, NotificationProperties.Channel> channels, NotificationSender... senders) {
+        Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+        NotificationProperties properties = new NotificationProperties(0, null, null, null, channels);
+        router = new NotificationRouter(List.of(senders), notificationRepository, properties, transactionManager,
+                eventPublisher, new NotificationRateLimiter(properties, clock), clock);
+        router.start();
+    }
+
+    private Notification notification(Long id, NotificationChannel channel) {
+        User user = new User();
+        user.setId(id + 100);
+        Notification notification = new Notification(user, "Заказ доставлен", NotificationType.ORDER_DELIVERED,
+                NotificationStatus.PENDING, channel);
+        notification.setId(id);
+        return notification;
+    }
+
+    private static class RecordingSender implements NotificationSender {
+        private final NotificationChannel channel;
+        private final List<List<OutgoingNotification>> batches = new CopyOnWriteArrayList<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blocking;
+        private volatile boolean failing;
+
+        private RecordingSender(NotificationChannel channel) {
+            this.channel = channel;
+        }
+
+        private void blockFirstCall() {
+            blocking = true;
+        }
+
+        @Override
+        public NotificationChannel channel() {
+            return channel;
+        }
+
+        @Override
+        public void send(List<OutgoingNotification> notifications) throws Exception {
+            batches.add(List.copyOf(notifications));
+            if (blocking) {
+                blocking = false;
+                entered.countDown();
+                release.await();
+            }
+            if (failing) {
+                throw new IllegalStateException("Gateway timeout");
+            }
+        }
+    }
+}
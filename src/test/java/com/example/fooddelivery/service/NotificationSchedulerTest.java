@@ -0,0 +1,135 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.NotificationProperties;
+import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.entity.User;
+import com.example.fooddelivery.enums.NotificationChannel;
+import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.enums.NotificationType;
+import com.example.fooddelivery.inner.OutgoingNotification;
+import com.example.fooddelivery.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationSchedulerTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+    private static final LocalDateTime LEASE_UNTIL = NOW.plusMinutes(5);
+    private static final Set<NotificationStatus> DUE = Set.of(NotificationStatus.SCHEDULED, NotificationStatus.RETRYING,
+            NotificationStatus.PENDING);
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationRouter notificationRouter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+        scheduler = new NotificationScheduler(notificationRepository, notificationRouter,
+                new NotificationProperties(2, null, null, null, null), transactionManager, clock);
+    }
+
+    @Test
+    void processDueNotifications_ClaimsInBatchesAndDispatches() {
+        when(notificationRepository.findDue(DUE, NOW, Limit.of(2))).thenReturn(notifications(1, 2), notifications(3, 3));
+        when(notificationRepository.compareAndUpdate(anyLong(), eq(NotificationStatus.RETRYING), eq(NOW.minusMinutes(1)),
+                eq(NotificationStatus.PENDING), eq(1), eq(LEASE_UNTIL))).thenReturn(1);
+
+        int processed = scheduler.processDueNotifications();
+
+        assertThat(processed).isEqualTo(3);
+        verify(notificationRouter).dispatchOutgoing(List.of(outgoing(1, 1), outgoing(2, 1)));
+        verify(notificationRouter).dispatchOutgoing(List.of(outgoing(3, 1)));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void processDueNotifications_WhenNothingDue_DoesNothing() {
+        when(notificationRepository.findDue(DUE, NOW, Limit.of(2))).thenReturn(List.of());
+
+        assertThat(scheduler.processDueNotifications()).isZero();
+        verifyNoInteractions(notificationRouter);
+    }
+
+    @Test
+    void processDue_SkipsNotificationsClaimedByAnotherThread() {
+        when(notificationRepository.findDueByIds(List.of(1L, 2L), DUE, NOW)).thenReturn(notifications(1, 2));
+        when(notificationRepository.compareAndUpdate(eq(1L), any(), any(), any(), anyInt(), any())).thenReturn(0);
+        when(notificationRepository.compareAndUpdate(eq(2L), any(), any(), any(), anyInt(), any())).thenReturn(1);
+
+        assertThat(scheduler.processDue(List.of(1L, 2L))).isEqualTo(1);
+        verify(notificationRouter).dispatchOutgoing(List.of(outgoing(2, 1)));
+    }
+
+    @Test
+    void processDue_ReclaimsExpiredLeaseAsFailedAttempt() {
+        List<Notification> due = notifications(1, 1);
+        due.get(0).setStatus(NotificationStatus.PENDING);
+        when(notificationRepository.findDueByIds(List.of(1L), DUE, NOW)).thenReturn(due);
+        when(notificationRepository.compareAndUpdate(1L, NotificationStatus.PENDING, NOW.minusMinutes(1),
+                NotificationStatus.PENDING, 2, LEASE_UNTIL)).thenReturn(1);
+
+        scheduler.processDue(List.of(1L));
+
+        ArgumentCaptor<List<OutgoingNotification>> captor = ArgumentCaptor.captor();
+        verify(notificationRouter).dispatchOutgoing(captor.capture());
+        assertThat(captor.getValue()).extracting(OutgoingNotification::attempts).containsExactly(2);
+    }
+
+    @Test
+    void processDue_WhenExpiredLeaseExhaustsAttempts_MovesToDeadLetter() {
+        List<Notification> due = notifications(1, 1);
+        due.get(0).setStatus(NotificationStatus.PENDING);
+        due.get(0).setAttempts(5);
+        when(notificationRepository.findDueByIds(List.of(1L), DUE, NOW)).thenReturn(due);
+        when(notificationRepository.compareAndUpdate(1L, NotificationStatus.PENDING, NOW.minusMinutes(1),
+                NotificationStatus.DEAD_LETTER, 6, null)).thenReturn(1);
+
+        assertThat(scheduler.processDue(List.of(1L))).isZero();
+        verifyNoInteractions(notificationRouter);
+    }
+
+    private List<Notification> notifications(long from, long to) {
+        return LongStream.rangeClosed(from, to).mapToObj(id -> {
+            User user = new User();
+            user.setId(id);
+            Notification notification = new Notification(user, "Заказ доставлен", NotificationType.ORDER_DELIVERED,
+                    NotificationStatus.RETRYING, NotificationChannel.PUSH);
+            notification.setId(id);
+            notification.setAttempts(1);
+            notification.setNextAttemptAt(NOW.minusMinutes(1));
+            return notification;
+        }).toList();
+    }
+
+    private OutgoingNotification outgoing(long id, int attempts) {
+        return new OutgoingNotification(id, id, NotificationChannel.PUSH, "Заказ доставлен", attempts);
+    }
+}
@@ -1,23 +1,33 @@
 package com.example.fooddelivery.service;
 
+import com.example.fooddelivery.cache.UnreadCountCache;
+import com.example.fooddelivery.config.NotificationProperties;
 import com.example.fooddelivery.dto.mapper.NotificationMapper;
 import com.example.fooddelivery.dto.request.NotificationRequest;
+import com.example.fooddelivery.dto.response.NotificationInboxResponse;
 import com.example.fooddelivery.dto.response.NotificationResponse;
+import com.example.fooddelivery.dto.response.NotificationUnreadResponse;
 import com.example.fooddelivery.entity.Notification;
+import com.example.fooddelivery.entity.NotificationReadMark;
 import com.example.fooddelivery.entity.User;
 import com.example.fooddelivery.enums.NotificationChannel;
 import com.example.fooddelivery.enums.NotificationStatus;
 import com.example.fooddelivery.enums.NotificationType;
+import com.example.fooddelivery.event.NotificationInboxChangedEvent;
 import com.example.fooddelivery.exception.EntityNotFoundException;
-import com.example.fooddelivery.inner.NotificationSender;
+import com.example.fooddelivery.repository.NotificationReadMarkRepository;
 import com.example.fooddelivery.repository.NotificationRepository;
 import com.example.fooddelivery.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,6 +35,9 @@ import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,7 +52,19 @@ class NotificationServiceTest {
     private NotificationMapper notificationMapper;
 
     @Mock
-    private NotificationSender notificationSender;
+    private NotificationRouter notificationRouter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private NotificationReadMarkRepository notificationReadMarkRepository;
+
+    @Spy
+    private UnreadCountCache unreadCountCache;
+
+    @Spy
+    private NotificationProperties notificationProperties = new NotificationProperties(0, null, null, null, null);
 
     @InjectMocks
     private NotificationService notificationService;
@@ -58,7 +83,7 @@ class NotificationServiceTest {
     void setUp() {
         notificationRequest = new NotificationRequest(USER_ID, "Заказ готов к выдаче", NotificationType.ORDER_READY, NotificationChannel.PUSH, LocalDateTime.now());
         notificationResponse = new NotificationResponse(NOTIFICATION_ID, USER_ID, "Заказ готов к выдаче", NotificationType.ORDER_READY,
-                NotificationStatus.PENDING, NotificationChannel.PUSH, LocalDateTime.now(), null);
+                NotificationStatus.PENDING, NotificationChannel.PUSH, LocalDateTime.now(), null, null);
 
         user = new User();
         user.setId(USER_ID);
@@ -73,6 +98,27 @@ class NotificationServiceTest {
         notification.setSendAt(LocalDateTime.now());
     }
 
+    @Test
+    void createNotifications_SchedulesOneNotificationPerUser() {
+        when(userRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            User reference = new User();
+            reference.setId(invocation.getArgument(0));
+            return reference;
+        });
+
+        notificationService.createNotifications(List.of(1L, 2L), "Скидка 10%", NotificationType.PROMOTIONAL, NotificationChannel.PUSH);
+
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationRepository).saveAll(captor.capture());
+        assertThat(captor.getValue()).extracting(saved -> saved.getUser().getId()).containsExactly(1L, 2L);
+        assertThat(captor.getValue()).allSatisfy(saved -> {
+            assertThat(saved.getStatus()).isEqualTo(NotificationStatus.SCHEDULED);
+            assertThat(saved.getSendAt()).isNotNull();
+            assertThat(saved.getNextAttemptAt()).isEqualTo(saved.getSendAt());
+        });
+        verifyNoInteractions(notificationRouter);
+    }
+
     @Test
     void createNotification_Success() {
         when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
@@ -103,7 +149,7 @@ class NotificationServiceTest {
     }
 
     @Test
-    void createNotificationThenSendImmediately() throws Exception {
+    void createNotificationThenSendImmediately() {
         NotificationRequest request = new NotificationRequest(USER_ID, "Заказ готов к выдаче",
                 NotificationType.ORDER_READY, NotificationChannel.PUSH, null);
 
@@ -116,8 +162,10 @@ class NotificationServiceTest {
 
         assertThat(result).isNotNull();
 
-        verify(notificationSender).send(notification);
+        assertThat(notification.getStatus()).isEqualTo(NotificationStatus.PENDING);
+        assertThat(notification.getNextAttemptAt()).isAfter(LocalDateTime.now().plusMinutes(4));
         verify(notificationRepository).save(notification);
+        verify(notificationRouter).dispatch(List.of(notification));
     }
 
     @Test
@@ -144,16 +192,99 @@ class NotificationServiceTest {
         verify(notificationRepository, never()).findAllByUserId(any());
     }
 
+    @Test
+    void getInbox_ReturnsPageNewestFirstWithUnreadCount() {
+        when(userRepository.existsById(USER_ID)).thenReturn(true);
+        when(notificationRepository.findInboxBefore(eq(USER_ID), anySet(), eq(10L), eq(Limit.of(20))))
+                .thenReturn(List.of(notification));
+        when(notificationMapper.toDto(notification)).thenReturn(notificationResponse);
+        when(notificationReadMarkRepository.findById(USER_ID)).thenReturn(Optional.of(new NotificationReadMark(USER_ID, 5L)));
+        when(notificationRepository.countInboxAfter(eq(USER_ID), anySet(), eq(5L))).thenReturn(3L);
+
+        NotificationInboxResponse result = notificationService.getInbox(USER_ID, 10L, 20);
+
+        assertThat(result).isEqualTo(new NotificationInboxResponse(List.of(notificationResponse), 5L, 3L));
+    }
+
+    @Test
+    void getUnreadCount_ServedFromCacheAfterFirstRead() {
+        when(userRepository.existsById(USER_ID)).thenReturn(true);
+        when(notificationReadMarkRepository.findById(USER_ID)).thenReturn(Optional.empty());
+        when(notificationRepository.countInboxAfter(eq(USER_ID), anySet(), eq(0L))).thenReturn(2L);
+
+        notificationService.getUnreadCount(USER_ID);
+        NotificationUnreadResponse result = notificationService.getUnreadCount(USER_ID);
+
+        assertThat(result).isEqualTo(new NotificationUnreadResponse(USER_ID, 2L));
+        verify(notificationRepository, times(1)).countInboxAfter(any(), anySet(), anyLong());
+    }
+
+    @Test
+    void getUnreadCountWhenUserNotFound() {
+        when(userRepository.existsById(NON_EXISTENT_USER_ID)).thenReturn(false);
+
+        assertThatThrownBy(() -> notificationService.getUnreadCount(NON_EXISTENT_USER_ID))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("User with id 999 not found");
+    }
+
+    @Test
+    void markRead_CreatesMarkAtDeliverySeqOfNotification() {
+        when(userRepository.existsById(USER_ID)).thenReturn(true);
+        when(notificationRepository.findDeliverySeq(eq(7L), eq(USER_ID), anySet())).thenReturn(Optional.of(12L));
+        when(notificationReadMarkRepository.advance(USER_ID, 12L)).thenReturn(0);
+        when(notificationReadMarkRepository.existsById(USER_ID)).thenReturn(false);
+        when(notificationReadMarkRepository.findById(USER_ID)).thenReturn(Optional.of(new NotificationReadMark(USER_ID, 12L)));
+        when(notificationRepository.countInboxAfter(eq(USER_ID), anySet(), eq(12L))).thenReturn(0L);
+
+        NotificationUnreadResponse result = notificationService.markRead(USER_ID, 7L);
+
+        assertThat(result).isEqualTo(new NotificationUnreadResponse(USER_ID, 0L));
+        ArgumentCaptor<NotificationReadMark> captor = ArgumentCaptor.forClass(NotificationReadMark.class);
+        verify(notificationReadMarkRepository).save(captor.capture());
+        assertThat(captor.getValue().getReadUpTo()).isEqualTo(12L);
+        verify(eventPublisher).publishEvent(new NotificationInboxChangedEvent(USER_ID));
+    }
+
+    @Test
+    void markRead_DoesNotMoveMarkBack() {
+        notification.setDeliverySeq(1L);
+        when(userRepository.existsById(USER_ID)).thenReturn(true);
+        when(notificationRepository.findInbox(eq(USER_ID), anySet(), eq(Limit.of(1)))).thenReturn(List.of(notification));
+        when(notificationReadMarkRepository.advance(USER_ID, 1L)).thenReturn(0);
+        when(notificationReadMarkRepository.existsById(USER_ID)).thenReturn(true);
+        when(notificationReadMarkRepository.findById(USER_ID)).thenReturn(Optional.of(new NotificationReadMark(USER_ID, 5L)));
+
+        notificationService.markRead(USER_ID, null);
+
+        verify(notificationReadMarkRepository, never()).save(any());
+    }
+
+    @Test
+    void markReadWhenNotificationNotInInbox() {
+        when(userRepository.existsById(USER_ID)).thenReturn(true);
+        when(notificationRepository.findDeliverySeq(eq(NON_EXISTENT_NOTIFICATION_ID), eq(USER_ID), anySet()))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> notificationService.markRead(USER_ID, NON_EXISTENT_NOTIFICATION_ID))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Notification with id 999 not found in inbox of user 1");
+
+        verify(notificationReadMarkRepository, never()).advance(any(), anyLong());
+    }
+
     @Test
     void updateNotificationStatus_Success() {
         when(notificationRepository.findById(NOTIFICATION_ID)).thenReturn(Optional.of(notification));
         when(notificationRepository.save(notification)).thenReturn(notification);
+        when(notificationRepository.nextDeliverySeq()).thenReturn(42L);
         when(notificationMapper.toDto(notification)).thenReturn(notificationResponse);
 
         NotificationResponse result = notificationService.updateNotificationStatus(NOTIFICATION_ID, NotificationStatus.SENT);
 
         assertThat(result).isNotNull();
         assertThat(notification.getStatus()).isEqualTo(NotificationStatus.SENT);
+        assertThat(notification.getDeliverySeq()).isEqualTo(42L);
 
         verify(notificationRepository).save(notification);
     }
@@ -0,0 +1,125 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.NotificationProperties;
+import com.example.fooddelivery.enums.NotificationStatus;
+import com.example.fooddelivery.event.NotificationScheduledEvent;
+import com.example.fooddelivery.repository.NotificationRepository;
+import com.example.fooddelivery.repository.projection.NotificationDueView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationTimerTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @Mock
+    private NotificationScheduler notificationScheduler;
+
+    private Instant now;
+    private NotificationTimer timer;
+
+    @BeforeEach
+    void setUp() {
+        now = Instant.parse("2026-10-19T12:00:00Z");
+        Clock clock = new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        //тик задан большим, чтобы фоновый поток не мешал ручным вызовам tick()
+        NotificationProperties properties = new NotificationProperties(0, null,
+                new NotificationProperties.Timer(Duration.ofHours(1), Duration.ofHours(2), 2), null, null);
+        timer = new NotificationTimer(notificationRepository, notificationScheduler, properties, clock);
+        timer.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        timer.stop();
+    }
+
+    @Test
+    void tick_ClaimsNotificationWhenDue() {
+        timer.onNotificationScheduled(new NotificationScheduledEvent(List.of(1L), NOW.plusHours(1)));
+
+        now = now.plusSeconds(3599);
+        timer.tick();
+        verifyNoInteractions(notificationScheduler);
+
+        now = now.plusSeconds(1);
+        timer.tick();
+        verify(notificationScheduler).processDue(List.of(1L));
+        assertThat(timer.size()).isZero();
+    }
+
+    @Test
+    void onNotificationScheduled_IgnoresDeadlinesBeyondHorizon() {
+        timer.onNotificationScheduled(new NotificationScheduledEvent(List.of(1L), NOW.plusHours(3)));
+
+        assertThat(timer.size()).isZero();
+    }
+
+    @Test
+    void onNotificationScheduled_StopsAtMaxSize() {
+        timer.onNotificationScheduled(new NotificationScheduledEvent(List.of(1L, 2L, 3L), NOW.plusHours(1)));
+
+        assertThat(timer.size()).isEqualTo(2);
+    }
+
+    @Test
+    void reload_LoadsDeadlinesWithinHorizon() {
+        NotificationDueView due = view(5L, NOW.minusMinutes(1));
+        when(notificationRepository.findDueViews(Set.of(NotificationStatus.SCHEDULED, NotificationStatus.RETRYING),
+                NOW.plusHours(2), Limit.of(2))).thenReturn(List.of(due));
+
+        timer.reload();
+        timer.tick();
+
+        verify(notificationScheduler).processDue(List.of(5L));
+    }
+
+    private NotificationDueView view(Long id, LocalDateTime nextAttemptAt) {
+        return new NotificationDueView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getNextAttemptAt() {
+                return nextAttemptAt;
+            }
+        };
+    }
+}
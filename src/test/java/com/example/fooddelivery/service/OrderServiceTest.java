@@ -1,28 +1,47 @@
 package com.example.fooddelivery.service;
 
+import com.example.fooddelivery.cache.CartLine;
+import com.example.fooddelivery.cache.CartState;
+import com.example.fooddelivery.cache.CartStore;
+import com.example.fooddelivery.cache.MenuAvailabilityIndex;
+import com.example.fooddelivery.cache.OrderHistoryCache;
 import com.example.fooddelivery.dto.mapper.OrderMapper;
 import com.example.fooddelivery.dto.request.NotificationRequest;
 import com.example.fooddelivery.dto.request.OrderRequest;
+import com.example.fooddelivery.dto.response.OrderLineResponse;
 import com.example.fooddelivery.dto.response.OrderResponse;
 import com.example.fooddelivery.entity.*;
+import com.example.fooddelivery.enums.ItemSize;
 import com.example.fooddelivery.enums.OrderStatus;
+import com.example.fooddelivery.event.OrderStatusChangedEvent;
 import com.example.fooddelivery.exception.AccessDeniedException;
 import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
 import com.example.fooddelivery.exception.StatusException;
+import com.example.fooddelivery.pricing.PriceBreakdown;
+import com.example.fooddelivery.pricing.PricingEngine;
 import com.example.fooddelivery.repository.CartRepository;
+import com.example.fooddelivery.repository.ItemOptionRepository;
+import com.example.fooddelivery.repository.OrderLineRepository;
 import com.example.fooddelivery.repository.OrderRepository;
+import com.example.fooddelivery.repository.RestaurantRepository;
+import com.example.fooddelivery.repository.projection.ItemOptionSnapshotView;
+import com.example.fooddelivery.repository.projection.OrderLineView;
+import com.example.fooddelivery.repository.projection.OrderSummaryView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,6 +51,9 @@ class OrderServiceTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private NotificationCoalescer notificationCoalescer;
+
     @Mock
     private OrderRepository orderRepository;
 
@@ -41,6 +63,30 @@ class OrderServiceTest {
     @Mock
     private OrderMapper orderMapper;
 
+    @Mock
+    private MenuAvailabilityIndex menuAvailabilityIndex;
+
+    @Mock
+    private CartStore cartStore;
+
+    @Mock
+    private PricingEngine pricingEngine;
+
+    @Mock
+    private ItemOptionRepository itemOptionRepository;
+
+    @Mock
+    private RestaurantRepository restaurantRepository;
+
+    @Mock
+    private OrderLineRepository orderLineRepository;
+
+    @Mock
+    private OrderHistoryCache orderHistoryCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private OrderService orderService;
 
@@ -48,6 +94,9 @@ class OrderServiceTest {
     private final Long USER_ID = 1L;
     private final Long CART_ID = 1L;
     private final Long COURIER_ID = 1L;
+    private final Long RESTAURANT_ID = 5L;
+    private final Long ITEM_ID = 3L;
+    private final Long OPTION_ID = 30L;
     private final Long NON_EXISTENT_ORDER_ID = 999L;
 
     private OrderRequest orderRequest;
@@ -55,15 +104,19 @@ class OrderServiceTest {
     private Order order;
     private Cart cart;
     private User user;
+    private Restaurant restaurant;
 
     @BeforeEach
     void setUp() {
-        orderRequest = new OrderRequest(CART_ID);
-        orderResponse = new OrderResponse(ORDER_ID, USER_ID, CART_ID, OrderStatus.NEW, new BigDecimal("500.00"));
+        orderRequest = new OrderRequest(CART_ID, null);
+        orderResponse = new OrderResponse(ORDER_ID, USER_ID, CART_ID, OrderStatus.NEW, new BigDecimal("500.00"), RESTAURANT_ID, List.of());
 
         user = new User();
         user.setId(USER_ID);
 
+        restaurant = new Restaurant();
+        restaurant.setId(RESTAURANT_ID);
+
         cart = new Cart();
         cart.setId(CART_ID);
         cart.setUser(user);
@@ -78,19 +131,13 @@ class OrderServiceTest {
 
     @Test
     void createOrder_Success() {
-        CartItem cartItem = new CartItem();
-        Item item = new Item();
-        item.setAvailable(true);
-        item.setName("Pizza");
-        ItemOption itemOption = new ItemOption();
-        itemOption.setPrice(new BigDecimal("500.00"));
-        cartItem.setItem(item);
-        cartItem.setItemOption(itemOption);
-        cartItem.setQuantity(1);
-
-        cart.setItems(new ArrayList<>(List.of(cartItem)));
+        CartState state = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(7L, ITEM_ID, OPTION_ID, 2, 25000L, 20)));
 
         when(cartRepository.findById(CART_ID)).thenReturn(Optional.of(cart));
+        when(cartStore.find(USER_ID)).thenReturn(Optional.of(state));
+        when(itemOptionRepository.findSnapshotsByIds(List.of(OPTION_ID))).thenReturn(List.of(snapshot(OPTION_ID, "Pizza")));
+        when(pricingEngine.price(RESTAURANT_ID, 50000L, null)).thenReturn(price(50000L));
+        when(restaurantRepository.getReferenceById(RESTAURANT_ID)).thenReturn(restaurant);
         when(orderMapper.toEntity(orderRequest)).thenReturn(order);
         when(orderRepository.save(order)).thenReturn(order);
         when(orderMapper.toDto(order)).thenReturn(orderResponse);
@@ -100,12 +147,27 @@ class OrderServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.id()).isEqualTo(ORDER_ID);
         assertThat(result.status()).isEqualTo(OrderStatus.NEW);
-        assertThat(cart.getRestaurant()).isNull();
-        assertThat(cart.getItems()).isEmpty();
-
-        verify(cartRepository).save(cart);
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("500.00");
+        assertThat(order.getRestaurant()).isSameAs(restaurant);
+        assertThat(order.getLines()).singleElement().satisfies(line -> {
+            assertThat(line.getOrder()).isSameAs(order);
+            assertThat(line.getItemId()).isEqualTo(ITEM_ID);
+            assertThat(line.getItemOptionId()).isEqualTo(OPTION_ID);
+            assertThat(line.getItemName()).isEqualTo("Pizza");
+            assertThat(line.getSize()).isEqualTo(ItemSize.LARGE);
+            assertThat(line.getPrice()).isEqualByComparingTo("250.00");
+            assertThat(line.getQuantity()).isEqualTo(2);
+        });
+
+        InOrder inOrder = inOrder(cartStore, cartRepository, orderRepository);
+        inOrder.verify(cartStore).flush(CART_ID);
+        inOrder.verify(cartRepository).findById(CART_ID);
+        inOrder.verify(orderRepository).save(order);
+        inOrder.verify(cartStore).update(eq(USER_ID), any());
+        inOrder.verify(cartStore).flush(CART_ID);
+        inOrder.verify(cartStore).evict(USER_ID);
         verify(orderRepository).save(order);
-        verify(notificationService).createNotification(any(NotificationRequest.class));
+        verify(notificationCoalescer).offer(eq(ORDER_ID), any(NotificationRequest.class));
     }
 
     @Test
@@ -121,8 +183,8 @@ class OrderServiceTest {
 
     @Test
     void createOrderWhenCartIsEmpty() {
-        cart.setItems(List.of());
         when(cartRepository.findById(CART_ID)).thenReturn(Optional.of(cart));
+        when(cartStore.find(USER_ID)).thenReturn(Optional.of(new CartState(CART_ID, USER_ID, null, List.of())));
 
         assertThatThrownBy(() -> orderService.createOrder(orderRequest))
                 .isInstanceOf(BusinessException.class)
@@ -133,14 +195,12 @@ class OrderServiceTest {
 
     @Test
     void createOrderWhenItemNotAvailable() {
-        CartItem cartItem = new CartItem();
-        Item item = new Item();
-        item.setAvailable(false);
-        item.setName("Pizza");
-        cartItem.setItem(item);
-        cart.setItems(List.of(cartItem));
+        CartState state = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(7L, 3L, OPTION_ID, 1, 50000L, 20)));
 
         when(cartRepository.findById(CART_ID)).thenReturn(Optional.of(cart));
+        when(cartStore.find(USER_ID)).thenReturn(Optional.of(state));
+        when(itemOptionRepository.findSnapshotsByIds(List.of(OPTION_ID))).thenReturn(List.of(snapshot(OPTION_ID, "Pizza")));
+        when(menuAvailabilityIndex.findUnavailable(List.of(3L))).thenReturn(List.of(3L));
 
         assertThatThrownBy(() -> orderService.createOrder(orderRequest))
                 .isInstanceOf(BusinessException.class)
@@ -149,19 +209,29 @@ class OrderServiceTest {
         verify(orderRepository, never()).save(any());
     }
 
+    @Test
+    void createOrderWhenOptionRemovedFromMenu() {
+        CartState state = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(7L, ITEM_ID, OPTION_ID, 1, 50000L, 20)));
+
+        when(cartRepository.findById(CART_ID)).thenReturn(Optional.of(cart));
+        when(cartStore.find(USER_ID)).thenReturn(Optional.of(state));
+        when(itemOptionRepository.findSnapshotsByIds(List.of(OPTION_ID))).thenReturn(List.of());
+
+        assertThatThrownBy(() -> orderService.createOrder(orderRequest))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("These items are not available now: item option 30");
+
+        verify(orderRepository, never()).save(any());
+    }
+
     @Test
     void createOrderWhenAmountLessThanMinimum() {
-        CartItem cartItem = new CartItem();
-        Item item = new Item();
-        item.setAvailable(true);
-        ItemOption itemOption = new ItemOption();
-        itemOption.setPrice(new BigDecimal("100.00"));
-        cartItem.setItem(item);
-        cartItem.setItemOption(itemOption);
-        cartItem.setQuantity(1);
-        cart.setItems(List.of(cartItem));
+        CartState state = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(7L, ITEM_ID, OPTION_ID, 1, 10000L, 20)));
 
         when(cartRepository.findById(CART_ID)).thenReturn(Optional.of(cart));
+        when(cartStore.find(USER_ID)).thenReturn(Optional.of(state));
+        when(itemOptionRepository.findSnapshotsByIds(List.of(OPTION_ID))).thenReturn(List.of(snapshot(OPTION_ID, "Pizza")));
+        when(pricingEngine.price(RESTAURANT_ID, 10000L, null)).thenReturn(price(10000L));
 
         assertThatThrownBy(() -> orderService.createOrder(orderRequest))
                 .isInstanceOf(BusinessException.class)
@@ -170,21 +240,42 @@ class OrderServiceTest {
         verify(orderRepository, never()).save(any());
     }
 
+    @Test
+    void createOrder_AppliesDeliveryFeeAndPromoCode() {
+        orderRequest.setPromoCode("WELCOME");
+        CartState state = new CartState(CART_ID, USER_ID, RESTAURANT_ID, List.of(new CartLine(7L, ITEM_ID, OPTION_ID, 2, 50000L, 20)));
+        PriceBreakdown price = new PriceBreakdown(RESTAURANT_ID, 100000L, "WELCOME");
+        price.setMinOrderAmount(30000L);
+        price.setDeliveryFee(19900L);
+        price.setDiscount(10000L);
+
+        when(cartRepository.findById(CART_ID)).thenReturn(Optional.of(cart));
+        when(cartStore.find(USER_ID)).thenReturn(Optional.of(state));
+        when(itemOptionRepository.findSnapshotsByIds(List.of(OPTION_ID))).thenReturn(List.of(snapshot(OPTION_ID, "Pizza")));
+        when(pricingEngine.price(RESTAURANT_ID, 100000L, "WELCOME")).thenReturn(price);
+        when(orderMapper.toEntity(orderRequest)).thenReturn(order);
+        when(orderRepository.save(order)).thenReturn(order);
+
+        orderService.createOrder(orderRequest);
+
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("1099.00");
+    }
+
     @Test
     void getOrderById_Success() {
-        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithLinesById(ORDER_ID)).thenReturn(Optional.of(order));
         when(orderMapper.toDto(order)).thenReturn(orderResponse);
 
         OrderResponse result = orderService.getOrderById(ORDER_ID);
 
         assertThat(result).isNotNull();
 
-        verify(orderRepository).findById(ORDER_ID);
+        verify(orderRepository).findWithLinesById(ORDER_ID);
     }
 
     @Test
     void getOrderByIdWhenOrderNotFound() {
-        when(orderRepository.findById(NON_EXISTENT_ORDER_ID)).thenReturn(Optional.empty());
+        when(orderRepository.findWithLinesById(NON_EXISTENT_ORDER_ID)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> orderService.getOrderById(NON_EXISTENT_ORDER_ID))
                 .isInstanceOf(EntityNotFoundException.class)
@@ -192,15 +283,43 @@ class OrderServiceTest {
     }
 
     @Test
-    void getOrdersByUserId_Success() {
-        when(orderRepository.findByUserId(USER_ID)).thenReturn(List.of(order));
-        when(orderMapper.toDto(order)).thenReturn(orderResponse);
+    void getOrderHistory_LoadsFirstPageThroughCache() {
+        OrderSummaryView summary = summary(ORDER_ID);
+        OrderLineView line = line(ORDER_ID);
+        OrderLineResponse lineResponse = new OrderLineResponse(1L, 1L, "Пицца", ItemSize.LARGE, new BigDecimal("500.00"), 1);
+        when(orderHistoryCache.getFirstPage(eq(USER_ID), eq(20), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<OrderResponse>>>getArgument(2).get());
+        when(orderRepository.findHistory(USER_ID, Limit.of(20))).thenReturn(List.of(summary));
+        when(orderLineRepository.findViewsByOrderIds(List.of(ORDER_ID))).thenReturn(List.of(line));
+        when(orderMapper.toDto(line)).thenReturn(lineResponse);
+        when(orderMapper.toDto(summary, List.of(lineResponse))).thenReturn(orderResponse);
+
+        List<OrderResponse> result = orderService.getOrderHistory(USER_ID, null, 20);
+
+        assertThat(result).containsExactly(orderResponse);
+        verify(orderRepository, never()).findHistoryBefore(any(), any(), any());
+    }
 
-        List<OrderResponse> result = orderService.getOrdersById(USER_ID);
+    @Test
+    void getOrderHistory_WithCursor_BypassesCache() {
+        OrderSummaryView summary = summary(ORDER_ID);
+        when(orderRepository.findHistoryBefore(USER_ID, 5L, Limit.of(20))).thenReturn(List.of(summary));
+        when(orderLineRepository.findViewsByOrderIds(List.of(ORDER_ID))).thenReturn(List.of());
+        when(orderMapper.toDto(summary, List.of())).thenReturn(orderResponse);
 
-        assertThat(result).hasSize(1);
+        List<OrderResponse> result = orderService.getOrderHistory(USER_ID, 5L, 20);
 
-        verify(orderRepository).findByUserId(USER_ID);
+        assertThat(result).containsExactly(orderResponse);
+        verifyNoInteractions(orderHistoryCache);
+    }
+
+    @Test
+    void getOrderHistory_WhenLastPageIsEmpty_SkipsLinesQuery() {
+        when(orderRepository.findHistoryBefore(USER_ID, 5L, Limit.of(20))).thenReturn(List.of());
+
+        assertThat(orderService.getOrderHistory(USER_ID, 5L, 20)).isEmpty();
+
+        verifyNoInteractions(orderLineRepository);
     }
 
     @Test
@@ -217,14 +336,14 @@ class OrderServiceTest {
 
     @Test
     void getAllOrders_Success() {
-        when(orderRepository.findAll()).thenReturn(List.of(order));
+        when(orderRepository.findAllWithLinesBy()).thenReturn(List.of(order));
         when(orderMapper.toDto(order)).thenReturn(orderResponse);
 
         List<OrderResponse> result = orderService.getAllOrders();
 
         assertThat(result).hasSize(1);
 
-        verify(orderRepository).findAll();
+        verify(orderRepository).findAllWithLinesBy();
     }
 
     @Test
@@ -239,7 +358,8 @@ class OrderServiceTest {
         assertThat(order.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
 
         verify(orderRepository).save(order);
-        verify(notificationService).createNotification(any(NotificationRequest.class));
+        verify(notificationCoalescer).offer(eq(ORDER_ID), any(NotificationRequest.class));
+        verify(eventPublisher).publishEvent(new OrderStatusChangedEvent(ORDER_ID, USER_ID, null, OrderStatus.CONFIRMED));
     }
 
     @Test
@@ -320,7 +440,7 @@ class OrderServiceTest {
         assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
 
         verify(orderRepository).save(order);
-        verify(notificationService).createNotification(any(NotificationRequest.class));
+        verify(notificationCoalescer).offer(eq(ORDER_ID), any(NotificationRequest.class));
     }
 
     @Test
@@ -345,4 +465,41 @@ class OrderServiceTest {
 
         verify(orderRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    private PriceBreakdown price(long subtotal) {
+        PriceBreakdown price = new PriceBreakdown(RESTAURANT_ID, subtotal, null);
+        price.setMinOrderAmount(30000L);
+        return price;
+    }
+
+    private OrderSummaryView summary(Long id) {
+        return new OrderSummaryView() {
+            public Long getId() { return id; }
+            public Long getUserId() { return USER_ID; }
+            public Long getCartId() { return CART_ID; }
+            public OrderStatus getStatus() { return OrderStatus.NEW; }
+            public BigDecimal getTotalAmount() { return new BigDecimal("500.00"); }
+            public Long getRestaurantId() { return RESTAURANT_ID; }
+        };
+    }
+
+    private OrderLineView line(Long orderId) {
+        return new OrderLineView() {
+            public Long getOrderId() { return orderId; }
+            public Long getItemId() { return 1L; }
+            public Long getItemOptionId() { return 1L; }
+            public String getItemName() { return "Пицца"; }
+            public ItemSize getSize() { return ItemSize.LARGE; }
+            public BigDecimal getPrice() { return new BigDecimal("500.00"); }
+            public Integer getQuantity() { return 1; }
+        };
+    }
+
+    private ItemOptionSnapshotView snapshot(Long id, String itemName) {
+        return new ItemOptionSnapshotView() {
+            public Long getId() { return id; }
+            public String getItemName() { return itemName; }
+            public ItemSize getSize() { return ItemSize.LARGE; }
+        };
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.OrderTrackingProperties;
+import com.example.fooddelivery.dto.response.OrderStatusEventResponse;
+import com.example.fooddelivery.entity.Courier;
+import com.example.fooddelivery.entity.Order;
+import com.example.fooddelivery.enums.OrderStatus;
+import com.example.fooddelivery.event.OrderStatusChangedEvent;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.repository.CourierRepository;
+import com.example.fooddelivery.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class OrderTrackingServiceTest {
+    private static final Long ORDER_ID = 1L;
+    private static final Long USER_ID = 2L;
+    private static final Long COURIER_ID = 3L;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private CourierRepository courierRepository;
+
+    private OrderTrackingService trackingService;
+    private RecordingEmitter emitter;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        order = new Order();
+        order.setId(ORDER_ID);
+        order.setStatus(OrderStatus.NEW);
+
+        trackingService = new OrderTrackingService(orderRepository, courierRepository,
+                new OrderTrackingProperties(Duration.ofSeconds(25), Duration.ofMinutes(30), 1, 10, Duration.ofMillis(50))) {
+            @Override
+            SseEmitter newEmitter() {
+                emitter = new RecordingEmitter();
+                return emitter;
+            }
+        };
+        trackingService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        trackingService.stop();
+    }
+
+    @Test
+    void subscribeToOrder_SendsCurrentStatus() throws InterruptedException {
+        when(orderRepository.existsById(ORDER_ID)).thenReturn(true);
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+
+        trackingService.subscribeToOrder(ORDER_ID);
+
+        assertThat(emitter.next()).isEqualTo(new OrderStatusEventResponse(ORDER_ID, OrderStatus.NEW, null));
+    }
+
+    @Test
+    void subscribeToOrderWhenOrderNotFound() {
+        when(orderRepository.existsById(999L)).thenReturn(false);
+
+        assertThatThrownBy(() -> trackingService.subscribeToOrder(999L))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Order with id 999 not found");
+        assertThat(trackingService.countSubscribers()).isZero();
+    }
+
+    @Test
+    void onOrderStatusChanged_NotifiesOrderAndCourierStreams() throws InterruptedException {
+        Courier courier = new Courier();
+        courier.setId(COURIER_ID);
+        order.setCourier(courier);
+        order.setStatus(OrderStatus.READY);
+        when(orderRepository.existsById(ORDER_ID)).thenReturn(true);
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+
+        trackingService.subscribeToOrder(ORDER_ID);
+        RecordingEmitter orderStream = emitter;
+        orderStream.next();
+        trackingService.subscribeToCourier(COURIER_ID);
+        RecordingEmitter courierStream = emitter;
+        trackingService.onOrderStatusChanged(new OrderStatusChangedEvent(ORDER_ID, USER_ID, COURIER_ID, OrderStatus.TAKED));
+
+        OrderStatusEventResponse expected = new OrderStatusEventResponse(ORDER_ID, OrderStatus.TAKED, COURIER_ID);
+        assertThat(orderStream.next()).isEqualTo(expected);
+        assertThat(courierStream.next()).isEqualTo(expected);
+    }
+
+    @Test
+    void onOrderStatusChanged_CompletesOrderStreamOnFinalStatus() throws InterruptedException {
+        when(orderRepository.existsById(ORDER_ID)).thenReturn(true);
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+        trackingService.subscribeToOrder(ORDER_ID);
+        emitter.next();
+
+        trackingService.onOrderStatusChanged(new OrderStatusChangedEvent(ORDER_ID, USER_ID, null, OrderStatus.DELIVERED));
+
+        assertThat(emitter.next().status()).isEqualTo(OrderStatus.DELIVERED);
+        assertThat(emitter.completed.poll(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(trackingService.countSubscribers()).isZero();
+    }
+
+    @Test
+    void sendHeartbeats_DropsDisconnectedClients() throws InterruptedException {
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+        trackingService.subscribeToCourier(COURIER_ID);
+        emitter.disconnected = true;
+
+        trackingService.sendHeartbeats();
+
+        assertThat(emitter.completed.poll(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(trackingService.countSubscribers()).isZero();
+    }
+
+    @Test
+    void closeStuckSubscribers_DisconnectsClientThatStoppedReading() throws InterruptedException {
+        when(courierRepository.existsById(COURIER_ID)).thenReturn(true);
+        trackingService.subscribeToCourier(COURIER_ID);
+        emitter.stalled = true;
+        trackingService.sendHeartbeats();
+        assertThat(emitter.sending.poll(1, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+
+        trackingService.closeStuckSubscribers();
+
+        assertThat(trackingService.countSubscribers()).isZero();
+        assertThat(emitter.completed.poll(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<OrderStatusEventResponse> events = new LinkedBlockingQueue<>();
+        private final BlockingQueue<Boolean> completed = new LinkedBlockingQueue<>();
+        private final BlockingQueue<Boolean> sending = new LinkedBlockingQueue<>();
+        private volatile boolean disconnected;
+        private volatile boolean stalled;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (disconnected) {
+                throw new IOException("Broken pipe");
+            }
+            if (stalled) {
+                //клиент не читает: запись висит, пока поток не прервут
+                sending.add(true);
+                try {
+                    Thread.sleep(Long.MAX_VALUE);
+                } catch (InterruptedException e) {
+                    throw new IOException("Write interrupted", e);
+                }
+            }
+            builder.build().stream()
+                    .map(DataWithMediaType::getData)
+                    .filter(OrderStatusEventResponse.class::isInstance)
+                    .forEach(data -> events.add((OrderStatusEventResponse) data));
+        }
+
+        @Override
+        public void complete() {
+            completed.add(true);
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completed.add(true);
+        }
+
+        private OrderStatusEventResponse next() throws InterruptedException {
+            OrderStatusEventResponse event = events.poll(1, TimeUnit.SECONDS);
+            assertThat(event).isNotNull();
+            return event;
+        }
+    }
+}
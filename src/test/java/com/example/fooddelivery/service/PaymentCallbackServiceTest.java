@@ -0,0 +1,149 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.PaymentCallbackProperties;
+import com.example.fooddelivery.dto.request.PaymentCallbackRequest;
+import com.example.fooddelivery.dto.response.PaymentCallbackLagResponse;
+import com.example.fooddelivery.entity.PaymentCallback;
+import com.example.fooddelivery.enums.PaymentStatus;
+import com.example.fooddelivery.exception.EntityNotFoundException;
+import com.example.fooddelivery.repository.PaymentCallbackRepository;
+import com.example.fooddelivery.repository.projection.PaymentCallbackQueueView;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentCallbackServiceTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 10, 19, 12, 0);
+
+    @Mock
+    private PaymentCallbackRepository paymentCallbackRepository;
+
+    @Mock
+    private PaymentService paymentService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PaymentCallbackService paymentCallbackService;
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+        paymentCallbackService = new PaymentCallbackService(paymentCallbackRepository, paymentService,
+                new PaymentCallbackProperties(1, 3), transactionManager, clock);
+        paymentCallbackService.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentCallbackService.stop();
+    }
+
+    @Test
+    void enqueue_StoresCallbackWithReceiveTime() {
+        paymentCallbackService.enqueue(new PaymentCallbackRequest(1L, PaymentStatus.SUCCEEDED));
+
+        ArgumentCaptor<PaymentCallback> saved = ArgumentCaptor.forClass(PaymentCallback.class);
+        verify(paymentCallbackRepository).save(saved.capture());
+        assertThat(saved.getValue().getPaymentId()).isEqualTo(1L);
+        assertThat(saved.getValue().getReceivedAt()).isEqualTo(NOW);
+        verifyNoInteractions(paymentService);
+    }
+
+    @Test
+    void processCallbacks_CoalescesDuplicatesAndDeletesBatch() {
+        when(paymentCallbackRepository.findBatch(anyInt(), eq(Limit.of(3)))).thenReturn(List.of());
+        when(paymentCallbackRepository.findBatch(1, Limit.of(3)))
+                .thenReturn(List.of(
+                        callback(10L, 1L, PaymentStatus.SUCCEEDED),
+                        callback(11L, 1L, PaymentStatus.SUCCEEDED),
+                        callback(12L, 65L, PaymentStatus.FAILED)))
+                .thenReturn(List.of(callback(13L, 1L, PaymentStatus.REFUNDED)));
+
+        int processed = paymentCallbackService.processCallbacks();
+
+        assertThat(processed).isEqualTo(4);
+        verify(paymentService).applyCallbacks(Map.of(1L, Set.of(PaymentStatus.SUCCEEDED), 65L, Set.of(PaymentStatus.FAILED)));
+        verify(paymentService).applyCallbacks(Map.of(1L, Set.of(PaymentStatus.REFUNDED)));
+        verify(paymentCallbackRepository).deleteAllByIdInBatch(List.of(10L, 11L, 12L));
+        verify(paymentCallbackRepository).deleteAllByIdInBatch(List.of(13L));
+        verify(paymentCallbackRepository, times(PaymentCallback.PARTITIONS - 1)).findBatch(intThat(partition -> partition != 1), eq(Limit.of(3)));
+    }
+
+    @Test
+    void processCallbacks_WhenOnePaymentFails_MovesItsCallbacksAside() {
+        when(paymentCallbackRepository.findBatch(anyInt(), eq(Limit.of(3)))).thenReturn(List.of());
+        when(paymentCallbackRepository.findBatch(1, Limit.of(3)))
+                .thenReturn(List.of(callback(10L, 1L, PaymentStatus.SUCCEEDED), callback(11L, 65L, PaymentStatus.SUCCEEDED)));
+        doThrow(new EntityNotFoundException("Order with id 7 not found"))
+                .when(paymentService).applyCallbacks(argThat(callbacks -> callbacks.containsKey(1L)));
+
+        assertThat(paymentCallbackService.processCallbacks()).isEqualTo(1);
+
+        verify(paymentCallbackRepository).deleteAllByIdInBatch(List.of(11L));
+        verify(paymentCallbackRepository).markFailed(List.of(10L), NOW);
+    }
+
+    @Test
+    void processCallbacks_WhenDatabaseIsDown_KeepsBatchInQueue() {
+        when(paymentCallbackRepository.findBatch(anyInt(), eq(Limit.of(3)))).thenReturn(List.of());
+        when(paymentCallbackRepository.findBatch(1, Limit.of(3)))
+                .thenReturn(List.of(callback(10L, 1L, PaymentStatus.SUCCEEDED)));
+        doThrow(new DataAccessResourceFailureException("Connection refused")).when(paymentService).applyCallbacks(anyMap());
+
+        assertThat(paymentCallbackService.processCallbacks()).isZero();
+
+        verify(paymentCallbackRepository, never()).deleteAllByIdInBatch(anyList());
+        verify(paymentCallbackRepository, never()).markFailed(anyList(), any());
+    }
+
+    @Test
+    void getLag_ReportsAgeOfOldestCallback() {
+        when(paymentCallbackRepository.findQueueStats()).thenReturn(new PaymentCallbackQueueView() {
+            @Override
+            public long getPending() {
+                return 5;
+            }
+
+            @Override
+            public long getFailed() {
+                return 1;
+            }
+
+            @Override
+            public LocalDateTime getOldestReceivedAt() {
+                return NOW.minusSeconds(42);
+            }
+        });
+
+        assertThat(paymentCallbackService.getLag()).isEqualTo(new PaymentCallbackLagResponse(5, 42, 1));
+    }
+
+    private PaymentCallback callback(Long id, Long paymentId, PaymentStatus status) {
+        PaymentCallback callback = new PaymentCallback(paymentId, status, NOW);
+        ReflectionTestUtils.setField(callback, "id", id);
+        return callback;
+    }
+}
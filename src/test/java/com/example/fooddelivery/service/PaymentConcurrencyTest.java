@@ -0,0 +1,174 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.dto.request.PaymentRequest;
+import com.example.fooddelivery.dto.response.PaymentResponse;
+import com.example.fooddelivery.entity.Address;
+import com.example.fooddelivery.entity.Order;
+import com.example.fooddelivery.entity.Restaurant;
+import com.example.fooddelivery.entity.User;
+import com.example.fooddelivery.enums.CuisineType;
+import com.example.fooddelivery.enums.OrderStatus;
+import com.example.fooddelivery.enums.PaymentStatus;
+import com.example.fooddelivery.enums.PaymentType;
+import com.example.fooddelivery.enums.UserRole;
+import com.example.fooddelivery.exception.PaymentException;
+import com.example.fooddelivery.exception.StatusException;
+import com.example.fooddelivery.repository.OrderRepository;
+import com.example.fooddelivery.repository.PaymentRepository;
+import com.example.fooddelivery.repository.RestaurantRepository;
+import com.example.fooddelivery.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//гонки колбэков платежной системы на настоящей БД: исход не должен зависеть от порядка потоков
+@SpringBootTest
+class PaymentConcurrencyTest {
+    private static final int THREADS = 64;
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RestaurantRepository restaurantRepository;
+
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        int n = SEQUENCE.incrementAndGet();
+        User user = new User();
+        user.setUsername("payer" + n);
+        user.setEmail("payer" + n + "@example.com");
+        user.setPassword("secret123");
+        user.setRole(UserRole.CUSTOMER);
+        user = userRepository.save(user);
+
+        Address address = new Address();
+        address.setCountry("Россия");
+        address.setCity("Москва");
+        address.setStreet("Тверская");
+        address.setHouseNumber("1");
+        Restaurant restaurant = new Restaurant();
+        restaurant.setName("Ресторан " + n);
+        restaurant.setAddress(address);
+        restaurant.setCuisineType(CuisineType.PIZZA);
+        restaurant.setOpeningTime(LocalTime.of(9, 0));
+        restaurant.setClosingTime(LocalTime.of(23, 0));
+        restaurant = restaurantRepository.save(restaurant);
+
+        order = new Order();
+        order.setUser(user);
+        order.setRestaurant(restaurant);
+        order = orderRepository.save(order);
+    }
+
+    @Test
+    void createPayment_OnlyOneOfConcurrentRequestsSucceeds() throws Exception {
+        List<Outcome> outcomes = race(i -> paymentService.createPayment(new PaymentRequest(order.getId(), PaymentType.CARD)));
+
+        assertThat(outcomes).filteredOn(outcome -> outcome.response() != null).hasSize(1);
+        assertThat(outcomes).filteredOn(outcome -> outcome.error() != null)
+                .allSatisfy(outcome -> assertThat(outcome.error()).isInstanceOf(PaymentException.class));
+        assertThat(paymentRepository.findByOrderId(order.getId())).hasSize(1);
+    }
+
+    @Test
+    void updateStatus_CallbackStormResolvesToFirstCommittedStatus() throws Exception {
+        Long paymentId = paymentService.createPayment(new PaymentRequest(order.getId(), PaymentType.CARD)).id();
+
+        List<Outcome> outcomes = race(i -> paymentService.updateStatus(paymentId,
+                i % 2 == 0 ? PaymentStatus.SUCCEEDED : PaymentStatus.FAILED));
+
+        PaymentStatus winner = paymentRepository.findById(paymentId).orElseThrow().getPaymentStatus();
+        PaymentStatus loser = winner == PaymentStatus.SUCCEEDED ? PaymentStatus.FAILED : PaymentStatus.SUCCEEDED;
+        for (int i = 0; i < THREADS; i++) {
+            PaymentStatus requested = i % 2 == 0 ? PaymentStatus.SUCCEEDED : PaymentStatus.FAILED;
+            if (requested == winner) {
+                assertThat(outcomes.get(i).response().paymentStatus()).isEqualTo(winner);
+            } else {
+                assertThat(outcomes.get(i).error()).isInstanceOf(StatusException.class)
+                        .hasMessage("Payment status cannot be changed from %s to %s", winner, loser);
+            }
+        }
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus())
+                .isEqualTo(winner == PaymentStatus.SUCCEEDED ? OrderStatus.CONFIRMED : OrderStatus.CANCELLED);
+        assertThat(paymentRepository.findById(paymentId).orElseThrow().getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void updateStatus_LateSuccessDoesNotReviveCancelledOrder() {
+        Long paymentId = paymentService.createPayment(new PaymentRequest(order.getId(), PaymentType.CARD)).id();
+        Order cancelled = orderRepository.findById(order.getId()).orElseThrow();
+        cancelled.setStatus(OrderStatus.CANCELLED);
+        orderRepository.save(cancelled);
+
+        PaymentResponse response = paymentService.updateStatus(paymentId, PaymentStatus.SUCCEEDED);
+
+        assertThat(response.paymentStatus()).isEqualTo(PaymentStatus.SUCCEEDED);
+        assertThat(orderRepository.findById(order.getId()).orElseThrow().getStatus()).isEqualTo(OrderStatus.CANCELLED);
+    }
+
+    private List<Outcome> race(Call call) throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Outcome>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                int index = i;
+                Callable<Outcome> task = () -> {
+                    start.await();
+                    try {
+                        return new Outcome(call.apply(index), null);
+                    } catch (RuntimeException e) {
+                        return new Outcome(null, e);
+                    }
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+
+            List<Outcome> outcomes = new ArrayList<>();
+            for (Future<Outcome> future : futures) {
+                outcomes.add(future.get(30, TimeUnit.SECONDS));
+            }
+            return outcomes;
+        } catch (java.util.concurrent.TimeoutException e) {
+            throw new AssertionError("Concurrent calls did not finish", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Call {
+        PaymentResponse apply(int index);
+    }
+
+    private record Outcome(PaymentResponse response, RuntimeException error) {
+    }
+}
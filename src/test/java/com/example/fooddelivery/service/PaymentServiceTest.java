@@ -5,11 +5,14 @@ import com.example.fooddelivery.dto.request.PaymentRequest;
 import com.example.fooddelivery.dto.response.PaymentResponse;
 import com.example.fooddelivery.entity.Order;
 import com.example.fooddelivery.entity.Payment;
+import com.example.fooddelivery.entity.User;
 import com.example.fooddelivery.enums.OrderStatus;
 import com.example.fooddelivery.enums.PaymentStatus;
 import com.example.fooddelivery.enums.PaymentType;
+import com.example.fooddelivery.event.OrderStatusChangedEvent;
 import com.example.fooddelivery.exception.EntityNotFoundException;
 import com.example.fooddelivery.exception.PaymentException;
+import com.example.fooddelivery.exception.StatusException;
 import com.example.fooddelivery.repository.OrderRepository;
 import com.example.fooddelivery.repository.PaymentRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,9 +21,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -37,6 +47,9 @@ class PaymentServiceTest {
     @Mock
     private PaymentMapper paymentMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -57,6 +70,9 @@ class PaymentServiceTest {
 
         order = new Order();
         order.setId(ORDER_ID);
+        User user = new User();
+        user.setId(1L);
+        order.setUser(user);
         order.setStatus(OrderStatus.NEW);
 
         payment = new Payment();
@@ -64,14 +80,14 @@ class PaymentServiceTest {
         payment.setOrder(order);
         payment.setPaymentStatus(PaymentStatus.PENDING);
         payment.setPaymentType(PaymentType.CARD);
+        payment.setVersion(0L);
     }
 
     @Test
     void createPayment_Success() {
         when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
-        when(paymentRepository.existsByOrderId(ORDER_ID)).thenReturn(false);
         when(paymentMapper.toEntity(paymentRequest)).thenReturn(payment);
-        when(paymentRepository.save(payment)).thenReturn(payment);
+        when(paymentRepository.saveAndFlush(payment)).thenReturn(payment);
         when(paymentMapper.toDto(payment)).thenReturn(paymentResponse);
 
         PaymentResponse result = paymentService.createPayment(paymentRequest);
@@ -81,7 +97,7 @@ class PaymentServiceTest {
         assertThat(result.orderId()).isEqualTo(ORDER_ID);
         assertThat(payment.getOrder()).isEqualTo(order);
 
-        verify(paymentRepository).save(payment);
+        verify(paymentRepository).saveAndFlush(payment);
     }
 
     @Test
@@ -93,19 +109,18 @@ class PaymentServiceTest {
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Order with id 999 not found");
 
-        verify(paymentRepository, never()).save(any());
+        verify(paymentRepository, never()).saveAndFlush(any());
     }
 
     @Test
     void createPaymentWhenOrderAlreadyPaid() {
         when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
-        when(paymentRepository.existsByOrderId(ORDER_ID)).thenReturn(true);
+        when(paymentMapper.toEntity(paymentRequest)).thenReturn(payment);
+        when(paymentRepository.saveAndFlush(payment)).thenThrow(new DataIntegrityViolationException("uk_payments_order_id"));
 
         assertThatThrownBy(() -> paymentService.createPayment(paymentRequest))
                 .isInstanceOf(PaymentException.class)
                 .hasMessage("Order with is 1 already is payed");
-
-        verify(paymentRepository, never()).save(any());
     }
 
     @Test
@@ -132,33 +147,98 @@ class PaymentServiceTest {
     @Test
     void updateStatusToSucceeded_Success() {
         when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
-        when(paymentRepository.save(payment)).thenReturn(payment);
+        when(paymentRepository.updateStatus(PAYMENT_ID, PaymentStatus.SUCCEEDED, 0L)).thenReturn(1);
+        when(orderRepository.updateStatusIfIn(ORDER_ID, Set.of(OrderStatus.NEW), OrderStatus.CONFIRMED)).thenReturn(1);
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
         when(paymentMapper.toDto(payment)).thenReturn(paymentResponse);
 
         PaymentResponse result = paymentService.updateStatus(PAYMENT_ID, PaymentStatus.SUCCEEDED);
 
         assertThat(result).isNotNull();
         assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.SUCCEEDED);
-        assertThat(order.getStatus()).isEqualTo(OrderStatus.CONFIRMED);
-
-        verify(orderRepository).save(order);
-        verify(paymentRepository).save(payment);
+        verify(eventPublisher).publishEvent(any(OrderStatusChangedEvent.class));
     }
 
     @Test
     void updateStatusToFailed_Success() {
         when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
-        when(paymentRepository.save(payment)).thenReturn(payment);
+        when(paymentRepository.updateStatus(PAYMENT_ID, PaymentStatus.FAILED, 0L)).thenReturn(1);
+        when(orderRepository.updateStatusIfIn(ORDER_ID, Set.of(OrderStatus.NEW), OrderStatus.CANCELLED)).thenReturn(1);
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
         when(paymentMapper.toDto(payment)).thenReturn(paymentResponse);
 
         PaymentResponse result = paymentService.updateStatus(PAYMENT_ID, PaymentStatus.FAILED);
 
         assertThat(result).isNotNull();
         assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.FAILED);
-        assertThat(order.getStatus()).isEqualTo(OrderStatus.CANCELLED);
+        verify(eventPublisher).publishEvent(any(OrderStatusChangedEvent.class));
+    }
+
+    @Test
+    void updateStatus_WhenOrderNoLongerAwaitsPayment_LeavesOrderUnchanged() {
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+        when(paymentRepository.updateStatus(PAYMENT_ID, PaymentStatus.SUCCEEDED, 0L)).thenReturn(1);
+        when(orderRepository.updateStatusIfIn(ORDER_ID, Set.of(OrderStatus.NEW), OrderStatus.CONFIRMED)).thenReturn(0);
+        when(paymentMapper.toDto(payment)).thenReturn(paymentResponse);
+
+        paymentService.updateStatus(PAYMENT_ID, PaymentStatus.SUCCEEDED);
+
+        assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.SUCCEEDED);
+        verify(orderRepository, never()).findById(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void updateStatusWhenConcurrentUpdatesKeepWinning() {
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+        when(paymentRepository.updateStatus(PAYMENT_ID, PaymentStatus.SUCCEEDED, 0L)).thenReturn(0);
+
+        assertThatThrownBy(() -> paymentService.updateStatus(PAYMENT_ID, PaymentStatus.SUCCEEDED))
+                .isInstanceOf(StatusException.class)
+                .hasMessage("Payment with id 1 was changed concurrently, retry the request");
+
+        verify(paymentRepository, times(3)).findById(PAYMENT_ID);
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    void updateStatus_RepeatedCallbackIsIdempotent() {
+        payment.setPaymentStatus(PaymentStatus.SUCCEEDED);
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+        when(paymentMapper.toDto(payment)).thenReturn(paymentResponse);
+
+        paymentService.updateStatus(PAYMENT_ID, PaymentStatus.SUCCEEDED);
+
+        verify(paymentRepository, never()).updateStatus(any(), any(), any());
+        verifyNoInteractions(orderRepository, eventPublisher);
+    }
+
+    @Test
+    void updateStatusWhenLateFailureArrivesAfterSuccess() {
+        payment.setPaymentStatus(PaymentStatus.SUCCEEDED);
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+
+        assertThatThrownBy(() -> paymentService.updateStatus(PAYMENT_ID, PaymentStatus.FAILED))
+                .isInstanceOf(StatusException.class)
+                .hasMessage("Payment status cannot be changed from SUCCEEDED to FAILED");
 
-        verify(orderRepository).save(order);
-        verify(paymentRepository).save(payment);
+        verifyNoInteractions(orderRepository, eventPublisher);
+    }
+
+    @Test
+    void updateStatus_WhenConcurrentCallbackWins_ReevaluatesFreshState() {
+        Payment succeeded = new Payment();
+        succeeded.setId(PAYMENT_ID);
+        succeeded.setOrder(order);
+        succeeded.setPaymentStatus(PaymentStatus.SUCCEEDED);
+        succeeded.setVersion(1L);
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment), Optional.of(succeeded));
+        when(paymentRepository.updateStatus(PAYMENT_ID, PaymentStatus.FAILED, 0L)).thenReturn(0);
+
+        assertThatThrownBy(() -> paymentService.updateStatus(PAYMENT_ID, PaymentStatus.FAILED))
+                .isInstanceOf(StatusException.class);
+
+        verifyNoInteractions(orderRepository, eventPublisher);
     }
 
     @Test
@@ -169,10 +249,41 @@ class PaymentServiceTest {
                 .isInstanceOf(EntityNotFoundException.class)
                 .hasMessage("Payment with id 999 not found");
 
-        verify(paymentRepository, never()).save(any());
+        verify(paymentRepository, never()).updateStatus(any(), any(), any());
         verify(orderRepository, never()).save(any());
     }
 
+    @Test
+    void applyCallbacks_AppliesCoalescedStatusesInOrder() {
+        when(paymentRepository.findAllById(Set.of(PAYMENT_ID, NON_EXISTENT_PAYMENT_ID))).thenReturn(List.of(payment));
+        when(paymentRepository.updateStatus(PAYMENT_ID, PaymentStatus.SUCCEEDED, 0L)).thenReturn(1);
+        when(paymentRepository.updateStatus(PAYMENT_ID, PaymentStatus.REFUNDED, 1L)).thenReturn(1);
+        when(orderRepository.updateStatusIfIn(ORDER_ID, Set.of(OrderStatus.NEW), OrderStatus.CONFIRMED)).thenReturn(1);
+        when(orderRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+
+        Map<Long, Set<PaymentStatus>> callbacks = new LinkedHashMap<>();
+        callbacks.put(PAYMENT_ID, new LinkedHashSet<>(List.of(PaymentStatus.SUCCEEDED, PaymentStatus.FAILED, PaymentStatus.REFUNDED)));
+        callbacks.put(NON_EXISTENT_PAYMENT_ID, Set.of(PaymentStatus.SUCCEEDED));
+        paymentService.applyCallbacks(callbacks);
+
+        assertThat(payment.getPaymentStatus()).isEqualTo(PaymentStatus.REFUNDED);
+        verify(paymentRepository, never()).updateStatus(PAYMENT_ID, PaymentStatus.FAILED, 1L);
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void applyCallbacksWhenConcurrentUpdatesKeepWinning() {
+        when(paymentRepository.findAllById(Set.of(PAYMENT_ID))).thenReturn(List.of(payment));
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+        when(paymentRepository.updateStatus(PAYMENT_ID, PaymentStatus.SUCCEEDED, 0L)).thenReturn(0);
+
+        assertThatThrownBy(() -> paymentService.applyCallbacks(Map.of(PAYMENT_ID, Set.of(PaymentStatus.SUCCEEDED))))
+                .isInstanceOf(OptimisticLockingFailureException.class)
+                .hasMessage("Payment 1 was changed concurrently");
+
+        verify(paymentRepository, times(3)).updateStatus(PAYMENT_ID, PaymentStatus.SUCCEEDED, 0L);
+    }
+
     @Test
     void getPaymentsByOrderId_Success() {
         List<Payment> payments = List.of(payment);
@@ -0,0 +1,107 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.config.ReconciliationProperties;
+import com.example.fooddelivery.dto.response.ReconciliationMismatch;
+import com.example.fooddelivery.dto.response.ReconciliationResponse;
+import com.example.fooddelivery.enums.PaymentStatus;
+import com.example.fooddelivery.enums.ReconciliationMismatchType;
+import com.example.fooddelivery.repository.PaymentRepository;
+import com.example.fooddelivery.repository.projection.PaymentReconciliationView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReconciliationServiceTest {
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private ReconciliationService reconciliationService;
+
+    @BeforeEach
+    void setUp() {
+        reconciliationService = new ReconciliationService(paymentRepository, new SettlementFileReader(),
+                new ReconciliationProperties(2));
+    }
+
+    @Test
+    void reconcile_ReportsEveryKindOfMismatch() {
+        when(paymentRepository.streamForReconciliation()).thenReturn(Stream.of(
+                payment(1, PaymentStatus.SUCCEEDED, "599.00"),
+                payment(2, PaymentStatus.SUCCEEDED, "100.00"),
+                payment(3, PaymentStatus.PENDING, "250.00"),
+                payment(4, PaymentStatus.FAILED, "300.00"),
+                payment(6, PaymentStatus.REFUNDED, "700.00")));
+        String csv = "paymentId,amount,status\n" +
+                "1,599.00,SUCCEEDED\n" +
+                "2,99.00,SUCCEEDED\n" +
+                "5,400.00,SUCCEEDED\n" +
+                "6,700.00,SUCCEEDED\n";
+
+        ReconciliationResponse result = reconciliationService.reconcile(stream(csv));
+
+        assertThat(result.providerRows()).isEqualTo(4);
+        assertThat(result.systemRows()).isEqualTo(5);
+        assertThat(result.matched()).isEqualTo(2);
+        assertThat(result.amountMismatches()).isEqualTo(1);
+        assertThat(result.missingInProvider()).isEqualTo(1);
+        assertThat(result.missingInSystem()).isEqualTo(1);
+        assertThat(result.statusMismatches()).isEqualTo(1);
+        assertThat(result.mismatches()).containsExactly(
+                new ReconciliationMismatch(2L, ReconciliationMismatchType.AMOUNT_DIFFERS, new BigDecimal("100.00"),
+                        new BigDecimal("99.00"), PaymentStatus.SUCCEEDED, PaymentStatus.SUCCEEDED),
+                new ReconciliationMismatch(4L, ReconciliationMismatchType.MISSING_IN_PROVIDER, new BigDecimal("300.00"),
+                        null, PaymentStatus.FAILED, null));
+    }
+
+    @Test
+    void reconcile_StreamsLargeFilesInOnePass() {
+        int rows = 200_000;
+        when(paymentRepository.streamForReconciliation()).thenReturn(LongStream.rangeClosed(1, rows)
+                .mapToObj(id -> payment(id, PaymentStatus.SUCCEEDED, "10.00")));
+        StringBuilder csv = new StringBuilder("paymentId,amount,status\n");
+        for (int id = 1; id <= rows; id++) {
+            csv.append(id).append(",10.00,SUCCEEDED\n");
+        }
+
+        ReconciliationResponse result = reconciliationService.reconcile(stream(csv.toString()));
+
+        assertThat(result.matched()).isEqualTo(rows);
+        assertThat(result.mismatches()).isEmpty();
+    }
+
+    private PaymentReconciliationView payment(long id, PaymentStatus status, String amount) {
+        return new PaymentReconciliationView() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public PaymentStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public BigDecimal getAmount() {
+                return new BigDecimal(amount);
+            }
+        };
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,12 +1,19 @@
 package com.example.fooddelivery.service;
 
+import com.example.fooddelivery.cache.OpenHoursIndex;
 import com.example.fooddelivery.dto.AddressDto;
 import com.example.fooddelivery.dto.mapper.RestaurantMapper;
+import com.example.fooddelivery.dto.request.OpeningHoursRequest;
 import com.example.fooddelivery.dto.request.RestaurantRequest;
+import com.example.fooddelivery.dto.request.ScheduleRequest;
 import com.example.fooddelivery.dto.response.RestaurantResponse;
+import com.example.fooddelivery.dto.response.ScheduleResponse;
 import com.example.fooddelivery.entity.Address;
+import com.example.fooddelivery.entity.OpeningHours;
 import com.example.fooddelivery.entity.Restaurant;
 import com.example.fooddelivery.enums.CuisineType;
+import com.example.fooddelivery.event.RestaurantChangedEvent;
+import com.example.fooddelivery.exception.BusinessException;
 import com.example.fooddelivery.exception.EntityNotFoundException;
 import com.example.fooddelivery.repository.RestaurantRepository;
 import com.example.fooddelivery.repository.ReviewRepository;
@@ -16,11 +23,15 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
+import java.time.DayOfWeek;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -37,6 +48,12 @@ class RestaurantServiceTest {
     @Mock
     private ReviewRepository reviewRepository;
 
+    @Mock
+    private OpenHoursIndex openHoursIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private RestaurantService restaurantService;
 
@@ -55,9 +72,9 @@ class RestaurantServiceTest {
 
     @BeforeEach
     void setUp() {
-        restaurantRequest = new RestaurantRequest("PizzaMania", ADDRESS, CuisineType.PIZZA, OPEN_TIME, CLOSE_TIME);
+        restaurantRequest = new RestaurantRequest("PizzaMania", ADDRESS, CuisineType.PIZZA, OPEN_TIME, CLOSE_TIME, null);
 
-        restaurantResponse = new RestaurantResponse(RESTAURANT_ID, "PizzaMania", ADDRESS, CuisineType.PIZZA, RATING, OPEN_TIME, CLOSE_TIME, true);
+        restaurantResponse = new RestaurantResponse(RESTAURANT_ID, "PizzaMania", ADDRESS, CuisineType.PIZZA, RATING, OPEN_TIME, CLOSE_TIME, true, null);
 
         restaurant = new Restaurant();
         restaurant.setId(RESTAURANT_ID);
@@ -127,7 +144,7 @@ class RestaurantServiceTest {
         when(reviewRepository.calculateAverageRatingByRestaurantId(RESTAURANT_ID)).thenReturn(rating1);
         when(restaurantMapper.toDto(restaurant)).thenReturn(restaurantResponse);
 
-        List<RestaurantResponse> result = restaurantService.getRestaurants(cuisine, null);
+        List<RestaurantResponse> result = restaurantService.getRestaurants(cuisine, null, false);
 
         assertThat(result).hasSize(1);
         assertThat(result.get(0).cuisineType()).isEqualTo(CuisineType.PIZZA);
@@ -143,7 +160,7 @@ class RestaurantServiceTest {
         when(reviewRepository.calculateAverageRatingByRestaurantId(RESTAURANT_ID)).thenReturn(RATING);
         when(restaurantMapper.toDto(restaurant)).thenReturn(restaurantResponse);
 
-        List<RestaurantResponse> result = restaurantService.getRestaurants(null, minRating);
+        List<RestaurantResponse> result = restaurantService.getRestaurants(null, minRating, false);
 
         assertThat(result).hasSize(1);
     }
@@ -154,7 +171,7 @@ class RestaurantServiceTest {
         when(reviewRepository.calculateAverageRatingByRestaurantId(RESTAURANT_ID)).thenReturn(RATING);
         when(restaurantMapper.toDto(restaurant)).thenReturn(restaurantResponse);
 
-        List<RestaurantResponse> result = restaurantService.getRestaurants(null, null);
+        List<RestaurantResponse> result = restaurantService.getRestaurants(null, null, false);
 
         assertThat(result).hasSize(1);
 
@@ -163,14 +180,14 @@ class RestaurantServiceTest {
 
     @Test
     void updateRestaurant_Success() {
-        RestaurantRequest updateRequest = new RestaurantRequest("PizzaMania New", ADDRESS, CuisineType.ITALIAN, LocalTime.of(9, 0), LocalTime.of(23, 0));
+        RestaurantRequest updateRequest = new RestaurantRequest("PizzaMania New", ADDRESS, CuisineType.ITALIAN, LocalTime.of(9, 0), LocalTime.of(23, 0), null);
 
         Restaurant updatedRestaurant = new Restaurant();
         updatedRestaurant.setId(RESTAURANT_ID);
         updatedRestaurant.setName("PizzaMania New");
 
         RestaurantResponse updatedResponse = new RestaurantResponse(RESTAURANT_ID, "PizzaMania New", ADDRESS, CuisineType.ITALIAN, RATING,
-                LocalTime.of(9, 0), LocalTime.of(23, 0), true);
+                LocalTime.of(9, 0), LocalTime.of(23, 0), true, null);
 
         when(restaurantRepository.findById(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
         when(restaurantRepository.save(restaurant)).thenReturn(updatedRestaurant);
@@ -218,4 +235,78 @@ class RestaurantServiceTest {
 
         verify(restaurantRepository, never()).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getRestaurantsOpenNow() {
+        Restaurant closed = new Restaurant();
+        closed.setId(2L);
+
+        when(restaurantRepository.findByCuisineAndRating(null, null)).thenReturn(List.of(restaurant, closed));
+        when(openHoursIndex.getOpenNow()).thenReturn(Set.of(RESTAURANT_ID));
+        when(reviewRepository.calculateAverageRatingByRestaurantId(RESTAURANT_ID)).thenReturn(RATING);
+        when(restaurantMapper.toDto(restaurant)).thenReturn(restaurantResponse);
+
+        List<RestaurantResponse> result = restaurantService.getRestaurants(null, null, true);
+
+        assertThat(result).containsExactly(restaurantResponse);
+
+        verify(reviewRepository, never()).calculateAverageRatingByRestaurantId(2L);
+    }
+
+    @Test
+    void updateSchedule_MergesDaysByDayOfWeek() {
+        OpeningHours monday = new OpeningHours(restaurant, DayOfWeek.MONDAY, OPEN_TIME, CLOSE_TIME);
+        OpeningHours sunday = new OpeningHours(restaurant, DayOfWeek.SUNDAY, OPEN_TIME, CLOSE_TIME);
+        restaurant.setOpeningHours(new ArrayList<>(List.of(monday, sunday)));
+        ScheduleRequest request = new ScheduleRequest("Europe/Kaliningrad", List.of(
+                new OpeningHoursRequest(DayOfWeek.MONDAY, OPEN_TIME, LocalTime.of(23, 0)),
+                new OpeningHoursRequest(DayOfWeek.FRIDAY, LocalTime.of(18, 0), LocalTime.of(2, 0))));
+
+        when(restaurantRepository.findWithOpeningHoursById(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+        when(restaurantRepository.save(restaurant)).thenReturn(restaurant);
+
+        ScheduleResponse result = restaurantService.updateSchedule(RESTAURANT_ID, request);
+
+        assertThat(result.timeZone()).isEqualTo("Europe/Kaliningrad");
+        assertThat(restaurant.getOpeningHours()).hasSize(2);
+        assertThat(restaurant.getOpeningHours()).contains(monday);
+        assertThat(monday.getClosingTime()).isEqualTo(LocalTime.of(23, 0));
+
+        verify(eventPublisher).publishEvent(new RestaurantChangedEvent(RESTAURANT_ID));
+    }
+
+    @Test
+    void updateScheduleWithUnknownTimeZone() {
+        ScheduleRequest request = new ScheduleRequest("Mars/Olympus", List.of());
+
+        when(restaurantRepository.findWithOpeningHoursById(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+
+        assertThatThrownBy(() -> restaurantService.updateSchedule(RESTAURANT_ID, request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Unknown time zone Mars/Olympus");
+
+        verify(restaurantRepository, never()).save(any());
+    }
+
+    @Test
+    void updateScheduleWithDuplicateDays() {
+        ScheduleRequest request = new ScheduleRequest(null, List.of(
+                new OpeningHoursRequest(DayOfWeek.MONDAY, OPEN_TIME, CLOSE_TIME),
+                new OpeningHoursRequest(DayOfWeek.MONDAY, OPEN_TIME, CLOSE_TIME)));
+
+        when(restaurantRepository.findWithOpeningHoursById(RESTAURANT_ID)).thenReturn(Optional.of(restaurant));
+
+        assertThatThrownBy(() -> restaurantService.updateSchedule(RESTAURANT_ID, request))
+                .isInstanceOf(BusinessException.class)
+                .hasMessage("Schedule contains MONDAY more than once");
+    }
+
+    @Test
+    void getScheduleWhenRestaurantNotFound() {
+        when(restaurantRepository.findWithOpeningHoursById(NON_EXISTENT_RESTAURANT_ID)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> restaurantService.getSchedule(NON_EXISTENT_RESTAURANT_ID))
+                .isInstanceOf(EntityNotFoundException.class)
+                .hasMessage("Restaurant with id 999 not found");
+    }
+}
@@ -6,6 +6,7 @@ import com.example.fooddelivery.dto.response.ReviewResponse;
 import com.example.fooddelivery.entity.*;
 import com.example.fooddelivery.enums.OrderStatus;
 import com.example.fooddelivery.enums.ReviewStatus;
+import com.example.fooddelivery.event.RestaurantChangedEvent;
 import com.example.fooddelivery.exception.EntityNotFoundException;
 import com.example.fooddelivery.exception.ReviewException;
 import com.example.fooddelivery.repository.OrderRepository;
@@ -16,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -41,6 +43,9 @@ class ReviewServiceTest {
     @Mock
     private SpamService spamService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ReviewService reviewService;
 
@@ -210,6 +215,7 @@ class ReviewServiceTest {
         reviewService.deleteReview(REVIEW_ID, USER_ID);
 
         verify(reviewRepository).delete(review);
+        verify(eventPublisher).publishEvent(new RestaurantChangedEvent(RESTAURANT_ID));
     }
 
     @Test
@@ -274,13 +280,10 @@ class ReviewServiceTest {
         Restaurant restaurant = new Restaurant();
         restaurant.setId(restaurantId);
 
-        Cart cart = new Cart();
-        cart.setRestaurant(restaurant);
-
         Order order = new Order();
         order.setId(ORDER_ID);
         order.setUser(user);
-        order.setCart(cart);
+        order.setRestaurant(restaurant);
         order.setStatus(status);
 
         return order;
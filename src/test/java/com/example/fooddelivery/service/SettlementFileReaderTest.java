@@ -0,0 +1,81 @@
+package com.example.fooddelivery.service;
+
+import com.example.fooddelivery.enums.PaymentStatus;
+import com.example.fooddelivery.exception.ImportException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SettlementFileReaderTest {
+    private final SettlementFileReader reader = new SettlementFileReader();
+
+    @Test
+    void read_ParsesAmountsIntoMinorUnits() {
+        String csv = "paymentId,amount,status\n" +
+                "1,599.00,SUCCEEDED\n" +
+                "\n" +
+                "2,12.5,refunded\n" +
+                "5,-300,REFUNDED\n";
+
+        List<SettlementRow> rows = toList(reader.read(stream(csv)));
+
+        assertThat(rows).containsExactly(
+                new SettlementRow(1, 59900, PaymentStatus.SUCCEEDED),
+                new SettlementRow(2, 1250, PaymentStatus.REFUNDED),
+                new SettlementRow(5, -30000, PaymentStatus.REFUNDED));
+    }
+
+    @Test
+    void readWhenHeaderMissing() {
+        assertThatThrownBy(() -> reader.read(stream("1,599.00,SUCCEEDED\n")))
+                .isInstanceOf(ImportException.class)
+                .hasMessage("Settlement file must start with header: paymentId,amount,status");
+    }
+
+    @Test
+    void readWhenRowsAreNotSorted() {
+        Iterator<SettlementRow> rows = reader.read(stream("paymentId,amount,status\n2,1.00,SUCCEEDED\n1,1.00,SUCCEEDED\n"));
+
+        assertThatThrownBy(() -> toList(rows))
+                .isInstanceOf(ImportException.class)
+                .hasMessageStartingWith("Settlement file must be sorted by paymentId, row 3");
+    }
+
+    @Test
+    void readWhenAmountMalformed() {
+        assertThatThrownBy(() -> toList(reader.read(stream("paymentId,amount,status\n1,5.999,SUCCEEDED\n"))))
+                .isInstanceOf(ImportException.class)
+                .hasMessage("Invalid amount in settlement row: 1,5.999,SUCCEEDED");
+    }
+
+    @Test
+    void readWhenStatusUnknown() {
+        assertThatThrownBy(() -> toList(reader.read(stream("paymentId,amount,status\n1,5.00,CHARGEBACK\n"))))
+                .isInstanceOf(ImportException.class)
+                .hasMessage("Invalid status in settlement row: 1,5.00,CHARGEBACK");
+    }
+
+    @Test
+    void readWhenAmountHasNoDigits() {
+        assertThatThrownBy(() -> toList(reader.read(stream("paymentId,amount,status\n1,-.,SUCCEEDED\n"))))
+                .isInstanceOf(ImportException.class)
+                .hasMessage("Invalid amount in settlement row: 1,-.,SUCCEEDED");
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private <T> List<T> toList(Iterator<T> iterator) {
+        List<T> result = new ArrayList<>();
+        iterator.forEachRemaining(result::add);
+        return result;
+    }
+}